@@ -17,8 +17,11 @@
  */
 package uk.ac.manchester.tornado.annotation;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,7 +61,11 @@ public class ASMClassVisitor extends ClassVisitor implements ASMClassVisitorProv
     @Override
     public ParallelAnnotationProvider[] getParallelAnnotations(ResolvedJavaMethod method) {
         String methodClassFile = method.getDeclaringClass().getName().replaceFirst("L", "").replaceFirst(";", ".class");
-        InputStream inputStream = ClassLoader.getSystemClassLoader().getResourceAsStream(methodClassFile);
+        byte[] generatedClassFile = ASMTupleReduction.getClassFile(methodClassFile);
+        if (generatedClassFile == null) {
+            generatedClassFile = ASMTaskFusion.getClassFile(methodClassFile);
+        }
+        InputStream inputStream = (generatedClassFile != null) ? new ByteArrayInputStream(generatedClassFile) : ClassLoader.getSystemClassLoader().getResourceAsStream(methodClassFile);
         try {
             ClassReader classReader = new ClassReader(inputStream);
             ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
@@ -72,4 +79,29 @@ public class ASMClassVisitor extends ClassVisitor implements ASMClassVisitorProv
             throw new TornadoRuntimeException("[ERROR] Class reader could not be instantiated for class file: " + methodClassFile);
         }
     }
+
+    @Override
+    public MethodHandle getHostParallelVersion(Method method) {
+        return ASMParallelLoopSplitter.split(method);
+    }
+
+    @Override
+    public boolean callsKernelContextBarriers(Method method) {
+        return ASMParallelLoopSplitter.callsBarriers(method);
+    }
+
+    @Override
+    public TupleReductionTasks getTupleReduction(Method combiner, Class<?>[] componentTypes) {
+        return ASMTupleReduction.build(combiner, componentTypes);
+    }
+
+    @Override
+    public Object getTaskFunction(Method method) {
+        return ASMTaskFunction.create(method);
+    }
+
+    @Override
+    public Method getFusedTask(String name, Class<?>[] parameterTypes, Method producer, int[] producerArguments, Method consumer, int[] consumerArguments, int[] forwardedParameters) {
+        return ASMTaskFusion.fuse(name, parameterTypes, producer, producerArguments, consumer, consumerArguments, forwardedParameters);
+    }
 }
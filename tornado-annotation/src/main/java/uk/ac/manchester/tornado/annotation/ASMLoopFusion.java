@@ -0,0 +1,922 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.annotation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
+import org.objectweb.asm.TypeReference;
+
+/**
+ * Merges the parallel loops of a producer task and a consumer task into a
+ * single loop. Each iteration runs the body of the producer and then the body
+ * of the consumer:
+ *
+ * <p>
+ * <code>
+ * producer code before the loop...
+ * consumer code before the loop...
+ * for (@Parallel int i = init; i &lt; bound; i += step) {
+ *     producer body...
+ *     j = i;
+ *     consumer body...
+ * }
+ * </code>
+ * </p>
+ *
+ * <p>
+ * The arrays given as forwarded parameters are intermediate results: the
+ * element that the producer stores in each iteration is kept in a local
+ * variable, and the consumer reads that variable instead of the array, so the
+ * value does not go through global memory. A parameter is forwarded only if
+ * the producer stores it once, in code of the body that runs in every
+ * iteration, and never reads it, and the consumer only reads it in its body.
+ * Any other use, except the size of the array, keeps the accesses to memory.
+ * </p>
+ *
+ * <p>
+ * Only one-dimensional loops in the shape that javac generates for
+ * {@code for (@Parallel int i = init; i < bound; i += step)} (or
+ * {@code i <= bound}) are merged. The code of the consumer before its loop
+ * must not read memory, as it runs before the loop of the producer. Methods
+ * with exception handlers, with jumps or returns out of the loop, with code
+ * after the loop, that assign their parameters, or that access members that
+ * are not accessible from the package of the producer are not merged.
+ * </p>
+ */
+final class ASMLoopFusion {
+
+    private static final String API_TYPES = "uk/ac/manchester/tornado/api/types/";
+    private static final String NATIVE_ARRAYS = "uk/ac/manchester/tornado/api/types/arrays/";
+
+    private static final int SIZE = 0;
+    private static final int LOAD = 1;
+    private static final int STORE = 2;
+
+    private ASMLoopFusion() {
+    }
+
+    /**
+     * Thrown while reading a task if its loop does not have the expected shape.
+     */
+    private static class UnsupportedLoopException extends RuntimeException {
+        UnsupportedLoopException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Maps the local variables and the labels of a task to the ones of the fused
+     * method.
+     */
+    private interface Mapping {
+        int slot(int slot);
+
+        Label label(Label label);
+    }
+
+    private interface Insn {
+        void accept(MethodVisitor visitor, Mapping mapping);
+    }
+
+    private record LabelInsn(Label label) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitLabel(mapping.label(label));
+        }
+    }
+
+    private record BasicInsn(int opcode, int operand) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            if (opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH || opcode == Opcodes.NEWARRAY) {
+                visitor.visitIntInsn(opcode, operand);
+            } else {
+                visitor.visitInsn(opcode);
+            }
+        }
+    }
+
+    private record VarInsn(int opcode, int slot) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitVarInsn(opcode, mapping.slot(slot));
+        }
+    }
+
+    /**
+     * Access to a local variable of the fused method, which is not mapped.
+     */
+    private record LocalInsn(int opcode, int slot) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitVarInsn(opcode, slot);
+        }
+    }
+
+    private record IincInsn(int slot, int increment) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitIincInsn(mapping.slot(slot), increment);
+        }
+    }
+
+    private record JumpInsn(int opcode, Label label) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitJumpInsn(opcode, mapping.label(label));
+        }
+    }
+
+    private record SwitchInsn(int min, int max, int[] keys, Label defaultLabel, Label[] labels) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            Label[] targets = new Label[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                targets[i] = mapping.label(labels[i]);
+            }
+            if (keys == null) {
+                visitor.visitTableSwitchInsn(min, max, mapping.label(defaultLabel), targets);
+            } else {
+                visitor.visitLookupSwitchInsn(mapping.label(defaultLabel), keys, targets);
+            }
+        }
+    }
+
+    private record TypeInsn(int opcode, String type, int dimensions) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            if (opcode == Opcodes.MULTIANEWARRAY) {
+                visitor.visitMultiANewArrayInsn(type, dimensions);
+            } else {
+                visitor.visitTypeInsn(opcode, type);
+            }
+        }
+    }
+
+    private record FieldInsn(int opcode, String owner, String name, String descriptor) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitFieldInsn(opcode, owner, name, descriptor);
+        }
+    }
+
+    private record MethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+    }
+
+    private record LdcInsn(Object value) implements Insn {
+        @Override
+        public void accept(MethodVisitor visitor, Mapping mapping) {
+            visitor.visitLdcInsn(value);
+        }
+    }
+
+    /**
+     * Code of a task and the position of its parallel loop:
+     * {@code [0, condition)} is the code before the loop,
+     * {@code [condition, body)} evaluates the condition of the loop,
+     * {@code [body, bodyEnd)} is the body of the loop and
+     * {@code [exit, code.size())} is the code after the loop.
+     */
+    private record TaskLoop(List<Insn> code, Set<Label> targets, Set<Label> continueLabels, int parametersSize, int maxLocals, int variable, int step, int conditionOpcode, int condition,
+            int body, int bodyEnd, int exit) {
+
+        private Label conditionLabel() {
+            return ((LabelInsn) code.get(condition)).label();
+        }
+
+        private Label exitLabel() {
+            return ((LabelInsn) code.get(exit)).label();
+        }
+
+        /**
+         * @return true if the instruction runs in every iteration of the loop.
+         */
+        private boolean runsEveryIteration(int index) {
+            if (index < body || index >= bodyEnd) {
+                return false;
+            }
+            for (int i = body; i < index; i++) {
+                if (isBranch(code.get(i)) || (code.get(i) instanceof LabelInsn labelInsn && targets.contains(labelInsn.label()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class TaskMapping implements Mapping {
+        private final int[] parameterSlots;
+        private final int parametersSize;
+        private final int firstLocal;
+        private final Set<Label> continueLabels;
+        private final Label continueTarget;
+
+        private TaskMapping(Method task, int[] arguments, int[] fusedSlots, int firstLocal, TaskLoop loop, Label continueTarget) {
+            this.parametersSize = loop.parametersSize();
+            this.parameterSlots = new int[parametersSize];
+            int slot = 0;
+            Class<?>[] parameterTypes = task.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                parameterSlots[slot] = fusedSlots[arguments[i]];
+                slot += Type.getType(parameterTypes[i]).getSize();
+            }
+            this.firstLocal = firstLocal;
+            this.continueLabels = loop.continueLabels();
+            this.continueTarget = continueTarget;
+        }
+
+        @Override
+        public int slot(int slot) {
+            return slot < parametersSize ? parameterSlots[slot] : firstLocal + slot - parametersSize;
+        }
+
+        @Override
+        public Label label(Label label) {
+            return continueLabels.contains(label) ? continueTarget : label;
+        }
+    }
+
+    /**
+     * Records the code of the method of a task.
+     */
+    private static final class TaskReader extends ClassVisitor {
+        private final String methodName;
+        private final String descriptor;
+        private final List<Insn> code = new ArrayList<>();
+        private Label parallelStart;
+        private int parallelVariable;
+        private int numParallelLoops;
+        private int maxLocals;
+        private boolean unsupported;
+        private boolean found;
+
+        TaskReader(String methodName, String descriptor) {
+            super(Opcodes.ASM9);
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String methodDescriptor, String signature, String[] exceptions) {
+            if (!name.equals(methodName) || !methodDescriptor.equals(descriptor)) {
+                return null;
+            }
+            found = true;
+            return new MethodVisitor(api) {
+                @Override
+                public void visitLabel(Label label) {
+                    code.add(new LabelInsn(label));
+                }
+
+                @Override
+                public void visitInsn(int opcode) {
+                    code.add(new BasicInsn(opcode, 0));
+                }
+
+                @Override
+                public void visitIntInsn(int opcode, int operand) {
+                    code.add(new BasicInsn(opcode, operand));
+                }
+
+                @Override
+                public void visitVarInsn(int opcode, int varIndex) {
+                    code.add(new VarInsn(opcode, varIndex));
+                }
+
+                @Override
+                public void visitIincInsn(int varIndex, int increment) {
+                    code.add(new IincInsn(varIndex, increment));
+                }
+
+                @Override
+                public void visitJumpInsn(int opcode, Label label) {
+                    code.add(new JumpInsn(opcode, label));
+                }
+
+                @Override
+                public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+                    code.add(new SwitchInsn(min, max, null, dflt, labels));
+                }
+
+                @Override
+                public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+                    code.add(new SwitchInsn(0, 0, keys, dflt, labels));
+                }
+
+                @Override
+                public void visitTypeInsn(int opcode, String type) {
+                    code.add(new TypeInsn(opcode, type, 0));
+                }
+
+                @Override
+                public void visitMultiANewArrayInsn(String type, int numDimensions) {
+                    code.add(new TypeInsn(Opcodes.MULTIANEWARRAY, type, numDimensions));
+                }
+
+                @Override
+                public void visitFieldInsn(int opcode, String owner, String name, String fieldDescriptor) {
+                    code.add(new FieldInsn(opcode, owner, name, fieldDescriptor));
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String name, String calleeDescriptor, boolean isInterface) {
+                    code.add(new MethodInsn(opcode, owner, name, calleeDescriptor, isInterface));
+                }
+
+                @Override
+                public void visitLdcInsn(Object value) {
+                    unsupported |= !(value instanceof Number || value instanceof String || value instanceof Type type && type.getSort() != Type.METHOD);
+                    code.add(new LdcInsn(value));
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String name, String indyDescriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+                    unsupported = true;
+                }
+
+                @Override
+                public void visitTryCatchBlock(Label start, Label end, Label handler, String type) {
+                    unsupported = true;
+                }
+
+                @Override
+                public AnnotationVisitor visitLocalVariableAnnotation(int typeRef, TypePath typePath, Label[] start, Label[] end, int[] index, String annotationDescriptor, boolean visible) {
+                    String annotationName = Type.getType(annotationDescriptor).getClassName();
+                    if (annotationName.equals(ASMMethodVisitor.parallelAnnotationClassPath)) {
+                        numParallelLoops++;
+                        unsupported |= start.length != 1;
+                        parallelStart = start[0];
+                        parallelVariable = index[0];
+                    }
+                    return null;
+                }
+
+                @Override
+                public void visitMaxs(int maxStack, int methodMaxLocals) {
+                    maxLocals = methodMaxLocals;
+                }
+            };
+        }
+    }
+
+    private static InputStream readClassFile(Class<?> klass) throws IOException {
+        byte[] fusedClassFile = ASMTaskFusion.getClassFile(Type.getInternalName(klass) + ".class");
+        if (fusedClassFile != null) {
+            return new ByteArrayInputStream(fusedClassFile);
+        }
+        String className = klass.getName();
+        InputStream inputStream = klass.getResourceAsStream(className.substring(className.lastIndexOf('.') + 1) + ".class");
+        if (inputStream == null) {
+            throw new IOException("Class file not found: " + className);
+        }
+        return inputStream;
+    }
+
+    private static boolean isBranch(Insn insn) {
+        return insn instanceof JumpInsn || insn instanceof SwitchInsn;
+    }
+
+    private static List<Label> getTargets(Insn insn) {
+        List<Label> targets = new ArrayList<>();
+        if (insn instanceof JumpInsn jump) {
+            targets.add(jump.label());
+        } else if (insn instanceof SwitchInsn switchInsn) {
+            targets.add(switchInsn.defaultLabel());
+            targets.addAll(List.of(switchInsn.labels()));
+        }
+        return targets;
+    }
+
+    private static boolean isExit(Insn insn) {
+        return insn instanceof BasicInsn basic && ((basic.opcode() >= Opcodes.IRETURN && basic.opcode() <= Opcodes.RETURN) || basic.opcode() == Opcodes.ATHROW);
+    }
+
+    private static int indexOf(List<Insn> code, Label label) {
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i) instanceof LabelInsn labelInsn && labelInsn.label() == label) {
+                return i;
+            }
+        }
+        throw new UnsupportedLoopException("Label not found");
+    }
+
+    /**
+     * Checks that the jumps of the range only target labels of the range.
+     */
+    private static void checkJumps(List<Insn> code, int from, int to, Set<Label> allowedLabels) {
+        for (int i = from; i < to; i++) {
+            if (isExit(code.get(i))) {
+                throw new UnsupportedLoopException("Return out of the loop");
+            }
+            for (Label target : getTargets(code.get(i))) {
+                int index = indexOf(code, target);
+                if ((index < from || index >= to) && !allowedLabels.contains(target)) {
+                    throw new UnsupportedLoopException("Jump out of the loop");
+                }
+            }
+        }
+    }
+
+    private static TaskLoop readLoop(Method task) throws IOException {
+        TaskReader reader = new TaskReader(task.getName(), Type.getMethodDescriptor(task));
+        try (InputStream inputStream = readClassFile(task.getDeclaringClass())) {
+            new ClassReader(inputStream).accept(reader, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        }
+        if (!reader.found || reader.unsupported || reader.numParallelLoops != 1) {
+            throw new UnsupportedLoopException("The task does not have a single parallel loop");
+        }
+        List<Insn> code = reader.code;
+        Set<Label> targets = new HashSet<>();
+        for (Insn insn : code) {
+            targets.addAll(getTargets(insn));
+        }
+        final int variable = reader.parallelVariable;
+
+        // condition: iload variable; bound...; if_icmpge exit
+        final int condition = indexOf(code, reader.parallelStart);
+        int load = condition + 1;
+        while (load < code.size() && code.get(load) instanceof LabelInsn labelInsn && !targets.contains(labelInsn.label())) {
+            load++;
+        }
+        if (load >= code.size() || !(code.get(load) instanceof VarInsn varInsn && varInsn.opcode() == Opcodes.ILOAD && varInsn.slot() == variable)) {
+            throw new UnsupportedLoopException("Unexpected condition of the loop");
+        }
+        int jump = load + 1;
+        while (jump < code.size() && !isBranch(code.get(jump))) {
+            if (code.get(jump) instanceof LabelInsn labelInsn && targets.contains(labelInsn.label())) {
+                throw new UnsupportedLoopException("Unexpected condition of the loop");
+            }
+            jump++;
+        }
+        if (jump >= code.size() || !(code.get(jump) instanceof JumpInsn exitJump && (exitJump.opcode() == Opcodes.IF_ICMPGE || exitJump.opcode() == Opcodes.IF_ICMPGT))) {
+            throw new UnsupportedLoopException("Unexpected condition of the loop");
+        }
+        final int conditionOpcode = exitJump.opcode();
+
+        // back-edge: iinc variable step; goto condition; exit:
+        final int exit = indexOf(code, exitJump.label());
+        if (exit < jump + 3 || !(code.get(exit - 1) instanceof JumpInsn backEdge && backEdge.opcode() == Opcodes.GOTO && backEdge.label() == reader.parallelStart)
+                || !(code.get(exit - 2) instanceof IincInsn increment && increment.slot() == variable && increment.increment() > 0)) {
+            throw new UnsupportedLoopException("Unexpected back-edge of the loop");
+        }
+        int bodyEnd = exit - 2;
+        Set<Label> continueLabels = new HashSet<>();
+        while (code.get(bodyEnd - 1) instanceof LabelInsn labelInsn) {
+            continueLabels.add(labelInsn.label());
+            bodyEnd--;
+        }
+        if (bodyEnd <= jump) {
+            throw new UnsupportedLoopException("Empty loop");
+        }
+
+        checkJumps(code, 0, condition, Set.of());
+        checkJumps(code, jump + 1, bodyEnd, continueLabels);
+        for (int i = exit; i < code.size(); i++) {
+            if (!(code.get(i) instanceof LabelInsn) && !(code.get(i) instanceof BasicInsn basic && basic.opcode() == Opcodes.RETURN)) {
+                throw new UnsupportedLoopException("Code after the loop");
+            }
+        }
+
+        // The parameters may be shared by both tasks, and the loop only advances in the back-edge
+        final int parametersSize = (Type.getArgumentsAndReturnSizes(Type.getMethodDescriptor(task)) >> 2) - 1;
+        for (int i = 0; i < code.size(); i++) {
+            int slot = (code.get(i) instanceof VarInsn store && store.opcode() >= Opcodes.ISTORE) ? store.slot() : (code.get(i) instanceof IincInsn iinc ? iinc.slot() : -1);
+            if (slot >= 0 && (slot < parametersSize || (slot == variable && i > condition && i != exit - 2))) {
+                throw new UnsupportedLoopException("Assignment of a parameter or of the induction variable");
+            }
+        }
+        return new TaskLoop(code, targets, continueLabels, parametersSize, reader.maxLocals, variable, increment.increment(), conditionOpcode, condition, jump + 1, bodyEnd, exit);
+    }
+
+    /**
+     * @return true if the code of the range does not read memory, write memory
+     *     or branch, apart from the size of arrays.
+     */
+    private static boolean isPure(TaskLoop loop, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Insn insn = loop.code().get(i);
+            boolean pure;
+            if (insn instanceof LabelInsn labelInsn) {
+                pure = !loop.targets().contains(labelInsn.label());
+            } else if (insn instanceof BasicInsn basic) {
+                int opcode = basic.opcode();
+                pure = (opcode >= Opcodes.ACONST_NULL && opcode <= Opcodes.SIPUSH) || (opcode >= Opcodes.IADD && opcode <= Opcodes.DCMPG) || opcode == Opcodes.ARRAYLENGTH;
+            } else if (insn instanceof MethodInsn method) {
+                pure = method.opcode() == Opcodes.INVOKEVIRTUAL && method.owner().startsWith(API_TYPES) && method.name().equals("getSize") && method.descriptor().equals("()I");
+            } else {
+                pure = insn instanceof VarInsn || insn instanceof IincInsn || insn instanceof LdcInsn;
+            }
+            if (!pure) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> loadClass(Type type, ClassLoader classLoader) throws ClassNotFoundException {
+        Type elementType = type.getSort() == Type.ARRAY ? type.getElementType() : type;
+        return elementType.getSort() == Type.OBJECT ? Class.forName(elementType.getClassName(), false, classLoader) : int.class;
+    }
+
+    private static boolean isAccessible(int modifiers, Class<?> declaringClass, Class<?> hostClass) {
+        if (Modifier.isPrivate(modifiers)) {
+            return false;
+        }
+        return Modifier.isPublic(modifiers) || ASMTaskFusion.isSamePackage(declaringClass, hostClass);
+    }
+
+    private static boolean isAccessibleMember(String owner, String name, String descriptor, boolean isField, Class<?> hostClass) throws ClassNotFoundException {
+        if (owner.startsWith("[")) {
+            return false;
+        }
+        Class<?> ownerClass = loadClass(Type.getObjectType(owner), hostClass.getClassLoader());
+        if (!ASMTaskFusion.isAccessible(ownerClass, hostClass)) {
+            return false;
+        }
+        for (Class<?> klass = ownerClass; klass != null; klass = klass.getSuperclass()) {
+            if (isField) {
+                for (Field field : klass.getDeclaredFields()) {
+                    if (field.getName().equals(name) && Type.getDescriptor(field.getType()).equals(descriptor)) {
+                        return isAccessible(field.getModifiers(), klass, hostClass);
+                    }
+                }
+            } else {
+                for (Method method : klass.getDeclaredMethods()) {
+                    if (method.getName().equals(name) && Type.getMethodDescriptor(method).equals(descriptor)) {
+                        return isAccessible(method.getModifiers(), klass, hostClass);
+                    }
+                }
+            }
+        }
+        // e.g., default methods of interfaces
+        return false;
+    }
+
+    /**
+     * @return true if the code of the task can be copied into a class in the
+     *     package of the producer.
+     */
+    private static boolean isAccessible(TaskLoop loop, Class<?> hostClass) {
+        try {
+            for (Insn insn : loop.code()) {
+                boolean accessible = true;
+                if (insn instanceof MethodInsn method) {
+                    accessible = isAccessibleMember(method.owner(), method.name(), method.descriptor(), false, hostClass);
+                } else if (insn instanceof FieldInsn field) {
+                    accessible = isAccessibleMember(field.owner(), field.name(), field.descriptor(), true, hostClass);
+                } else if (insn instanceof TypeInsn typeInsn) {
+                    accessible = ASMTaskFusion.isAccessible(loadClass(Type.getObjectType(typeInsn.type()), hostClass.getClassLoader()), hostClass);
+                } else if (insn instanceof LdcInsn ldc && ldc.value() instanceof Type type) {
+                    accessible = ASMTaskFusion.isAccessible(loadClass(type, hostClass.getClassLoader()), hostClass);
+                }
+                if (!accessible) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static int[] stackEffect(int pops, int pushes) {
+        return new int[] { pops, pushes };
+    }
+
+    /**
+     * @return the number of stack words that the instruction pops and pushes, or
+     *     null if it is not a simple expression.
+     */
+    private static int[] getStackEffect(Insn insn, Set<Label> targets) {
+        if (insn instanceof LabelInsn labelInsn) {
+            return targets.contains(labelInsn.label()) ? null : stackEffect(0, 0);
+        } else if (insn instanceof IincInsn) {
+            return stackEffect(0, 0);
+        } else if (insn instanceof VarInsn varInsn && varInsn.opcode() < Opcodes.ISTORE) {
+            return stackEffect(0, (varInsn.opcode() == Opcodes.LLOAD || varInsn.opcode() == Opcodes.DLOAD) ? 2 : 1);
+        } else if (insn instanceof LdcInsn ldc) {
+            return stackEffect(0, (ldc.value() instanceof Long || ldc.value() instanceof Double) ? 2 : 1);
+        } else if (insn instanceof FieldInsn field && (field.opcode() == Opcodes.GETSTATIC || field.opcode() == Opcodes.GETFIELD)) {
+            return stackEffect(field.opcode() == Opcodes.GETFIELD ? 1 : 0, Type.getType(field.descriptor()).getSize());
+        } else if (insn instanceof MethodInsn method) {
+            // The size of the arguments includes the receiver, even for static methods
+            int sizes = Type.getArgumentsAndReturnSizes(method.descriptor());
+            return stackEffect((sizes >> 2) - (method.opcode() == Opcodes.INVOKESTATIC ? 1 : 0), sizes & 0x3);
+        } else if (insn instanceof BasicInsn basic) {
+            return getStackEffect(basic.opcode());
+        }
+        return null;
+    }
+
+    private static int[] getStackEffect(int opcode) {
+        if ((opcode >= Opcodes.ACONST_NULL && opcode <= Opcodes.ICONST_5) || (opcode >= Opcodes.FCONST_0 && opcode <= Opcodes.FCONST_2) || opcode == Opcodes.BIPUSH || opcode == Opcodes.SIPUSH) {
+            return stackEffect(0, 1);
+        } else if (opcode == Opcodes.LCONST_0 || opcode == Opcodes.LCONST_1 || opcode == Opcodes.DCONST_0 || opcode == Opcodes.DCONST_1) {
+            return stackEffect(0, 2);
+        } else if (opcode >= Opcodes.IALOAD && opcode <= Opcodes.SALOAD) {
+            return stackEffect(2, (opcode == Opcodes.LALOAD || opcode == Opcodes.DALOAD) ? 2 : 1);
+        } else if (opcode >= Opcodes.IASTORE && opcode <= Opcodes.SASTORE) {
+            return stackEffect((opcode == Opcodes.LASTORE || opcode == Opcodes.DASTORE) ? 4 : 3, 0);
+        } else if (opcode >= Opcodes.IADD && opcode <= Opcodes.DREM) {
+            // IADD, LADD, FADD, DADD, ISUB, ...
+            int size = (opcode - Opcodes.IADD) % 2 == 0 ? 1 : 2;
+            return stackEffect(2 * size, size);
+        } else if (opcode >= Opcodes.INEG && opcode <= Opcodes.DNEG) {
+            int size = (opcode - Opcodes.INEG) % 2 == 0 ? 1 : 2;
+            return stackEffect(size, size);
+        } else if (opcode >= Opcodes.ISHL && opcode <= Opcodes.LUSHR) {
+            return (opcode - Opcodes.ISHL) % 2 == 0 ? stackEffect(2, 1) : stackEffect(3, 2);
+        } else if (opcode >= Opcodes.IAND && opcode <= Opcodes.LXOR) {
+            return (opcode - Opcodes.IAND) % 2 == 0 ? stackEffect(2, 1) : stackEffect(4, 2);
+        }
+        return switch (opcode) {
+            case Opcodes.NOP -> stackEffect(0, 0);
+            case Opcodes.POP -> stackEffect(1, 0);
+            case Opcodes.POP2 -> stackEffect(2, 0);
+            case Opcodes.I2L, Opcodes.I2D, Opcodes.F2L, Opcodes.F2D -> stackEffect(1, 2);
+            case Opcodes.I2F, Opcodes.F2I, Opcodes.I2B, Opcodes.I2C, Opcodes.I2S, Opcodes.ARRAYLENGTH -> stackEffect(1, 1);
+            case Opcodes.L2I, Opcodes.L2F, Opcodes.D2I, Opcodes.D2F, Opcodes.FCMPL, Opcodes.FCMPG -> stackEffect(2, 1);
+            case Opcodes.L2D, Opcodes.D2L -> stackEffect(2, 2);
+            case Opcodes.LCMP, Opcodes.DCMPL, Opcodes.DCMPG -> stackEffect(4, 1);
+            default -> null;
+        };
+    }
+
+    /**
+     * Finds the instruction that consumes the reference pushed by the
+     * instruction {@code load}.
+     *
+     * @return the index of the instruction, or -1 if the expression cannot be
+     *     analysed or the reference is not the first operand of the instruction.
+     */
+    private static int findConsumer(TaskLoop loop, int load) {
+        int depth = 1;
+        for (int i = load + 1; i < loop.code().size(); i++) {
+            int[] effect = getStackEffect(loop.code().get(i), loop.targets());
+            if (effect == null) {
+                return -1;
+            }
+            if (depth - effect[0] < 1) {
+                return (depth - effect[0] == 0) ? i : -1;
+            }
+            depth += effect[1] - effect[0];
+        }
+        return -1;
+    }
+
+    private static int classify(Insn access, Class<?> type) {
+        if (type.isArray() && type.getComponentType().isPrimitive() && access instanceof BasicInsn basic) {
+            if (basic.opcode() == Opcodes.ARRAYLENGTH) {
+                return SIZE;
+            } else if (basic.opcode() >= Opcodes.IALOAD && basic.opcode() <= Opcodes.SALOAD && basic.opcode() != Opcodes.AALOAD) {
+                return LOAD;
+            } else if (basic.opcode() >= Opcodes.IASTORE && basic.opcode() <= Opcodes.SASTORE && basic.opcode() != Opcodes.AASTORE) {
+                return STORE;
+            }
+        } else if (access instanceof MethodInsn method && method.opcode() == Opcodes.INVOKEVIRTUAL && method.owner().equals(Type.getInternalName(type)) && method.owner().startsWith(NATIVE_ARRAYS)) {
+            Type[] arguments = Type.getArgumentTypes(method.descriptor());
+            Type returnType = Type.getReturnType(method.descriptor());
+            if (method.name().equals("getSize") && arguments.length == 0) {
+                return SIZE;
+            } else if (method.name().equals("get") && arguments.length == 1 && arguments[0] == Type.INT_TYPE && isPrimitive(returnType)) {
+                return LOAD;
+            } else if (method.name().equals("set") && arguments.length == 2 && arguments[0] == Type.INT_TYPE && isPrimitive(arguments[1]) && returnType == Type.VOID_TYPE) {
+                return STORE;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPrimitive(Type type) {
+        return type.getSort() >= Type.BOOLEAN && type.getSort() <= Type.DOUBLE;
+    }
+
+    private static Type getElementType(Insn access, Class<?> type) {
+        if (type.isArray()) {
+            return Type.getType(type.getComponentType());
+        }
+        MethodInsn method = (MethodInsn) access;
+        return method.name().equals("get") ? Type.getReturnType(method.descriptor()) : Type.getArgumentTypes(method.descriptor())[1];
+    }
+
+    /**
+     * @return the index of the instruction that consumes each load of the
+     *     parameter, or null if a use of the parameter cannot be analysed.
+     */
+    private static List<Integer> findUses(TaskLoop loop, Set<Integer> slots) {
+        List<Integer> uses = new ArrayList<>();
+        for (int i = 0; i < loop.code().size(); i++) {
+            if (loop.code().get(i) instanceof VarInsn varInsn && varInsn.opcode() == Opcodes.ALOAD && slots.contains(varInsn.slot())) {
+                int consumer = findConsumer(loop, i);
+                if (consumer < 0) {
+                    return null;
+                }
+                uses.add(consumer);
+            }
+        }
+        return uses;
+    }
+
+    private static Set<Integer> getSlots(Method task, int[] arguments, int parameter) {
+        Set<Integer> slots = new HashSet<>();
+        int slot = 0;
+        Class<?>[] parameterTypes = task.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (arguments[i] == parameter) {
+                slots.add(slot);
+            }
+            slot += Type.getType(parameterTypes[i]).getSize();
+        }
+        return slots;
+    }
+
+    /**
+     * Replaces the store of the producer and the loads of the consumer of a
+     * parameter with accesses to a local variable of the fused method.
+     *
+     * @return the size of the local variable, or 0 if the parameter cannot be
+     *     forwarded.
+     */
+    private static int forward(Class<?> type, int local, TaskLoop producerLoop, Set<Integer> producerSlots, Map<Insn, List<Insn>> producerReplacements, TaskLoop consumerLoop,
+            Set<Integer> consumerSlots, Map<Insn, List<Insn>> consumerReplacements) {
+        List<Integer> producerUses = findUses(producerLoop, producerSlots);
+        List<Integer> consumerUses = findUses(consumerLoop, consumerSlots);
+        if (producerUses == null || consumerUses == null) {
+            return 0;
+        }
+        Insn store = null;
+        for (int use : producerUses) {
+            Insn access = producerLoop.code().get(use);
+            int kind = classify(access, type);
+            if (kind == STORE && store == null && producerLoop.runsEveryIteration(use)) {
+                store = access;
+            } else if (kind != SIZE) {
+                return 0;
+            }
+        }
+        List<Insn> loads = new ArrayList<>();
+        for (int use : consumerUses) {
+            Insn access = consumerLoop.code().get(use);
+            int kind = classify(access, type);
+            if (kind == LOAD && use >= consumerLoop.body() && use < consumerLoop.bodyEnd()) {
+                loads.add(access);
+            } else if (kind != SIZE) {
+                return 0;
+            }
+        }
+        if (store == null) {
+            return 0;
+        }
+
+        Type elementType = getElementType(store, type);
+        List<Insn> storeReplacement = new ArrayList<>();
+        // The stores to arrays of sub-word types narrow the value
+        if (type == boolean[].class) {
+            storeReplacement.add(new BasicInsn(Opcodes.ICONST_1, 0));
+            storeReplacement.add(new BasicInsn(Opcodes.IAND, 0));
+        } else if (type == byte[].class) {
+            storeReplacement.add(new BasicInsn(Opcodes.I2B, 0));
+        } else if (type == char[].class) {
+            storeReplacement.add(new BasicInsn(Opcodes.I2C, 0));
+        } else if (type == short[].class) {
+            storeReplacement.add(new BasicInsn(Opcodes.I2S, 0));
+        }
+        storeReplacement.add(new LocalInsn(elementType.getOpcode(Opcodes.ISTORE), local));
+        storeReplacement.add(new BasicInsn(Opcodes.POP, 0));
+        storeReplacement.add(new BasicInsn(Opcodes.POP, 0));
+        producerReplacements.put(store, storeReplacement);
+
+        List<Insn> loadReplacement = List.of(new BasicInsn(Opcodes.POP, 0), new BasicInsn(Opcodes.POP, 0), new LocalInsn(elementType.getOpcode(Opcodes.ILOAD), local));
+        for (Insn load : loads) {
+            consumerReplacements.put(load, loadReplacement);
+        }
+        return elementType.getSize();
+    }
+
+    private static void emit(MethodVisitor methodVisitor, TaskLoop loop, int from, int to, Mapping mapping, Map<Insn, List<Insn>> replacements) {
+        for (int i = from; i < to; i++) {
+            Insn insn = loop.code().get(i);
+            for (Insn replacement : replacements.getOrDefault(insn, List.of(insn))) {
+                replacement.accept(methodVisitor, mapping);
+            }
+        }
+    }
+
+    /**
+     * Emits the code of the fused method, with the loops of both tasks merged.
+     *
+     * @param methodVisitor
+     *     Visitor of the fused method. Nothing is emitted if the loops cannot be
+     *     merged.
+     * @param parameterTypes
+     *     Types of the parameters of the fused method.
+     * @param producer
+     *     Static method of the producer task.
+     * @param producerArguments
+     *     Index of the parameter passed as each argument of the producer.
+     * @param consumer
+     *     Static method of the consumer task.
+     * @param consumerArguments
+     *     Index of the parameter passed as each argument of the consumer.
+     * @param forwardedParameters
+     *     Parameters whose values may be forwarded from the producer to the
+     *     consumer. Both tasks must access the same element of them in each
+     *     iteration, and they must not be accessed after the fused method.
+     * @return true if the loops were merged.
+     */
+    static boolean merge(MethodVisitor methodVisitor, Class<?>[] parameterTypes, Method producer, int[] producerArguments, Method consumer, int[] consumerArguments, int[] forwardedParameters) {
+        Class<?> hostClass = producer.getDeclaringClass();
+        TaskLoop producerLoop;
+        TaskLoop consumerLoop;
+        try {
+            producerLoop = readLoop(producer);
+            consumerLoop = readLoop(consumer);
+        } catch (IOException | UnsupportedLoopException e) {
+            return false;
+        }
+        if (producerLoop.step() != consumerLoop.step() || producerLoop.conditionOpcode() != consumerLoop.conditionOpcode()) {
+            return false;
+        }
+        // The code of the consumer before its loop runs before the loop of the producer, and its condition is dropped
+        if (!isPure(consumerLoop, 0, consumerLoop.condition()) || !isPure(consumerLoop, consumerLoop.condition() + 1, consumerLoop.body() - 1)) {
+            return false;
+        }
+        if (!isAccessible(producerLoop, hostClass) || !isAccessible(consumerLoop, hostClass)) {
+            return false;
+        }
+
+        int[] fusedSlots = ASMTaskFusion.getSlots(parameterTypes);
+        int firstLocal = 0;
+        for (Class<?> parameterType : parameterTypes) {
+            firstLocal += Type.getType(parameterType).getSize();
+        }
+        Label middle = new Label();
+        Label next = new Label();
+        TaskMapping producerMapping = new TaskMapping(producer, producerArguments, fusedSlots, firstLocal, producerLoop, middle);
+        firstLocal += producerLoop.maxLocals() - producerLoop.parametersSize();
+        TaskMapping consumerMapping = new TaskMapping(consumer, consumerArguments, fusedSlots, firstLocal, consumerLoop, next);
+        int local = firstLocal + consumerLoop.maxLocals() - consumerLoop.parametersSize();
+
+        Map<Insn, List<Insn>> producerReplacements = new IdentityHashMap<>();
+        Map<Insn, List<Insn>> consumerReplacements = new IdentityHashMap<>();
+        for (int parameter : forwardedParameters) {
+            local += forward(parameterTypes[parameter], local, producerLoop, getSlots(producer, producerArguments, parameter), producerReplacements, consumerLoop,
+                    getSlots(consumer, consumerArguments, parameter), consumerReplacements);
+        }
+
+        int variable = producerMapping.slot(producerLoop.variable());
+        emit(methodVisitor, producerLoop, 0, producerLoop.condition(), producerMapping, producerReplacements);
+        emit(methodVisitor, consumerLoop, 0, consumerLoop.condition(), consumerMapping, consumerReplacements);
+        emit(methodVisitor, producerLoop, producerLoop.condition(), producerLoop.bodyEnd(), producerMapping, producerReplacements);
+        methodVisitor.visitLabel(middle);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, variable);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, consumerMapping.slot(consumerLoop.variable()));
+        emit(methodVisitor, consumerLoop, consumerLoop.body(), consumerLoop.bodyEnd(), consumerMapping, consumerReplacements);
+        methodVisitor.visitLabel(next);
+        methodVisitor.visitIincInsn(variable, producerLoop.step());
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, producerLoop.conditionLabel());
+        emit(methodVisitor, producerLoop, producerLoop.exit(), producerLoop.code().size(), producerMapping, producerReplacements);
+        methodVisitor.visitLocalVariableAnnotation(TypeReference.newTypeReference(TypeReference.LOCAL_VARIABLE).getValue(), null, new Label[] { producerLoop.conditionLabel() },
+                new Label[] { producerLoop.exitLabel() }, new int[] { variable }, ASMTupleReduction.PARALLEL, true).visitEnd();
+        return true;
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.annotation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypePath;
+
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+
+/**
+ * Builds a multi-threaded host version of a task. The outermost
+ * {@code @Parallel} loop of the method is split in contiguous chunks of
+ * iterations, one per thread. The generated method receives two extra
+ * parameters, the index of the chunk and the number of chunks:
+ *
+ * <p>
+ * <code>
+ * static void method(original parameters..., int chunk, int numChunks)
+ * </code>
+ * </p>
+ *
+ * <p>
+ * Only the loops generated by javac for
+ * {@code for (@Parallel int i = init; i < bound; i += step)} (or
+ * {@code i <= bound}) with a constant positive step are split. The first time
+ * the condition of the loop is evaluated, the induction variable and the bound
+ * are replaced by the ones of the chunk. Any other shape of the loop, methods
+ * with reductions and methods that access private members of their class are
+ * not split, and the caller falls back to the sequential version.
+ * </p>
+ */
+final class ASMParallelLoopSplitter {
+
+    private static final String HOST_CLASS_SUFFIX = "$TornadoHost";
+    private static final String RANGE_CLASS = "uk/ac/manchester/tornado/api/utils/HostParallelRange";
+    private static final String RANGE_DESCRIPTOR = "(IIIZII)I";
+    private static final String KERNEL_CONTEXT = "uk/ac/manchester/tornado/api/KernelContext";
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    private ASMParallelLoopSplitter() {
+    }
+
+    /**
+     * Thrown while rewriting the method if the loop does not have the expected
+     * shape.
+     */
+    private static class UnsupportedLoopException extends RuntimeException {
+        UnsupportedLoopException(String message) {
+            super(message);
+        }
+    }
+
+    private record LoopInfo(int startLabel, int variable, int step, int maxLocals) {
+    }
+
+    private static ClassReader readClass(Class<?> klass) throws IOException {
+        String className = klass.getName();
+        String classFile = className.substring(className.lastIndexOf('.') + 1) + ".class";
+        try (InputStream inputStream = klass.getResourceAsStream(classFile)) {
+            if (inputStream == null) {
+                throw new IOException("Class file not found: " + classFile);
+            }
+            return new ClassReader(inputStream);
+        }
+    }
+
+    private static boolean hasReductions(Method method) {
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof Reduce) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return a handle to the host version of the method, or null if the method
+     *     cannot be split.
+     */
+    static MethodHandle split(Method method) {
+        if (!Modifier.isStatic(method.getModifiers()) || hasReductions(method)) {
+            return null;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        try {
+            ClassReader classReader = readClass(declaringClass);
+            String descriptor = Type.getMethodDescriptor(method);
+            LoopAnalyzer analyzer = new LoopAnalyzer(declaringClass, method.getName(), descriptor);
+            classReader.accept(analyzer, ClassReader.SKIP_FRAMES);
+            LoopInfo loop = analyzer.getLoop();
+            if (loop == null) {
+                return null;
+            }
+
+            String hostClassName = Type.getInternalName(declaringClass) + HOST_CLASS_SUFFIX + CLASS_COUNTER.incrementAndGet();
+            ClassWriter classWriter = new HostClassWriter(declaringClass.getClassLoader());
+            classReader.accept(new HostClassBuilder(classWriter, hostClassName, method.getName(), descriptor, loop), ClassReader.SKIP_FRAMES);
+
+            // The host class is defined in the package of the task, so it can access its package-private members
+            ASMParallelLoopSplitter.class.getModule().addReads(declaringClass.getModule());
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, MethodHandles.lookup());
+            Class<?> hostClass = lookup.defineClass(classWriter.toByteArray());
+            MethodType methodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes()).appendParameterTypes(int.class, int.class);
+            return lookup.findStatic(hostClass, method.getName(), methodType);
+        } catch (IOException | ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if any method of the class of the task calls a barrier of the
+     *     {@link uk.ac.manchester.tornado.api.KernelContext}.
+     */
+    static boolean callsBarriers(Method method) {
+        BarrierFinder finder = new BarrierFinder();
+        try {
+            readClass(method.getDeclaringClass()).accept(finder, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        } catch (IOException e) {
+            return true;
+        }
+        return finder.found;
+    }
+
+    private static final class BarrierFinder extends ClassVisitor {
+        private boolean found;
+
+        BarrierFinder() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            return new MethodVisitor(api) {
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String methodName, String methodDescriptor, boolean isInterface) {
+                    if (methodName.equals("localBarrier") || methodName.equals("globalBarrier")) {
+                        found |= owner.equals(KERNEL_CONTEXT) || owner.endsWith("/ExecutionContext");
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Uses the class loader of the task to compute the frames of the host class.
+     */
+    static final class HostClassWriter extends ClassWriter {
+        private final ClassLoader classLoader;
+
+        HostClassWriter(ClassLoader classLoader) {
+            super(ClassWriter.COMPUTE_FRAMES);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected ClassLoader getClassLoader() {
+            return classLoader;
+        }
+    }
+
+    /**
+     * First pass: finds the outermost {@code @Parallel} loop and checks that it can
+     * be split. Labels are identified by the order in which they are visited, as
+     * the second pass reads the same class again.
+     */
+    private static final class LoopAnalyzer extends ClassVisitor {
+
+        private final Class<?> declaringClass;
+        private final String methodName;
+        private final String descriptor;
+        private final String owner;
+
+        private final Map<Label, Integer> labels = new IdentityHashMap<>();
+        private final List<int[]> parallelScopes = new ArrayList<>();
+        private final List<int[]> stores = new ArrayList<>();
+        private final List<int[]> increments = new ArrayList<>();
+        private int currentLabel = -1;
+        private int maxLocals;
+        private boolean accessesPrivateMembers;
+        private boolean found;
+
+        LoopAnalyzer(Class<?> declaringClass, String methodName, String descriptor) {
+            super(Opcodes.ASM9);
+            this.declaringClass = declaringClass;
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+            this.owner = Type.getInternalName(declaringClass);
+        }
+
+        private boolean isPrivateMethod(String name, String methodDescriptor) {
+            for (Method m : declaringClass.getDeclaredMethods()) {
+                if (m.getName().equals(name) && Type.getMethodDescriptor(m).equals(methodDescriptor)) {
+                    return Modifier.isPrivate(m.getModifiers());
+                }
+            }
+            // Constructors and methods of the super-classes
+            return true;
+        }
+
+        private boolean isPrivateField(String name) {
+            try {
+                return Modifier.isPrivate(declaringClass.getDeclaredField(name).getModifiers());
+            } catch (NoSuchFieldException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String methodDescriptor, String signature, String[] exceptions) {
+            if (!name.equals(methodName) || !methodDescriptor.equals(descriptor)) {
+                return null;
+            }
+            found = true;
+            return new MethodVisitor(api) {
+                @Override
+                public void visitLabel(Label label) {
+                    currentLabel = labels.size();
+                    labels.put(label, currentLabel);
+                }
+
+                @Override
+                public void visitVarInsn(int opcode, int varIndex) {
+                    if (opcode == Opcodes.ISTORE) {
+                        stores.add(new int[] { currentLabel, varIndex });
+                    }
+                }
+
+                @Override
+                public void visitIincInsn(int varIndex, int increment) {
+                    increments.add(new int[] { currentLabel, varIndex, increment });
+                }
+
+                @Override
+                public void visitFieldInsn(int opcode, String fieldOwner, String name, String fieldDescriptor) {
+                    accessesPrivateMembers |= fieldOwner.equals(owner) && isPrivateField(name);
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String methodOwner, String name, String calleeDescriptor, boolean isInterface) {
+                    accessesPrivateMembers |= methodOwner.equals(owner) && isPrivateMethod(name, calleeDescriptor);
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String name, String indyDescriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+                    for (Object argument : bootstrapMethodArguments) {
+                        // e.g., lambdas implemented by private methods of the class
+                        accessesPrivateMembers |= argument instanceof Handle handle && handle.getOwner().equals(owner);
+                    }
+                }
+
+                @Override
+                public AnnotationVisitor visitLocalVariableAnnotation(int typeRef, TypePath typePath, Label[] start, Label[] end, int[] index, String annotationDescriptor, boolean visible) {
+                    String annotationName = Type.getType(annotationDescriptor).getClassName();
+                    if (annotationName.equals(ASMMethodVisitor.parallelAnnotationClassPath)) {
+                        Integer startLabel = labels.get(start[0]);
+                        Integer endLabel = labels.get(end[0]);
+                        parallelScopes.add(new int[] { startLabel == null ? -1 : startLabel, endLabel == null ? -1 : endLabel, index[0] });
+                    }
+                    return null;
+                }
+
+                @Override
+                public void visitMaxs(int maxStack, int methodMaxLocals) {
+                    maxLocals = methodMaxLocals;
+                }
+            };
+        }
+
+        LoopInfo getLoop() {
+            if (!found || parallelScopes.isEmpty() || accessesPrivateMembers) {
+                return null;
+            }
+            int[] outermost = parallelScopes.get(0);
+            for (int[] scope : parallelScopes) {
+                if (scope[0] < 0 || scope[1] < 0) {
+                    return null;
+                }
+                if (scope[0] < outermost[0]) {
+                    outermost = scope;
+                }
+            }
+            final int start = outermost[0];
+            final int end = outermost[1];
+            final int variable = outermost[2];
+            for (int[] scope : parallelScopes) {
+                // Loops after the outermost one would run entirely on every thread
+                if (scope[0] < start || scope[0] >= end) {
+                    return null;
+                }
+            }
+            for (int[] store : stores) {
+                if (store[1] == variable && store[0] >= start && store[0] < end) {
+                    return null;
+                }
+            }
+            int step = 0;
+            for (int[] increment : increments) {
+                if (increment[1] == variable && increment[0] >= start && increment[0] < end) {
+                    if (step != 0) {
+                        return null;
+                    }
+                    step = increment[2];
+                }
+            }
+            return step > 0 ? new LoopInfo(start, variable, step, maxLocals) : null;
+        }
+    }
+
+    /**
+     * Second pass: copies the method into a new class, with the loop split.
+     */
+    private static final class HostClassBuilder extends ClassVisitor {
+
+        private final ClassWriter classWriter;
+        private final String hostClassName;
+        private final String methodName;
+        private final String descriptor;
+        private final LoopInfo loop;
+
+        HostClassBuilder(ClassWriter classWriter, String hostClassName, String methodName, String descriptor, LoopInfo loop) {
+            super(Opcodes.ASM9);
+            this.classWriter = classWriter;
+            this.hostClassName = hostClassName;
+            this.methodName = methodName;
+            this.descriptor = descriptor;
+            this.loop = loop;
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            classWriter.visit(version, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, hostClassName, null, "java/lang/Object", null);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String methodDescriptor, String signature, String[] exceptions) {
+            if (!name.equals(methodName) || !methodDescriptor.equals(descriptor)) {
+                return null;
+            }
+            Type methodType = Type.getMethodType(methodDescriptor);
+            Type[] arguments = methodType.getArgumentTypes();
+            Type[] hostArguments = new Type[arguments.length + 2];
+            System.arraycopy(arguments, 0, hostArguments, 0, arguments.length);
+            hostArguments[arguments.length] = Type.INT_TYPE;
+            hostArguments[arguments.length + 1] = Type.INT_TYPE;
+            String hostDescriptor = Type.getMethodDescriptor(methodType.getReturnType(), hostArguments);
+            MethodVisitor methodWriter = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, name, hostDescriptor, null, exceptions);
+            // The size of the arguments includes the implicit this, but the method is static
+            int parametersSize = (Type.getArgumentsAndReturnSizes(methodDescriptor) >> 2) - 1;
+            return new LoopSplitter(methodWriter, parametersSize, loop);
+        }
+
+        @Override
+        public void visitEnd() {
+            classWriter.visitEnd();
+        }
+    }
+
+    private static final class LoopSplitter extends MethodVisitor {
+
+        private enum State {
+            BEFORE_LOOP, CONDITION_START, CONDITION, AFTER_SPLIT
+        }
+
+        private final LoopInfo loop;
+        private final int parametersSize;
+        private final int chunkVariable;
+        private final int numChunksVariable;
+        private final int firstVariable;
+        private final int boundVariable;
+        private final int newBoundVariable;
+        private int labelIndex;
+        private State state;
+
+        LoopSplitter(MethodVisitor methodVisitor, int parametersSize, LoopInfo loop) {
+            super(Opcodes.ASM9, methodVisitor);
+            this.loop = loop;
+            this.parametersSize = parametersSize;
+            this.chunkVariable = parametersSize;
+            this.numChunksVariable = parametersSize + 1;
+            this.firstVariable = loop.maxLocals() + 2;
+            this.boundVariable = loop.maxLocals() + 3;
+            this.newBoundVariable = loop.maxLocals() + 4;
+            this.state = State.BEFORE_LOOP;
+        }
+
+        private int shift(int varIndex) {
+            return varIndex >= parametersSize ? varIndex + 2 : varIndex;
+        }
+
+        private void instruction() {
+            if (state == State.CONDITION_START) {
+                throw new UnsupportedLoopException("The condition of the loop does not start with the induction variable");
+            }
+        }
+
+        private void invokeRange(String method, boolean inclusive) {
+            super.visitVarInsn(Opcodes.ILOAD, shift(loop.variable()));
+            super.visitVarInsn(Opcodes.ILOAD, boundVariable);
+            super.visitLdcInsn(loop.step());
+            super.visitInsn(inclusive ? Opcodes.ICONST_1 : Opcodes.ICONST_0);
+            super.visitVarInsn(Opcodes.ILOAD, chunkVariable);
+            super.visitVarInsn(Opcodes.ILOAD, numChunksVariable);
+            super.visitMethodInsn(Opcodes.INVOKESTATIC, RANGE_CLASS, method, RANGE_DESCRIPTOR, false);
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            if (state == State.BEFORE_LOOP && labelIndex == loop.startLabel()) {
+                // Only reached from the initialization of the loop, not from the back-edge
+                super.visitInsn(Opcodes.ICONST_1);
+                super.visitVarInsn(Opcodes.ISTORE, firstVariable);
+                super.visitInsn(Opcodes.ICONST_0);
+                super.visitVarInsn(Opcodes.ISTORE, newBoundVariable);
+                state = State.CONDITION_START;
+            }
+            labelIndex++;
+            super.visitLabel(label);
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int varIndex) {
+            if (state == State.CONDITION_START) {
+                if (opcode != Opcodes.ILOAD || varIndex != loop.variable()) {
+                    instruction();
+                }
+                state = State.CONDITION;
+            }
+            super.visitVarInsn(opcode, shift(varIndex));
+        }
+
+        @Override
+        public void visitIincInsn(int varIndex, int increment) {
+            instruction();
+            super.visitIincInsn(shift(varIndex), increment);
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            instruction();
+            if (state != State.CONDITION) {
+                super.visitJumpInsn(opcode, label);
+                return;
+            }
+            if (opcode != Opcodes.IF_ICMPGE && opcode != Opcodes.IF_ICMPGT) {
+                throw new UnsupportedLoopException("Unsupported condition of the loop");
+            }
+            final boolean inclusive = opcode == Opcodes.IF_ICMPGT;
+
+            // Stack: induction variable, bound
+            super.visitVarInsn(Opcodes.ISTORE, boundVariable);
+            super.visitInsn(Opcodes.POP);
+            Label split = new Label();
+            super.visitVarInsn(Opcodes.ILOAD, firstVariable);
+            super.visitJumpInsn(Opcodes.IFEQ, split);
+            invokeRange("chunkEnd", inclusive);
+            super.visitVarInsn(Opcodes.ISTORE, newBoundVariable);
+            invokeRange("chunkStart", inclusive);
+            super.visitVarInsn(Opcodes.ISTORE, shift(loop.variable()));
+            super.visitInsn(Opcodes.ICONST_0);
+            super.visitVarInsn(Opcodes.ISTORE, firstVariable);
+            super.visitLabel(split);
+            super.visitVarInsn(Opcodes.ILOAD, shift(loop.variable()));
+            super.visitVarInsn(Opcodes.ILOAD, newBoundVariable);
+            super.visitJumpInsn(opcode, label);
+            state = State.AFTER_SPLIT;
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            instruction();
+            super.visitInsn(opcode);
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            instruction();
+            super.visitIntInsn(opcode, operand);
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            instruction();
+            super.visitTypeInsn(opcode, type);
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+            instruction();
+            super.visitFieldInsn(opcode, owner, name, descriptor);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+            instruction();
+            super.visitMethodInsn(opcode, owner, name, descriptor, isInterface);
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+            instruction();
+            super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+        }
+
+        @Override
+        public void visitLdcInsn(Object value) {
+            instruction();
+            super.visitLdcInsn(value);
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            instruction();
+            if (state == State.CONDITION) {
+                throw new UnsupportedLoopException("Unsupported condition of the loop");
+            }
+            super.visitTableSwitchInsn(min, max, dflt, labels);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            instruction();
+            if (state == State.CONDITION) {
+                throw new UnsupportedLoopException("Unsupported condition of the loop");
+            }
+            super.visitLookupSwitchInsn(dflt, keys, labels);
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+            instruction();
+            super.visitMultiANewArrayInsn(descriptor, numDimensions);
+        }
+
+        @Override
+        public void visitEnd() {
+            if (state != State.AFTER_SPLIT) {
+                throw new UnsupportedLoopException("The @Parallel loop was not found");
+            }
+            super.visitEnd();
+        }
+
+        // The local variables are shifted and the frames are computed again, so
+        // annotations and debug information about local variables are not copied.
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+        }
+
+        @Override
+        public AnnotationVisitor visitLocalVariableAnnotation(int typeRef, TypePath typePath, Label[] start, Label[] end, int[] index, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public void visitAnnotableParameterCount(int parameterCount, boolean visible) {
+        }
+
+        @Override
+        public AnnotationVisitor visitParameterAnnotation(int parameter, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitTypeAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitInsnAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public AnnotationVisitor visitTryCatchAnnotation(int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return null;
+        }
+
+        @Override
+        public void visitAttribute(Attribute attribute) {
+        }
+    }
+}
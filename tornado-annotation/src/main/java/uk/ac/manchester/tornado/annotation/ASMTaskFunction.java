@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.annotation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Builds classes that implement a
+ * {@link uk.ac.manchester.tornado.api.common.TornadoFunctions} interface and
+ * whose {@code apply} method calls a static method, as the lambda of a task
+ * does:
+ *
+ * <p>
+ * <code>
+ * public void apply(Object a1, ..., Object an) {
+ *     Host.method((T1) a1, ..., (Tn) an);
+ * }
+ * </code>
+ * </p>
+ *
+ * <p>
+ * The runtime finds the static method by scanning the bytecode of
+ * {@code apply}, so primitive parameters are only unboxed with
+ * {@code intValue}, {@code longValue}, {@code floatValue} or
+ * {@code doubleValue}.
+ * </p>
+ */
+final class ASMTaskFunction {
+
+    private static final String TASK_INTERFACE = "uk/ac/manchester/tornado/api/common/TornadoFunctions$Task";
+    private static final String FUNCTION_CLASS_SUFFIX = "$TornadoTask";
+    private static final int MAX_PARAMETERS = 15;
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    private ASMTaskFunction() {
+    }
+
+    private static boolean isSupported(Type type) {
+        return switch (type.getSort()) {
+            case Type.INT, Type.LONG, Type.FLOAT, Type.DOUBLE, Type.OBJECT, Type.ARRAY -> true;
+            default -> false;
+        };
+    }
+
+    private static void unbox(MethodVisitor methodVisitor, Type type) {
+        String boxedType = switch (type.getSort()) {
+            case Type.INT -> "java/lang/Integer";
+            case Type.LONG -> "java/lang/Long";
+            case Type.FLOAT -> "java/lang/Float";
+            case Type.DOUBLE -> "java/lang/Double";
+            default -> null;
+        };
+        if (boxedType == null) {
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+        } else {
+            methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, boxedType);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxedType, type.getClassName() + "Value", "()" + type.getDescriptor(), false);
+        }
+    }
+
+    /**
+     * Builds a class that implements {@code TaskN} and whose {@code apply} method
+     * calls a static method.
+     *
+     * @param className
+     *     Internal name of the generated class.
+     * @param ownerClassName
+     *     Internal name of the class of the static method.
+     * @param methodName
+     *     Name of the static method.
+     * @param descriptor
+     *     Descriptor of the static method.
+     * @param classLoader
+     *     Class loader used to resolve the types of the parameters.
+     * @return the bytecode of the class.
+     */
+    static byte[] build(String className, String ownerClassName, String methodName, String descriptor, ClassLoader classLoader) {
+        Type[] arguments = Type.getArgumentTypes(descriptor);
+        ClassWriter classWriter = new ASMParallelLoopSplitter.HostClassWriter(classLoader);
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, className, null, "java/lang/Object",
+                new String[] { TASK_INTERFACE + (arguments.length == 0 ? "" : arguments.length) });
+
+        MethodVisitor constructor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        Type[] objectArguments = new Type[arguments.length];
+        Arrays.fill(objectArguments, Type.getType(Object.class));
+        MethodVisitor apply = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "apply", Type.getMethodDescriptor(Type.VOID_TYPE, objectArguments), null, null);
+        apply.visitCode();
+        for (int i = 0; i < arguments.length; i++) {
+            apply.visitVarInsn(Opcodes.ALOAD, i + 1);
+            unbox(apply, arguments[i]);
+        }
+        apply.visitMethodInsn(Opcodes.INVOKESTATIC, ownerClassName, methodName, descriptor, false);
+        apply.visitInsn(Opcodes.RETURN);
+        apply.visitMaxs(0, 0);
+        apply.visitEnd();
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    /**
+     * Builds the function of a task implemented by a static method. The class of
+     * the function is defined in the package of the method.
+     *
+     * @return an instance of the function, or null if the method has too many
+     *     parameters, a parameter that cannot be unboxed, or cannot be called
+     *     from its package.
+     */
+    static Object create(Method method) {
+        Class<?> hostClass = method.getDeclaringClass();
+        if (method.getParameterCount() > MAX_PARAMETERS || method.getReturnType() != void.class || !ASMTaskFusion.isAccessible(method, hostClass)) {
+            return null;
+        }
+        String descriptor = Type.getMethodDescriptor(method);
+        for (Type argument : Type.getArgumentTypes(descriptor)) {
+            if (!isSupported(argument)) {
+                return null;
+            }
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!ASMTaskFusion.isAccessible(parameterType, hostClass)) {
+                return null;
+            }
+        }
+
+        String ownerClassName = Type.getInternalName(hostClass);
+        byte[] function = build(ownerClassName + FUNCTION_CLASS_SUFFIX + CLASS_COUNTER.incrementAndGet(), ownerClassName, method.getName(), descriptor, hostClass.getClassLoader());
+        try {
+            ASMTaskFunction.class.getModule().addReads(hostClass.getModule());
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(hostClass, MethodHandles.lookup());
+            return lookup.defineClass(function).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+}
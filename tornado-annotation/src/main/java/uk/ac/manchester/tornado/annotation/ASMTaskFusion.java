@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.annotation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+
+/**
+ * Builds the method of a task that fuses two tasks. The generated method
+ * receives the parameters of both tasks. When both tasks have a single
+ * one-dimensional parallel loop, the loops are merged into one loop that runs
+ * the body of the producer and then the body of the consumer in each iteration,
+ * and intermediate results can be forwarded through local variables (see
+ * {@link ASMLoopFusion}). Otherwise, the method calls the producer and then the
+ * consumer:
+ *
+ * <p>
+ * <code>
+ * public static void producer_consumer(parameters...) {
+ *     Producer.producer(...);
+ *     Consumer.consumer(...);
+ * }
+ * </code>
+ * </p>
+ *
+ * <p>
+ * The class of the method is defined in the package of the producer. Tasks
+ * implemented by private methods, or that are not accessible from that
+ * package, are not fused. The class files are kept to read the
+ * {@code @Parallel} annotation of the merged loop, and to fuse the task again.
+ * </p>
+ */
+final class ASMTaskFusion {
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+    private static final Map<String, byte[]> CLASS_FILES = new ConcurrentHashMap<>();
+
+    private ASMTaskFusion() {
+    }
+
+    /**
+     * @param classFile
+     *     Name of the class file (e.g., {@code package/Class.class}).
+     * @return the bytecode of a class generated to fuse tasks, or null.
+     */
+    static byte[] getClassFile(String classFile) {
+        return CLASS_FILES.get(classFile);
+    }
+
+    static boolean isSamePackage(Class<?> type, Class<?> hostClass) {
+        return type.getPackageName().equals(hostClass.getPackageName()) && type.getClassLoader() == hostClass.getClassLoader();
+    }
+
+    static boolean isAccessible(Class<?> type, Class<?> hostClass) {
+        Class<?> elementType = type;
+        while (elementType.isArray()) {
+            elementType = elementType.getComponentType();
+        }
+        return elementType.isPrimitive() || Modifier.isPublic(elementType.getModifiers()) || isSamePackage(elementType, hostClass);
+    }
+
+    static boolean isAccessible(Method method, Class<?> hostClass) {
+        int modifiers = method.getModifiers();
+        if (!Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers) || !isAccessible(method.getDeclaringClass(), hostClass)) {
+            return false;
+        }
+        return Modifier.isPublic(modifiers) || isSamePackage(method.getDeclaringClass(), hostClass);
+    }
+
+    static int[] getSlots(Class<?>[] parameterTypes) {
+        int[] slots = new int[parameterTypes.length];
+        int slot = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            slots[i] = slot;
+            slot += Type.getType(parameterTypes[i]).getSize();
+        }
+        return slots;
+    }
+
+    private static void invokeTask(MethodVisitor methodVisitor, Method task, int[] arguments, Class<?>[] parameterTypes, int[] slots) {
+        for (int argument : arguments) {
+            methodVisitor.visitVarInsn(Type.getType(parameterTypes[argument]).getOpcode(Opcodes.ILOAD), slots[argument]);
+        }
+        Class<?> declaringClass = task.getDeclaringClass();
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(declaringClass), task.getName(), Type.getMethodDescriptor(task), declaringClass.isInterface());
+    }
+
+    /**
+     * @return the generated method, or null if the tasks cannot be called from
+     *     the package of the producer.
+     */
+    static Method fuse(String name, Class<?>[] parameterTypes, Method producer, int[] producerArguments, Method consumer, int[] consumerArguments, int[] forwardedParameters) {
+        Class<?> hostClass = producer.getDeclaringClass();
+        if (!isAccessible(producer, hostClass) || !isAccessible(consumer, hostClass)) {
+            return null;
+        }
+        for (Class<?> parameterType : parameterTypes) {
+            if (!isAccessible(parameterType, hostClass)) {
+                return null;
+            }
+        }
+        if (producer.getReturnType() != void.class || consumer.getReturnType() != void.class) {
+            return null;
+        }
+
+        String fusedClassName = Type.getInternalName(hostClass) + ASMClassVisitorProvider.FUSED_CLASS_SUFFIX + CLASS_COUNTER.incrementAndGet();
+        Type[] argumentTypes = new Type[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            argumentTypes[i] = Type.getType(parameterTypes[i]);
+        }
+        int[] slots = getSlots(parameterTypes);
+
+        try {
+            ClassWriter classWriter = new ASMParallelLoopSplitter.HostClassWriter(hostClass.getClassLoader());
+            classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, fusedClassName, null, "java/lang/Object", null);
+            MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, name, Type.getMethodDescriptor(Type.VOID_TYPE, argumentTypes), null, null);
+            methodVisitor.visitCode();
+            if (!ASMLoopFusion.merge(methodVisitor, parameterTypes, producer, producerArguments, consumer, consumerArguments, forwardedParameters)) {
+                invokeTask(methodVisitor, producer, producerArguments, parameterTypes, slots);
+                invokeTask(methodVisitor, consumer, consumerArguments, parameterTypes, slots);
+                methodVisitor.visitInsn(Opcodes.RETURN);
+            }
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+            classWriter.visitEnd();
+            byte[] fusedClassFile = classWriter.toByteArray();
+
+            // The class is defined in the package of the producer, so it can call its package-private methods
+            ASMTaskFusion.class.getModule().addReads(hostClass.getModule());
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(hostClass, MethodHandles.lookup());
+            CLASS_FILES.put(fusedClassName + ".class", fusedClassFile);
+            Class<?> fusedClass = lookup.defineClass(fusedClassFile);
+            return fusedClass.getMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            CLASS_FILES.remove(fusedClassName + ".class");
+            return null;
+        }
+    }
+}
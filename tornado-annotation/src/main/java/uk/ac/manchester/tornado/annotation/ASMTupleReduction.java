@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.annotation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.TypeReference;
+
+import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+
+/**
+ * Builds the tasks of a reduction with a user combiner over tuples stored in
+ * {@code k} arrays. The combiner has the signature:
+ *
+ * <p>
+ * <code>
+ * static void combine(T1 acc1, ..., Tk acck, int acc, T1 in1, ..., Tk ink, int in)
+ * </code>
+ * </p>
+ *
+ * <p>
+ * and combines the tuple at index {@code in} into the tuple at index
+ * {@code acc}. Two static methods are generated:
+ * </p>
+ *
+ * <p>
+ * <code>
+ * static void partial(T1 in1.., T1 identity1.., T1 out1.., int size, int chunk, int numChunks) {
+ *     for (@Parallel int c = 0; c &lt; numChunks; c++) {
+ *         out[c] = identity[0];
+ *         for (int i = c * chunk; i &lt; min((c + 1) * chunk, size); i++) {
+ *             combine(out.., c, in.., i);
+ *         }
+ *     }
+ * }
+ *
+ * static void combine(T1 in1.., T1 identity1.., T1 result1.., int size) {
+ *     result[0] = identity[0];
+ *     for (int i = 0; i &lt; size; i++) {
+ *         combine(result.., 0, in.., i);
+ *     }
+ * }
+ * </code>
+ * </p>
+ *
+ * <p>
+ * Each method is called from a class that implements the
+ * {@link uk.ac.manchester.tornado.api.common.TornadoFunctions} interface with
+ * the same number of parameters, so the methods can be added as tasks. The
+ * classes are defined in the package of the combiner, and their class files
+ * are kept to read the {@code @Parallel} annotation of the loop.
+ * </p>
+ */
+final class ASMTupleReduction {
+
+    private static final String REDUCE_CLASS_SUFFIX = "$TornadoReduce";
+    static final String PARALLEL = "Luk/ac/manchester/tornado/api/annotations/Parallel;";
+    private static final String PARTIAL = "partial";
+    private static final String COMBINE = "combine";
+
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+    private static final Map<String, byte[]> CLASS_FILES = new ConcurrentHashMap<>();
+
+    private ASMTupleReduction() {
+    }
+
+    /**
+     * @param classFile
+     *     Name of the class file (e.g., {@code package/Class.class}).
+     * @return the bytecode of a class generated for a reduction, or null.
+     */
+    static byte[] getClassFile(String classFile) {
+        return CLASS_FILES.get(classFile);
+    }
+
+    private static String getPartialDescriptor(Type[] types) {
+        return getDescriptor(types, 3);
+    }
+
+    private static String getCombineDescriptor(Type[] types) {
+        return getDescriptor(types, 1);
+    }
+
+    private static String getDescriptor(Type[] types, int numInts) {
+        Type[] arguments = new Type[types.length * 3 + numInts];
+        for (int i = 0; i < types.length * 3; i++) {
+            arguments[i] = types[i % types.length];
+        }
+        for (int i = types.length * 3; i < arguments.length; i++) {
+            arguments[i] = Type.INT_TYPE;
+        }
+        return Type.getMethodDescriptor(Type.VOID_TYPE, arguments);
+    }
+
+    /**
+     * Emits {@code target[index] = identity[0]} for each array of the tuple.
+     */
+    private static void copyIdentity(MethodVisitor methodVisitor, Class<?>[] componentTypes, int identitySlot, int targetSlot, int indexSlot) throws NoSuchMethodException {
+        for (int i = 0; i < componentTypes.length; i++) {
+            Method getter = componentTypes[i].getMethod("get", int.class);
+            Method setter = componentTypes[i].getMethod("set", int.class, getter.getReturnType());
+            String owner = Type.getInternalName(componentTypes[i]);
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, targetSlot + i);
+            if (indexSlot < 0) {
+                methodVisitor.visitInsn(Opcodes.ICONST_0);
+            } else {
+                methodVisitor.visitVarInsn(Opcodes.ILOAD, indexSlot);
+            }
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, identitySlot + i);
+            methodVisitor.visitInsn(Opcodes.ICONST_0);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, getter.getName(), Type.getMethodDescriptor(getter), false);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, owner, setter.getName(), Type.getMethodDescriptor(setter), false);
+        }
+    }
+
+    /**
+     * Emits {@code combiner(target.., targetIndex, source.., sourceIndex)}. A
+     * negative target index is the constant 0.
+     */
+    private static void invokeCombiner(MethodVisitor methodVisitor, Method combiner, int numArrays, int targetSlot, int targetIndexSlot, int sourceSlot, int sourceIndexSlot) {
+        for (int i = 0; i < numArrays; i++) {
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, targetSlot + i);
+        }
+        if (targetIndexSlot < 0) {
+            methodVisitor.visitInsn(Opcodes.ICONST_0);
+        } else {
+            methodVisitor.visitVarInsn(Opcodes.ILOAD, targetIndexSlot);
+        }
+        for (int i = 0; i < numArrays; i++) {
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, sourceSlot + i);
+        }
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, sourceIndexSlot);
+        Class<?> declaringClass = combiner.getDeclaringClass();
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(declaringClass), combiner.getName(), Type.getMethodDescriptor(combiner), declaringClass.isInterface());
+    }
+
+    private static void buildPartial(ClassWriter classWriter, Method combiner, Class<?>[] componentTypes, Type[] types) throws NoSuchMethodException {
+        final int k = componentTypes.length;
+        final int inputSlot = 0;
+        final int identitySlot = k;
+        final int outputSlot = 2 * k;
+        final int sizeSlot = 3 * k;
+        final int chunkSlot = 3 * k + 1;
+        final int numChunksSlot = 3 * k + 2;
+        final int chunkIndexSlot = 3 * k + 3;
+        final int startSlot = 3 * k + 4;
+        final int endSlot = 3 * k + 5;
+        final int indexSlot = 3 * k + 6;
+
+        MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, PARTIAL, getPartialDescriptor(types), null, null);
+        methodVisitor.visitCode();
+
+        Label loopCondition = new Label();
+        Label loopExit = new Label();
+        Label endInRange = new Label();
+        Label innerCondition = new Label();
+        Label innerExit = new Label();
+
+        // for (@Parallel int c = 0; c < numChunks; c++)
+        methodVisitor.visitInsn(Opcodes.ICONST_0);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, chunkIndexSlot);
+        methodVisitor.visitLabel(loopCondition);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, chunkIndexSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, numChunksSlot);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, loopExit);
+
+        copyIdentity(methodVisitor, componentTypes, identitySlot, outputSlot, chunkIndexSlot);
+
+        // int start = c * chunk; int end = start + chunk; if (end > size) end = size;
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, chunkIndexSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, chunkSlot);
+        methodVisitor.visitInsn(Opcodes.IMUL);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, startSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, startSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, chunkSlot);
+        methodVisitor.visitInsn(Opcodes.IADD);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, endSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, endSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, sizeSlot);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPLE, endInRange);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, sizeSlot);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, endSlot);
+        methodVisitor.visitLabel(endInRange);
+
+        // for (int i = start; i < end; i++) combine(out.., c, in.., i);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, startSlot);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, indexSlot);
+        methodVisitor.visitLabel(innerCondition);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, endSlot);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, innerExit);
+        invokeCombiner(methodVisitor, combiner, k, outputSlot, chunkIndexSlot, inputSlot, indexSlot);
+        methodVisitor.visitIincInsn(indexSlot, 1);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, innerCondition);
+        methodVisitor.visitLabel(innerExit);
+
+        methodVisitor.visitIincInsn(chunkIndexSlot, 1);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, loopCondition);
+        methodVisitor.visitLabel(loopExit);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+
+        // The range of the annotated variable is the loop, as generated by javac
+        methodVisitor.visitLocalVariableAnnotation(TypeReference.newTypeReference(TypeReference.LOCAL_VARIABLE).getValue(), null, new Label[] { loopCondition }, new Label[] { loopExit },
+                new int[] { chunkIndexSlot }, PARALLEL, true).visitEnd();
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void buildCombine(ClassWriter classWriter, Method combiner, Class<?>[] componentTypes, Type[] types) throws NoSuchMethodException {
+        final int k = componentTypes.length;
+        final int inputSlot = 0;
+        final int identitySlot = k;
+        final int resultSlot = 2 * k;
+        final int sizeSlot = 3 * k;
+        final int indexSlot = 3 * k + 1;
+
+        MethodVisitor methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, COMBINE, getCombineDescriptor(types), null, null);
+        methodVisitor.visitCode();
+
+        copyIdentity(methodVisitor, componentTypes, identitySlot, resultSlot, -1);
+
+        Label loopCondition = new Label();
+        Label loopExit = new Label();
+        methodVisitor.visitInsn(Opcodes.ICONST_0);
+        methodVisitor.visitVarInsn(Opcodes.ISTORE, indexSlot);
+        methodVisitor.visitLabel(loopCondition);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, indexSlot);
+        methodVisitor.visitVarInsn(Opcodes.ILOAD, sizeSlot);
+        methodVisitor.visitJumpInsn(Opcodes.IF_ICMPGE, loopExit);
+        invokeCombiner(methodVisitor, combiner, k, resultSlot, -1, inputSlot, indexSlot);
+        methodVisitor.visitIincInsn(indexSlot, 1);
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, loopCondition);
+        methodVisitor.visitLabel(loopExit);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    /**
+     * @return the functions of the tasks, or null if the combiner cannot be
+     *     called from the package of its class.
+     */
+    static ASMClassVisitorProvider.TupleReductionTasks build(Method combiner, Class<?>[] componentTypes) {
+        Class<?> hostClass = combiner.getDeclaringClass();
+        if (!ASMTaskFusion.isAccessible(combiner, hostClass)) {
+            return null;
+        }
+        for (Class<?> componentType : componentTypes) {
+            if (!ASMTaskFusion.isAccessible(componentType, hostClass)) {
+                return null;
+            }
+        }
+
+        String reductionClassName = Type.getInternalName(hostClass) + REDUCE_CLASS_SUFFIX + CLASS_COUNTER.incrementAndGet();
+        Type[] types = new Type[componentTypes.length];
+        for (int i = 0; i < componentTypes.length; i++) {
+            types[i] = Type.getType(componentTypes[i]);
+        }
+
+        try {
+            ClassWriter classWriter = new ASMParallelLoopSplitter.HostClassWriter(hostClass.getClassLoader());
+            classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, reductionClassName, null, "java/lang/Object", null);
+            buildPartial(classWriter, combiner, componentTypes, types);
+            buildCombine(classWriter, combiner, componentTypes, types);
+            classWriter.visitEnd();
+            byte[] reductionClass = classWriter.toByteArray();
+            byte[] partialFunction = ASMTaskFunction.build(reductionClassName + "$Partial", reductionClassName, PARTIAL, getPartialDescriptor(types), hostClass.getClassLoader());
+            byte[] combineFunction = ASMTaskFunction.build(reductionClassName + "$Combine", reductionClassName, COMBINE, getCombineDescriptor(types), hostClass.getClassLoader());
+
+            // The classes are defined in the package of the combiner, so they can call its package-private methods
+            ASMTupleReduction.class.getModule().addReads(hostClass.getModule());
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(hostClass, MethodHandles.lookup());
+            CLASS_FILES.put(reductionClassName + ".class", reductionClass);
+            lookup.defineClass(reductionClass);
+            Object partial = lookup.defineClass(partialFunction).getConstructor().newInstance();
+            Object combine = lookup.defineClass(combineFunction).getConstructor().newInstance();
+            return new ASMClassVisitorProvider.TupleReductionTasks(partial, combine);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            CLASS_FILES.remove(reductionClassName + ".class");
+            return null;
+        }
+    }
+}
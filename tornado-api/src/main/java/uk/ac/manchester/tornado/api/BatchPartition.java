@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.api;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * Marks an array of a task-graph as partitioned when processing in batches.
+ * Each batch receives a contiguous slice of every partitioned array, while the
+ * arrays that are not partitioned are copied in full (broadcast) once and
+ * shared by all the batches.
+ *
+ * <p>
+ * The iteration space is split in items. By default, an item is one element of
+ * the array. The stride sets how many elements of the array belong to one
+ * item (e.g., the row length of a matrix processed one row per thread). All the
+ * partitioned arrays must have the same number of items.
+ * </p>
+ *
+ * <p>
+ * <code>
+ * executionPlan.withBatch("64MB", new BatchPartition(input), new BatchPartition(matrix).withStride(1024));
+ * </code>
+ * </p>
+ */
+public class BatchPartition {
+
+    private final Object array;
+    private int stride;
+
+    public BatchPartition(Object array) {
+        if (array == null) {
+            throw new TornadoRuntimeException("[ERROR] A batch partition requires a non-null array");
+        }
+        this.array = array;
+        this.stride = 1;
+    }
+
+    /**
+     * Sets the number of elements of the array that belong to one item of the
+     * iteration space.
+     *
+     * @param elementsPerItem
+     *     Number of elements per item. It must be greater than 0.
+     * @return {@link BatchPartition}
+     */
+    public BatchPartition withStride(int elementsPerItem) {
+        if (elementsPerItem < 1) {
+            throw new TornadoRuntimeException("[ERROR] The stride of a batch partition must be at least 1, but it is " + elementsPerItem);
+        }
+        this.stride = elementsPerItem;
+        return this;
+    }
+
+    public Object getArray() {
+        return array;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+}
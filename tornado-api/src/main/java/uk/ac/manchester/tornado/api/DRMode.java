@@ -36,5 +36,16 @@ public enum DRMode {
      * {@link TornadoExecutionPlan} and run the expressions on the target devices.
      * Each physical accelerator handler is mapped to a Java thread.
      */
-    PARALLEL //
+    PARALLEL, //
+
+    /**
+     * A model mode means that the runtime selects the device from the execution
+     * times measured in previous executions and runs, stored on disk per
+     * task-graph, device and input size. Only the devices without measurements
+     * are evaluated, one per execution. After that, one of the other devices is
+     * evaluated again every {@code tornado.dynamic.model.reexplore} executions.
+     *
+     * @since v1.0.2
+     */
+    MODEL //
 }
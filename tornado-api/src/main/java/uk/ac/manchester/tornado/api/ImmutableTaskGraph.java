@@ -18,10 +18,14 @@
 package uk.ac.manchester.tornado.api;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 
 /**
  * A {@link TaskGraph} is encapsulated in this class and all actions over a task
@@ -58,9 +62,15 @@ public class ImmutableTaskGraph {
             taskGraph.executeWithProfilerSequential(policy);
         } else if (mode == DRMode.PARALLEL) {
             taskGraph.executeWithProfiler(policy);
+        } else if (mode == DRMode.MODEL) {
+            taskGraph.executeWithModel(policy);
         }
     }
 
+    ImmutableTaskGraph copyWithArguments(Map<Object, Object> bindings) {
+        return taskGraph.copyWithArguments(bindings);
+    }
+
     void warmup() {
         taskGraph.warmup();
     }
@@ -125,6 +135,18 @@ public class ImmutableTaskGraph {
         return taskGraph.getDeviceKernelTime();
     }
 
+    LatencyHistogram getDeviceWriteTimeHistogram() {
+        return taskGraph.getWriteTimeHistogram();
+    }
+
+    LatencyHistogram getDeviceReadTimeHistogram() {
+        return taskGraph.getReadTimeHistogram();
+    }
+
+    LatencyHistogram getDeviceKernelTimeHistogram() {
+        return taskGraph.getDeviceKernelTimeHistogram();
+    }
+
     String getProfileLog() {
         return taskGraph.getProfileLog();
     }
@@ -153,6 +175,14 @@ public class ImmutableTaskGraph {
         taskGraph.batch(batchSize);
     }
 
+    void withPipelinedBatch(String batchSize, int numBufferSets) {
+        taskGraph.pipelinedBatch(batchSize, numBufferSets);
+    }
+
+    void withBatchPartitions(BatchPartition[] partitions) {
+        taskGraph.batchPartitions(partitions);
+    }
+
     void withMemoryLimit(String memoryLimit) {
         taskGraph.withMemoryLimit(memoryLimit);
     }
@@ -165,10 +195,26 @@ public class ImmutableTaskGraph {
         return taskGraph.getDevice();
     }
 
+    List<String> getTaskIds() {
+        return taskGraph.getTaskIds();
+    }
+
     Collection<?> getOutputs() {
         return taskGraph.getOutputs();
     }
 
+    Set<Object> getArgumentsLookup() {
+        return taskGraph.getArgumentsLookup();
+    }
+
+    void withDeferredTransfersToHost(Set<Object> objects) {
+        taskGraph.withDeferredTransfersToHost(objects);
+    }
+
+    void syncDeferredTransfersToHost() {
+        taskGraph.syncDeferredTransfersToHost();
+    }
+
     void enableProfiler(ProfilerMode profilerMode) {
         taskGraph.enableProfiler(profilerMode);
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.api;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * Arguments of one invocation of an execution plan. Each binding replaces an
+ * object used to build the task-graphs of the plan with another object of the
+ * same type and size, only for that invocation. The objects that are not bound
+ * (e.g., read-only inputs) are shared by all the invocations.
+ *
+ * <p>
+ * <code>
+ * executionPlan.execute(new InvocationArguments().bind(input, myInput).bind(output, myOutput));
+ * </code>
+ * </p>
+ *
+ * <p>
+ * Objects are compared by identity.
+ * </p>
+ */
+public class InvocationArguments {
+
+    private final IdentityHashMap<Object, Object> bindings;
+
+    public InvocationArguments() {
+        this.bindings = new IdentityHashMap<>();
+    }
+
+    /**
+     * Binds a new value to a parameter of the task-graphs.
+     *
+     * @param parameter
+     *     Object passed to the task-graphs when they were built.
+     * @param value
+     *     Object to use instead in this invocation.
+     * @return {@link InvocationArguments}
+     */
+    public InvocationArguments bind(Object parameter, Object value) {
+        if (parameter == null || value == null) {
+            throw new TornadoRuntimeException("[ERROR] Invocation arguments cannot bind null objects");
+        }
+        if (parameter.getClass() != value.getClass()) {
+            throw new TornadoRuntimeException("[ERROR] Cannot bind an object of type " + value.getClass().getName() + " to a parameter of type " + parameter.getClass().getName());
+        }
+        bindings.put(parameter, value);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return bindings.isEmpty();
+    }
+
+    /**
+     * @return a copy of the bindings. Two copies are equal if they bind the
+     *     same parameters to the same objects.
+     */
+    Map<Object, Object> getBindings() {
+        return new IdentityHashMap<>(bindings);
+    }
+}
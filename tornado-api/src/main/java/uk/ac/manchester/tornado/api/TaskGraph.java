@@ -19,6 +19,8 @@ package uk.ac.manchester.tornado.api;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import uk.ac.manchester.tornado.api.common.Access;
@@ -43,7 +45,9 @@ import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task8;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task9;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
 import uk.ac.manchester.tornado.api.exceptions.TornadoTaskRuntimeException;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.runtime.TornadoAPIProvider;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 
 /**
  * Tornado Task Graph API.
@@ -608,6 +612,64 @@ public class TaskGraph implements TaskGraphInterface {
         return this;
     }
 
+    /**
+     * Adds a reduction with a user combiner. See
+     * {@link TaskGraphInterface#reduce(String, Task4, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraph}
+     */
+    @Override
+    public <T1 extends TornadoNativeArray> TaskGraph reduce(String id, Task4<T1, Integer, T1, Integer> combiner, T1 input, T1 identity, T1 result) {
+        checkTaskName(id);
+        taskGraphImpl.addTupleReduction(id, combiner, new TornadoNativeArray[] { input }, new TornadoNativeArray[] { identity }, new TornadoNativeArray[] { result });
+        return this;
+    }
+
+    /**
+     * Adds a reduction with a user combiner over pairs of values. See
+     * {@link TaskGraphInterface#reduce(String, Task6, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraph}
+     */
+    @Override
+    public <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray> TaskGraph reduce(String id, Task6<T1, T2, Integer, T1, T2, Integer> combiner, T1 input1, T2 input2, T1 identity1,
+            T2 identity2, T1 result1, T2 result2) {
+        checkTaskName(id);
+        taskGraphImpl.addTupleReduction(id, combiner, new TornadoNativeArray[] { input1, input2 }, new TornadoNativeArray[] { identity1, identity2 }, new TornadoNativeArray[] { result1, result2 });
+        return this;
+    }
+
+    /**
+     * Adds a reduction with a user combiner over tuples of three values. See
+     * {@link TaskGraphInterface#reduce(String, Task8, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraph}
+     */
+    @Override
+    public <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray, T3 extends TornadoNativeArray> TaskGraph reduce(String id, Task8<T1, T2, T3, Integer, T1, T2, T3, Integer> combiner,
+            T1 input1, T2 input2, T3 input3, T1 identity1, T2 identity2, T3 identity3, T1 result1, T2 result2, T3 result3) {
+        checkTaskName(id);
+        taskGraphImpl.addTupleReduction(id, combiner, new TornadoNativeArray[] { input1, input2, input3 }, new TornadoNativeArray[] { identity1, identity2, identity3 },
+                new TornadoNativeArray[] { result1, result2, result3 });
+        return this;
+    }
+
+    /**
+     * Adds a reduction with a user combiner over tuples of four values. See
+     * {@link TaskGraphInterface#reduce(String, Task10, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraph}
+     */
+    @Override
+    public <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray, T3 extends TornadoNativeArray, T4 extends TornadoNativeArray> TaskGraph reduce(String id,
+            Task10<T1, T2, T3, T4, Integer, T1, T2, T3, T4, Integer> combiner, T1 input1, T2 input2, T3 input3, T4 input4, T1 identity1, T2 identity2, T3 identity3, T4 identity4, T1 result1,
+            T2 result2, T3 result3, T4 result4) {
+        checkTaskName(id);
+        taskGraphImpl.addTupleReduction(id, combiner, new TornadoNativeArray[] { input1, input2, input3, input4 }, new TornadoNativeArray[] { identity1, identity2, identity3, identity4 },
+                new TornadoNativeArray[] { result1, result2, result3, result4 });
+        return this;
+    }
+
     /**
      * Add a pre-built OpenCL task into a task-schedule.
      *
@@ -748,6 +810,23 @@ public class TaskGraph implements TaskGraphInterface {
         return new ImmutableTaskGraph(cloneTaskGraph);
     }
 
+    /**
+     * Creates an immutable copy of this task-graph in which the objects of the
+     * bindings are replaced by their bound values. The copy reuses the compiled
+     * kernels and the device buffers of the objects that are not bound.
+     *
+     * @param bindings
+     *     Map from the objects of this task-graph to the new objects. Keys are
+     *     compared by identity.
+     * @return {@link ImmutableTaskGraph}
+     */
+    ImmutableTaskGraph copyWithArguments(Map<Object, Object> bindings) {
+        TaskGraph cloneTaskGraph = new TaskGraph(this.getTaskGraphName());
+        cloneTaskGraph.taskGraphImpl = this.taskGraphImpl.copyWithArguments(bindings);
+        cloneTaskGraph.taskNames = this.taskNames;
+        return new ImmutableTaskGraph(cloneTaskGraph);
+    }
+
     TaskGraph setDevice(TornadoDevice device) {
         taskGraphImpl.setDevice(device);
         return this;
@@ -763,6 +842,16 @@ public class TaskGraph implements TaskGraphInterface {
         return this;
     }
 
+    TaskGraph pipelinedBatch(String batchSize, int numBufferSets) {
+        taskGraphImpl.withPipelinedBatch(batchSize, numBufferSets);
+        return this;
+    }
+
+    TaskGraph batchPartitions(BatchPartition[] partitions) {
+        taskGraphImpl.withBatchPartitions(partitions);
+        return this;
+    }
+
     TaskGraph withMemoryLimit(String memoryLimit) {
         taskGraphImpl.withMemoryLimit(memoryLimit);
         return this;
@@ -788,6 +877,10 @@ public class TaskGraph implements TaskGraphInterface {
         taskGraphImpl.scheduleWithProfileSequential(policy).waitOn();
     }
 
+    void executeWithModel(Policy policy) {
+        taskGraphImpl.scheduleWithModel(policy).waitOn();
+    }
+
     void warmup() {
         taskGraphImpl.warmup();
     }
@@ -825,6 +918,10 @@ public class TaskGraph implements TaskGraphInterface {
         return taskGraphImpl.getDevice();
     }
 
+    List<String> getTaskIds() {
+        return taskGraphImpl.getTaskIds();
+    }
+
     TaskGraph useDefaultThreadScheduler(boolean use) {
         taskGraphImpl.useDefaultThreadScheduler(use);
         return this;
@@ -881,6 +978,18 @@ public class TaskGraph implements TaskGraphInterface {
         return taskGraphImpl.getDeviceKernelTime();
     }
 
+    LatencyHistogram getWriteTimeHistogram() {
+        return taskGraphImpl.getDeviceWriteTimeHistogram();
+    }
+
+    LatencyHistogram getReadTimeHistogram() {
+        return taskGraphImpl.getDeviceReadTimeHistogram();
+    }
+
+    LatencyHistogram getDeviceKernelTimeHistogram() {
+        return taskGraphImpl.getDeviceKernelTimeHistogram();
+    }
+
     protected String getProfileLog() {
         return taskGraphImpl.getProfileLog();
     }
@@ -889,6 +998,14 @@ public class TaskGraph implements TaskGraphInterface {
         return taskGraphImpl.getOutputs();
     }
 
+    void withDeferredTransfersToHost(Set<Object> objects) {
+        taskGraphImpl.withDeferredTransfersToHost(objects);
+    }
+
+    void syncDeferredTransfersToHost() {
+        taskGraphImpl.syncDeferredTransfersToHost();
+    }
+
     void enableProfiler(ProfilerMode profilerMode) {
         taskGraphImpl.enableProfiler(profilerMode);
     }
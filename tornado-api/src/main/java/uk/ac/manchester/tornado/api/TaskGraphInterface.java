@@ -33,6 +33,7 @@ import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task6;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task7;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task8;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task9;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 
 /**
  * Base interface of the Tornado API.
@@ -472,6 +473,77 @@ public interface TaskGraphInterface {
     <T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15> TaskGraphInterface task(String id, Task15<T1, T2, T3, T4, T5, T6, T7, T8, T9, T10, T11, T12, T13, T14, T15> code, T1 arg1,
             T2 arg2, T3 arg3, T4 arg4, T5 arg5, T6 arg6, T7 arg7, T8 arg8, T9 arg9, T10 arg10, T11 arg11, T12 arg12, T13 arg13, T14 arg14, T15 arg15);
 
+    /**
+     * Adds a reduction with a user combiner. The combiner is a static method that
+     * combines the value at index {@code in} of the input array into the value
+     * at index {@code acc} of the accumulator array:
+     *
+     * <p>
+     * <code>
+     * static void combine(T1 acc, int accIndex, T1 in, int inIndex)
+     * </code>
+     * </p>
+     *
+     * <p>
+     * The combiner must be associative. Values are combined in the order of
+     * their indexes, starting from the identity. The reduction is compiled into
+     * one or more tasks: the last one has the given id and the partial
+     * reductions are named {@code <id>_partial<level>}.
+     * </p>
+     *
+     * @param id
+     *     Task-id
+     * @param combiner
+     *     Static method that combines two values.
+     * @param input
+     *     Values to reduce.
+     * @param identity
+     *     Array with the identity (neutral element) of the combiner at index 0.
+     * @param result
+     *     Array that receives the result at index 0.
+     * @return {@link TaskGraphInterface}
+     */
+    <T1 extends TornadoNativeArray> TaskGraphInterface reduce(String id, Task4<T1, Integer, T1, Integer> combiner, T1 input, T1 identity, T1 result);
+
+    /**
+     * Adds a reduction with a user combiner over pairs of values (e.g., value and
+     * index for arg-min and arg-max). Element {@code i} of each pair is stored in
+     * array {@code i}. The combiner combines the pair at index {@code in} into
+     * the pair at index {@code acc}:
+     *
+     * <p>
+     * <code>
+     * static void combine(T1 acc1, T2 acc2, int accIndex, T1 in1, T2 in2, int inIndex)
+     * </code>
+     * </p>
+     *
+     * See {@link #reduce(String, Task4, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraphInterface}
+     */
+    <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray> TaskGraphInterface reduce(String id, Task6<T1, T2, Integer, T1, T2, Integer> combiner, T1 input1, T2 input2, T1 identity1,
+            T2 identity2, T1 result1, T2 result2);
+
+    /**
+     * Adds a reduction with a user combiner over tuples of three values (e.g.,
+     * count, mean and sum of squared differences for the variance). See
+     * {@link #reduce(String, Task6, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraphInterface}
+     */
+    <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray, T3 extends TornadoNativeArray> TaskGraphInterface reduce(String id,
+            Task8<T1, T2, T3, Integer, T1, T2, T3, Integer> combiner, T1 input1, T2 input2, T3 input3, T1 identity1, T2 identity2, T3 identity3, T1 result1, T2 result2, T3 result3);
+
+    /**
+     * Adds a reduction with a user combiner over tuples of four values. See
+     * {@link #reduce(String, Task6, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray, TornadoNativeArray)}.
+     *
+     * @return {@link TaskGraphInterface}
+     */
+    <T1 extends TornadoNativeArray, T2 extends TornadoNativeArray, T3 extends TornadoNativeArray, T4 extends TornadoNativeArray> TaskGraphInterface reduce(String id,
+            Task10<T1, T2, T3, T4, Integer, T1, T2, T3, T4, Integer> combiner, T1 input1, T2 input2, T3 input3, T4 input4, T1 identity1, T2 identity2, T3 identity3, T4 identity4, T1 result1,
+            T2 result2, T3 result3, T4 result4);
+
     /**
      * Add a pre-built OpenCL task into a task-schedule.
      *
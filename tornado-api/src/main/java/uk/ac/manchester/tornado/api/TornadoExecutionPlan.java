@@ -19,12 +19,29 @@ package uk.ac.manchester.tornado.api;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
 
 /**
@@ -49,6 +66,19 @@ public class TornadoExecutionPlan {
     private ProfilerMode profilerMode;
     private boolean disableProfiler;
 
+    /**
+     * Last execution submitted with {@link #executeAsync()}. New asynchronous
+     * executions are chained after it, so executions of the same plan run in
+     * submission order without holding a thread while they wait.
+     */
+    private CompletableFuture<TornadoExecutionResult> lastAsyncExecution = CompletableFuture.completedFuture(null);
+    private final Object asyncExecutionLock = new Object();
+
+    /**
+     * Copies of the task-graphs used by {@link #execute(InvocationArguments)}.
+     */
+    private final InvocationPool invocationPool = new InvocationPool(1);
+
     /**
      * Create an Execution Plan: Object to create and optimize an execution plan for
      * running a set of immutable tasks-graphs. An executor plan contains an
@@ -78,6 +108,17 @@ public class TornadoExecutionPlan {
         return TornadoRuntime.getTornadoRuntime().getDriver(driverIndex).getDevice(deviceIndex);
     }
 
+    /**
+     * Method to obtain the device that runs the Java version of the tasks with
+     * multiple threads of the host. All the tasks of a task-graph must be mapped
+     * to this device.
+     *
+     * @return {@link TornadoDevice}
+     */
+    public static TornadoDevice getJVMDevice() {
+        return TornadoRuntime.getTornadoRuntime().getJVMDevice();
+    }
+
     /**
      * Execute an execution plan. It returns a {@link TornadoExecutionPlan} for
      * further build different optimization after the execution as well as obtain
@@ -85,7 +126,7 @@ public class TornadoExecutionPlan {
      *
      * @return {@link TornadoExecutionPlan}
      */
-    public TornadoExecutionResult execute() {
+    public synchronized TornadoExecutionResult execute() {
 
         checkProfilerEnabled();
 
@@ -99,11 +140,124 @@ public class TornadoExecutionPlan {
         return new TornadoExecutionResult(new TornadoProfilerResult(tornadoExecutor));
     }
 
+    /**
+     * Execute an execution plan without blocking the calling thread. The returned
+     * future completes with the {@link TornadoExecutionResult} once all the
+     * immutable task-graphs have finished, or exceptionally if the execution
+     * fails.
+     *
+     * <p>
+     * Asynchronous executions of the same plan are run one after the other, in
+     * submission order. Executions that are waiting for a previous one do not
+     * occupy any thread, so many executions can be in flight at the same time.
+     * The executions run on a shared pool of daemon threads, since the driver
+     * calls block until the device finishes. The pool is bounded by
+     * {@code -Dtornado.async.threads} (the number of processors by default);
+     * use {@link #executeAsync(Executor)} to run on another executor.
+     * </p>
+     *
+     * @return {@link CompletableFuture} with the {@link TornadoExecutionResult}.
+     *
+     * @since v1.0.2
+     */
+    public CompletableFuture<TornadoExecutionResult> executeAsync() {
+        return executeAsync(AsyncExecutor.INSTANCE);
+    }
+
+    /**
+     * Execute an execution plan without blocking the calling thread, using the
+     * given executor to run the execution.
+     *
+     * @param executor
+     *     {@link Executor} that runs the execution.
+     * @return {@link CompletableFuture} with the {@link TornadoExecutionResult}.
+     *
+     * @since v1.0.2
+     */
+    public CompletableFuture<TornadoExecutionResult> executeAsync(Executor executor) {
+        synchronized (asyncExecutionLock) {
+            // A failed execution must not prevent the next ones from running
+            CompletableFuture<TornadoExecutionResult> execution = lastAsyncExecution //
+                    .handle((result, exception) -> null) //
+                    .thenApplyAsync(ignored -> execute(), executor);
+            lastAsyncExecution = execution;
+            return execution;
+        }
+    }
+
+    /**
+     * Execute an execution plan with a different set of arguments. Each
+     * binding of the {@link InvocationArguments} replaces an object of the
+     * task-graphs with another one for this invocation only, e.g., to compute
+     * the same task-graph over the input and output arrays of different
+     * requests.
+     *
+     * <p>
+     * Unlike {@link #execute()}, this method can be called from many threads at
+     * the same time. The invocations share the compiled kernels and the device
+     * buffers of the objects that are not bound, and each set of bindings gets
+     * its own copy of the task-graphs with its own device buffers. Copies are
+     * kept in a pool of up to {@link #withConcurrentInvocations(int)} entries,
+     * so an invocation that binds the same objects as a previous one reuses its
+     * buffers. Invocations that bind the same objects run one after the other.
+     * </p>
+     *
+     * <p>
+     * On the OpenCL and PTX backends each copy runs on its own command queue
+     * or stream, so the invocations run concurrently on the device. On the
+     * SPIR-V backend the invocations that use the same device are serialized.
+     * </p>
+     *
+     * <p>
+     * The objects that are not bound are shared by all the invocations and are
+     * copied to each device once, so they must not be modified by the tasks.
+     * </p>
+     *
+     * @param arguments
+     *     {@link InvocationArguments}
+     * @return {@link TornadoExecutionResult}
+     *
+     * @since v1.0.2
+     */
+    public TornadoExecutionResult execute(InvocationArguments arguments) {
+        if (arguments.isEmpty()) {
+            return execute();
+        }
+        if (this.policy != null) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Invocation arguments cannot be used with dynamic reconfiguration");
+        }
+        return invocationPool.execute(arguments.getBindings());
+    }
+
+    /**
+     * Set the maximum number of invocations with arguments (see
+     * {@link #execute(InvocationArguments)}) that run at the same time. It is
+     * also the number of copies of the task-graphs, and their device buffers,
+     * kept by the plan. The default is 1.
+     *
+     * @param maxInvocations
+     *     Maximum number of concurrent invocations. It must be at least 1.
+     * @return {@link TornadoExecutionPlan}
+     *
+     * @since v1.0.2
+     */
+    public TornadoExecutionPlan withConcurrentInvocations(int maxInvocations) {
+        if (maxInvocations < 1) {
+            throw new TornadoRuntimeException("[ERROR] The number of concurrent invocations must be at least 1, but it is " + maxInvocations);
+        }
+        invocationPool.resize(maxInvocations);
+        return this;
+    }
+
     private void checkProfilerEnabled() {
+        checkProfilerEnabled(tornadoExecutor);
+    }
+
+    private void checkProfilerEnabled(TornadoExecutor executor) {
         if (this.profilerMode != null && !this.disableProfiler) {
-            tornadoExecutor.enableProfiler(profilerMode);
+            executor.enableProfiler(profilerMode);
         } else if (this.profilerMode != null) {
-            tornadoExecutor.disableProfiler(profilerMode);
+            executor.disableProfiler(profilerMode);
         }
     }
 
@@ -126,6 +280,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withDevice(TornadoDevice device) {
+        invocationPool.invalidate();
         tornadoExecutor.setDevice(device);
         return this;
     }
@@ -142,6 +297,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withDevice(String taskName, TornadoDevice device) {
+        invocationPool.invalidate();
         tornadoExecutor.setDevice(taskName, device);
         return this;
     }
@@ -156,6 +312,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withConcurrentDevices() {
+        invocationPool.invalidate();
         tornadoExecutor.withConcurrentDevices();
         return this;
     }
@@ -167,6 +324,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withoutConcurrentDevices() {
+        invocationPool.invalidate();
         tornadoExecutor.withoutConcurrentDevices();
         return this;
     }
@@ -184,6 +342,19 @@ public class TornadoExecutionPlan {
         return tornadoExecutor.getDevice(immutableTaskGraphIndex);
     }
 
+    /**
+     * It obtains the ids of the tasks of a specific immutable task-graph, in the
+     * order in which they run (e.g., {@code s0.t0}). Tasks fused by the runtime
+     * (see {@code -Dtornado.fusion=True}) are listed as a single task.
+     *
+     * @param immutableTaskGraphIndex
+     *     Index of a specific immutable task-graph
+     * @return {@link List} of task ids.
+     */
+    public List<String> getTaskIds(int immutableTaskGraphIndex) {
+        return tornadoExecutor.getTaskIds(immutableTaskGraphIndex);
+    }
+
     /**
      * Mark all device buffers that correspond to the current execution plan as free
      * in order for the TornadoVM runtime system to reuse those buffers and avoid
@@ -198,6 +369,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan freeDeviceMemory() {
+        invocationPool.invalidate();
         tornadoExecutor.freeDeviceMemory();
         return this;
     }
@@ -222,6 +394,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withDefaultScheduler() {
+        invocationPool.invalidate();
         tornadoExecutor.useDefaultScheduler(true);
         return this;
     }
@@ -253,10 +426,91 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withBatch(String batchSize) {
+        invocationPool.invalidate();
         tornadoExecutor.withBatch(batchSize);
         return this;
     }
 
+    /**
+     * Enable batch processing for arrays with different sizes and element types.
+     * Each batch receives a slice of the partitioned arrays, and the rest of the
+     * arrays of the task-graph are copied in full once and shared by all the
+     * batches. The batches are computed in number of items, so the slices of,
+     * for example, a {@link uk.ac.manchester.tornado.api.types.arrays.FloatArray}
+     * and a {@link uk.ac.manchester.tornado.api.types.arrays.DoubleArray} of the
+     * same length cover the same indexes. The batch size is the maximum size of
+     * the slice of any partitioned array.
+     *
+     * @param batchSize
+     *     String in the format a number + "MB" Example "512MB".
+     * @param partitions
+     *     Arrays to be split in batches. If no partitions are passed, all the
+     *     arrays are partitioned.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withBatch(String batchSize, BatchPartition... partitions) {
+        invocationPool.invalidate();
+        tornadoExecutor.withBatch(batchSize);
+        tornadoExecutor.withBatchPartitions(partitions);
+        return this;
+    }
+
+    /**
+     * Enable batch processing with double buffering. TornadoVM keeps two sets of
+     * device buffers and rotates the batches over them, so the copy-in and
+     * copy-out of one batch can overlap with the kernels of the previous batch.
+     *
+     * @param batchSize
+     *     String in the format a number + "MB" Example "512MB".
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withPipelinedBatch(String batchSize) {
+        return withPipelinedBatch(batchSize, 2);
+    }
+
+    /**
+     * Enable batch processing over several sets of device buffers. Batch
+     * {@code i} uses the buffer set {@code i % numBufferSets}, and it only
+     * waits for the batch that used the same buffers before. The device memory
+     * needed is {@code numBufferSets} times the batch size. Overlapping
+     * transfers with computation requires a device that executes commands out
+     * of order (e.g., OpenCL with {@code -Dtornado.ooo-execution.enable=True});
+     * otherwise, the batches run in order as in {@link #withBatch(String)}.
+     *
+     * @param batchSize
+     *     String in the format a number + "MB" Example "512MB".
+     * @param numBufferSets
+     *     Number of device buffer sets. A value of 1 is equivalent to
+     *     {@link #withBatch(String)}.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withPipelinedBatch(String batchSize, int numBufferSets) {
+        invocationPool.invalidate();
+        tornadoExecutor.withPipelinedBatch(batchSize, numBufferSets);
+        return this;
+    }
+
+    /**
+     * Enable pipelined batch processing (see
+     * {@link #withPipelinedBatch(String, int)}) for the given partitioned arrays
+     * (see {@link #withBatch(String, BatchPartition...)}). Only the partitioned
+     * arrays are replicated in each buffer set.
+     *
+     * @param batchSize
+     *     String in the format a number + "MB" Example "512MB".
+     * @param numBufferSets
+     *     Number of device buffer sets.
+     * @param partitions
+     *     Arrays to be split in batches.
+     * @return {@link TornadoExecutionPlan}
+     */
+    public TornadoExecutionPlan withPipelinedBatch(String batchSize, int numBufferSets, BatchPartition... partitions) {
+        invocationPool.invalidate();
+        tornadoExecutor.withPipelinedBatch(batchSize, numBufferSets);
+        tornadoExecutor.withBatchPartitions(partitions);
+        return this;
+    }
+
     /**
      * Enables the profiler. The profiler includes options to query device kernel
      * time, data transfers and compilation at different stages (JIT, driver
@@ -294,6 +548,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withMemoryLimit(String memoryLimit) {
+        invocationPool.invalidate();
         tornadoExecutor.withMemoryLimit(memoryLimit);
         return this;
     }
@@ -309,6 +564,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan withoutMemoryLimit() {
+        invocationPool.invalidate();
         tornadoExecutor.withoutMemoryLimit();
         return this;
     }
@@ -322,6 +578,7 @@ public class TornadoExecutionPlan {
      * @return {@link TornadoExecutionPlan}
      */
     public TornadoExecutionPlan resetDevice() {
+        invocationPool.invalidate();
         tornadoExecutor.resetDevice();
         return this;
     }
@@ -336,6 +593,231 @@ public class TornadoExecutionPlan {
         return this;
     }
 
+    /**
+     * Copies of the task-graphs of the plan for the invocations with arguments,
+     * one per set of bindings. At most {@code maxInvocations} copies are kept:
+     * when a new one is needed, the least recently used copy that is not
+     * running is evicted and its device buffers are released. A semaphore
+     * limits the number of invocations that run at the same time, so there is
+     * always a copy that can be evicted.
+     */
+    private final class InvocationPool {
+
+        private final LinkedHashMap<Map<Object, Object>, Invocation> invocations;
+        private final InvocationPermits permits;
+        private int maxInvocations;
+
+        InvocationPool(int maxInvocations) {
+            // Access order, so the first entry is the least recently used
+            this.invocations = new LinkedHashMap<>(16, 0.75f, true);
+            this.permits = new InvocationPermits(maxInvocations);
+            this.maxInvocations = maxInvocations;
+        }
+
+        TornadoExecutionResult execute(Map<Object, Object> bindings) {
+            permits.acquireUninterruptibly();
+            try {
+                Invocation invocation = lock(bindings);
+                try {
+                    return invocation.execute();
+                } finally {
+                    unlock(invocation);
+                }
+            } finally {
+                permits.release();
+            }
+        }
+
+        private Invocation lock(Map<Object, Object> bindings) {
+            while (true) {
+                Invocation invocation;
+                synchronized (this) {
+                    invocation = invocations.get(bindings);
+                    if (invocation == null) {
+                        evictIdle(maxInvocations - 1);
+                        invocation = new Invocation(bindings);
+                        invocations.put(bindings, invocation);
+                    }
+                }
+                invocation.lock.lock();
+                synchronized (this) {
+                    if (!invocation.evicted) {
+                        return invocation;
+                    }
+                }
+                // It was evicted while this thread was waiting for it
+                invocation.lock.unlock();
+            }
+        }
+
+        private void unlock(Invocation invocation) {
+            try {
+                synchronized (this) {
+                    if (invocation.evicted) {
+                        invocation.free();
+                    }
+                }
+            } finally {
+                invocation.lock.unlock();
+            }
+        }
+
+        /**
+         * Evicts the least recently used copies that are not running until at
+         * most {@code maxEntries} are left.
+         */
+        private void evictIdle(int maxEntries) {
+            Iterator<Invocation> iterator = invocations.values().iterator();
+            while (invocations.size() > maxEntries && iterator.hasNext()) {
+                Invocation invocation = iterator.next();
+                if (invocation.lock.tryLock()) {
+                    try {
+                        iterator.remove();
+                        invocation.evicted = true;
+                        invocation.free();
+                    } finally {
+                        invocation.lock.unlock();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Changes the number of permits of the semaphore that the running
+         * invocations already hold, so they return their permits to it and the
+         * new limit applies as soon as they finish.
+         */
+        synchronized void resize(int maxInvocations) {
+            permits.resize(maxInvocations - this.maxInvocations);
+            this.maxInvocations = maxInvocations;
+            evictIdle(maxInvocations);
+        }
+
+        /**
+         * Drops all the copies, e.g., after the configuration of the plan
+         * changes. The copies that are running are released when they finish.
+         */
+        synchronized void invalidate() {
+            evictIdle(0);
+            for (Invocation invocation : invocations.values()) {
+                invocation.evicted = true;
+            }
+            invocations.clear();
+        }
+    }
+
+    /**
+     * Semaphore whose number of permits can be reduced while they are held.
+     */
+    private static final class InvocationPermits extends Semaphore {
+
+        InvocationPermits(int permits) {
+            super(permits);
+        }
+
+        void resize(int delta) {
+            if (delta > 0) {
+                release(delta);
+            } else if (delta < 0) {
+                reducePermits(-delta);
+            }
+        }
+    }
+
+    private final class Invocation {
+
+        private final ReentrantLock lock;
+        private final TornadoExecutor executor;
+        private boolean evicted;
+        private boolean compiled;
+
+        Invocation(Map<Object, Object> bindings) {
+            this.lock = new ReentrantLock();
+            this.executor = tornadoExecutor.copyWithArguments(bindings);
+        }
+
+        TornadoExecutionResult execute() {
+            List<TornadoDeviceContext> serialDevices = executor.getSerialDeviceContexts();
+            if (!serialDevices.isEmpty()) {
+                runSerialized(serialDevices, 0);
+                compiled = true;
+            } else if (!compiled) {
+                // The first execution compiles or looks up the kernels. It runs
+                // alone, so the copies install each kernel only once.
+                synchronized (TornadoExecutionPlan.this) {
+                    run();
+                }
+                compiled = true;
+            } else {
+                run();
+            }
+            return new TornadoExecutionResult(new TornadoProfilerResult(executor));
+        }
+
+        /**
+         * Runs the invocation while it holds the locks of the given devices, which
+         * cannot run several invocations at the same time. The locks are taken in
+         * the order of the devices, so two plans never wait for each other.
+         */
+        private void runSerialized(List<TornadoDeviceContext> deviceContexts, int index) {
+            if (index == deviceContexts.size()) {
+                run();
+                return;
+            }
+            synchronized (deviceContexts.get(index)) {
+                runSerialized(deviceContexts, index + 1);
+            }
+        }
+
+        private void run() {
+            checkProfilerEnabled(executor);
+            if (gridScheduler != null) {
+                executor.execute(gridScheduler);
+            } else {
+                executor.execute();
+            }
+        }
+
+        void free() {
+            if (compiled) {
+                executor.freeDeviceMemory();
+            }
+        }
+    }
+
+    /**
+     * Shared pool of threads that run the asynchronous executions. The threads
+     * are platform daemon threads: an execution blocks in native driver calls,
+     * which would pin the carrier thread of a virtual thread anyway.
+     *
+     * <p>
+     * The pool has at most {@code tornado.async.threads} threads (by default, the
+     * number of processors), so many plans submitted at once queue up instead of
+     * creating a thread each. Idle threads are released after a minute.
+     * </p>
+     */
+    private static final class AsyncExecutor {
+
+        private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+        private static final int MAX_THREADS = Math.max(1, Integer.parseInt(System.getProperty("tornado.async.threads", Integer.toString(Runtime.getRuntime().availableProcessors()))));
+
+        static final ExecutorService INSTANCE = createThreadPool();
+
+        private static ExecutorService createThreadPool() {
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "TornadoVM-async-" + THREAD_COUNTER.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPool.allowCoreThreadTimeOut(true);
+            return threadPool;
+        }
+
+        private AsyncExecutor() {
+        }
+    }
+
     static class TornadoExecutor {
 
         private List<ImmutableTaskGraph> immutableTaskGraphList;
@@ -343,18 +825,64 @@ public class TornadoExecutionPlan {
         TornadoExecutor(ImmutableTaskGraph... immutableTaskGraphs) {
             immutableTaskGraphList = new ArrayList<>();
             Collections.addAll(immutableTaskGraphList, immutableTaskGraphs);
+            deferTransfersToHost();
+        }
+
+        /**
+         * The outputs of a task-graph that a later task-graph of the plan also
+         * uses stay on the device. Their transfers to the host are performed at the
+         * end of the execution, or before a task-graph that runs on another device
+         * uses them.
+         */
+        private void deferTransfersToHost() {
+            for (int i = 0; i < immutableTaskGraphList.size() - 1; i++) {
+                Set<Object> deferred = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (Object output : immutableTaskGraphList.get(i).getOutputs()) {
+                    for (int j = i + 1; j < immutableTaskGraphList.size(); j++) {
+                        if (immutableTaskGraphList.get(j).getArgumentsLookup().contains(output)) {
+                            deferred.add(output);
+                            break;
+                        }
+                    }
+                }
+                if (!deferred.isEmpty()) {
+                    immutableTaskGraphList.get(i).withDeferredTransfersToHost(deferred);
+                }
+            }
+        }
+
+        private void syncDeferredTransfersToHost() {
+            immutableTaskGraphList.forEach(ImmutableTaskGraph::syncDeferredTransfersToHost);
+        }
+
+        TornadoExecutor copyWithArguments(Map<Object, Object> bindings) {
+            return new TornadoExecutor(immutableTaskGraphList.stream() //
+                    .map(immutableTaskGraph -> immutableTaskGraph.copyWithArguments(bindings)) //
+                    .toArray(ImmutableTaskGraph[]::new));
         }
 
         void execute() {
-            immutableTaskGraphList.forEach(ImmutableTaskGraph::execute);
+            try {
+                immutableTaskGraphList.forEach(ImmutableTaskGraph::execute);
+            } finally {
+                syncDeferredTransfersToHost();
+            }
         }
 
         void execute(GridScheduler gridScheduler) {
-            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.execute(gridScheduler));
+            try {
+                immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.execute(gridScheduler));
+            } finally {
+                syncDeferredTransfersToHost();
+            }
         }
 
         void executeWithDynamicReconfiguration(Policy policy, DRMode mode) {
-            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.executeWithDynamicReconfiguration(policy, mode));
+            try {
+                immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.executeWithDynamicReconfiguration(policy, mode));
+            } finally {
+                syncDeferredTransfersToHost();
+            }
         }
 
         void warmup() {
@@ -365,6 +893,14 @@ public class TornadoExecutionPlan {
             immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withBatch(batchSize));
         }
 
+        void withPipelinedBatch(String batchSize, int numBufferSets) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withPipelinedBatch(batchSize, numBufferSets));
+        }
+
+        void withBatchPartitions(BatchPartition[] partitions) {
+            immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withBatchPartitions(partitions));
+        }
+
         void withMemoryLimit(String memoryLimit) {
             immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.withMemoryLimit(memoryLimit));
         }
@@ -461,6 +997,24 @@ public class TornadoExecutionPlan {
             return immutableTaskGraphList.stream().map(ImmutableTaskGraph::getDeviceKernelTime).mapToLong(Long::longValue).sum();
         }
 
+        LatencyHistogram getDeviceWriteTimeHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            immutableTaskGraphList.forEach(immutableTaskGraph -> histogram.add(immutableTaskGraph.getDeviceWriteTimeHistogram()));
+            return histogram;
+        }
+
+        LatencyHistogram getDeviceReadTimeHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            immutableTaskGraphList.forEach(immutableTaskGraph -> histogram.add(immutableTaskGraph.getDeviceReadTimeHistogram()));
+            return histogram;
+        }
+
+        LatencyHistogram getDeviceKernelTimeHistogram() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            immutableTaskGraphList.forEach(immutableTaskGraph -> histogram.add(immutableTaskGraph.getDeviceKernelTimeHistogram()));
+            return histogram;
+        }
+
         String getProfileLog() {
             return immutableTaskGraphList.stream().map(ImmutableTaskGraph::getProfileLog).collect(Collectors.joining());
         }
@@ -477,6 +1031,23 @@ public class TornadoExecutionPlan {
             immutableTaskGraphList.forEach(immutableTaskGraph -> immutableTaskGraph.useDefaultScheduler(isDefaultScheduler));
         }
 
+        /**
+         * @return the contexts of the devices used by the task-graphs that cannot
+         *     run several invocations at the same time, sorted by backend and
+         *     device. The OpenCL and PTX devices give each invocation its own
+         *     command queue or stream. The SPIR-V devices share their command
+         *     lists, so their invocations run one after the other.
+         */
+        List<TornadoDeviceContext> getSerialDeviceContexts() {
+            return immutableTaskGraphList.stream() //
+                    .map(ImmutableTaskGraph::getDevice) //
+                    .filter(device -> device.getTornadoVMBackend() != TornadoVMBackendType.OPENCL && device.getTornadoVMBackend() != TornadoVMBackendType.PTX) //
+                    .map(TornadoDevice::getDeviceContext) //
+                    .distinct() //
+                    .sorted(Comparator.comparingInt(TornadoDeviceContext::getDriverIndex).thenComparingInt(TornadoDeviceContext::getDeviceIndex)) //
+                    .toList();
+        }
+
         TornadoDevice getDevice(int immutableTaskGraphIndex) {
             if (immutableTaskGraphList.size() < immutableTaskGraphIndex) {
                 throw new TornadoRuntimeException("TaskGraph index #" + immutableTaskGraphIndex + " does not exist in current executor");
@@ -484,6 +1055,13 @@ public class TornadoExecutionPlan {
             return immutableTaskGraphList.get(immutableTaskGraphIndex).getDevice();
         }
 
+        List<String> getTaskIds(int immutableTaskGraphIndex) {
+            if (immutableTaskGraphList.size() <= immutableTaskGraphIndex) {
+                throw new TornadoRuntimeException("TaskGraph index #" + immutableTaskGraphIndex + " does not exist in current executor");
+            }
+            return immutableTaskGraphList.get(immutableTaskGraphIndex).getTaskIds();
+        }
+
         List<Object> getOutputs() {
             List<Object> outputs = new ArrayList<>();
             immutableTaskGraphList.forEach(immutableTaskGraph -> outputs.addAll(immutableTaskGraph.getOutputs()));
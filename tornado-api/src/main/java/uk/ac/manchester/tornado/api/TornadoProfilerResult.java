@@ -19,6 +19,7 @@ package uk.ac.manchester.tornado.api;
 
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan.TornadoExecutor;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.profiler.ProfileInterface;
 
 /**
@@ -157,6 +158,45 @@ public class TornadoProfilerResult implements ProfileInterface {
         return executor.getDeviceKernelTime();
     }
 
+    /**
+     * Returns the histogram of the time (in ns) to send data to the device (host
+     * -> device) in each execution, for all immutable task-graphs. Executions
+     * without copies to the device are not recorded.
+     *
+     * @return {@link LatencyHistogram}
+     * @since v1.0.2
+     */
+    @Override
+    public LatencyHistogram getDeviceWriteTimeHistogram() {
+        return executor.getDeviceWriteTimeHistogram();
+    }
+
+    /**
+     * Returns the histogram of the time (in ns) to receive data to the host
+     * (device -> host) in each execution, for all immutable task-graphs.
+     * Executions without copies to the host are not recorded.
+     *
+     * @return {@link LatencyHistogram}
+     * @since v1.0.2
+     */
+    @Override
+    public LatencyHistogram getDeviceReadTimeHistogram() {
+        return executor.getDeviceReadTimeHistogram();
+    }
+
+    /**
+     * Returns the histogram of the kernel time (in ns) of each execution, for
+     * all immutable task-graphs. It can be used to obtain the p50, p99 and p999
+     * latencies across executions.
+     *
+     * @return {@link LatencyHistogram}
+     * @since v1.0.2
+     */
+    @Override
+    public LatencyHistogram getDeviceKernelTimeHistogram() {
+        return executor.getDeviceKernelTimeHistogram();
+    }
+
     /**
      * Returns the profiler log in a JSON format for all the tasks within the
      * executor.
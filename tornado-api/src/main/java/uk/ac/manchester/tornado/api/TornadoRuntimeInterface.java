@@ -17,6 +17,8 @@
  */
 package uk.ac.manchester.tornado.api;
 
+import java.lang.foreign.MemorySegment;
+
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.memory.TornadoGlobalObjectState;
@@ -37,9 +39,41 @@ public interface TornadoRuntimeInterface {
 
     TornadoDevice getDefaultDevice();
 
+    /**
+     * @return The device that runs the Java version of the tasks with multiple
+     *     threads of the host. It can be selected for a task-graph like any other
+     *     device, and it is one of the candidates of the dynamic
+     *     reconfiguration.
+     */
+    TornadoDevice getJVMDevice();
+
     TornadoGlobalObjectState resolveObject(Object object);
 
     <D extends TornadoDriver> int getDriverIndex(Class<D> driverClass);
 
     boolean isProfilerEnabled();
+
+    /**
+     * Allocates page-locked (pinned) host memory from the default device, so
+     * the data transfers of native arrays do not need a staging copy in the
+     * driver.
+     *
+     * @param byteSize
+     *     Size in bytes of the memory segment.
+     * @return The pinned memory segment, or null if the backend of the default
+     *     device does not support pinned host memory.
+     */
+    MemorySegment allocatePinnedMemory(long byteSize);
+
+    /**
+     * @return Number of pinned allocations of the default device that reused a
+     *     free block of its pool, instead of pinning new host memory.
+     */
+    long getPinnedMemoryPoolHits();
+
+    /**
+     * @return Number of kernels loaded from the persistent kernel cache (see
+     *     the "tornado.kernel.cache.enable" option), instead of being compiled.
+     */
+    long getPersistentKernelCacheHits();
 }
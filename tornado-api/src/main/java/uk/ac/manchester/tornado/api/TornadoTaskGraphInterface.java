@@ -18,6 +18,8 @@
 package uk.ac.manchester.tornado.api;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -27,6 +29,7 @@ import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
 import uk.ac.manchester.tornado.api.memory.TaskMetaDataInterface;
 import uk.ac.manchester.tornado.api.profiler.ProfileInterface;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 
 public interface TornadoTaskGraphInterface extends ProfileInterface {
 
@@ -34,6 +37,13 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     TornadoDevice getDevice();
 
+    /**
+     * @return the ids of the tasks that run, in order. Tasks fused by the
+     *     runtime are listed once, with the ids of the original tasks joined by
+     *     {@code _}.
+     */
+    List<String> getTaskIds();
+
     void setDevice(TornadoDevice device);
 
     void setDevice(String taskName, TornadoDevice device);
@@ -48,6 +58,10 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     void withBatch(String batchSize);
 
+    void withPipelinedBatch(String batchSize, int numBufferSets);
+
+    void withBatchPartitions(BatchPartition[] partitions);
+
     void withMemoryLimit(String memoryLimit);
 
     void withoutMemoryLimit();
@@ -92,10 +106,14 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     TornadoTaskGraphInterface scheduleWithProfileSequential(Policy policy);
 
+    TornadoTaskGraphInterface scheduleWithModel(Policy policy);
+
     void addTask(TaskPackage taskPackage);
 
     void addPrebuiltTask(TaskPackage taskPackage);
 
+    void addTupleReduction(String id, Object combiner, TornadoNativeArray[] inputs, TornadoNativeArray[] identities, TornadoNativeArray[] results);
+
     String getTaskGraphName();
 
     void useDefaultThreadScheduler(boolean use);
@@ -106,8 +124,14 @@ public interface TornadoTaskGraphInterface extends ProfileInterface {
 
     TornadoTaskGraphInterface createImmutableTaskGraph();
 
+    TornadoTaskGraphInterface copyWithArguments(Map<Object, Object> bindings);
+
     Collection<?> getOutputs();
 
+    void withDeferredTransfersToHost(Set<Object> objects);
+
+    void syncDeferredTransfersToHost();
+
     void enableProfiler(ProfilerMode profilerMode);
 
     void disableProfiler(ProfilerMode profilerMode);
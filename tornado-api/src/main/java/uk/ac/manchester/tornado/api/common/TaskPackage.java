@@ -17,6 +17,8 @@
  */
 package uk.ac.manchester.tornado.api.common;
 
+import java.util.Map;
+
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task1;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task10;
@@ -33,6 +35,7 @@ import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task6;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task7;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task8;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task9;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 
 public class TaskPackage {
 
@@ -219,6 +222,37 @@ public class TaskPackage {
         return new TaskPackage(id, code, arg1, arg2, arg3, arg4, arg5, arg6, arg7, arg8, arg9, arg10, arg11, arg12, arg13, arg14, arg15);
     }
 
+    private TaskPackage(TaskPackage other, Object[] taskParameters) {
+        this.id = other.id;
+        this.taskType = other.taskType;
+        this.taskParameters = taskParameters;
+        this.numThreadsToRun = other.numThreadsToRun;
+        this.isPrebuiltTask = other.isPrebuiltTask;
+    }
+
+    /**
+     * Creates a copy of this task in which every parameter found in the
+     * bindings is replaced by its bound value. The code of the task is shared.
+     *
+     * @param bindings
+     *     Map from the original parameter to the new one. Keys are compared by
+     *     identity.
+     * @return a new {@link TaskPackage}
+     */
+    public TaskPackage withParameters(Map<Object, Object> bindings) {
+        if (isPrebuiltTask) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Prebuilt tasks cannot be copied with new parameters. Task: " + id);
+        }
+        Object[] parameters = taskParameters.clone();
+        for (int i = 1; i < parameters.length; i++) {
+            Object bound = bindings.get(parameters[i]);
+            if (bound != null) {
+                parameters[i] = bound;
+            }
+        }
+        return new TaskPackage(this, parameters);
+    }
+
     public static PrebuiltTaskPackage createPrebuiltTask(String id, String entryPoint, String filename, Object[] args, Access[] accesses, TornadoDevice device, int[] dimensions) {
         return new PrebuiltTaskPackage(id, entryPoint, filename, args, accesses, device, dimensions);
     }
@@ -54,6 +54,17 @@ public interface ObjectBuffer {
 
     void deallocate() throws TornadoMemoryException;
 
+    /**
+     * Allocates the buffer of a view of a native array as a region of the buffer
+     * of its parent, so the view and the parent share the memory on the device.
+     *
+     * @return true if the buffer of the parent is shared, or false if the view
+     *     must be allocated with {@link #allocate(Object, long)}.
+     */
+    default boolean allocateSlice(Object reference, ObjectBuffer parentBuffer) {
+        return false;
+    }
+
     long size();
 
     void setSizeSubRegion(long batchSize);
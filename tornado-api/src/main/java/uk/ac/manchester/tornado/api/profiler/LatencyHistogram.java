@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.api.profiler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies (in ns) with a bounded relative error, in the style
+ * of HdrHistogram. Values below 64 have their own bucket. Each power of two
+ * above is split into 32 linear buckets, so the values reported for a
+ * percentile are within 1/32 (~3%) of the recorded values.
+ *
+ * <p>
+ * Recording is lock-free and does not allocate, so it can be called from
+ * multiple threads while the histogram is read.
+ * </p>
+ *
+ * @since v1.0.2
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+    private static final int NUM_BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - LINEAR_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount;
+    private final AtomicLong totalSum;
+    private final AtomicLong minValue;
+    private final AtomicLong maxValue;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(NUM_BUCKETS);
+        totalCount = new AtomicLong();
+        totalSum = new AtomicLong();
+        minValue = new AtomicLong(Long.MAX_VALUE);
+        maxValue = new AtomicLong();
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - LINEAR_BITS + 1)) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueInBucket(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int bucket = index - LINEAR_BUCKETS;
+        int shift = bucket / SUB_BUCKETS + 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Adds a value to the histogram. Negative values are recorded as zero.
+     *
+     * @param value
+     *     Latency in nanoseconds.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(bucketIndex(v));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(v);
+        minValue.accumulateAndGet(v, Math::min);
+        maxValue.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * Adds all the values recorded in another histogram.
+     *
+     * @param other
+     *     Histogram to add.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalSum.addAndGet(other.totalSum.get());
+        minValue.accumulateAndGet(other.minValue.get(), Math::min);
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    /**
+     * @return a copy of the histogram that is not updated by further records.
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        copy.add(this);
+        return copy;
+    }
+
+    public void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalSum.set(0);
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(0);
+    }
+
+    /**
+     * @return number of recorded values.
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : minValue.get();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalSum.get() / count;
+    }
+
+    /**
+     * Returns the value below or equal to which the given percentage of
+     * recorded values fall. It returns 0 if the histogram is empty.
+     *
+     * @param percentile
+     *     Percentile in the range [0, 100].
+     * @return long
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * count));
+        long accumulated = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= target) {
+                return Math.min(highestValueInBucket(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public long getP50() {
+        return getValueAtPercentile(50.0);
+    }
+
+    public long getP99() {
+        return getValueAtPercentile(99.0);
+    }
+
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", min=" + getMin() + ", p50=" + getP50() + ", p99=" + getP99() + ", p999=" + getP999() + ", max=" + getMax();
+    }
+}
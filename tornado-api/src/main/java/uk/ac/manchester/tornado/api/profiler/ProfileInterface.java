@@ -39,6 +39,12 @@ public interface ProfileInterface {
 
     long getDeviceKernelTime();
 
+    LatencyHistogram getDeviceWriteTimeHistogram();
+
+    LatencyHistogram getDeviceReadTimeHistogram();
+
+    LatencyHistogram getDeviceKernelTimeHistogram();
+
     String getProfileLog();
 
 }
@@ -43,6 +43,7 @@ public enum ProfilerType {
     TOTAL_BYTE_CODE_GENERATION("Total-Bytecode-Gen"),
     TOTAL_DRIVER_COMPILE_TIME("Total-Driver-Compilation-Time"),
     TOTAL_GRAAL_COMPILE_TIME("Total-Graal-Compilation-Time"),
+    TOTAL_PARALLEL_COMPILE_SAVING("Total-Parallel-Compilation-Saving"),
 
     TOTAL_CODE_GENERATION_TIME("Total-Task-Code-Generation-Time"),
     TOTAL_KERNEL_TIME("Kernel-Time"),
@@ -54,4 +54,20 @@ public interface TornadoProfiler {
     void setTaskTimer(ProfilerType totalKernelTime, String taskId, long timer);
 
     void sum(ProfilerType type, long timer);
+
+    /**
+     * Adds the kernel, copy-in and copy-out times of the last execution to the
+     * histograms kept across executions.
+     */
+    void recordHistograms();
+
+    /**
+     * @param type
+     *     One of {@link ProfilerType#TOTAL_KERNEL_TIME},
+     *     {@link ProfilerType#COPY_IN_TIME} or
+     *     {@link ProfilerType#COPY_OUT_TIME}.
+     * @return a copy of the histogram of the values across executions. It is
+     *     empty for other types.
+     */
+    LatencyHistogram getHistogram(ProfilerType type);
 }
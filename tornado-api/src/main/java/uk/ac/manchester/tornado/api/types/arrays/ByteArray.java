@@ -18,10 +18,13 @@
 package uk.ac.manchester.tornado.api.types.arrays;
 
 import static java.lang.foreign.ValueLayout.JAVA_BYTE;
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -35,7 +38,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 public final class ByteArray extends TornadoNativeArray {
     private static final int BYTE_BYTES = 1;
     private MemorySegment segment;
-    private int numberOfElements;
+    private long numberOfElements;
     private int arrayHeaderSize;
 
     private int baseIndex;
@@ -49,15 +52,71 @@ public final class ByteArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public ByteArray(int numberOfElements) {
+    public ByteArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code ByteArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public ByteArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code ByteArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private ByteArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / BYTE_BYTES;
         arraySizeHeaderPosition = baseIndex - 4;
         segmentByteSize = numberOfElements * BYTE_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code ByteArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the byte data.
+     */
+    private ByteArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code ByteArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private ByteArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / BYTE_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -106,12 +165,62 @@ public final class ByteArray extends TornadoNativeArray {
      */
     public static ByteArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / BYTE_BYTES);
+        long numElements = byteSize / BYTE_BYTES;
         ByteArray byteArray = new ByteArray(numElements);
         MemorySegment.copy(segment, 0, byteArray.segment, byteArray.baseIndex * BYTE_BYTES, byteSize);
         return byteArray;
     }
 
+    /**
+     * Creates a new instance of the {@code ByteArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the byte data.
+     * @return A new {@code ByteArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code ByteArray}.
+     */
+    public static ByteArray fromFile(Path file) throws IOException {
+        return new ByteArray(mapFile(file, BYTE_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code ByteArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code ByteArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public ByteArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        ByteArray view = new ByteArray(segment.asSlice(offset * BYTE_BYTES, arrayHeaderSize + length * BYTE_BYTES), length);
+        view.setParent(this, offset * BYTE_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code ByteArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code ByteArray} instance, with all the elements set to zero.
+     */
+    public static ByteArray pinned(long numberOfElements) {
+        return new ByteArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the byte data from off-heap to on-heap, by copying the values of a {@code ByteArray}
      * instance into a new on-heap array.
@@ -119,7 +228,7 @@ public final class ByteArray extends TornadoNativeArray {
      * @return A new on-heap byte array, initialized with the values stored in the {@code ByteArray} instance.
      */
     public byte[] toHeapArray() {
-        byte[] outputArray = new byte[getSize()];
+        byte[] outputArray = new byte[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -138,6 +247,19 @@ public final class ByteArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_BYTE, baseIndex + index, value);
     }
 
+    /**
+     * Sets the byte value at a specified index of the {@code ByteArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the byte value.
+     * @param value
+     *     The byte value to store at the specified index.
+     */
+    public void set(long index, byte value) {
+        segment.setAtIndex(JAVA_BYTE, baseIndex + index, value);
+    }
+
     /**
      * Gets the byte value stored at the specified index of the {@code ByteArray} instance.
      *
@@ -149,6 +271,18 @@ public final class ByteArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_BYTE, baseIndex + index);
     }
 
+    /**
+     * Gets the byte value stored at the specified index of the {@code ByteArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the byte value.
+     * @return The byte value stored at the specified index.
+     */
+    public byte get(long index) {
+        return segment.getAtIndex(JAVA_BYTE, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code ByteArray} instance to zero.
      */
@@ -169,7 +303,7 @@ public final class ByteArray extends TornadoNativeArray {
      *     The byte value to initialize the {@code ByteArray} instance with.
      */
     public void init(byte value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_BYTE, baseIndex + i, value);
         }
     }
@@ -180,6 +314,17 @@ public final class ByteArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of byte elements stored in the {@code ByteArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
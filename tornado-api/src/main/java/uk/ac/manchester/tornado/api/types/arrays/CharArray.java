@@ -18,10 +18,13 @@
 package uk.ac.manchester.tornado.api.types.arrays;
 
 import static java.lang.foreign.ValueLayout.JAVA_CHAR;
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -35,7 +38,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 public final class CharArray extends TornadoNativeArray {
     private static final int CHAR_BYTES = 2;
     private MemorySegment segment;
-    private int numberOfElements;
+    private long numberOfElements;
     private int arrayHeaderSize;
 
     private int baseIndex;
@@ -48,14 +51,70 @@ public final class CharArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public CharArray(int numberOfElements) {
+    public CharArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code CharArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public CharArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code CharArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private CharArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / CHAR_BYTES;
         segmentByteSize = numberOfElements * CHAR_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code CharArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the char data.
+     */
+    private CharArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code CharArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private CharArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / CHAR_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -117,12 +176,62 @@ public final class CharArray extends TornadoNativeArray {
      */
     public static CharArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / CHAR_BYTES);
+        long numElements = byteSize / CHAR_BYTES;
         CharArray charArray = new CharArray(numElements);
         MemorySegment.copy(segment, 0, charArray.segment, charArray.baseIndex * CHAR_BYTES, byteSize);
         return charArray;
     }
 
+    /**
+     * Creates a new instance of the {@code CharArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the char data.
+     * @return A new {@code CharArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code CharArray}.
+     */
+    public static CharArray fromFile(Path file) throws IOException {
+        return new CharArray(mapFile(file, CHAR_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code CharArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code CharArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public CharArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        CharArray view = new CharArray(segment.asSlice(offset * CHAR_BYTES, arrayHeaderSize + length * CHAR_BYTES), length);
+        view.setParent(this, offset * CHAR_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code CharArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code CharArray} instance, with all the elements set to zero.
+     */
+    public static CharArray pinned(long numberOfElements) {
+        return new CharArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the char data from off-heap to on-heap, by copying the values of a {@code CharArray}
      * instance into a new on-heap array.
@@ -130,7 +239,7 @@ public final class CharArray extends TornadoNativeArray {
      * @return A new on-heap char array, initialized with the values stored in the {@code CharArray} instance.
      */
     public char[] toHeapArray() {
-        char[] outputArray = new char[getSize()];
+        char[] outputArray = new char[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -149,6 +258,19 @@ public final class CharArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_CHAR, baseIndex + index, value);
     }
 
+    /**
+     * Sets the char value at a specified index of the {@code CharArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the char value.
+     * @param value
+     *     The char value to store at the specified index.
+     */
+    public void set(long index, char value) {
+        segment.setAtIndex(JAVA_CHAR, baseIndex + index, value);
+    }
+
     /**
      * Gets the char value stored at the specified index of the {@code CharArray} instance.
      *
@@ -160,6 +282,18 @@ public final class CharArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_CHAR, baseIndex + index);
     }
 
+    /**
+     * Gets the char value stored at the specified index of the {@code CharArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the char value.
+     * @return The char value stored at the specified index.
+     */
+    public char get(long index) {
+        return segment.getAtIndex(JAVA_CHAR, baseIndex + index);
+    }
+
     /**
      * Initializes all the elements of the {@code CharArray} instance with a specified value.
      *
@@ -167,7 +301,7 @@ public final class CharArray extends TornadoNativeArray {
      *     The char value to initialize the {@code ByteArray} instance with.
      */
     public void init(char value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_CHAR, baseIndex + i, value);
         }
     }
@@ -179,6 +313,17 @@ public final class CharArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of char elements stored in the {@code CharArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
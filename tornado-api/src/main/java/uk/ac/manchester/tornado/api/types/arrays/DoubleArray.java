@@ -18,10 +18,13 @@
 package uk.ac.manchester.tornado.api.types.arrays;
 
 import static java.lang.foreign.ValueLayout.JAVA_DOUBLE;
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -35,7 +38,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 public final class DoubleArray extends TornadoNativeArray {
     private static final int DOUBLE_BYTES = 8;
     private MemorySegment segment;
-    private int numberOfElements;
+    private long numberOfElements;
 
     private int arrayHeaderSize;
 
@@ -49,15 +52,71 @@ public final class DoubleArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public DoubleArray(int numberOfElements) {
+    public DoubleArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code DoubleArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public DoubleArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code DoubleArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private DoubleArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         assert arrayHeaderSize >= 8;
         baseIndex = arrayHeaderSize / DOUBLE_BYTES;
         segmentByteSize = numberOfElements * DOUBLE_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code DoubleArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the double data.
+     */
+    private DoubleArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code DoubleArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private DoubleArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / DOUBLE_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -106,12 +165,62 @@ public final class DoubleArray extends TornadoNativeArray {
      */
     public static DoubleArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / DOUBLE_BYTES);
+        long numElements = byteSize / DOUBLE_BYTES;
         DoubleArray doubleArray = new DoubleArray(numElements);
         MemorySegment.copy(segment, 0, doubleArray.segment, doubleArray.baseIndex * DOUBLE_BYTES, byteSize);
         return doubleArray;
     }
 
+    /**
+     * Creates a new instance of the {@code DoubleArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the double data.
+     * @return A new {@code DoubleArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code DoubleArray}.
+     */
+    public static DoubleArray fromFile(Path file) throws IOException {
+        return new DoubleArray(mapFile(file, DOUBLE_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code DoubleArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code DoubleArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public DoubleArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        DoubleArray view = new DoubleArray(segment.asSlice(offset * DOUBLE_BYTES, arrayHeaderSize + length * DOUBLE_BYTES), length);
+        view.setParent(this, offset * DOUBLE_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code DoubleArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code DoubleArray} instance, with all the elements set to zero.
+     */
+    public static DoubleArray pinned(long numberOfElements) {
+        return new DoubleArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the double data from off-heap to on-heap, by copying the values of a {@code DoubleArray}
      * instance into a new on-heap array.
@@ -119,7 +228,7 @@ public final class DoubleArray extends TornadoNativeArray {
      * @return A new on-heap double array, initialized with the values stored in the {@code DoubleArray} instance.
      */
     public double[] toHeapArray() {
-        double[] outputArray = new double[getSize()];
+        double[] outputArray = new double[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -138,6 +247,19 @@ public final class DoubleArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_DOUBLE, baseIndex + index, value);
     }
 
+    /**
+     * Sets the double value at a specified index of the {@code DoubleArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the double value.
+     * @param value
+     *     The double value to store at the specified index.
+     */
+    public void set(long index, double value) {
+        segment.setAtIndex(JAVA_DOUBLE, baseIndex + index, value);
+    }
+
     /**
      * Gets the double value stored at the specified index of the {@code DoubleArray} instance.
      *
@@ -149,6 +271,18 @@ public final class DoubleArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_DOUBLE, baseIndex + index);
     }
 
+    /**
+     * Gets the double value stored at the specified index of the {@code DoubleArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the double value.
+     * @return The double value stored at the specified index.
+     */
+    public double get(long index) {
+        return segment.getAtIndex(JAVA_DOUBLE, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code DoubleArray} instance to zero.
      */
@@ -169,7 +303,7 @@ public final class DoubleArray extends TornadoNativeArray {
      *     The double value to initialize the {@code DoubleArray} instance with.
      */
     public void init(double value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_DOUBLE, baseIndex + i, value);
         }
     }
@@ -181,6 +315,17 @@ public final class DoubleArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of double elements stored in the {@code DoubleArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
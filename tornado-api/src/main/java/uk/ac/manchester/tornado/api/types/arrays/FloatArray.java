@@ -18,10 +18,13 @@
 package uk.ac.manchester.tornado.api.types.arrays;
 
 import static java.lang.foreign.ValueLayout.JAVA_FLOAT;
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -36,7 +39,7 @@ public final class FloatArray extends TornadoNativeArray {
     private static final int FLOAT_BYTES = 4;
     private MemorySegment segment;
 
-    private int numberOfElements;
+    private long numberOfElements;
 
     private int arrayHeaderSize;
 
@@ -50,14 +53,70 @@ public final class FloatArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public FloatArray(int numberOfElements) {
+    public FloatArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code FloatArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public FloatArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code FloatArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private FloatArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / FLOAT_BYTES;
         segmentByteSize = numberOfElements * FLOAT_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code FloatArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the float data.
+     */
+    private FloatArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code FloatArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private FloatArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / FLOAT_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -106,12 +165,62 @@ public final class FloatArray extends TornadoNativeArray {
      */
     public static FloatArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / FLOAT_BYTES);
+        long numElements = byteSize / FLOAT_BYTES;
         FloatArray floatArray = new FloatArray(numElements);
         MemorySegment.copy(segment, 0, floatArray.segment, floatArray.baseIndex * FLOAT_BYTES, byteSize);
         return floatArray;
     }
 
+    /**
+     * Creates a new instance of the {@code FloatArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the float data.
+     * @return A new {@code FloatArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code FloatArray}.
+     */
+    public static FloatArray fromFile(Path file) throws IOException {
+        return new FloatArray(mapFile(file, FLOAT_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code FloatArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code FloatArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public FloatArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        FloatArray view = new FloatArray(segment.asSlice(offset * FLOAT_BYTES, arrayHeaderSize + length * FLOAT_BYTES), length);
+        view.setParent(this, offset * FLOAT_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code FloatArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code FloatArray} instance, with all the elements set to zero.
+     */
+    public static FloatArray pinned(long numberOfElements) {
+        return new FloatArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the float data from off-heap to on-heap, by copying the values of a {@code FloatArray}
      * instance into a new on-heap array.
@@ -119,7 +228,7 @@ public final class FloatArray extends TornadoNativeArray {
      * @return A new on-heap float array, initialized with the values stored in the {@code FloatArray} instance.
      */
     public float[] toHeapArray() {
-        float[] outputArray = new float[getSize()];
+        float[] outputArray = new float[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -138,6 +247,19 @@ public final class FloatArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_FLOAT, baseIndex + index, value);
     }
 
+    /**
+     * Sets the float value at a specified index of the {@code FloatArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the float value.
+     * @param value
+     *     The float value to store at the specified index.
+     */
+    public void set(long index, float value) {
+        segment.setAtIndex(JAVA_FLOAT, baseIndex + index, value);
+    }
+
     /**
      * Gets the float value stored at the specified index of the {@code FloatArray} instance.
      *
@@ -149,6 +271,18 @@ public final class FloatArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_FLOAT, baseIndex + index);
     }
 
+    /**
+     * Gets the float value stored at the specified index of the {@code FloatArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the float value.
+     * @return The float value stored at the specified index.
+     */
+    public float get(long index) {
+        return segment.getAtIndex(JAVA_FLOAT, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code FloatArray} instance to zero.
      */
@@ -169,7 +303,7 @@ public final class FloatArray extends TornadoNativeArray {
      *     The float value to initialize the {@code FloatArray} instance with.
      */
     public void init(float value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_FLOAT, baseIndex + i, value);
         }
     }
@@ -181,6 +315,17 @@ public final class FloatArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of float elements stored in the {@code FloatArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
@@ -17,11 +17,14 @@
  */
 package uk.ac.manchester.tornado.api.types.arrays;
 
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 import static java.lang.foreign.ValueLayout.JAVA_SHORT;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 import uk.ac.manchester.tornado.api.types.HalfFloat;
@@ -38,7 +41,7 @@ public final class HalfFloatArray extends TornadoNativeArray {
     private static final int HALF_FLOAT_BYTES = 2;
     private MemorySegment segment;
 
-    private int numberOfElements;
+    private long numberOfElements;
 
     private int arrayHeaderSize;
 
@@ -52,14 +55,70 @@ public final class HalfFloatArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public HalfFloatArray(int numberOfElements) {
+    public HalfFloatArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code HalfFloatArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public HalfFloatArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code HalfFloatArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private HalfFloatArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / HALF_FLOAT_BYTES;
         segmentByteSize = numberOfElements * HALF_FLOAT_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code HalfFloatArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the half float data.
+     */
+    private HalfFloatArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code HalfFloatArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private HalfFloatArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / HALF_FLOAT_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -108,12 +167,62 @@ public final class HalfFloatArray extends TornadoNativeArray {
      */
     public static HalfFloatArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / HALF_FLOAT_BYTES);
+        long numElements = byteSize / HALF_FLOAT_BYTES;
         HalfFloatArray halfFloatArray = new HalfFloatArray(numElements);
         MemorySegment.copy(segment, 0, halfFloatArray.segment, halfFloatArray.baseIndex * HALF_FLOAT_BYTES, byteSize);
         return halfFloatArray;
     }
 
+    /**
+     * Creates a new instance of the {@code HalfFloatArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the half float data.
+     * @return A new {@code HalfFloatArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code HalfFloatArray}.
+     */
+    public static HalfFloatArray fromFile(Path file) throws IOException {
+        return new HalfFloatArray(mapFile(file, HALF_FLOAT_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code HalfFloatArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code HalfFloatArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public HalfFloatArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        HalfFloatArray view = new HalfFloatArray(segment.asSlice(offset * HALF_FLOAT_BYTES, arrayHeaderSize + length * HALF_FLOAT_BYTES), length);
+        view.setParent(this, offset * HALF_FLOAT_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code HalfFloatArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code HalfFloatArray} instance, with all the elements set to zero.
+     */
+    public static HalfFloatArray pinned(long numberOfElements) {
+        return new HalfFloatArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the {@link HalfFloat} data from off-heap to on-heap, by copying the values of a {@code HalfFloatArray}
      * instance into a new on-heap {@link HalfFloat}.
@@ -121,7 +230,7 @@ public final class HalfFloatArray extends TornadoNativeArray {
      * @return A new on-heap {@link HalfFloat} array, initialized with the values stored in the {@code HalfFloatArray} instance.
      */
     public HalfFloat[] toHeapArray() {
-        HalfFloat[] outputArray = new HalfFloat[getSize()];
+        HalfFloat[] outputArray = new HalfFloat[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -140,6 +249,19 @@ public final class HalfFloatArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_SHORT, baseIndex + index, value.getHalfFloatValue());
     }
 
+    /**
+     * Sets the half float value at a specified index of the {@code HalfFloatArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the half float value.
+     * @param value
+     *     The half float value to store at the specified index.
+     */
+    public void set(long index, HalfFloat value) {
+        segment.setAtIndex(JAVA_SHORT, baseIndex + index, value.getHalfFloatValue());
+    }
+
     /**
      * Gets the {@link HalfFloat} value stored at the specified index of the {@code HalfFloatArray} instance.
      *
@@ -152,6 +274,19 @@ public final class HalfFloatArray extends TornadoNativeArray {
         return new HalfFloat(halfFloatValue);
     }
 
+    /**
+     * Gets the half float value stored at the specified index of the {@code HalfFloatArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the half float value.
+     * @return The half float value stored at the specified index.
+     */
+    public HalfFloat get(long index) {
+        short halfFloatValue = segment.getAtIndex(JAVA_SHORT, baseIndex + index);
+        return new HalfFloat(halfFloatValue);
+    }
+
     /**
      * Sets all the values of the {@code HalfFloatArray} instance to zero.
      */
@@ -172,7 +307,7 @@ public final class HalfFloatArray extends TornadoNativeArray {
      *     The {@link HalfFloat} value to initialize the {@code HalfFloatArray} instance with.
      */
     public void init(HalfFloat value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_SHORT, baseIndex + i, value.getHalfFloatValue());
         }
     }
@@ -184,6 +319,17 @@ public final class HalfFloatArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of half float elements stored in the {@code HalfFloatArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
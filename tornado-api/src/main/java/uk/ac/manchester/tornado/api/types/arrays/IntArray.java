@@ -18,9 +18,13 @@
 package uk.ac.manchester.tornado.api.types.arrays;
 
 import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -33,7 +37,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 @SegmentElementSize(size = 4)
 public final class IntArray extends TornadoNativeArray {
     private static final int INT_BYTES = 4;
-    private int numberOfElements;
+    private long numberOfElements;
     private MemorySegment segment;
     private int arrayHeaderSize;
 
@@ -47,14 +51,70 @@ public final class IntArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public IntArray(int numberOfElements) {
+    public IntArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code IntArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public IntArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code IntArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private IntArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / INT_BYTES;
         segmentByteSize = numberOfElements * INT_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code IntArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the int data.
+     */
+    private IntArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code IntArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private IntArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / INT_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -103,12 +163,62 @@ public final class IntArray extends TornadoNativeArray {
      */
     public static IntArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / INT_BYTES);
+        long numElements = byteSize / INT_BYTES;
         IntArray intArray = new IntArray(numElements);
         MemorySegment.copy(segment, 0, intArray.segment, intArray.baseIndex * INT_BYTES, byteSize);
         return intArray;
     }
 
+    /**
+     * Creates a new instance of the {@code IntArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the int data.
+     * @return A new {@code IntArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code IntArray}.
+     */
+    public static IntArray fromFile(Path file) throws IOException {
+        return new IntArray(mapFile(file, INT_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code IntArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code IntArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public IntArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        IntArray view = new IntArray(segment.asSlice(offset * INT_BYTES, arrayHeaderSize + length * INT_BYTES), length);
+        view.setParent(this, offset * INT_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code IntArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code IntArray} instance, with all the elements set to zero.
+     */
+    public static IntArray pinned(long numberOfElements) {
+        return new IntArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the int data from off-heap to on-heap, by copying the values of a {@code IntArray}
      * instance into a new on-heap array.
@@ -116,7 +226,7 @@ public final class IntArray extends TornadoNativeArray {
      * @return A new on-heap int array, initialized with the values stored in the {@code IntArray} instance.
      */
     public int[] toHeapArray() {
-        int[] outputArray = new int[getSize()];
+        int[] outputArray = new int[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -135,6 +245,19 @@ public final class IntArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_INT, baseIndex + index, value);
     }
 
+    /**
+     * Sets the int value at a specified index of the {@code IntArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the int value.
+     * @param value
+     *     The int value to store at the specified index.
+     */
+    public void set(long index, int value) {
+        segment.setAtIndex(JAVA_INT, baseIndex + index, value);
+    }
+
     /**
      * Gets the int value stored at the specified index of the {@code IntArray} instance.
      *
@@ -146,6 +269,18 @@ public final class IntArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_INT, baseIndex + index);
     }
 
+    /**
+     * Gets the int value stored at the specified index of the {@code IntArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the int value.
+     * @return The int value stored at the specified index.
+     */
+    public int get(long index) {
+        return segment.getAtIndex(JAVA_INT, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code IntArray} instance to zero.
      */
@@ -166,7 +301,7 @@ public final class IntArray extends TornadoNativeArray {
      *     The int value to initialize the {@code IntArray} instance with.
      */
     public void init(int value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_INT, baseIndex + i, value);
         }
     }
@@ -178,6 +313,17 @@ public final class IntArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of int elements stored in the {@code IntArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
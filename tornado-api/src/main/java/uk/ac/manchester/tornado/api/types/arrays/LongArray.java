@@ -17,11 +17,13 @@
  */
 package uk.ac.manchester.tornado.api.types.arrays;
 
-import static java.lang.foreign.ValueLayout.JAVA_INT;
 import static java.lang.foreign.ValueLayout.JAVA_LONG;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -35,7 +37,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 public final class LongArray extends TornadoNativeArray {
     private static final int LONG_BYTES = 8;
     private MemorySegment segment;
-    private int numberOfElements;
+    private long numberOfElements;
     private int arrayHeaderSize;
 
     private int baseIndex;
@@ -48,14 +50,70 @@ public final class LongArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public LongArray(int numberOfElements) {
+    public LongArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code LongArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public LongArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code LongArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private LongArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         baseIndex = arrayHeaderSize / LONG_BYTES;
 
         segmentByteSize = numberOfElements * LONG_BYTES + arrayHeaderSize;
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code LongArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the long data.
+     */
+    private LongArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code LongArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private LongArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / LONG_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -104,12 +162,62 @@ public final class LongArray extends TornadoNativeArray {
      */
     public static LongArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / LONG_BYTES);
+        long numElements = byteSize / LONG_BYTES;
         LongArray longArray = new LongArray(numElements);
         MemorySegment.copy(segment, 0, longArray.segment, longArray.baseIndex * LONG_BYTES, byteSize);
         return longArray;
     }
 
+    /**
+     * Creates a new instance of the {@code LongArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the long data.
+     * @return A new {@code LongArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code LongArray}.
+     */
+    public static LongArray fromFile(Path file) throws IOException {
+        return new LongArray(mapFile(file, LONG_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code LongArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code LongArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public LongArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        LongArray view = new LongArray(segment.asSlice(offset * LONG_BYTES, arrayHeaderSize + length * LONG_BYTES), length);
+        view.setParent(this, offset * LONG_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code LongArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code LongArray} instance, with all the elements set to zero.
+     */
+    public static LongArray pinned(long numberOfElements) {
+        return new LongArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the long data from off-heap to on-heap, by copying the values of a {@code LongArray}
      * instance into a new on-heap array.
@@ -117,7 +225,7 @@ public final class LongArray extends TornadoNativeArray {
      * @return A new on-heap long array, initialized with the values stored in the {@code LongArray} instance.
      */
     public long[] toHeapArray() {
-        long[] outputArray = new long[getSize()];
+        long[] outputArray = new long[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -136,6 +244,19 @@ public final class LongArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_LONG, baseIndex + index, value);
     }
 
+    /**
+     * Sets the long value at a specified index of the {@code LongArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the long value.
+     * @param value
+     *     The long value to store at the specified index.
+     */
+    public void set(long index, long value) {
+        segment.setAtIndex(JAVA_LONG, baseIndex + index, value);
+    }
+
     /**
      * Gets the long value stored at the specified index of the {@code LongArray} instance.
      *
@@ -147,6 +268,18 @@ public final class LongArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_LONG, baseIndex + index);
     }
 
+    /**
+     * Gets the long value stored at the specified index of the {@code LongArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the long value.
+     * @return The long value stored at the specified index.
+     */
+    public long get(long index) {
+        return segment.getAtIndex(JAVA_LONG, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code LongArray} instance to zero.
      */
@@ -167,7 +300,7 @@ public final class LongArray extends TornadoNativeArray {
      *     The long value to initialize the {@code LongArray} instance with.
      */
     public void init(long value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_LONG, baseIndex + i, value);
         }
     }
@@ -179,6 +312,17 @@ public final class LongArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of long elements stored in the {@code LongArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2013-2023, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.api.types.arrays;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the native memory allocated by the constructors of the native arrays, to report the number of live bytes
+ * per array type. The tracker is disabled by default, and it can be enabled through the "tornado.memory.tracker"
+ * system property.
+ *
+ * <p>
+ * The memory of an array is live until the array is released with {@link TornadoNativeArray#free()}, its arena is
+ * closed, or its {@link MemorySegment} is reclaimed by the GC. Views created with the {@code slice} methods and
+ * arrays mapped from files are not tracked, since they do not allocate native memory.
+ * </p>
+ */
+public final class NativeMemoryTracker {
+
+    /**
+     * Whether the allocations of native arrays are tracked. It is false by default.
+     */
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("tornado.memory.tracker", "False"));
+
+    private static final Map<Class<? extends TornadoNativeArray>, AtomicLong> LIVE_BYTES = new ConcurrentHashMap<>();
+
+    private static final Set<Allocation> ALLOCATIONS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Scopes reclaimed by the GC, whose allocations are released on the next allocation.
+     */
+    private static final ReferenceQueue<MemorySegment.Scope> RECLAIMED_SCOPES = new ReferenceQueue<>();
+
+    private NativeMemoryTracker() {
+    }
+
+    /**
+     * The native memory of one array. The scope of its segment is weakly referenced, so the tracker does not keep
+     * the memory of automatic arenas alive.
+     */
+    static final class Allocation extends WeakReference<MemorySegment.Scope> {
+
+        private final Class<? extends TornadoNativeArray> type;
+        private final long byteSize;
+        private final AtomicBoolean released;
+
+        private Allocation(Class<? extends TornadoNativeArray> type, MemorySegment segment) {
+            super(segment.scope(), RECLAIMED_SCOPES);
+            this.type = type;
+            this.byteSize = segment.byteSize();
+            this.released = new AtomicBoolean();
+        }
+
+        private boolean isReleased() {
+            MemorySegment.Scope scope = get();
+            return scope == null || !scope.isAlive();
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                LIVE_BYTES.get(type).addAndGet(-byteSize);
+                ALLOCATIONS.remove(this);
+            }
+        }
+    }
+
+    /**
+     * Registers the memory segment allocated by a native array.
+     *
+     * @return The allocation of the array, or {@code null} if the tracker is disabled.
+     */
+    static Allocation track(TornadoNativeArray array, MemorySegment segment) {
+        if (!ENABLED) {
+            return null;
+        }
+        releaseReclaimedScopes();
+        Allocation allocation = new Allocation(array.getClass(), segment);
+        LIVE_BYTES.computeIfAbsent(allocation.type, type -> new AtomicLong()).addAndGet(allocation.byteSize);
+        ALLOCATIONS.add(allocation);
+        return allocation;
+    }
+
+    private static void releaseReclaimedScopes() {
+        Allocation allocation;
+        while ((allocation = (Allocation) RECLAIMED_SCOPES.poll()) != null) {
+            allocation.release();
+        }
+    }
+
+    /**
+     * Releases the allocations whose memory has been released by closing their arena, or reclaimed by the GC.
+     */
+    private static void releaseDeadAllocations() {
+        releaseReclaimedScopes();
+        for (Allocation allocation : ALLOCATIONS) {
+            if (allocation.isReleased()) {
+                allocation.release();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes of native memory, including the array headers, of the live arrays of a type.
+     *
+     * @param type
+     *     The class of the native array, e.g., {@code FloatArray.class}.
+     * @return The number of live bytes, or zero if the tracker is disabled.
+     */
+    public static long getLiveBytes(Class<? extends TornadoNativeArray> type) {
+        releaseDeadAllocations();
+        AtomicLong liveBytes = LIVE_BYTES.get(type);
+        return liveBytes == null ? 0 : liveBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes of native memory of all the live arrays.
+     *
+     * @return The number of live bytes, or zero if the tracker is disabled.
+     */
+    public static long getLiveBytes() {
+        releaseDeadAllocations();
+        return LIVE_BYTES.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Returns the number of bytes of native memory of the live arrays, indexed by the name of the array type.
+     *
+     * @return The live bytes per array type, sorted by the name of the type.
+     */
+    public static Map<String, Long> getLiveBytesPerType() {
+        releaseDeadAllocations();
+        Map<String, Long> liveBytesPerType = new TreeMap<>();
+        LIVE_BYTES.forEach((type, liveBytes) -> liveBytesPerType.put(type.getSimpleName(), liveBytes.get()));
+        return liveBytesPerType;
+    }
+
+    /**
+     * Returns a summary of the live native memory per array type, e.g., to print it periodically.
+     *
+     * @return The summary, with one line per array type.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("Live native memory of TornadoVM arrays:\n");
+        getLiveBytesPerType().forEach((type, liveBytes) -> report.append(String.format("\t%-16s %d bytes%n", type, liveBytes)));
+        return report.toString();
+    }
+}
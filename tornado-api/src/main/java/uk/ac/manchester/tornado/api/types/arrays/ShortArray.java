@@ -17,11 +17,14 @@
  */
 package uk.ac.manchester.tornado.api.types.arrays;
 
-import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
 import static java.lang.foreign.ValueLayout.JAVA_SHORT;
 
+import java.io.IOException;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.file.Path;
+import java.util.Objects;
 
 import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 
@@ -35,7 +38,7 @@ import uk.ac.manchester.tornado.api.internal.annotations.SegmentElementSize;
 public final class ShortArray extends TornadoNativeArray {
     private static final int SHORT_BYTES = 2;
     private MemorySegment segment;
-    private int numberOfElements;
+    private long numberOfElements;
     private int arrayHeaderSize;
 
     private int baseIndex;
@@ -48,15 +51,71 @@ public final class ShortArray extends TornadoNativeArray {
      * @param numberOfElements
      *     The number of elements in the array.
      */
-    public ShortArray(int numberOfElements) {
+    public ShortArray(long numberOfElements) {
+        this(numberOfElements, null, PINNED_MEMORY);
+    }
+
+    /**
+     * Constructs a new instance of the {@code ShortArray} in an arena provided by the caller. The memory of the array is
+     * released as soon as the arena is closed, either by the caller or with {@link #free()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena that allocates the array, e.g., a confined or a shared arena.
+     */
+    public ShortArray(long numberOfElements, Arena arena) {
+        this(numberOfElements, Objects.requireNonNull(arena), false);
+    }
+
+    /**
+     * Internal constructor used to allocate a new {@code ShortArray}, in the arena of the caller if it is not
+     * {@code null}, or in pinned host memory if requested.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @param arena
+     *     The arena of the caller, or {@code null} to allocate the array in an automatic arena.
+     * @param pinned
+     *     Whether the array is allocated in pinned host memory of the default device.
+     */
+    private ShortArray(long numberOfElements, Arena arena, boolean pinned) {
         this.numberOfElements = numberOfElements;
         arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
         assert arrayHeaderSize >= 4;
         baseIndex = arrayHeaderSize / SHORT_BYTES;
         segmentByteSize = numberOfElements * SHORT_BYTES + arrayHeaderSize;
 
-        segment = Arena.ofAuto().allocate(segmentByteSize, 1);
-        segment.setAtIndex(JAVA_INT, 0, numberOfElements);
+        segment = allocateSegment(segmentByteSize, arena, pinned);
+        segment.set(JAVA_LONG, 0, numberOfElements);
+    }
+
+    /**
+     * Internal constructor used to create a new instance of the {@code ShortArray} from a {@link MemorySegment}
+     * that already contains the array header, such as a mapped file.
+     *
+     * @param segment
+     *     The {@link MemorySegment} with the array header and the short data.
+     */
+    private ShortArray(MemorySegment segment) {
+        this(segment, segment.get(JAVA_LONG, 0));
+    }
+
+    /**
+     * Internal constructor used to create a view of the elements of another {@code ShortArray}. The {@link MemorySegment}
+     * starts {@code ARRAY_HEADER} bytes before the first element of the view, and its header is never written.
+     *
+     * @param segment
+     *     The {@link MemorySegment} of the view, shared with the parent array.
+     * @param numberOfElements
+     *     The number of elements of the view.
+     */
+    private ShortArray(MemorySegment segment, long numberOfElements) {
+        this.segment = segment;
+        this.numberOfElements = numberOfElements;
+        arrayHeaderSize = (int) TornadoNativeArray.ARRAY_HEADER;
+        baseIndex = arrayHeaderSize / SHORT_BYTES;
+        segmentByteSize = segment.byteSize();
     }
 
     /**
@@ -105,12 +164,62 @@ public final class ShortArray extends TornadoNativeArray {
      */
     public static ShortArray fromSegment(MemorySegment segment) {
         long byteSize = segment.byteSize();
-        int numElements = (int) (byteSize / SHORT_BYTES);
+        long numElements = byteSize / SHORT_BYTES;
         ShortArray shortArray = new ShortArray(numElements);
         MemorySegment.copy(segment, 0, shortArray.segment, shortArray.baseIndex * SHORT_BYTES, byteSize);
         return shortArray;
     }
 
+    /**
+     * Creates a new instance of the {@code ShortArray} class backed by a file written with {@link #toFile(Path)}.
+     * The file is mapped into memory, so the data is not copied and it is read from disk on first access.
+     * Changes to the array are stored in the file, and {@link #force()} writes them to the storage device.
+     *
+     * @param file
+     *     The file containing the array header and the short data.
+     * @return A new {@code ShortArray} instance, backed by the file.
+     * @throws IOException
+     *     If the file cannot be mapped, or it does not contain a {@code ShortArray}.
+     */
+    public static ShortArray fromFile(Path file) throws IOException {
+        return new ShortArray(mapFile(file, SHORT_BYTES));
+    }
+
+    /**
+     * Creates a view of a range of elements of the {@code ShortArray} instance. The view shares the {@link MemorySegment}
+     * of this array, so the elements are not copied and the changes to the view are visible in this array. Views
+     * can be passed to tasks; when this array is also a parameter of the task-graph, the view is a sub-region of
+     * its buffer on the device.
+     *
+     * @param offset
+     *     The index of the first element of the view.
+     * @param length
+     *     The number of elements of the view.
+     * @return A new {@code ShortArray} instance that shares the elements of this array.
+     * @throws IndexOutOfBoundsException
+     *     If the range is not within the bounds of this array.
+     */
+    public ShortArray slice(long offset, long length) {
+        Objects.checkFromIndexSize(offset, length, numberOfElements);
+        ShortArray view = new ShortArray(segment.asSlice(offset * SHORT_BYTES, arrayHeaderSize + length * SHORT_BYTES), length);
+        view.setParent(this, offset * SHORT_BYTES);
+        return view;
+    }
+
+    /**
+     * Creates a new instance of the {@code ShortArray} class allocated in page-locked (pinned) host memory of the
+     * default device, so the data transfers to and from the device do not need a staging copy in the driver.
+     * If the backend of the default device does not support pinned memory, the array is allocated in
+     * pageable memory; see {@link #isPinned()}.
+     *
+     * @param numberOfElements
+     *     The number of elements in the array.
+     * @return A new {@code ShortArray} instance, with all the elements set to zero.
+     */
+    public static ShortArray pinned(long numberOfElements) {
+        return new ShortArray(numberOfElements, null, true);
+    }
+
     /**
      * Converts the short data from off-heap to on-heap, by copying the values of a {@code ShortArray}
      * instance into a new on-heap array.
@@ -118,7 +227,7 @@ public final class ShortArray extends TornadoNativeArray {
      * @return A new on-heap short array, initialized with the values stored in the {@code ShortArray} instance.
      */
     public short[] toHeapArray() {
-        short[] outputArray = new short[getSize()];
+        short[] outputArray = new short[Math.toIntExact(numberOfElements)];
         for (int i = 0; i < getSize(); i++) {
             outputArray[i] = get(i);
         }
@@ -137,6 +246,19 @@ public final class ShortArray extends TornadoNativeArray {
         segment.setAtIndex(JAVA_SHORT, baseIndex + index, value);
     }
 
+    /**
+     * Sets the short value at a specified index of the {@code ShortArray} instance. This method addresses arrays
+     * with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index at which to set the short value.
+     * @param value
+     *     The short value to store at the specified index.
+     */
+    public void set(long index, short value) {
+        segment.setAtIndex(JAVA_SHORT, baseIndex + index, value);
+    }
+
     /**
      * Gets the short value stored at the specified index of the {@code ShortArray} instance.
      *
@@ -148,6 +270,18 @@ public final class ShortArray extends TornadoNativeArray {
         return segment.getAtIndex(JAVA_SHORT, baseIndex + index);
     }
 
+    /**
+     * Gets the short value stored at the specified index of the {@code ShortArray} instance. This method addresses
+     * arrays with more than {@link Integer#MAX_VALUE} elements.
+     *
+     * @param index
+     *     The index of which to retrieve the short value.
+     * @return The short value stored at the specified index.
+     */
+    public short get(long index) {
+        return segment.getAtIndex(JAVA_SHORT, baseIndex + index);
+    }
+
     /**
      * Sets all the values of the {@code ShortArray} instance to zero.
      */
@@ -168,7 +302,7 @@ public final class ShortArray extends TornadoNativeArray {
      *     The short value to initialize the {@code ShortArray} instance with.
      */
     public void init(short value) {
-        for (int i = 0; i < getSize(); i++) {
+        for (long i = 0; i < numberOfElements; i++) {
             segment.setAtIndex(JAVA_SHORT, baseIndex + i, value);
         }
     }
@@ -180,6 +314,17 @@ public final class ShortArray extends TornadoNativeArray {
      */
     @Override
     public int getSize() {
+        return (int) numberOfElements;
+    }
+
+    /**
+     * Returns the number of short elements stored in the {@code ShortArray} instance, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements.
+     */
+    @Override
+    public long getSizeAsLong() {
         return numberOfElements;
     }
 
@@ -17,7 +17,16 @@
  */
 package uk.ac.manchester.tornado.api.types.arrays;
 
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
 
 /**
  * This abstract sealed class represents the common functionality of the TornadoVM custom native arrays,
@@ -32,8 +41,34 @@ import java.lang.foreign.MemorySegment;
  * <p>
  * The constant {@code ARRAY_HEADER} represents the size of the header in bytes.
  * </p>
+ *
+ * <p>
+ * Native arrays can be stored in files with {@link #toFile(Path)}. The file contains the same bytes as the
+ * memory segment: the array header, with the number of elements in the first eight bytes, followed by the
+ * elements in the native byte order. These files can be mapped back into memory with the {@code fromFile}
+ * factory method of each array type, without copying the data.
+ * </p>
+ *
+ * <p>
+ * The {@code slice} method of each array type creates a view of a range of elements that shares the memory
+ * segment of its parent array. A view keeps a reference to the array that owns the memory, and the offset of
+ * its first element in that array, so the runtime can place the view within the device buffer of the parent.
+ * </p>
+ *
+ * <p>
+ * Native arrays can be allocated in page-locked (pinned) host memory of the default device, with the {@code pinned}
+ * factory method of each array type, or for all the arrays with the "tornado.pinned.memory" system property. The
+ * drivers copy pinned memory to and from the device directly, instead of staging it through a pageable buffer.
+ * </p>
+ *
+ * <p>
+ * By default, the memory of a native array is reclaimed when the GC finds that its {@link MemorySegment} is
+ * unreachable. The constructors that take an {@link Arena} allocate the array in an arena of the caller, e.g., a
+ * confined or a shared arena, and the memory is released as soon as the arena is closed, either by the caller or with
+ * {@link #free()}. The runtime does not launch tasks with arrays that have been released.
+ * </p>
  */
-public abstract sealed class TornadoNativeArray permits ByteArray, CharArray, DoubleArray, FloatArray, IntArray, LongArray, ShortArray, HalfFloatArray {
+public abstract sealed class TornadoNativeArray implements AutoCloseable permits ByteArray, CharArray, DoubleArray, FloatArray, IntArray, LongArray, ShortArray, HalfFloatArray {
 
     /**
      * The size of the header in bytes. The default value is 24, but it can be configurable through
@@ -42,12 +77,39 @@ public abstract sealed class TornadoNativeArray permits ByteArray, CharArray, Do
     public static final long ARRAY_HEADER = Long.parseLong(System.getProperty("tornado.panama.objectHeader", "24"));
 
     /**
-     * Returns the number of elements stored in the native array.
+     * Whether all the native arrays are allocated in pinned host memory. It is false by default, and it can be
+     * enabled through the "tornado.pinned.memory" system property.
+     */
+    public static final boolean PINNED_MEMORY = Boolean.parseBoolean(System.getProperty("tornado.pinned.memory", "False"));
+
+    private TornadoNativeArray parent;
+
+    private long parentOffset;
+
+    private boolean pinned;
+
+    private Arena arena;
+
+    private NativeMemoryTracker.Allocation allocation;
+
+    private boolean freed;
+
+    /**
+     * Returns the number of elements stored in the native array. Arrays with more than {@link Integer#MAX_VALUE}
+     * elements must use {@link #getSizeAsLong()}: the runtime rejects the tasks that call this method on them.
      *
      * @return The number of elements of the native data array.
      */
     public abstract int getSize();
 
+    /**
+     * Returns the number of elements stored in the native array, including arrays with more than
+     * {@link Integer#MAX_VALUE} elements.
+     *
+     * @return The number of elements of the native data array.
+     */
+    public abstract long getSizeAsLong();
+
     /**
      * Returns the underlying {@link MemorySegment} of the native array.
      *
@@ -76,4 +138,214 @@ public abstract sealed class TornadoNativeArray permits ByteArray, CharArray, Do
 
     public abstract int getElementSize();
 
+    /**
+     * Returns the native array that owns the memory of this view, created with the {@code slice} method of the
+     * array type. Views of views return the array that owns the memory.
+     *
+     * @return The parent native array, or {@code null} if this array is not a view.
+     */
+    public TornadoNativeArray getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the offset in bytes of the first element of this view within the elements of its parent.
+     *
+     * @return The offset in bytes, or zero if this array is not a view.
+     */
+    public long getParentOffset() {
+        return parentOffset;
+    }
+
+    /**
+     * Returns whether the native array is a view of the elements of another native array.
+     *
+     * @return {@code true} if the array was created with the {@code slice} method of the array type.
+     */
+    public boolean isSlice() {
+        return parent != null;
+    }
+
+    final void setParent(TornadoNativeArray array, long offset) {
+        if (array.isSlice()) {
+            parent = array.parent;
+            parentOffset = array.parentOffset + offset;
+        } else {
+            parent = array;
+            parentOffset = offset;
+        }
+        pinned = array.pinned;
+    }
+
+    /**
+     * Returns whether the native array is allocated in page-locked (pinned) host memory. Views of pinned arrays
+     * are also pinned.
+     *
+     * @return {@code true} if the {@link MemorySegment} of the array is pinned host memory.
+     */
+    public boolean isPinned() {
+        return pinned;
+    }
+
+    /**
+     * Allocates the {@link MemorySegment} of a new native array. Pinned memory is requested to the default device,
+     * and the array falls back to pageable memory if its backend does not support pinned memory.
+     *
+     * @param byteSize
+     *     The size in bytes of the segment, including the array header.
+     * @param callerArena
+     *     The arena of the caller that allocates the segment, or {@code null} to allocate it in an automatic arena.
+     * @param pinnedMemory
+     *     Whether the segment should be allocated in pinned host memory.
+     * @return The {@link MemorySegment}, with all its bytes set to zero.
+     */
+    final MemorySegment allocateSegment(long byteSize, Arena callerArena, boolean pinnedMemory) {
+        MemorySegment segment = null;
+        if (callerArena != null) {
+            arena = callerArena;
+            segment = callerArena.allocate(byteSize, 1);
+        } else if (pinnedMemory) {
+            segment = TornadoRuntime.getTornadoRuntime().allocatePinnedMemory(byteSize);
+            if (segment != null) {
+                // Pinned blocks are reused, so they are cleared as the segments of an arena
+                segment.fill((byte) 0);
+                pinned = true;
+            }
+        }
+        if (segment == null) {
+            segment = Arena.ofAuto().allocate(byteSize, 1);
+        }
+        allocation = NativeMemoryTracker.track(this, segment);
+        return segment;
+    }
+
+    /**
+     * Releases the native memory of the array. If the array was allocated in an arena of the caller, the arena is
+     * closed, which also releases the other arrays allocated in it. Otherwise, the memory is reclaimed by the GC once
+     * the array is unreachable, as the arena that allocates it cannot be closed. Releasing a view only marks the view
+     * as released.
+     *
+     * <p>
+     * This also applies to arrays in pinned memory: their block returns to the pinned memory pool of the device when
+     * the GC reclaims the {@link MemorySegment}, not when the array is released, because other references to the
+     * segment (e.g., from {@link #getSegment()} or from views) may still be used.
+     * </p>
+     *
+     * <p>
+     * The array must not be accessed after it is released, and the runtime does not launch tasks that use it.
+     * Releasing an array twice has no effect.
+     * </p>
+     */
+    public void free() {
+        if (freed) {
+            return;
+        }
+        freed = true;
+        if (arena != null && getSegment().scope().isAlive()) {
+            try {
+                arena.close();
+            } catch (UnsupportedOperationException e) {
+                // Automatic and global arenas cannot be closed, so the array is only marked as released
+            }
+        }
+        if (allocation != null) {
+            allocation.release();
+        }
+    }
+
+    /**
+     * Releases the native memory of the array, so it can be used in try-with-resources statements. It is the same
+     * as {@link #free()}.
+     */
+    @Override
+    public void close() {
+        free();
+    }
+
+    /**
+     * Returns whether the native memory of the array has been released, with {@link #free()} or by closing the arena
+     * that allocates it. Views are released when their parent is released.
+     *
+     * @return {@code true} if the array cannot be used anymore.
+     */
+    public boolean isFreed() {
+        if (freed || !getSegment().scope().isAlive()) {
+            return true;
+        }
+        return parent != null && parent.isFreed();
+    }
+
+    /**
+     * Returns whether the native array is backed by a file mapped into memory.
+     *
+     * @return {@code true} if the {@link MemorySegment} of the array is mapped from a file.
+     */
+    public boolean isFileBacked() {
+        return getSegment().isMapped();
+    }
+
+    /**
+     * Writes the changes of a file-backed native array to the storage device. The operating system writes
+     * the changes of mapped files eventually, this method forces the write. Arrays that are not
+     * backed by a file are not modified.
+     */
+    public void force() {
+        MemorySegment segment = getSegment();
+        if (segment.isMapped()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Writes the native array, including its header, to a file. The file can be mapped back into memory with
+     * the {@code fromFile} method of the array type. An existing file is overwritten, so a file-backed array
+     * must not be written to its own file; use {@link #force()} instead.
+     *
+     * @param file
+     *     The file to write the native array to.
+     * @throws IOException
+     *     If the file cannot be written.
+     */
+    public void toFile(Path file) throws IOException {
+        long byteSize = getNumBytesOfSegment();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                Arena arena = Arena.ofConfined()) {
+            MemorySegment fileSegment = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize, arena);
+            // The header of a view overlaps the elements of its parent, so it is written from the size
+            fileSegment.asSlice(0, ARRAY_HEADER).fill((byte) 0);
+            fileSegment.set(JAVA_LONG, 0, getSizeAsLong());
+            MemorySegment.copy(getSegment(), ARRAY_HEADER, fileSegment, ARRAY_HEADER, byteSize - ARRAY_HEADER);
+            fileSegment.force();
+        }
+    }
+
+    /**
+     * Maps a file written with {@link #toFile(Path)} into a {@link MemorySegment}. The pages of the file are
+     * read on first access, and the changes to the segment are written back to the file.
+     *
+     * @param file
+     *     The file to map.
+     * @param elementBytes
+     *     The size in bytes of each element of the array type.
+     * @return The mapped {@link MemorySegment}, including the array header.
+     * @throws IOException
+     *     If the file cannot be mapped, or its size does not match the number of elements in its header.
+     */
+    static MemorySegment mapFile(Path file, int elementBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            long dataSize = fileSize - ARRAY_HEADER;
+            if (dataSize < 0 || dataSize % elementBytes != 0) {
+                throw new IOException("File " + file + " does not contain a native array of " + elementBytes + "-byte elements");
+            }
+            // The segment stays mapped after the channel is closed, until it is reclaimed by the GC
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize, Arena.ofAuto());
+            long numberOfElements = segment.get(JAVA_LONG, 0);
+            if (numberOfElements != dataSize / elementBytes) {
+                throw new IOException("File " + file + " has " + numberOfElements + " elements in its header, but " + (dataSize / elementBytes) + " in its data");
+            }
+            return segment;
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.api.utils;
+
+/**
+ * Block distribution of the iterations of a {@code @Parallel} loop across the
+ * threads of the host. The first {@code iterations % numChunks} chunks get one
+ * extra iteration.
+ *
+ * <p>
+ * This class is called by the multi-threaded host versions of the tasks that
+ * TornadoVM generates at runtime. It is not meant to be used from user code.
+ * </p>
+ */
+public final class HostParallelRange {
+
+    private HostParallelRange() {
+    }
+
+    private static long numIterations(int init, int bound, int step, boolean inclusive) {
+        if (inclusive) {
+            return bound >= init ? ((long) bound - init) / step + 1 : 0;
+        }
+        return bound > init ? ((long) bound - init + step - 1) / step : 0;
+    }
+
+    private static long firstIteration(long iterations, int chunk, int numChunks) {
+        return chunk * (iterations / numChunks) + Math.min(chunk, iterations % numChunks);
+    }
+
+    /**
+     * @param init
+     *     Initial value of the induction variable.
+     * @param bound
+     *     Upper bound of the loop.
+     * @param step
+     *     Increment of the induction variable. It must be greater than 0.
+     * @param inclusive
+     *     True if the loop runs while the induction variable is less or equal
+     *     than the bound.
+     * @param chunk
+     *     Index of the chunk, from 0 to numChunks - 1.
+     * @param numChunks
+     *     Number of chunks.
+     * @return first value of the induction variable for the chunk.
+     */
+    public static int chunkStart(int init, int bound, int step, boolean inclusive, int chunk, int numChunks) {
+        long iterations = numIterations(init, bound, step, inclusive);
+        long first = firstIteration(iterations, chunk, numChunks);
+        // Empty chunks start at the initial value and end before it
+        return first < iterations ? (int) (init + first * step) : init;
+    }
+
+    /**
+     * @return bound of the chunk, with the same comparison as the original loop
+     *     (inclusive or exclusive).
+     */
+    public static int chunkEnd(int init, int bound, int step, boolean inclusive, int chunk, int numChunks) {
+        long iterations = numIterations(init, bound, step, inclusive);
+        if (firstIteration(iterations, chunk, numChunks) >= iterations) {
+            return inclusive ? init - 1 : init;
+        }
+        long end = init + firstIteration(iterations, chunk + 1, numChunks) * step;
+        return inclusive ? (int) Math.min(end - 1, bound) : (int) Math.min(end, bound);
+    }
+}
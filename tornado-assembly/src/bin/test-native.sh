@@ -18,6 +18,15 @@
 #
 
 read -ra selected_backends < "${TORNADO_SDK}/etc/tornado.backend"
+
+echo -e "\nTesting the buffer provider, the device buffer arena and the event pool (host simulation)\n"
+tornado uk.ac.manchester.tornado.drivers.common.tests.TestBufferProvider
+tornado uk.ac.manchester.tornado.drivers.common.tests.TestDeviceBufferArena
+tornado uk.ac.manchester.tornado.drivers.common.tests.TestEventPool
+
+echo -e "\nTesting the device selection model of the dynamic reconfiguration\n"
+tornado uk.ac.manchester.tornado.runtime.tests.TestDeviceSelectionModel
+
 if [[ $selected_backends == *"ptx"* ]]; then
   echo -e "\nTesting the Native PTX API\n"
   tornado uk.ac.manchester.tornado.drivers.ptx.tests.TestPTXJITCompiler
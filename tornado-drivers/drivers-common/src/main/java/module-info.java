@@ -15,4 +15,5 @@ open module tornado.drivers.common {
     exports uk.ac.manchester.tornado.drivers.common.compiler.phases.utils;
     exports uk.ac.manchester.tornado.drivers.common.compiler.phases.analysis;
     exports uk.ac.manchester.tornado.drivers.common.utils;
+    exports uk.ac.manchester.tornado.drivers.common.tests;
 }
@@ -0,0 +1,515 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
+
+/**
+ * Pool of low-level events shared by all the backends. Each device context
+ * holds one pool, and it maps the integer handles used by the TornadoVM runtime
+ * to the events of the driver (e.g., an OpenCL event or a CUDA event pair).
+ *
+ * <p>
+ * The pool is lock-free: a slot is claimed with a compare-and-set on its tag,
+ * so several task-graphs can register, resolve and release events on the same
+ * device concurrently. Slots are picked with a clock hand over a ring whose
+ * size is a power of two. When recycling is enabled, a live event that has not
+ * been retained is evicted (and released through the pool releaser) to make
+ * room for a new one.
+ * </p>
+ *
+ * <p>
+ * Every handle carries the generation of its slot. The generation is bumped
+ * each time the slot is reused or freed, so a stale handle is detected (and
+ * resolves to null) instead of silently reading the event that replaced it.
+ * </p>
+ *
+ * <p>
+ * The driver resources of an event may be released by another thread as soon
+ * as its slot is reused. Code that passes the driver event to the driver (e.g.,
+ * in a wait list) must {@link #pin(int)} it first: a pinned event is never
+ * evicted, and if it is released while pinned, the pool releaser is only
+ * invoked once the last pin is removed.
+ * </p>
+ *
+ * @param <E>
+ *     Type of the backend event.
+ */
+public class EventPool<E> {
+
+    public static final int INVALID_HANDLE = -1;
+
+    private static final int MAX_CAPACITY = 1 << 24;
+
+    // Slot states, kept in the two lowest bits of the tag
+    private static final int FREE = 0;
+    private static final int LIVE = 1;
+    private static final int RETAINED = 2;
+    private static final int BUSY = 3;
+    private static final int STATE_BITS = 2;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+
+    private final String name;
+    private final int capacity;
+    private final int indexBits;
+    private final int indexMask;
+    private final int generationMask;
+    private final boolean recycle;
+    private final Consumer<E> releaser;
+
+    private final AtomicIntegerArray tags;
+    private final AtomicReferenceArray<E> events;
+    private final AtomicReferenceArray<EventDescriptor> descriptors;
+    private final AtomicIntegerArray pins;
+    private final AtomicReferenceArray<E> pendingReleases;
+    private final AtomicLong clockHand;
+
+    private final AtomicInteger occupancy;
+    private final AtomicInteger retained;
+    private final AtomicInteger peakOccupancy;
+    private final LongAdder evictions;
+    private final LongAdder staleAccesses;
+
+    /**
+     * @param name
+     *     Name of the pool, used in error messages and metrics.
+     * @param poolSize
+     *     Minimum number of events the pool can hold. It is rounded up to the
+     *     next power of two.
+     * @param recycle
+     *     If true, live events that are not retained are evicted when the pool
+     *     wraps around. If false, registering an event in a full pool fails.
+     * @param releaser
+     *     Releases the driver resources of an event evicted or freed from the
+     *     pool.
+     */
+    public EventPool(String name, int poolSize, boolean recycle, Consumer<E> releaser) {
+        if (poolSize < 1 || poolSize > MAX_CAPACITY) {
+            throw new TornadoRuntimeException("[ERROR] The size of the event pool must be between 1 and " + MAX_CAPACITY + ", but it is " + poolSize);
+        }
+        this.name = name;
+        this.capacity = Math.max(2, Integer.highestOneBit(poolSize - 1) << 1);
+        this.indexBits = Integer.numberOfTrailingZeros(capacity);
+        this.indexMask = capacity - 1;
+        // Handles must stay positive and the generation must fit in the tag next to the state
+        this.generationMask = (1 << Math.min(Integer.SIZE - 1 - indexBits, Integer.SIZE - 1 - STATE_BITS)) - 1;
+        this.recycle = recycle;
+        this.releaser = releaser;
+        this.tags = new AtomicIntegerArray(capacity);
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.descriptors = new AtomicReferenceArray<>(capacity);
+        this.pins = new AtomicIntegerArray(capacity);
+        this.pendingReleases = new AtomicReferenceArray<>(capacity);
+        this.clockHand = new AtomicLong();
+        this.occupancy = new AtomicInteger();
+        this.retained = new AtomicInteger();
+        this.peakOccupancy = new AtomicInteger();
+        this.evictions = new LongAdder();
+        this.staleAccesses = new LongAdder();
+    }
+
+    private static int stateOf(int tag) {
+        return tag & STATE_MASK;
+    }
+
+    private static int generationOf(int tag) {
+        return tag >>> STATE_BITS;
+    }
+
+    private static boolean isOccupied(int tag) {
+        return stateOf(tag) == LIVE || stateOf(tag) == RETAINED;
+    }
+
+    private int nextTag(int tag, int state) {
+        return (((generationOf(tag) + 1) & generationMask) << STATE_BITS) | state;
+    }
+
+    private int indexOf(int handle) {
+        return handle & indexMask;
+    }
+
+    private int handleOf(int index, int tag) {
+        return (generationOf(tag) << indexBits) | index;
+    }
+
+    /**
+     * Registers a new event in the pool.
+     *
+     * @param event
+     *     Backend event. It must not be null.
+     * @param descriptor
+     *     Description of the operation that produced the event.
+     * @return the handle of the event.
+     */
+    public int register(E event, EventDescriptor descriptor) {
+        if (event == null) {
+            throw new TornadoRuntimeException("[ERROR] Invalid event registered in the " + name + " event pool: " + descriptor.getNameDescription());
+        }
+        for (int attempt = 0; attempt < capacity; attempt++) {
+            final int index = (int) (clockHand.getAndIncrement() & indexMask);
+            final int tag = tags.get(index);
+            final int state = stateOf(tag);
+            if (state == RETAINED || state == BUSY || (state == LIVE && !recycle) || isPinned(index)) {
+                continue;
+            }
+            if (!tags.compareAndSet(index, tag, (tag & ~STATE_MASK) | BUSY)) {
+                continue;
+            }
+            // A reader may have pinned the event before the slot was claimed
+            if (isPinned(index)) {
+                tags.set(index, tag);
+                continue;
+            }
+
+            E evicted = events.getAndSet(index, event);
+            descriptors.set(index, descriptor);
+            if (evicted != null) {
+                evictions.increment();
+                releaser.accept(evicted);
+            } else {
+                peakOccupancy.accumulateAndGet(occupancy.incrementAndGet(), Math::max);
+            }
+
+            final int liveTag = nextTag(tag, LIVE);
+            tags.set(index, liveTag);
+            return handleOf(index, liveTag);
+        }
+        throw new TornadoRuntimeException(String.format("[ERROR] The %s event pool is full (retained=%d, capacity=%d)", name, retained.get(), capacity));
+    }
+
+    /**
+     * Returns the tag of the slot if the handle still refers to a live or
+     * retained event, or -1 otherwise.
+     */
+    private int validTag(int handle) {
+        if (handle < 0) {
+            return -1;
+        }
+        final int tag = tags.get(indexOf(handle));
+        if (!isOccupied(tag) || handleOf(indexOf(handle), tag) != handle) {
+            staleAccesses.increment();
+            return -1;
+        }
+        return tag;
+    }
+
+    private <T> T read(int handle, AtomicReferenceArray<T> values) {
+        final int tag = validTag(handle);
+        if (tag == -1) {
+            return null;
+        }
+        final int index = indexOf(handle);
+        T value = values.get(index);
+        // The slot may have been claimed while reading: the retained bit can change, the generation cannot
+        final int current = tags.get(index);
+        if (!isOccupied(current) || generationOf(current) != generationOf(tag)) {
+            staleAccesses.increment();
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * @return the event of the handle, or null if the handle is invalid or its
+     *     slot has been recycled. The driver resources of the event may be
+     *     released by another thread at any time: use {@link #pin(int)} or
+     *     {@link #read(int, BiFunction)} to pass the event to the driver.
+     */
+    public E get(int handle) {
+        return read(handle, events);
+    }
+
+    private boolean isPinned(int index) {
+        return pins.get(index) > 0 || pendingReleases.get(index) != null;
+    }
+
+    /**
+     * Pins the slot of the handle. It returns the tag of the slot, or -1 if the
+     * handle is stale.
+     */
+    private int pinSlot(int handle) {
+        final int tag = validTag(handle);
+        if (tag == -1) {
+            return -1;
+        }
+        final int index = indexOf(handle);
+        pins.incrementAndGet(index);
+        int current = tags.get(index);
+        // The slot may be claimed by a registration that backs off once it sees the pin
+        while (stateOf(current) == BUSY && generationOf(current) == generationOf(tag)) {
+            Thread.onSpinWait();
+            current = tags.get(index);
+        }
+        if (!isOccupied(current) || generationOf(current) != generationOf(tag)) {
+            unpinSlot(index);
+            staleAccesses.increment();
+            return -1;
+        }
+        return tag;
+    }
+
+    private void unpinSlot(int index) {
+        if (pins.decrementAndGet(index) == 0) {
+            E event = pendingReleases.getAndSet(index, null);
+            if (event != null) {
+                releaser.accept(event);
+            }
+        }
+    }
+
+    /**
+     * Pins the event of the handle, so it is not evicted nor released to the
+     * driver until {@link #unpin(int)} is called. An event can be pinned by
+     * several threads at the same time.
+     *
+     * @return the event, or null if the handle is stale (the event is not
+     *     pinned in that case).
+     */
+    public E pin(int handle) {
+        return read(handle, (event, descriptor) -> event, true);
+    }
+
+    /**
+     * Removes a pin added by {@link #pin(int)}. If the event was released while
+     * pinned, the pool releaser is invoked by the last unpin.
+     */
+    public void unpin(int handle) {
+        unpinSlot(indexOf(handle));
+    }
+
+    /**
+     * Reads the event of the handle and its descriptor from the same generation
+     * of the slot. The event is pinned while the function runs, so the function
+     * can pass it to the driver.
+     *
+     * @return the result of the function, or null if the handle is stale.
+     */
+    public <R> R read(int handle, BiFunction<E, EventDescriptor, R> function) {
+        return read(handle, function, false);
+    }
+
+    private <R> R read(int handle, BiFunction<E, EventDescriptor, R> function, boolean keepPinned) {
+        final int tag = pinSlot(handle);
+        if (tag == -1) {
+            return null;
+        }
+        final int index = indexOf(handle);
+        boolean keepPin = false;
+        try {
+            final E event = events.get(index);
+            final EventDescriptor descriptor = descriptors.get(index);
+            // The event cannot be evicted while pinned, but it can be released
+            final int current = tags.get(index);
+            if (event == null || descriptor == null || !isOccupied(current) || generationOf(current) != generationOf(tag)) {
+                staleAccesses.increment();
+                return null;
+            }
+            R result = function.apply(event, descriptor);
+            keepPin = keepPinned;
+            return result;
+        } finally {
+            if (!keepPin) {
+                unpinSlot(index);
+            }
+        }
+    }
+
+    /**
+     * @return the descriptor of the event, or null if the handle is invalid or
+     *     its slot has been recycled.
+     */
+    public EventDescriptor getDescriptor(int handle) {
+        return read(handle, descriptors);
+    }
+
+    public boolean isValid(int handle) {
+        return get(handle) != null;
+    }
+
+    /**
+     * Prevents the event from being evicted until {@link #unretain(int)} or
+     * {@link #release(int...)} are called.
+     *
+     * @return false if the handle is stale.
+     */
+    public boolean retain(int handle) {
+        return transition(handle, LIVE, RETAINED);
+    }
+
+    /**
+     * Allows a retained event to be evicted again.
+     *
+     * @return false if the handle is stale or not retained.
+     */
+    public boolean unretain(int handle) {
+        return transition(handle, RETAINED, LIVE);
+    }
+
+    private boolean transition(int handle, int from, int to) {
+        while (true) {
+            final int tag = validTag(handle);
+            if (tag == -1) {
+                return false;
+            }
+            if (stateOf(tag) != from) {
+                return stateOf(tag) == to;
+            }
+            if (tags.compareAndSet(indexOf(handle), tag, (tag & ~STATE_MASK) | to)) {
+                retained.addAndGet(to == RETAINED ? 1 : -1);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the given events, retained or not, and returns their slots to the
+     * pool. Stale and invalid handles are ignored.
+     *
+     * @return the number of events released.
+     */
+    public int release(int... handles) {
+        int released = 0;
+        for (int handle : handles) {
+            while (true) {
+                final int tag = validTag(handle);
+                if (tag == -1) {
+                    break;
+                }
+                if (free(indexOf(handle), tag)) {
+                    released++;
+                    break;
+                }
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Releases every event of the pool, including the retained ones.
+     *
+     * @return the number of events released.
+     */
+    public int releaseAll() {
+        int released = 0;
+        for (int index = 0; index < capacity; index++) {
+            int tag = tags.get(index);
+            while (isOccupied(tag)) {
+                if (free(index, tag)) {
+                    released++;
+                    break;
+                }
+                tag = tags.get(index);
+            }
+        }
+        return released;
+    }
+
+    private boolean free(int index, int tag) {
+        if (!tags.compareAndSet(index, tag, (tag & ~STATE_MASK) | BUSY)) {
+            return false;
+        }
+        if (stateOf(tag) == RETAINED) {
+            retained.decrementAndGet();
+        }
+        E event = events.getAndSet(index, null);
+        descriptors.set(index, null);
+        if (event != null) {
+            // Pinned events are released by their last unpin
+            pendingReleases.set(index, event);
+            if (pins.get(index) == 0) {
+                event = pendingReleases.getAndSet(index, null);
+                if (event != null) {
+                    releaser.accept(event);
+                }
+            }
+        }
+        occupancy.decrementAndGet();
+        tags.set(index, nextTag(tag, FREE));
+        return true;
+    }
+
+    /**
+     * Releases all the events and rewinds the clock hand.
+     */
+    public void reset() {
+        releaseAll();
+        clockHand.set(0);
+    }
+
+    /**
+     * @return a snapshot of the handles of the events currently in the pool, in
+     *     slot order.
+     */
+    public List<Integer> getHandles() {
+        List<Integer> handles = new ArrayList<>();
+        for (int index = 0; index < capacity; index++) {
+            final int tag = tags.get(index);
+            if (isOccupied(tag)) {
+                handles.add(handleOf(index, tag));
+            }
+        }
+        return handles;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getOccupancy() {
+        return occupancy.get();
+    }
+
+    public int getPeakOccupancy() {
+        return peakOccupancy.get();
+    }
+
+    public int getRetained() {
+        return retained.get();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getStaleAccesses() {
+        return staleAccesses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s event pool: occupancy=%d/%d, peak=%d, retained=%d, evictions=%d, stale=%d", name, getOccupancy(), capacity, getPeakOccupancy(), getRetained(), getEvictions(),
+                getStaleAccesses());
+    }
+}
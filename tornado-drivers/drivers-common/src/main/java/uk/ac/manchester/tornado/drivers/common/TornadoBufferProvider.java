@@ -22,94 +22,263 @@
  */
 package uk.ac.manchester.tornado.drivers.common;
 
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_AVAILABLE_MEMORY;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
 import uk.ac.manchester.tornado.api.TornadoDeviceContext;
 import uk.ac.manchester.tornado.api.TornadoTargetDevice;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoOutOfMemoryException;
+import uk.ac.manchester.tornado.api.memory.TornadoDeviceObjectState;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.drivers.common.mm.DeviceBufferArena;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 
-import java.util.ArrayList;
-
-import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_AVAILABLE_MEMORY;
-
 /**
- * This class implements a cache of allocated buffers on the device and also
+ * This class implements a pool of allocated buffers on the device and also
  * handles the logic to allocate and free buffers. This class is extended for
- * each backend. The logic is as follows: it maintains a list of used buffers
- * and another list of free buffers. When performing an allocation, it first
- * checks if memory is available on the device. If it is not, then it will try
- * to reuse a buffer from the free list of buffers.
+ * each backend (OpenCL, PTX and SPIR-V), which only provide the native
+ * allocation and release calls.
+ *
+ * <p>
+ * Buffers in use are indexed by their native handle, so releasing a buffer is a
+ * constant time operation. Free buffers are kept in power-of-two size classes
+ * (bins), plus a list for large objects. An allocation first looks for the
+ * best-fit free buffer within the size class of the request. If there is none,
+ * a new buffer is allocated on the device. If the device does not have enough
+ * memory left (see {@link TornadoOptions#DEVICE_AVAILABLE_MEMORY}), the free
+ * buffers are evicted in least-recently-released order until the allocation
+ * fits.
+ * </p>
+ *
+ * <p>
+ * When the arena mode is enabled (see
+ * {@link TornadoOptions#DEVICE_BUFFER_ARENA}), all the native arrays allocated
+ * by a single ALLOC bytecode are carved from one {@link DeviceBufferArena},
+ * which costs a single buffer from the pool. The arena buffer is returned to the
+ * pool once all its sub-regions have been released.
+ * </p>
  */
 public abstract class TornadoBufferProvider {
 
+    /**
+     * Buffers smaller than 2^MIN_SIZE_CLASS_LOG2 bytes share the first size class.
+     */
+    private static final int MIN_SIZE_CLASS_LOG2 = 6;
+
+    /**
+     * Buffers of 2^MAX_SIZE_CLASS_LOG2 bytes or larger go to the large-object
+     * list.
+     */
+    private static final int MAX_SIZE_CLASS_LOG2 = 28;
+
+    private static final int NUM_SIZE_CLASSES = MAX_SIZE_CLASS_LOG2 - MIN_SIZE_CLASS_LOG2;
+
     protected final TornadoDeviceContext deviceContext;
-    protected final ArrayList<BufferInfo> freeBuffers;
-    protected final ArrayList<BufferInfo> usedBuffers;
+    protected final HashMap<Long, BufferInfo> usedBuffers;
+    private final ArrayList<BufferInfo>[] sizeClasses;
+    private final ArrayList<BufferInfo> largeBuffers;
+    private final LinkedHashSet<BufferInfo> freeBuffersLRU;
+    private final HashMap<Long, DeviceBufferArena> subRegionOwners;
+    private final DeviceBufferArena.Backend arenaBackend;
+    private DeviceBufferArena openArena;
     protected long currentMemoryAvailable;
 
+    /**
+     * Bit i is set when size class i has at least one free buffer.
+     */
+    private long nonEmptySizeClasses;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    @SuppressWarnings("unchecked")
     protected TornadoBufferProvider(TornadoDeviceContext deviceContext) {
         this.deviceContext = deviceContext;
-        this.usedBuffers = new ArrayList<>();
-        this.freeBuffers = new ArrayList<>();
+        this.usedBuffers = new HashMap<>();
+        this.sizeClasses = new ArrayList[NUM_SIZE_CLASSES];
+        for (int i = 0; i < NUM_SIZE_CLASSES; i++) {
+            sizeClasses[i] = new ArrayList<>();
+        }
+        this.largeBuffers = new ArrayList<>();
+        this.freeBuffersLRU = new LinkedHashSet<>();
+        this.subRegionOwners = new HashMap<>();
+        this.arenaBackend = new ArenaBackend();
 
         // There is no way of querying the available memory on the device.
         // Instead, use a flag similar to -Xmx.
         currentMemoryAvailable = TornadoOptions.DEVICE_AVAILABLE_MEMORY;
     }
 
-
-
     protected abstract long allocateBuffer(long size);
 
     protected abstract void releaseBuffer(long buffer);
 
+    /**
+     * @return true if the backend can expose a region of a buffer as a buffer of
+     *     its own, which is required for the arena mode.
+     */
+    protected boolean isSubAllocationSupported() {
+        return false;
+    }
+
+    /**
+     * Creates a buffer handle that refers to a region of an existing buffer. It is
+     * only invoked if {@link #isSubAllocationSupported()} returns true.
+     *
+     * @return the sub-buffer, or {@link DeviceBufferArena#INVALID_HANDLE} if it
+     *     could not be created.
+     */
+    protected long createSubBuffer(long buffer, long offset, long size) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support sub-buffers");
+    }
+
+    /**
+     * Releases a buffer handle created with
+     * {@link #createSubBuffer(long, long, long)}.
+     */
+    protected void releaseSubBuffer(long subBuffer) {
+    }
+
+    /**
+     * @return Alignment in bytes of each sub-buffer within an arena.
+     */
+    protected long getArenaAlignment() {
+        return Long.BYTES;
+    }
+
+    /**
+     * @return Alignment in bytes of the offset of a view of a native array
+     *     within the buffer of its parent.
+     */
+    protected long getSliceAlignment() {
+        return getArenaAlignment();
+    }
+
+    /**
+     * Returns the size class for the given size in bytes, or -1 if the size
+     * belongs to the large-object list.
+     */
+    private static int sizeClassOf(long sizeInBytes) {
+        int log2 = 63 - Long.numberOfLeadingZeros(Math.max(sizeInBytes, 1));
+        if (log2 >= MAX_SIZE_CLASS_LOG2) {
+            return -1;
+        }
+        return Math.max(log2 - MIN_SIZE_CLASS_LOG2, 0);
+    }
+
+    private ArrayList<BufferInfo> freeListOf(int sizeClass) {
+        return sizeClass == -1 ? largeBuffers : sizeClasses[sizeClass];
+    }
+
     private long allocate(long size) {
         long buffer = allocateBuffer(size);
         currentMemoryAvailable -= size;
         BufferInfo bufferInfo = new BufferInfo(buffer, size);
-        usedBuffers.add(bufferInfo);
+        usedBuffers.put(buffer, bufferInfo);
+        misses++;
         return bufferInfo.buffer;
     }
 
+    private void addFreeBuffer(BufferInfo bufferInfo) {
+        int sizeClass = sizeClassOf(bufferInfo.size);
+        freeListOf(sizeClass).add(bufferInfo);
+        if (sizeClass != -1) {
+            nonEmptySizeClasses |= 1L << sizeClass;
+        }
+        freeBuffersLRU.add(bufferInfo);
+    }
+
+    private void removeFreeBuffer(BufferInfo bufferInfo) {
+        int sizeClass = sizeClassOf(bufferInfo.size);
+        ArrayList<BufferInfo> freeList = freeListOf(sizeClass);
+        freeList.remove(bufferInfo);
+        if (sizeClass != -1 && freeList.isEmpty()) {
+            nonEmptySizeClasses &= ~(1L << sizeClass);
+        }
+        freeBuffersLRU.remove(bufferInfo);
+    }
+
+    /**
+     * Releases free buffers to the device, starting from the least recently
+     * released one, until at least the given amount of bytes has been returned.
+     */
     private void freeBuffers(long size) {
-        // Attempts to free buffers of given size.
         long remainingSize = size;
-        while (!freeBuffers.isEmpty() && remainingSize > 0) {
-            BufferInfo bufferInfo = freeBuffers.remove(0);
-            TornadoInternalError.guarantee(!usedBuffers.contains(bufferInfo), "This buffer should not be used");
+        Iterator<BufferInfo> iterator = freeBuffersLRU.iterator();
+        while (iterator.hasNext() && remainingSize > 0) {
+            BufferInfo bufferInfo = iterator.next();
+            TornadoInternalError.guarantee(!usedBuffers.containsKey(bufferInfo.buffer), "This buffer should not be used");
+            iterator.remove();
+            int sizeClass = sizeClassOf(bufferInfo.size);
+            ArrayList<BufferInfo> freeList = freeListOf(sizeClass);
+            freeList.remove(bufferInfo);
+            if (sizeClass != -1 && freeList.isEmpty()) {
+                nonEmptySizeClasses &= ~(1L << sizeClass);
+            }
             remainingSize -= bufferInfo.size;
             currentMemoryAvailable += bufferInfo.size;
+            evictions++;
             releaseBuffer(bufferInfo.buffer);
         }
     }
 
-    private BufferInfo markBufferUsed(int freeBufferIndex) {
-        BufferInfo buffer = freeBuffers.get(freeBufferIndex);
-        usedBuffers.add(buffer);
-        freeBuffers.remove(buffer);
-        return buffer;
+    private long markBufferUsed(BufferInfo buffer) {
+        removeFreeBuffer(buffer);
+        usedBuffers.put(buffer.buffer, buffer);
+        hits++;
+        return buffer.buffer;
     }
 
     /**
-     * First check if there is an available buffer of a given size. Perform a
-     * sequential search through the freeBuffers to get the buffer with the smaller
-     * size than can fulfill the allocation. The number of allocated buffers is
-     * usually low, so searching sequentially should not take a lot of time.
+     * Best-fit search within a single free list: it returns the smallest buffer
+     * that can fulfill the allocation. Buffers within a size class differ at most
+     * by a factor of two, so the lists are short.
      *
+     * @param freeList
+     *            List of free buffers to search.
      * @param sizeInBytes
      *            Size in bytes for the requested buffer.
-     * @return returns the index position of a free buffer within the free buffer
-     *         list. It returns -1 if a free buffer slot is not found.
-     */
-    private int bufferIndexOfAFreeSpace(long sizeInBytes) {
-        int minBufferIndex = -1;
-        for (int i = 0; i < freeBuffers.size(); i++) {
-            BufferInfo bufferInfo = freeBuffers.get(i);
-            if (bufferInfo.size >= sizeInBytes && (minBufferIndex == -1 || bufferInfo.size < freeBuffers.get(minBufferIndex).size)) {
-                minBufferIndex = i;
+     * @return the buffer found, or null if no buffer in the list is big enough.
+     */
+    private static BufferInfo bestFit(ArrayList<BufferInfo> freeList, long sizeInBytes) {
+        BufferInfo minBuffer = null;
+        for (BufferInfo bufferInfo : freeList) {
+            if (bufferInfo.size >= sizeInBytes && (minBuffer == null || bufferInfo.size < minBuffer.size)) {
+                minBuffer = bufferInfo;
+                if (bufferInfo.size == sizeInBytes) {
+                    break;
+                }
             }
         }
-        return minBufferIndex;
+        return minBuffer;
+    }
+
+    /**
+     * Looks for a free buffer in any size class bigger than the one of the
+     * requested size. This is only used when the device has run out of memory,
+     * since it wastes memory on the device.
+     *
+     * @param sizeInBytes
+     *            Size in bytes for the requested buffer.
+     * @return the buffer found, or null if there is none.
+     */
+    private BufferInfo firstFitInLargerSizeClasses(long sizeInBytes) {
+        int sizeClass = sizeClassOf(sizeInBytes);
+        if (sizeClass != -1) {
+            long candidates = sizeClass + 1 < NUM_SIZE_CLASSES ? nonEmptySizeClasses & (-1L << (sizeClass + 1)) : 0;
+            if (candidates != 0) {
+                return bestFit(sizeClasses[Long.numberOfTrailingZeros(candidates)], sizeInBytes);
+            }
+        }
+        return sizeClass == -1 ? null : bestFit(largeBuffers, sizeInBytes);
     }
 
     /**
@@ -121,7 +290,7 @@ public abstract class TornadoBufferProvider {
      * @return It returns a buffer native pointer.
      */
     private long freeUnusedNativeBufferAndAssignRegion(long sizeInBytes) {
-        freeBuffers(sizeInBytes);
+        freeBuffers(sizeInBytes - currentMemoryAvailable);
         if (sizeInBytes <= currentMemoryAvailable) {
             return allocate(sizeInBytes);
         } else {
@@ -130,9 +299,11 @@ public abstract class TornadoBufferProvider {
     }
 
     /**
-     * Method that finds a suitable buffer for a requested buffer size. If a free
-     * memory buffer is found, it performs the native buffer allocation on the
-     * target device. Otherwise, it throws an exception.
+     * Method that finds a suitable buffer for a requested buffer size. It first
+     * tries to reuse a free buffer from the size class of the request. Otherwise,
+     * it performs the native buffer allocation on the target device, evicting free
+     * buffers if the device memory is exhausted. If the allocation cannot be
+     * fulfilled, it throws an exception.
      *
      * @param sizeInBytes
      *            Size in bytes for the requested buffer.
@@ -141,47 +312,199 @@ public abstract class TornadoBufferProvider {
      * @throws {@link
      *             TornadoOutOfMemoryException}
      */
-    public long getBufferWithSize(long sizeInBytes) {
+    public synchronized long getBufferWithSize(long sizeInBytes) {
+        if (openArena != null) {
+            long subBuffer = openArena.carve(sizeInBytes);
+            if (subBuffer != DeviceBufferArena.INVALID_HANDLE) {
+                subRegionOwners.put(subBuffer, openArena);
+                return subBuffer;
+            }
+        }
+
         TornadoTargetDevice targetDevice = deviceContext.getDevice();
-        if (sizeInBytes <= currentMemoryAvailable && sizeInBytes < targetDevice.getDeviceMaxAllocationSize()) {
+        if (sizeInBytes >= targetDevice.getDeviceMaxAllocationSize()) {
+            throw new TornadoOutOfMemoryException("Unable to allocate " + sizeInBytes + " bytes of memory.");
+        }
+
+        BufferInfo bufferInfo = bestFit(freeListOf(sizeClassOf(sizeInBytes)), sizeInBytes);
+        if (bufferInfo != null) {
+            return markBufferUsed(bufferInfo);
+        } else if (sizeInBytes <= currentMemoryAvailable) {
             // Allocate if there is enough device memory.
             return allocate(sizeInBytes);
-        } else if (sizeInBytes < targetDevice.getDeviceMaxAllocationSize()) {
-            int minBufferIndex = bufferIndexOfAFreeSpace(sizeInBytes);
-            // If a buffer was found, mark it as used and return it.
-            if (minBufferIndex != -1) {
-                return markBufferUsed(minBufferIndex).buffer;
-            } else {
-                return freeUnusedNativeBufferAndAssignRegion(sizeInBytes);
-            }
-        } else {
-            throw new TornadoOutOfMemoryException("Unable to allocate " + sizeInBytes + " bytes of memory.");
         }
+
+        bufferInfo = firstFitInLargerSizeClasses(sizeInBytes);
+        if (bufferInfo != null) {
+            return markBufferUsed(bufferInfo);
+        }
+        return freeUnusedNativeBufferAndAssignRegion(sizeInBytes);
     }
 
     /**
-     * Removes the buffer from the {@link #usedBuffers} list and add it to
-     * the @{@link #freeBuffers} list.
+     * Removes the buffer from the {@link #usedBuffers} table and adds it to the
+     * free list of its size class. Sub-buffers of an arena are released to their
+     * arena instead.
      */
-    public void markBufferReleased(long buffer, long size) {
-        int foundIndex = -1;
-        for (int i = 0; i < usedBuffers.size(); i++) {
-            if (usedBuffers.get(i).buffer == buffer) {
-                foundIndex = i;
-                break;
+    public synchronized void markBufferReleased(long buffer, long size) {
+        DeviceBufferArena arena = subRegionOwners.remove(buffer);
+        if (arena != null) {
+            arena.release(buffer);
+            return;
+        }
+        BufferInfo removedBuffer = usedBuffers.remove(buffer);
+        TornadoInternalError.guarantee(removedBuffer != null, "Expected the buffer to be allocated and used at this point.");
+        addFreeBuffer(removedBuffer);
+    }
+
+    /**
+     * Creates the buffer of a view of a native array as a sub-buffer of the
+     * buffer of its parent. When the parent has been carved from an arena, the
+     * sub-buffer is created from the arena region, since OpenCL does not allow
+     * sub-buffers of sub-buffers.
+     *
+     * @param parentBuffer
+     *     Buffer of the parent native array.
+     * @param offset
+     *     Offset in bytes of the view within the parent buffer.
+     * @param sizeInBytes
+     *     Size in bytes of the view.
+     * @return the buffer of the view, or {@link DeviceBufferArena#INVALID_HANDLE}
+     *     if the backend cannot create a sub-buffer at this offset.
+     */
+    public synchronized long getSliceBuffer(long parentBuffer, long offset, long sizeInBytes) {
+        long buffer = parentBuffer;
+        long bufferOffset = offset;
+        DeviceBufferArena arena = subRegionOwners.get(parentBuffer);
+        if (arena != null) {
+            buffer = arena.getRegion();
+            bufferOffset += arena.getOffset(parentBuffer);
+        }
+        if (!isSubAllocationSupported() || bufferOffset % getSliceAlignment() != 0) {
+            return DeviceBufferArena.INVALID_HANDLE;
+        }
+        return createSubBuffer(buffer, bufferOffset, sizeInBytes);
+    }
+
+    /**
+     * Releases a buffer created with
+     * {@link #getSliceBuffer(long, long, long)}. The buffer of the parent is not
+     * modified.
+     */
+    public synchronized void releaseSliceBuffer(long sliceBuffer) {
+        releaseSubBuffer(sliceBuffer);
+    }
+
+    /**
+     * Opens an arena that fits all the native arrays to be allocated by a single
+     * ALLOC bytecode. Until {@link #closeArena()} is invoked, the calls to
+     * {@link #getBufferWithSize(long)} are served from the arena as long as it has
+     * space left. Objects that already own a locked buffer, views of other native
+     * arrays, or objects that are not native arrays, are not taken into account
+     * and will be allocated from the pool.
+     *
+     * @param objects
+     *     Objects to allocate.
+     * @param batchSize
+     *     Batch size in bytes, or 0 if batch processing is not used.
+     * @param states
+     *     Device object states of the objects.
+     */
+    public synchronized void openArena(Object[] objects, long batchSize, TornadoDeviceObjectState[] states) {
+        if (!TornadoOptions.DEVICE_BUFFER_ARENA || !isSubAllocationSupported()) {
+            return;
+        }
+        TornadoInternalError.guarantee(openArena == null, "An arena is already open for the device");
+        long[] sizes = new long[objects.length];
+        int numArrays = 0;
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i] instanceof TornadoNativeArray nativeArray && !nativeArray.isSlice() && !(states[i].hasObjectBuffer() && states[i].isLockedBuffer())) {
+                sizes[numArrays++] = batchSize <= 0 ? nativeArray.getNumBytesOfSegment() : batchSize + TornadoNativeArray.ARRAY_HEADER;
             }
         }
-        TornadoInternalError.guarantee(foundIndex != -1, "Expected the buffer to be allocated and used at this point.");
-        BufferInfo removedBuffer = usedBuffers.remove(foundIndex);
-        freeBuffers.add(removedBuffer);
+        // An arena only pays off when it replaces several allocations
+        if (numArrays > 1) {
+            openArena = new DeviceBufferArena(arenaBackend, Arrays.copyOf(sizes, numArrays), getArenaAlignment());
+        }
     }
 
-    public boolean checkBufferAvailability(int numBuffersRequired) {
-        return freeBuffers.size() >= numBuffersRequired;
+    /**
+     * Closes the arena opened by
+     * {@link #openArena(Object[], long, TornadoDeviceObjectState[])}, if any.
+     */
+    public synchronized void closeArena() {
+        if (openArena != null) {
+            openArena.close();
+            openArena = null;
+        }
     }
 
-    public void resetBuffers() {
+    public synchronized boolean checkBufferAvailability(int numBuffersRequired) {
+        return freeBuffersLRU.size() >= numBuffersRequired;
+    }
+
+    public synchronized void resetBuffers() {
         freeBuffers(DEVICE_AVAILABLE_MEMORY);
+        if (Tornado.DEBUG) {
+            Tornado.debug("buffer provider reset: %s", this);
+        }
+    }
+
+    /**
+     * @return Number of allocations served with a free buffer from the pool.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of allocations that required a native allocation.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return Number of free buffers released back to the device.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [device=%s, used=%d, free=%d, available=%d, hits=%d, misses=%d, evictions=%d]", getClass().getSimpleName(), deviceContext.getDevice().getDeviceName(),
+                usedBuffers.size(), freeBuffersLRU.size(), currentMemoryAvailable, hits, misses, evictions);
+    }
+
+    /**
+     * Reserves the arena regions from the pool of buffers, so they are reused
+     * across task-graphs like any other buffer.
+     */
+    private class ArenaBackend implements DeviceBufferArena.Backend {
+
+        @Override
+        public long reserve(long sizeInBytes) {
+            return getBufferWithSize(sizeInBytes);
+        }
+
+        @Override
+        public void release(long region, long sizeInBytes) {
+            markBufferReleased(region, sizeInBytes);
+        }
+
+        @Override
+        public long createSubRegion(long region, long offset, long sizeInBytes) {
+            if (!isSubAllocationSupported()) {
+                return DeviceBufferArena.INVALID_HANDLE;
+            }
+            return createSubBuffer(region, offset, sizeInBytes);
+        }
+
+        @Override
+        public void releaseSubRegion(long subRegion) {
+            releaseSubBuffer(subRegion);
+        }
     }
 
     public static class BufferInfo {
@@ -207,7 +530,7 @@ public abstract class TornadoBufferProvider {
 
         @Override
         public int hashCode() {
-            return (int) buffer;
+            return Long.hashCode(buffer);
         }
     }
 }
@@ -21,6 +21,7 @@
  */
 package uk.ac.manchester.tornado.drivers.common.compiler.phases.analysis;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -111,6 +112,27 @@ public class TornadoShapeAnalysis extends BasePhase<TornadoHighTierContext> {
         }
     }
 
+    private static boolean isSameRange(ParallelRangeNode range, ParallelRangeNode other) {
+        int value = getIntegerValue(range.value());
+        return range.index() == other.index() && value != Integer.MIN_VALUE && value == getIntegerValue(other.value()) //
+                && getIntegerValue(range.offset().value()) == getIntegerValue(other.offset().value()) //
+                && getIntegerValue(range.stride().value()) == getIntegerValue(other.stride().value());
+    }
+
+    /**
+     * Fused tasks contain one parallel loop per task with the same index and the
+     * same range. Only one of them is kept to build the domain.
+     */
+    private static List<ParallelRangeNode> removeFusedRanges(List<ParallelRangeNode> ranges) {
+        List<ParallelRangeNode> distinctRanges = new ArrayList<>();
+        for (ParallelRangeNode range : ranges) {
+            if (distinctRanges.stream().noneMatch(other -> isSameRange(range, other))) {
+                distinctRanges.add(range);
+            }
+        }
+        return distinctRanges;
+    }
+
     private boolean shouldPerformShapeAnalysis(TornadoHighTierContext context) {
         return context.hasMeta() && context.getMeta().getDomain() == null;
     }
@@ -134,7 +156,7 @@ public class TornadoShapeAnalysis extends BasePhase<TornadoHighTierContext> {
 
         int dimensions = getMaxLevelNestedLoops(graph);
 
-        final List<ParallelRangeNode> ranges = graph.getNodes().filter(ParallelRangeNode.class).snapshot();
+        final List<ParallelRangeNode> ranges = removeFusedRanges(graph.getNodes().filter(ParallelRangeNode.class).snapshot());
         if (ranges.size() < dimensions) {
             dimensions = ranges.size();
         }
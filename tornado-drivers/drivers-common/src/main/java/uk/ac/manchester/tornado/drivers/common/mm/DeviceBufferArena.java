@@ -0,0 +1,211 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.mm;
+
+import java.util.HashMap;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+
+/**
+ * A device arena reserves a single region of device memory and carves aligned
+ * sub-regions from it, one per task-graph argument. Sub-regions are handed out
+ * with a bump pointer and are never reused individually: the whole region is
+ * returned to the {@link Backend} once the arena is closed and all its
+ * sub-regions have been released.
+ *
+ * <p>
+ * The arena does not talk to any driver directly. The {@link Backend}
+ * implementation decides how the region is reserved and how a sub-region is
+ * exposed (e.g., an OpenCL sub-buffer or a device pointer plus an offset). This
+ * allows the packing logic to be tested on the host with
+ * {@link HostBufferArenaBackend}.
+ * </p>
+ */
+public class DeviceBufferArena {
+
+    public static final long INVALID_HANDLE = -1;
+
+    public interface Backend {
+
+        /**
+         * Reserves a region of the given size on the device.
+         *
+         * @return handle of the region.
+         */
+        long reserve(long sizeInBytes);
+
+        /**
+         * Releases a region previously reserved with {@link #reserve(long)}.
+         */
+        void release(long region, long sizeInBytes);
+
+        /**
+         * Creates a handle that can be used as a buffer for a sub-region of the
+         * given region.
+         *
+         * @return handle of the sub-region, or {@link #INVALID_HANDLE} if it
+         *     could not be created.
+         */
+        long createSubRegion(long region, long offset, long sizeInBytes);
+
+        /**
+         * Releases a handle created with
+         * {@link #createSubRegion(long, long, long)}.
+         */
+        void releaseSubRegion(long subRegion);
+    }
+
+    private final Backend backend;
+    private final long alignment;
+    private final long region;
+    private final long capacity;
+    private final HashMap<Long, Long> subRegionOffsets;
+    private long top;
+    private int liveSubRegions;
+    private boolean closed;
+    private boolean released;
+
+    /**
+     * Reserves a new arena big enough to hold all given sizes, each of them
+     * starting at an aligned offset.
+     *
+     * @param backend
+     *     {@link Backend} used to reserve the region and create the sub-regions.
+     * @param sizes
+     *     Sizes in bytes of the sub-regions that will be carved.
+     * @param alignment
+     *     Alignment in bytes of every sub-region.
+     */
+    public DeviceBufferArena(Backend backend, long[] sizes, long alignment) {
+        TornadoInternalError.guarantee(alignment > 0 && (alignment & (alignment - 1)) == 0, "Arena alignment must be a power of two: %d", alignment);
+        this.backend = backend;
+        this.alignment = alignment;
+        this.capacity = computeReservationSize(sizes, alignment);
+        this.region = backend.reserve(capacity);
+        this.subRegionOffsets = new HashMap<>();
+        this.top = 0;
+    }
+
+    public static long align(long sizeInBytes, long alignment) {
+        return (sizeInBytes + alignment - 1) & -alignment;
+    }
+
+    /**
+     * Computes the number of bytes to reserve for the given sizes, so that every
+     * sub-region starts at a multiple of the alignment.
+     */
+    public static long computeReservationSize(long[] sizes, long alignment) {
+        long total = 0;
+        for (long size : sizes) {
+            total += align(size, alignment);
+        }
+        return total;
+    }
+
+    /**
+     * Carves a sub-region of the given size.
+     *
+     * @return A handle to the sub-region, or {@link #INVALID_HANDLE} if the arena
+     *     is closed, does not have enough space left, or the backend cannot
+     *     create the sub-region. In the latter case the space is not consumed.
+     */
+    public long carve(long sizeInBytes) {
+        if (closed || sizeInBytes <= 0 || top + sizeInBytes > capacity) {
+            return INVALID_HANDLE;
+        }
+        long offset = top;
+        long subRegion = backend.createSubRegion(region, offset, sizeInBytes);
+        if (subRegion == INVALID_HANDLE) {
+            return INVALID_HANDLE;
+        }
+        top += align(sizeInBytes, alignment);
+        liveSubRegions++;
+        subRegionOffsets.put(subRegion, offset);
+        return subRegion;
+    }
+
+    /**
+     * Releases a sub-region. The region is returned to the backend when the arena
+     * is closed and no sub-regions are alive.
+     *
+     * @return true if the whole region has been released.
+     */
+    public boolean release(long subRegion) {
+        TornadoInternalError.guarantee(liveSubRegions > 0, "No sub-regions alive in the arena");
+        backend.releaseSubRegion(subRegion);
+        subRegionOffsets.remove(subRegion);
+        liveSubRegions--;
+        return releaseRegionIfUnused();
+    }
+
+    /**
+     * Closes the arena for carving. Once closed, the region is released as soon
+     * as all its sub-regions are released.
+     *
+     * @return true if the whole region has been released.
+     */
+    public boolean close() {
+        closed = true;
+        return releaseRegionIfUnused();
+    }
+
+    private boolean releaseRegionIfUnused() {
+        if (closed && liveSubRegions == 0 && !released) {
+            backend.release(region, capacity);
+            released = true;
+            return true;
+        }
+        return false;
+    }
+
+    public long getRegion() {
+        return region;
+    }
+
+    /**
+     * @return Offset in bytes of a live sub-region within the region of the
+     *     arena.
+     */
+    public long getOffset(long subRegion) {
+        Long offset = subRegionOffsets.get(subRegion);
+        TornadoInternalError.guarantee(offset != null, "The sub-region does not belong to the arena");
+        return offset;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getUsedBytes() {
+        return top;
+    }
+
+    public int getLiveSubRegions() {
+        return liveSubRegions;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+}
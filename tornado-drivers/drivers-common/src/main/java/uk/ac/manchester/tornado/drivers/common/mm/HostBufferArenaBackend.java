@@ -0,0 +1,119 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.mm;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.HashMap;
+import java.util.Map;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+
+/**
+ * Host-side simulation of a device for the {@link DeviceBufferArena}. Regions
+ * are allocated as off-heap {@link MemorySegment}s and sub-regions are exposed
+ * as raw addresses (base address plus offset), similar to the PTX and Level
+ * Zero device pointers. The backend checks that every sub-region lies within
+ * its region and does not overlap any other live sub-region, and it keeps
+ * counters to verify how many driver allocations the arena performed.
+ */
+public class HostBufferArenaBackend implements DeviceBufferArena.Backend {
+
+    private final Arena arena;
+    private final Map<Long, MemorySegment> regions;
+    private final Map<Long, long[]> subRegions;
+    private int numReservations;
+    private int numReleases;
+
+    public HostBufferArenaBackend() {
+        this.arena = Arena.ofConfined();
+        this.regions = new HashMap<>();
+        this.subRegions = new HashMap<>();
+    }
+
+    @Override
+    public long reserve(long sizeInBytes) {
+        MemorySegment segment = arena.allocate(sizeInBytes, 1);
+        regions.put(segment.address(), segment);
+        numReservations++;
+        return segment.address();
+    }
+
+    @Override
+    public void release(long region, long sizeInBytes) {
+        MemorySegment segment = regions.remove(region);
+        TornadoInternalError.guarantee(segment != null, "Releasing an unknown region: 0x%x", region);
+        TornadoInternalError.guarantee(segment.byteSize() == sizeInBytes, "Region 0x%x released with a different size", region);
+        subRegions.values().forEach(s -> TornadoInternalError.guarantee(s[0] != region, "Releasing region 0x%x with live sub-regions", region));
+        numReleases++;
+    }
+
+    @Override
+    public long createSubRegion(long region, long offset, long sizeInBytes) {
+        MemorySegment segment = regions.get(region);
+        TornadoInternalError.guarantee(segment != null, "Sub-region requested for an unknown region: 0x%x", region);
+        TornadoInternalError.guarantee(offset >= 0 && offset + sizeInBytes <= segment.byteSize(), "Sub-region [%d, %d) out of bounds", offset, offset + sizeInBytes);
+        for (long[] other : subRegions.values()) {
+            boolean overlaps = other[0] == region && offset < other[1] + other[2] && other[1] < offset + sizeInBytes;
+            TornadoInternalError.guarantee(!overlaps, "Sub-region [%d, %d) overlaps with [%d, %d)", offset, offset + sizeInBytes, other[1], other[1] + other[2]);
+        }
+        long handle = region + offset;
+        subRegions.put(handle, new long[] { region, offset, sizeInBytes });
+        return handle;
+    }
+
+    @Override
+    public void releaseSubRegion(long subRegion) {
+        TornadoInternalError.guarantee(subRegions.remove(subRegion) != null, "Releasing an unknown sub-region: 0x%x", subRegion);
+    }
+
+    /**
+     * Returns the host view of a live sub-region, so tests can read and write
+     * through it.
+     */
+    public MemorySegment getSubRegionSegment(long subRegion) {
+        long[] info = subRegions.get(subRegion);
+        TornadoInternalError.guarantee(info != null, "Unknown sub-region: 0x%x", subRegion);
+        return regions.get(info[0]).asSlice(info[1], info[2]);
+    }
+
+    public int getNumReservations() {
+        return numReservations;
+    }
+
+    public int getNumReleases() {
+        return numReleases;
+    }
+
+    public int getNumLiveSubRegions() {
+        return subRegions.size();
+    }
+
+    /**
+     * Frees all the host memory used by the simulation.
+     */
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.mm;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.TreeMap;
+
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * A pool of page-locked (pinned) host memory blocks that back the memory
+ * segments of native arrays. The drivers copy pinned memory to and from the
+ * device without staging it through a pageable bounce buffer, but pinning
+ * memory is expensive, so the blocks of unreachable arrays are kept for later
+ * allocations.
+ *
+ * <p>
+ * Each block is handed out as a {@link MemorySegment} of an automatic arena, as
+ * any other native array. When the segment is reclaimed by the GC, its block
+ * returns to the pool. A free block is reused for requests of at least half of
+ * its size, and the pool keeps at most
+ * {@link TornadoOptions#PINNED_MEMORY_POOL_SIZE} bytes of free blocks. The
+ * backend implementation provides the native allocation and release calls.
+ * </p>
+ */
+public abstract class PinnedMemoryPool {
+
+    private static final long BLOCK_ALIGNMENT = 4096;
+
+    private record Block(long address, long size) {
+    }
+
+    /**
+     * Free blocks indexed by their size.
+     */
+    private final TreeMap<Long, ArrayDeque<Long>> freeBlocks;
+    private long freeBytes;
+    private long hits;
+    private long misses;
+
+    protected PinnedMemoryPool() {
+        this.freeBlocks = new TreeMap<>();
+    }
+
+    /**
+     * Allocates a block of pinned host memory.
+     *
+     * @return the address of the block, or 0 if the backend cannot allocate it.
+     */
+    protected abstract long allocateHostBuffer(long size);
+
+    /**
+     * Releases a block allocated with {@link #allocateHostBuffer(long)}.
+     */
+    protected abstract void releaseHostBuffer(long address);
+
+    /**
+     * Returns a segment of pinned host memory of the given size.
+     *
+     * @param byteSize
+     *     Size in bytes of the segment.
+     * @return the segment, or null if the backend cannot allocate pinned
+     *     memory. The caller falls back to pageable memory in this case.
+     */
+    public MemorySegment allocate(long byteSize) {
+        Block block = takeBlock(DeviceBufferArena.align(byteSize, BLOCK_ALIGNMENT));
+        if (block == null) {
+            return null;
+        }
+        // The cleanup action must not capture the segment, otherwise it would never be reclaimed
+        return MemorySegment.ofAddress(block.address).reinterpret(byteSize, Arena.ofAuto(), segment -> release(block));
+    }
+
+    private synchronized Block takeBlock(long size) {
+        Map.Entry<Long, ArrayDeque<Long>> entry = freeBlocks.ceilingEntry(size);
+        if (entry != null && entry.getKey() <= 2 * size) {
+            long blockSize = entry.getKey();
+            long address = entry.getValue().poll();
+            if (entry.getValue().isEmpty()) {
+                freeBlocks.remove(blockSize);
+            }
+            freeBytes -= blockSize;
+            hits++;
+            return new Block(address, blockSize);
+        }
+
+        long address = allocateHostBuffer(size);
+        if (address == 0) {
+            // Free blocks are released in case the pinned memory is exhausted
+            releaseFreeBlocks();
+            address = allocateHostBuffer(size);
+            if (address == 0) {
+                return null;
+            }
+        }
+        misses++;
+        return new Block(address, size);
+    }
+
+    private synchronized void release(Block block) {
+        if (freeBytes + block.size > TornadoOptions.PINNED_MEMORY_POOL_SIZE) {
+            releaseHostBuffer(block.address);
+            return;
+        }
+        freeBlocks.computeIfAbsent(block.size, size -> new ArrayDeque<>()).add(block.address);
+        freeBytes += block.size;
+    }
+
+    /**
+     * Releases all the free blocks to the backend.
+     */
+    public synchronized void releaseFreeBlocks() {
+        for (ArrayDeque<Long> blocks : freeBlocks.values()) {
+            for (long address : blocks) {
+                releaseHostBuffer(address);
+            }
+        }
+        freeBlocks.clear();
+        freeBytes = 0;
+        if (Tornado.DEBUG) {
+            Tornado.debug("pinned memory pool reset: %s", this);
+        }
+    }
+
+    /**
+     * @return Number of allocations served with a free block from the pool.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of allocations that pinned a new block.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s [free=%d, hits=%d, misses=%d]", getClass().getSimpleName(), freeBytes, hits, misses);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.tests;
+
+import static uk.ac.manchester.tornado.runtime.tests.HostTests.check;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.manchester.tornado.api.TornadoDeviceContext;
+import uk.ac.manchester.tornado.api.TornadoTargetDevice;
+import uk.ac.manchester.tornado.api.exceptions.TornadoOutOfMemoryException;
+import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
+import uk.ac.manchester.tornado.runtime.tests.HostTests;
+
+/**
+ * Checks the size classes, the eviction order and the counters of the
+ * {@link TornadoBufferProvider} on the host. The native allocations are
+ * simulated, so no device is required.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado uk.ac.manchester.tornado.drivers.common.tests.TestBufferProvider
+ * </code>
+ */
+public class TestBufferProvider {
+
+    /**
+     * Device context of a device without limit in the size of an allocation.
+     */
+    private static TornadoDeviceContext hostDeviceContext() {
+        TornadoTargetDevice device = (TornadoTargetDevice) Proxy.newProxyInstance(TornadoTargetDevice.class.getClassLoader(), new Class<?>[] { TornadoTargetDevice.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDeviceMaxAllocationSize" -> Long.MAX_VALUE;
+                    case "getDeviceName" -> "host";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (TornadoDeviceContext) Proxy.newProxyInstance(TornadoDeviceContext.class.getClassLoader(), new Class<?>[] { TornadoDeviceContext.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getDevice" -> device;
+                    case "getDeviceName" -> "host";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Buffer provider whose native buffers are plain handles. It records the
+     * buffers released to the device.
+     */
+    private static class HostBufferProvider extends TornadoBufferProvider {
+
+        private final List<Long> releasedBuffers = new ArrayList<>();
+        private long nextBuffer = 1;
+
+        HostBufferProvider(long deviceMemory) {
+            super(hostDeviceContext());
+            currentMemoryAvailable = deviceMemory;
+        }
+
+        @Override
+        protected long allocateBuffer(long size) {
+            return nextBuffer++;
+        }
+
+        @Override
+        protected void releaseBuffer(long buffer) {
+            releasedBuffers.add(buffer);
+        }
+
+        long getMemoryAvailable() {
+            return currentMemoryAvailable;
+        }
+    }
+
+    /**
+     * A free buffer is only reused by requests of its own size class that fit in
+     * it.
+     */
+    private static void testSizeClasses() {
+        HostBufferProvider provider = new HostBufferProvider(1L << 30);
+
+        long a = provider.getBufferWithSize(120);
+        provider.markBufferReleased(a, 120);
+        check(provider.getBufferWithSize(100) == a, "a smaller request of the same size class should reuse the buffer");
+        provider.markBufferReleased(a, 120);
+
+        long b = provider.getBufferWithSize(200);
+        check(b != a, "a buffer smaller than the request must not be reused");
+        provider.markBufferReleased(b, 200);
+        check(provider.getBufferWithSize(130) == b, "a request of the same size class should reuse the buffer");
+        provider.markBufferReleased(b, 200);
+
+        // Both buffers fit, but the one of a larger size class must not be used
+        // while there is device memory left
+        check(provider.getBufferWithSize(64) == a, "the request should be served from its own size class");
+        long c = provider.getBufferWithSize(120);
+        check(c != a && c != b, "a buffer of a larger size class must not be reused while there is memory left");
+
+        long large = provider.getBufferWithSize(1L << 28);
+        provider.markBufferReleased(large, 1L << 28);
+        check(provider.getBufferWithSize((1L << 28) + 1) != large, "a large buffer smaller than the request must not be reused");
+        check(provider.getBufferWithSize(1L << 28) == large, "a request of the same size should reuse the large buffer");
+
+        check(provider.getHits() == 4, "unexpected number of hits: " + provider.getHits());
+        check(provider.getMisses() == 5, "unexpected number of misses: " + provider.getMisses());
+        check(provider.getEvictions() == 0 && provider.releasedBuffers.isEmpty(), "no buffer should be evicted");
+    }
+
+    /**
+     * When the device runs out of memory, a free buffer of a larger size class
+     * is reused before evicting any buffer.
+     */
+    private static void testLargerSizeClassWhenOutOfMemory() {
+        HostBufferProvider provider = new HostBufferProvider(1000);
+        long a = provider.getBufferWithSize(600);
+        provider.markBufferReleased(a, 600);
+        check(provider.getBufferWithSize(500) == a, "the free buffer of a larger size class should be reused");
+        check(provider.getHits() == 1 && provider.getMisses() == 1 && provider.getEvictions() == 0, "unexpected counters");
+        check(provider.getMemoryAvailable() == 400, "reusing a buffer must not change the available memory");
+    }
+
+    /**
+     * Free buffers are evicted in least-recently-released order, and only as
+     * many as needed to fit the allocation.
+     */
+    private static void testLRUEviction() {
+        HostBufferProvider provider = new HostBufferProvider(1000);
+        long a = provider.getBufferWithSize(300);
+        long b = provider.getBufferWithSize(300);
+        long c = provider.getBufferWithSize(300);
+        check(provider.getMemoryAvailable() == 100, "unexpected available memory");
+
+        provider.markBufferReleased(b, 300);
+        provider.markBufferReleased(a, 300);
+        provider.markBufferReleased(c, 300);
+        check(provider.checkBufferAvailability(3) && !provider.checkBufferAvailability(4), "expected three free buffers");
+
+        long d = provider.getBufferWithSize(500);
+        check(provider.releasedBuffers.equals(List.of(b, a)), "expected the two least recently released buffers to be evicted: " + provider.releasedBuffers);
+        check(provider.getEvictions() == 2, "unexpected number of evictions: " + provider.getEvictions());
+        check(provider.getMemoryAvailable() == 200, "unexpected available memory: " + provider.getMemoryAvailable());
+        check(provider.getBufferWithSize(300) == c, "the buffer that was not evicted should be reused");
+
+        provider.markBufferReleased(c, 300);
+        try {
+            provider.getBufferWithSize(2000);
+            check(false, "the allocation should not fit in the device");
+        } catch (TornadoOutOfMemoryException e) {
+            // Expected
+        }
+        check(provider.releasedBuffers.equals(List.of(b, a, c)), "all the free buffers should be evicted");
+        check(provider.getMemoryAvailable() == 500, "unexpected available memory: " + provider.getMemoryAvailable());
+
+        provider.markBufferReleased(d, 500);
+        provider.resetBuffers();
+        check(provider.releasedBuffers.equals(List.of(b, a, c, d)), "a reset should evict all the free buffers");
+        check(provider.getMemoryAvailable() == 1000 && !provider.checkBufferAvailability(1), "a reset should return all the memory");
+        check(provider.getHits() == 1 && provider.getMisses() == 4 && provider.getEvictions() == 4, "unexpected counters: " + provider);
+    }
+
+    public static void main(String[] args) throws Exception {
+        HostTests.run(TestBufferProvider.class, //
+                TestBufferProvider::testSizeClasses, //
+                TestBufferProvider::testLargerSizeClassWhenOutOfMemory, //
+                TestBufferProvider::testLRUEviction);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.tests;
+
+import static uk.ac.manchester.tornado.runtime.tests.HostTests.check;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+import uk.ac.manchester.tornado.drivers.common.mm.DeviceBufferArena;
+import uk.ac.manchester.tornado.drivers.common.mm.HostBufferArenaBackend;
+import uk.ac.manchester.tornado.runtime.tests.HostTests;
+
+/**
+ * Checks the packing logic of the {@link DeviceBufferArena} on the host, using
+ * the {@link HostBufferArenaBackend}. No device is required.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado uk.ac.manchester.tornado.drivers.common.tests.TestDeviceBufferArena
+ * </code>
+ */
+public class TestDeviceBufferArena {
+
+    private static final long ALIGNMENT = 128;
+
+    /**
+     * Thirty arguments of different sizes must cost a single reservation, with
+     * every sub-region aligned and the whole arena released in bulk.
+     */
+    private static void testSingleReservation() {
+        HostBufferArenaBackend backend = new HostBufferArenaBackend();
+        long[] sizes = new long[30];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = 24 + 4L * (i * 37 % 101);
+        }
+
+        DeviceBufferArena arena = new DeviceBufferArena(backend, sizes, ALIGNMENT);
+        check(arena.getCapacity() == DeviceBufferArena.computeReservationSize(sizes, ALIGNMENT), "unexpected arena capacity");
+
+        long[] handles = new long[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            handles[i] = arena.carve(sizes[i]);
+            check(handles[i] != DeviceBufferArena.INVALID_HANDLE, "sub-region " + i + " does not fit");
+            check((handles[i] - arena.getRegion()) % ALIGNMENT == 0, "sub-region " + i + " is not aligned");
+            check(arena.getOffset(handles[i]) == handles[i] - arena.getRegion(), "unexpected offset of sub-region " + i);
+        }
+        check(backend.getNumReservations() == 1, "expected a single reservation");
+        check(arena.carve(1) == DeviceBufferArena.INVALID_HANDLE, "the arena should be full");
+
+        // Write a distinct value at both ends of every sub-region and read them back
+        for (int i = 0; i < sizes.length; i++) {
+            MemorySegment segment = backend.getSubRegionSegment(handles[i]);
+            segment.set(ValueLayout.JAVA_INT, 0, i);
+            segment.set(ValueLayout.JAVA_INT, sizes[i] - Integer.BYTES, -i);
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            MemorySegment segment = backend.getSubRegionSegment(handles[i]);
+            check(segment.get(ValueLayout.JAVA_INT, 0) == i && segment.get(ValueLayout.JAVA_INT, sizes[i] - Integer.BYTES) == -i, "sub-region " + i + " was overwritten");
+        }
+
+        check(!arena.close(), "the arena must stay alive while sub-regions are in use");
+        for (int i = 0; i < handles.length - 1; i++) {
+            check(!arena.release(handles[i]), "the arena was released too early");
+        }
+        check(arena.release(handles[handles.length - 1]), "the arena should be released with its last sub-region");
+        check(backend.getNumReleases() == 1 && backend.getNumLiveSubRegions() == 0, "expected a single bulk release");
+        backend.close();
+    }
+
+    /**
+     * Requests that do not fit in the remaining space are rejected, so the
+     * caller can fall back to a regular allocation.
+     */
+    private static void testOverflowFallsBack() {
+        HostBufferArenaBackend backend = new HostBufferArenaBackend();
+        DeviceBufferArena arena = new DeviceBufferArena(backend, new long[] { 100, 200 }, ALIGNMENT);
+        check(arena.getCapacity() == 128 + 256, "unexpected arena capacity");
+        long first = arena.carve(300);
+        check(first != DeviceBufferArena.INVALID_HANDLE, "the first sub-region should fit");
+        check(arena.carve(100) == DeviceBufferArena.INVALID_HANDLE, "the second sub-region should not fit");
+        arena.release(first);
+        check(backend.getNumReleases() == 0, "an open arena must not be released");
+        check(arena.close() && arena.isReleased(), "closing an unused arena should release it");
+        backend.close();
+    }
+
+    /**
+     * A sub-region that the backend fails to create must not consume space in
+     * the arena nor keep the arena alive.
+     */
+    private static void testFailedSubRegionRollsBack() {
+        final boolean[] fail = { true };
+        HostBufferArenaBackend backend = new HostBufferArenaBackend() {
+            @Override
+            public long createSubRegion(long region, long offset, long sizeInBytes) {
+                return fail[0] ? DeviceBufferArena.INVALID_HANDLE : super.createSubRegion(region, offset, sizeInBytes);
+            }
+        };
+        DeviceBufferArena arena = new DeviceBufferArena(backend, new long[] { 100, 200 }, ALIGNMENT);
+        check(arena.carve(100) == DeviceBufferArena.INVALID_HANDLE, "the sub-region should not be created");
+        check(arena.getUsedBytes() == 0 && arena.getLiveSubRegions() == 0, "a failed sub-region must not consume space");
+
+        fail[0] = false;
+        long handle = arena.carve(300);
+        check(handle != DeviceBufferArena.INVALID_HANDLE, "the whole arena should still be available");
+        check(arena.getOffset(handle) == 0, "unexpected offset of the sub-region");
+        check(!arena.close(), "the arena must stay alive while sub-regions are in use");
+        check(arena.release(handle) && backend.getNumReleases() == 1, "the arena should be released with its only sub-region");
+        backend.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        HostTests.run(TestDeviceBufferArena.class, //
+                TestDeviceBufferArena::testSingleReservation, //
+                TestDeviceBufferArena::testOverflowFallsBack, //
+                TestDeviceBufferArena::testFailedSubRegionRollsBack);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.common.tests;
+
+import static uk.ac.manchester.tornado.runtime.tests.HostTests.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.drivers.common.EventPool;
+import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
+import uk.ac.manchester.tornado.runtime.tests.HostTests;
+
+/**
+ * Checks the slot recycling of the {@link EventPool} on the host. No device is
+ * required.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado uk.ac.manchester.tornado.drivers.common.tests.TestEventPool
+ * </code>
+ */
+public class TestEventPool {
+
+    /**
+     * A handle whose slot has been reused must not resolve to the new event.
+     */
+    private static void testStaleHandles() {
+        List<String> released = new ArrayList<>();
+        EventPool<String> pool = new EventPool<>("test", 4, true, released::add);
+        check(pool.getCapacity() == 4, "unexpected capacity");
+
+        int[] handles = new int[4];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = pool.register("e" + i, EventDescriptor.DESC_WRITE_INT);
+            check(handles[i] >= 0, "handles must be positive");
+        }
+        check(pool.getOccupancy() == 4 && pool.getEvictions() == 0, "the pool should be full without evictions");
+
+        int handle = pool.register("e4", EventDescriptor.DESC_READ_INT);
+        check(released.equals(List.of("e0")), "the oldest event should be evicted");
+        check(pool.get(handles[0]) == null && pool.getDescriptor(handles[0]) == null, "a stale handle must not resolve");
+        check("e4".equals(pool.get(handle)) && pool.getDescriptor(handle) == EventDescriptor.DESC_READ_INT, "the new handle must resolve");
+        check("e1".equals(pool.get(handles[1])), "other handles must not be affected");
+        check(pool.getStaleAccesses() == 2, "stale accesses should be counted");
+        check(pool.get(EventPool.INVALID_HANDLE) == null, "the invalid handle must not resolve");
+    }
+
+    /**
+     * Retained events are skipped by the clock hand, and registering fails once
+     * every slot is retained.
+     */
+    private static void testRetainedEvents() {
+        EventPool<String> pool = new EventPool<>("test", 2, true, event -> {
+        });
+        int first = pool.register("a", EventDescriptor.DESC_PARALLEL_KERNEL);
+        check(pool.retain(first), "the event should be retained");
+        for (int i = 0; i < 8; i++) {
+            pool.register("b" + i, EventDescriptor.DESC_WRITE_FLOAT);
+        }
+        check("a".equals(pool.get(first)), "a retained event must not be evicted");
+
+        int second = pool.register("c", EventDescriptor.DESC_WRITE_FLOAT);
+        check(pool.retain(second) && pool.getRetained() == 2, "two events should be retained");
+        boolean full = false;
+        try {
+            pool.register("d", EventDescriptor.DESC_WRITE_FLOAT);
+        } catch (TornadoRuntimeException e) {
+            full = true;
+        }
+        check(full, "registering in a fully retained pool must fail");
+
+        check(pool.unretain(second), "the event should be unretained");
+        pool.register("d", EventDescriptor.DESC_WRITE_FLOAT);
+        check(pool.get(second) == null, "an unretained event can be evicted");
+    }
+
+    /**
+     * A pinned event is neither evicted nor released while it is in use, and a
+     * release requested in the meantime happens on the last unpin.
+     */
+    private static void testPinnedEvents() {
+        List<String> released = new ArrayList<>();
+        EventPool<String> pool = new EventPool<>("test", 2, true, released::add);
+        int handle = pool.register("a", EventDescriptor.DESC_PARALLEL_KERNEL);
+        check("a".equals(pool.pin(handle)) && "a".equals(pool.pin(handle)), "the event should be pinned twice");
+        for (int i = 0; i < 4; i++) {
+            pool.register("b" + i, EventDescriptor.DESC_WRITE_FLOAT);
+        }
+        check("a".equals(pool.get(handle)) && !released.contains("a"), "a pinned event must not be evicted");
+
+        check(pool.release(handle) == 1 && !released.contains("a"), "the release of a pinned event should be deferred");
+        check(pool.pin(handle) == null, "a released event cannot be pinned");
+        pool.unpin(handle);
+        check(!released.contains("a"), "the event is still pinned once");
+        pool.unpin(handle);
+        check(released.contains("a"), "the last unpin should release the event");
+
+        int other = pool.register("c", EventDescriptor.DESC_READ_INT);
+        String description = pool.read(other, (event, descriptor) -> event + ":" + descriptor.getNameDescription());
+        check(("c:" + EventDescriptor.DESC_READ_INT.getNameDescription()).equals(description), "the event and its descriptor should be read together");
+        check(pool.read(handle, (event, descriptor) -> event) == null, "a stale handle must not be read");
+    }
+
+    /**
+     * Without recycling, the events have to be released explicitly before their
+     * slots can be used again.
+     */
+    private static void testBulkRelease() {
+        AtomicInteger released = new AtomicInteger();
+        EventPool<String> pool = new EventPool<>("test", 8, false, event -> released.incrementAndGet());
+        int[] handles = new int[8];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = pool.register("e" + i, EventDescriptor.DESC_WRITE_BYTE);
+        }
+        pool.retain(handles[0]);
+
+        check(pool.release(handles[0], handles[1], handles[2], EventPool.INVALID_HANDLE) == 3, "three events should be released");
+        check(pool.release(handles[0]) == 0, "an event cannot be released twice");
+        check(released.get() == 3 && pool.getOccupancy() == 5 && pool.getRetained() == 0, "unexpected pool state after a bulk release");
+        check(pool.getHandles().size() == 5, "the snapshot should contain the live events");
+
+        for (int i = 0; i < 3; i++) {
+            pool.register("f" + i, EventDescriptor.DESC_WRITE_BYTE);
+        }
+        check(pool.getEvictions() == 0 && pool.getPeakOccupancy() == 8, "the freed slots should be reused without evictions");
+
+        pool.reset();
+        check(released.get() == 11 && pool.getOccupancy() == 0, "reset should release every event");
+        check(pool.get(handles[7]) == null, "handles must be stale after a reset");
+    }
+
+    /**
+     * Several threads register, resolve and release events on the same pool.
+     * Every event must be released exactly once and no handle may resolve to an
+     * event of another thread.
+     */
+    private static void testConcurrentAccess() throws InterruptedException {
+        final int numThreads = 8;
+        final int eventsPerThread = 20000;
+        Set<String> released = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger mismatches = new AtomicInteger();
+        EventPool<String> pool = new EventPool<>("test", 64, true, event -> {
+            if (!released.add(event)) {
+                duplicates.incrementAndGet();
+            }
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < eventsPerThread; i++) {
+                    String name = threadId + "-" + i;
+                    int handle = pool.register(name, EventDescriptor.DESC_PARALLEL_KERNEL);
+                    String event = pool.get(handle);
+                    if (event != null && !event.equals(name)) {
+                        mismatches.incrementAndGet();
+                    }
+                    if (i % 3 == 0) {
+                        pool.release(handle);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pool.releaseAll();
+
+        check(mismatches.get() == 0, "a handle resolved to the event of another registration");
+        check(duplicates.get() == 0, "an event was released twice");
+        check(released.size() == numThreads * eventsPerThread, "every event should be released once");
+        check(pool.getOccupancy() == 0, "the pool should be empty");
+    }
+
+    public static void main(String[] args) throws Exception {
+        HostTests.run(TestEventPool.class, //
+                TestEventPool::testStaleHandles, //
+                TestEventPool::testRetainedEvents, //
+                TestEventPool::testPinnedEvents, //
+                TestEventPool::testBulkRelease, //
+                TestEventPool::testConcurrentAccess);
+    }
+}
@@ -193,6 +193,49 @@ JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQ
     return (jlong) event;
 }
 
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue
+ * Method:    clEnqueueMapBuffer
+ * Signature: (JJZJJJ[J)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue_clEnqueueMapBuffer
+(JNIEnv *env, jclass clazz, jlong queue_id, jlong buffer, jboolean blocking, jlong flags, jlong offset, jlong size, jlongArray array) {
+    jlong *arrayEvents = static_cast<jlong *>((array != NULL) ? env->GetPrimitiveArrayCritical(array, NULL) : NULL);
+    jlong *events = (array != NULL) ? &arrayEvents[1] : NULL;
+    jsize len = (array != NULL) ? arrayEvents[0] : 0;
+
+    cl_int status;
+    void *hostPointer = clEnqueueMapBuffer((cl_command_queue) queue_id, (cl_mem) buffer, blocking, (cl_map_flags) flags, (size_t) offset, (size_t) size, len, (cl_event *) events, NULL, &status);
+    LOG_OCL_AND_VALIDATE("clEnqueueMapBuffer", status);
+
+    if (array != NULL) {
+        env->ReleasePrimitiveArrayCritical(array, arrayEvents, JNI_ABORT);
+    }
+    return (status == CL_SUCCESS) ? (jlong) hostPointer : 0;
+}
+
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue
+ * Method:    clEnqueueUnmapMemObject
+ * Signature: (JJJ[J)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLCommandQueue_clEnqueueUnmapMemObject
+(JNIEnv *env, jclass clazz, jlong queue_id, jlong buffer, jlong host_pointer, jlongArray array) {
+    jlong *arrayEvents = static_cast<jlong *>((array != NULL) ? env->GetPrimitiveArrayCritical(array, NULL) : NULL);
+    jlong *events = (array != NULL) ? &arrayEvents[1] : NULL;
+    jsize len = (array != NULL) ? arrayEvents[0] : 0;
+
+    cl_event event = NULL;
+    cl_int status = clEnqueueUnmapMemObject((cl_command_queue) queue_id, (cl_mem) buffer, (void *) host_pointer, len, (cl_event *) events, &event);
+    LOG_OCL_AND_VALIDATE("clEnqueueUnmapMemObject", status);
+
+    if (array != NULL) {
+        env->ReleasePrimitiveArrayCritical(array, arrayEvents, JNI_ABORT);
+    }
+    // The event is not set when the command cannot be enqueued
+    return (status == CL_SUCCESS) ? (jlong) event : 0;
+}
+
 jlong transferFromHostToDevice(JNIEnv * env, jclass javaClass,
                                jlong commandQueue,          // Pointer to the OpenCL Command Queue
                                jbyteArray hostArray,        // Host Array
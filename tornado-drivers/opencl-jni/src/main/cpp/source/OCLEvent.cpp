@@ -97,3 +97,14 @@ JNIEXPORT void JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLEvent_clR
     cl_int status = clReleaseEvent((const cl_event) event);
     LOG_OCL_AND_VALIDATE("clReleaseEvent", status);
 }
+
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_opencl_OCLEvent
+ * Method:    clRetainEvent
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_uk_ac_manchester_tornado_drivers_opencl_OCLEvent_clRetainEvent
+        (JNIEnv *env, jclass clazz, jlong event) {
+    cl_int status = clRetainEvent((const cl_event) event);
+    LOG_OCL_AND_VALIDATE("clRetainEvent", status);
+}
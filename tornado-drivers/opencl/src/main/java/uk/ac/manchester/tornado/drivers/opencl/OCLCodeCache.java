@@ -649,6 +649,36 @@ public class OCLCodeCache {
         return code;
     }
 
+    /**
+     * Installs a device binary taken from the persistent kernel cache.
+     *
+     * @return the installed code, or null if the driver rejects the binary (e.g.,
+     *     after a driver update). In that case the caller should install the
+     *     source instead.
+     */
+    public OCLInstalledCode installCachedBinary(TaskMetaData meta, String id, String entryPoint, byte[] binary) {
+        info("Installing cached binary for %s into code cache", entryPoint);
+
+        final OCLProgram program = deviceContext.createProgramWithBinary(binary, new long[] { binary.length });
+        if (program == null) {
+            return null;
+        }
+        program.build(meta.getCompilerFlags());
+
+        final OCLBuildStatus status = program.getStatus(deviceContext.getDeviceId());
+        debug("\tOpenCL compilation status = %s", status.toString());
+        if (status != CL_BUILD_SUCCESS) {
+            debug("\tcached binary for %s rejected by the driver", entryPoint);
+            return null;
+        }
+
+        final OCLKernel kernel = program.getKernel(entryPoint);
+        final OCLInstalledCode code = new OCLInstalledCode(entryPoint, binary, (OCLDeviceContext) deviceContext, program, kernel, false);
+        debug("\tOpenCL Kernel id = 0x%x", kernel.getOclKernelID());
+        cache.put(id + "-" + entryPoint, code);
+        return code;
+    }
+
     private OCLInstalledCode installBinary(String id, String entryPoint, byte[] binary) throws OCLException {
         info("Installing binary for %s into code cache", entryPoint);
 
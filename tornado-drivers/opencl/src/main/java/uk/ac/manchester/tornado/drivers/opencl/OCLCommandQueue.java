@@ -125,6 +125,10 @@ public class OCLCommandQueue extends TornadoLogger {
 
     static native void clFinish(long queueId) throws OCLException;
 
+    static native long clEnqueueMapBuffer(long queueId, long buffer, boolean blocking, long flags, long offset, long bytes, long[] events) throws OCLException;
+
+    static native long clEnqueueUnmapMemObject(long queueId, long buffer, long hostPointer, long[] events) throws OCLException;
+
     public void flushEvents() {
         try {
             clFlush(commandQueue);
@@ -175,6 +179,45 @@ public class OCLCommandQueue extends TornadoLogger {
         return enqueueMarker(null);
     }
 
+    /**
+     * Maps a buffer into the host address space. The call blocks until the
+     * buffer is mapped.
+     *
+     * @param bufferId
+     *     Buffer to map.
+     * @param flags
+     *     Map flags (see {@link uk.ac.manchester.tornado.drivers.opencl.enums.OCLMapFlags}).
+     * @param bytes
+     *     Size in bytes of the mapped region, from the start of the buffer.
+     * @return host address of the mapped region, or 0 if the buffer could not
+     *     be mapped.
+     */
+    public long enqueueMapBuffer(long bufferId, long flags, long bytes) {
+        try {
+            return clEnqueueMapBuffer(commandQueue, bufferId, true, flags, 0, bytes, null);
+        } catch (OCLException e) {
+            error(e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Unmaps a region mapped with {@link #enqueueMapBuffer(long, long, long)}.
+     * The unmap event is released, since the OpenCL runtime completes the unmap
+     * before the buffer is released. No event is returned (0) if the unmap
+     * could not be enqueued.
+     */
+    public void enqueueUnmapMemObject(long bufferId, long hostPointer) {
+        try {
+            long event = clEnqueueUnmapMemObject(commandQueue, bufferId, hostPointer, null);
+            if (event != 0) {
+                OCLEvent.clReleaseEvent(event);
+            }
+        } catch (OCLException e) {
+            error(e.getMessage());
+        }
+    }
+
     public void cleanup() {
         try {
             clReleaseCommandQueue(commandQueue);
@@ -28,6 +28,7 @@ package uk.ac.manchester.tornado.drivers.opencl;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoNoOpenCLPlatformException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLBufferCreateType;
 import uk.ac.manchester.tornado.drivers.opencl.exceptions.OCLException;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
@@ -49,6 +50,7 @@ public class OCLContext implements OCLExecutionEnvironment {
     private final List<OCLTargetDevice> devices;
     private final List<OCLDeviceContext> deviceContexts;
     private final OCLCommandQueue[] queues;
+    private final List<OCLCommandQueue> additionalQueues;
     private final List<OCLProgram> programs;
     private final OCLPlatform platform;
 
@@ -58,6 +60,7 @@ public class OCLContext implements OCLExecutionEnvironment {
         this.devices = devices;
         this.deviceContexts = new ArrayList<>(devices.size());
         this.queues = new OCLCommandQueue[devices.size()];
+        this.additionalQueues = new ArrayList<>();
         this.programs = new ArrayList<>();
     }
 
@@ -99,7 +102,24 @@ public class OCLContext implements OCLExecutionEnvironment {
     }
 
     public void createCommandQueue(int index, long properties) {
-        OCLTargetDevice device = devices.get(index);
+        queues[index] = newCommandQueue(devices.get(index), properties);
+    }
+
+    /**
+     * Creates another command queue for a device, e.g., for the concurrent
+     * invocations of an execution plan. It is released with the context.
+     */
+    public OCLCommandQueue createAdditionalCommandQueue(OCLTargetDevice device, long properties) {
+        OCLCommandQueue queue = newCommandQueue(device, properties);
+        if (queue != null) {
+            synchronized (additionalQueues) {
+                additionalQueues.add(queue);
+            }
+        }
+        return queue;
+    }
+
+    private OCLCommandQueue newCommandQueue(OCLTargetDevice device, long properties) {
         long queueId;
         try {
             queueId = clCreateCommandQueue(contextID, device.getId(), properties);
@@ -109,9 +129,10 @@ public class OCLContext implements OCLExecutionEnvironment {
             TornadoLogger.info("platform: version=%s (%s) on %s", platformVersion, platform.getVersion(), device.getDeviceName());
             TornadoLogger.info("device  : version=%s (%s) on %s", deviceVersion, device.getVersion(), device.getDeviceName());
 
-            queues[index] = new OCLCommandQueue(queueId, properties, deviceVersion);
+            return new OCLCommandQueue(queueId, properties, deviceVersion);
         } catch (OCLException e) {
             TornadoLogger.error(e.getMessage());
+            return null;
         }
     }
 
@@ -203,6 +224,12 @@ public class OCLContext implements OCLExecutionEnvironment {
                     queue.cleanup();
                 }
             }
+            synchronized (additionalQueues) {
+                for (OCLCommandQueue queue : additionalQueues) {
+                    queue.cleanup();
+                }
+                additionalQueues.clear();
+            }
 
             long t2 = System.nanoTime();
             clReleaseContext(contextID);
@@ -273,6 +300,35 @@ public class OCLContext implements OCLExecutionEnvironment {
         return null;
     }
 
+    /**
+     * Creates a sub-buffer that covers a region of an existing buffer.
+     *
+     * @param bufferId
+     *     Parent buffer.
+     * @param flags
+     *     Memory flags of the sub-buffer.
+     * @param origin
+     *     Offset in bytes of the region within the parent buffer. It must be
+     *     aligned to the device base address alignment.
+     * @param bytes
+     *     Size in bytes of the region.
+     * @return sub-buffer id, or -1 if the sub-buffer could not be created.
+     */
+    public long createSubBuffer(long bufferId, long flags, long origin, long bytes) {
+        // cl_buffer_region: {size_t origin; size_t size;}
+        ByteBuffer region = ByteBuffer.allocate(2 * Long.BYTES).order(OpenCL.BYTE_ORDER);
+        region.putLong(origin);
+        region.putLong(bytes);
+        try {
+            final long subBufferId = createSubBuffer(bufferId, flags, OCLBufferCreateType.CL_BUFFER_CREATE_TYPE_REGION.getValue(), region.array());
+            TornadoLogger.info("sub-buffer created %s @ 0x%x (parent 0x%x, origin %d)", RuntimeUtilities.humanReadableByteCount(bytes, false), subBufferId, bufferId, origin);
+            return subBufferId;
+        } catch (OCLException e) {
+            TornadoLogger.error(e.getMessage());
+        }
+        return -1;
+    }
+
     public void releaseBuffer(long bufferId) {
         try {
             clReleaseMemObject(bufferId);
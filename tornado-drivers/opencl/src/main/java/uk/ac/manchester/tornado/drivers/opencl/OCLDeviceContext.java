@@ -31,6 +31,8 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.getProperty;
 import java.nio.ByteOrder;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongBiFunction;
 
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
@@ -43,7 +45,9 @@ import uk.ac.manchester.tornado.drivers.opencl.graal.OCLInstalledCode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.compiler.OCLCompilationResult;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLMemoryManager;
 import uk.ac.manchester.tornado.drivers.opencl.runtime.OCLBufferProvider;
+import uk.ac.manchester.tornado.drivers.opencl.runtime.OCLPinnedMemoryPool;
 import uk.ac.manchester.tornado.drivers.opencl.runtime.OCLTornadoDevice;
+import uk.ac.manchester.tornado.runtime.common.CommandQueueSelector;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
@@ -55,18 +59,21 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
 
     private final OCLTargetDevice device;
     private final OCLCommandQueue queue;
+    private final ConcurrentHashMap<Integer, OCLCommandQueue> invocationQueues;
     private final OCLContext context;
     private final OCLMemoryManager memoryManager;
     private final long bumpBuffer;
     private final OCLCodeCache codeCache;
     private final OCLEventPool oclEventPool;
     private final TornadoBufferProvider bufferProvider;
+    private final OCLPinnedMemoryPool pinnedMemoryPool;
     private boolean needsBump;
     private boolean wasReset;
 
     protected OCLDeviceContext(OCLTargetDevice device, OCLCommandQueue queue, OCLContext context) {
         this.device = device;
         this.queue = queue;
+        this.invocationQueues = new ConcurrentHashMap<>();
         this.context = context;
         this.memoryManager = new OCLMemoryManager(this);
         this.codeCache = new OCLCodeCache(this);
@@ -88,6 +95,7 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
             bumpBuffer = -1;
         }
         bufferProvider = new OCLBufferProvider(this);
+        pinnedMemoryPool = new OCLPinnedMemoryPool(context, queue);
 
         this.device.setDeviceContext(this);
     }
@@ -138,12 +146,41 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
         return bufferProvider;
     }
 
+    public OCLPinnedMemoryPool getPinnedMemoryPool() {
+        return pinnedMemoryPool;
+    }
+
+    /**
+     * @return the command queue selected by the current thread (see
+     *     {@link CommandQueueSelector}). The queues of the concurrent invocations
+     *     are created on first use, with the properties of the default queue.
+     */
+    public OCLCommandQueue getCommandQueue() {
+        final int index = CommandQueueSelector.current();
+        if (index == CommandQueueSelector.DEFAULT_QUEUE) {
+            return queue;
+        }
+        OCLCommandQueue commandQueue = invocationQueues.computeIfAbsent(index, i -> context.createAdditionalCommandQueue(device, queue.getProperties()));
+        // Fall back to the default queue if the driver cannot create more queues
+        return (commandQueue != null) ? commandQueue : queue;
+    }
+
+    /**
+     * Enqueues a command on the queue of the current thread and registers its
+     * event.
+     */
+    private int enqueue(int[] waitEvents, EventDescriptor descriptor, ToLongBiFunction<OCLCommandQueue, long[]> command) {
+        final OCLCommandQueue commandQueue = getCommandQueue();
+        return oclEventPool.enqueue(commandQueue, waitEvents, descriptor, waitList -> command.applyAsLong(commandQueue, waitList));
+    }
+
     @Override
     public void sync() {
+        final OCLCommandQueue commandQueue = getCommandQueue();
         if (USE_SYNC_FLUSH) {
-            queue.flush();
+            commandQueue.flush();
         }
-        queue.finish();
+        commandQueue.finish();
     }
 
     @Override
@@ -153,14 +190,16 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
 
     @Override
     public int enqueueBarrier() {
-        long oclEvent = queue.enqueueBarrier();
-        return (queue.getOpenclVersion() < 120) ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_BARRIER, queue);
+        final OCLCommandQueue commandQueue = getCommandQueue();
+        long oclEvent = commandQueue.enqueueBarrier();
+        return (commandQueue.getOpenclVersion() < 120) ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_BARRIER, commandQueue);
     }
 
     @Override
     public int enqueueMarker() {
-        long oclEvent = queue.enqueueMarker();
-        return queue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_MARKER, queue);
+        final OCLCommandQueue commandQueue = getCommandQueue();
+        long oclEvent = commandQueue.enqueueMarker();
+        return commandQueue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_MARKER, commandQueue);
     }
 
     @Override
@@ -179,9 +218,7 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
     }
 
     public int enqueueNDRangeKernel(OCLKernel kernel, int dim, long[] globalWorkOffset, long[] globalWorkSize, long[] localWorkSize, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueNDRangeKernel(kernel, dim, globalWorkOffset, globalWorkSize, localWorkSize, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_PARALLEL_KERNEL, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_PARALLEL_KERNEL, (commandQueue, waitList) -> commandQueue.enqueueNDRangeKernel(kernel, dim, globalWorkOffset, globalWorkSize, localWorkSize, waitList));
     }
 
     public ByteOrder getByteOrder() {
@@ -192,51 +229,35 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      * Asynchronous writes to device
      */
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_BYTE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_BYTE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_INT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_INT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_LONG, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_LONG, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_SHORT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_SHORT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_FLOAT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_FLOAT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_DOUBLE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_DOUBLE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueWriteBuffer(long bufferId, long deviceOffset, long bytes, long hostPointer, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, deviceOffset, bytes, hostPointer, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_SEGMENT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_WRITE_SEGMENT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.FALSE, deviceOffset, bytes, hostPointer, hostOffset, waitList));
     }
 
     /*
@@ -244,164 +265,118 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
      *
      */
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_BYTE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_BYTE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_INT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_INT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_LONG, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_LONG, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_FLOAT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_FLOAT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_DOUBLE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_DOUBLE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_SHORT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_SHORT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int enqueueReadBuffer(long bufferId, long offset, long bytes, long hostPointer, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, hostPointer, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_SEGMENT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_SEGMENT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.FALSE, offset, bytes, hostPointer, hostOffset, waitList));
     }
 
     /*
      * Synchronous writes to device
      */
     public void writeBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_BYTE, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_BYTE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_BYTE, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_BYTE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_INT, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_INT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_LONG, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_LONG, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_SHORT, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_SHORT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_FLOAT, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_FLOAT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_DOUBLE, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_DOUBLE, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public void writeBuffer(long bufferId, long offset, long bytes, long hostPointer, long hostOffset, int[] waitEvents) {
-        oclEventPool.registerEvent(queue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, hostPointer, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_WRITE_SEGMENT, queue);
+        enqueue(waitEvents, EventDescriptor.DESC_WRITE_SEGMENT, (commandQueue, waitList) -> commandQueue.enqueueWrite(bufferId, OpenCLBlocking.TRUE, offset, bytes, hostPointer, hostOffset, waitList));
     }
 
     /*
      * Synchronous reads from device
      */
     public int readBuffer(long bufferId, long offset, long bytes, byte[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_BYTE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, char[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_BYTE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_BYTE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, int[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_INT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_INT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, long[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_LONG, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_LONG, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, float[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_FLOAT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_FLOAT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, double[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_DOUBLE, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_DOUBLE, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
 
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, short[] array, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_SHORT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_SHORT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, array, hostOffset, waitList));
     }
 
     public int readBuffer(long bufferId, long offset, long bytes, long hostPointer, long hostOffset, int[] waitEvents) {
-        return oclEventPool.registerEvent(queue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, hostPointer, hostOffset, oclEventPool.serialiseEvents(waitEvents, queue)
-                ? oclEventPool.waitEventsBuffer
-                : null), EventDescriptor.DESC_READ_SEGMENT, queue);
+        return enqueue(waitEvents, EventDescriptor.DESC_READ_SEGMENT, (commandQueue, waitList) -> commandQueue.enqueueRead(bufferId, OpenCLBlocking.TRUE, offset, bytes, hostPointer, hostOffset, waitList));
     }
 
     public int enqueueBarrier(int[] events) {
-        long oclEvent = queue.enqueueBarrier(oclEventPool.serialiseEvents(events, queue) ? oclEventPool.waitEventsBuffer : null);
-        return queue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_BARRIER, queue);
+        final OCLCommandQueue commandQueue = getCommandQueue();
+        long oclEvent = oclEventPool.enqueue(commandQueue, events, commandQueue::enqueueBarrier);
+        return commandQueue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_BARRIER, commandQueue);
     }
 
     public int enqueueMarker(int[] events) {
-        long oclEvent = queue.enqueueMarker(oclEventPool.serialiseEvents(events, queue) ? oclEventPool.waitEventsBuffer : null);
-        return queue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_MARKER, queue);
+        final OCLCommandQueue commandQueue = getCommandQueue();
+        long oclEvent = oclEventPool.enqueue(commandQueue, events, commandQueue::enqueueMarker);
+        return commandQueue.getOpenclVersion() < 120 ? -1 : oclEventPool.registerEvent(oclEvent, EventDescriptor.DESC_SYNC_MARKER, commandQueue);
     }
 
     public void reset() {
@@ -423,6 +398,7 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
 
         final String deviceName = "Opencl-" + context.getPlatformIndex() + "-" + device.getIndex();
         System.out.printf("Found %d events on device %s:\n", events.size(), deviceName);
+        System.out.println(oclEventPool.getMetrics());
         if (events.isEmpty()) {
             return;
         }
@@ -487,19 +463,25 @@ public class OCLDeviceContext extends TornadoLogger implements OCLDeviceContextI
         if (event == -1) {
             return EMPTY_EVENT;
         }
-        return new OCLEvent(oclEventPool.getDescriptor(event).getNameDescription(), queue, event, oclEventPool.getOCLEvent(event));
+        OCLEvent oclEvent = oclEventPool.getOCLEvent(event);
+        if (oclEvent == null) {
+            // The slot of the event has been recycled, so the OpenCL event is already released
+            TornadoLogger.warn(String.format("Event handle 0x%x is stale on device %s", event, getId()));
+            return EMPTY_EVENT;
+        }
+        return oclEvent;
     }
 
     public void flush() {
-        queue.flush();
+        getCommandQueue().flush();
     }
 
     public void finish() {
-        queue.finish();
+        getCommandQueue().finish();
     }
 
     public void flushEvents() {
-        queue.flushEvents();
+        getCommandQueue().flushEvents();
     }
 
     public boolean isKernelAvailable() {
@@ -32,6 +32,7 @@ import static uk.ac.manchester.tornado.drivers.opencl.enums.OCLProfilingInfo.CL_
 import static uk.ac.manchester.tornado.drivers.opencl.enums.OCLProfilingInfo.CL_PROFILING_COMMAND_SUBMIT;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.ENABLE_PROFILING;
 
+import java.lang.ref.Cleaner;
 import java.nio.ByteBuffer;
 
 import uk.ac.manchester.tornado.api.common.Event;
@@ -44,6 +45,12 @@ import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 
 public class OCLEvent implements Event {
 
+    /**
+     * Releases the reference to the OpenCL event held by each instance, once the
+     * instance is no longer reachable.
+     */
+    private static final Cleaner CLEANER = Cleaner.create();
+
     private final long[] internalBuffer = new long[2];
 
     private OCLCommandQueue queue;
@@ -57,6 +64,10 @@ public class OCLEvent implements Event {
         buffer.order(OpenCL.BYTE_ORDER);
     }
 
+    /**
+     * Creates an event that holds its own reference to the OpenCL event, so the
+     * event stays valid after its slot in the event pool is reused.
+     */
     OCLEvent(String eventNameDescription, final OCLCommandQueue queue, final int event, final long oclEventID) {
         this();
         this.queue = queue;
@@ -64,11 +75,9 @@ public class OCLEvent implements Event {
         this.oclEventID = oclEventID;
         this.name = String.format("%s: 0x", eventNameDescription);
         this.status = -1;
-    }
-
-    void setEventId(int localId, long eventId) {
-        this.localId = localId;
-        this.oclEventID = eventId;
+        if (retain(oclEventID)) {
+            CLEANER.register(this, () -> release(oclEventID));
+        }
     }
 
     native static void clGetEventInfo(long eventId, int param, byte[] buffer) throws OCLException;
@@ -79,6 +88,26 @@ public class OCLEvent implements Event {
 
     native static void clReleaseEvent(long eventId) throws OCLException;
 
+    native static void clRetainEvent(long eventId) throws OCLException;
+
+    private static boolean retain(long eventId) {
+        try {
+            clRetainEvent(eventId);
+            return true;
+        } catch (OCLException e) {
+            TornadoLogger.error(e.getMessage());
+            return false;
+        }
+    }
+
+    private static void release(long eventId) {
+        try {
+            clReleaseEvent(eventId);
+        } catch (OCLException e) {
+            TornadoLogger.error(e.getMessage());
+        }
+    }
+
     private long readEventTime(OCLProfilingInfo eventType) {
         if (!ENABLE_PROFILING) {
             return -1;
@@ -221,12 +250,4 @@ public class OCLEvent implements Event {
     public long getEndTime() {
         return getCLEndTime();
     }
-
-    void release() {
-        try {
-            clReleaseEvent(oclEventID);
-        } catch (OCLException e) {
-            TornadoLogger.error(e.getMessage());
-        }
-    }
 }
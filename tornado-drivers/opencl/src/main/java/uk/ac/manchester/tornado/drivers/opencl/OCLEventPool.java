@@ -23,7 +23,6 @@
 
 package uk.ac.manchester.tornado.drivers.opencl;
 
-import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.guarantee;
 import static uk.ac.manchester.tornado.drivers.opencl.enums.OCLCommandQueueProperties.CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.MAX_WAIT_EVENTS;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
@@ -31,11 +30,15 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.fatal;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.CIRCULAR_EVENTS;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.BitSet;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
+import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.drivers.common.EventPool;
 import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
+import uk.ac.manchester.tornado.drivers.opencl.exceptions.OCLException;
+import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 
 /**
  * Class which holds mapping between OpenCL events and TornadoVM local events
@@ -43,130 +46,156 @@ import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
  * information such as events description and tag.
  * 
  * Each device holds an event pool. Only one instance of the pool per device.
+ * The slots are managed by the common {@link EventPool}, so the pool can be
+ * used from several threads.
  */
 class OCLEventPool {
 
-    protected final long[] waitEventsBuffer;
-    private final long[] events;
-    private final EventDescriptor[] descriptors;
-    private final BitSet retain;
-    private final OCLCommandQueue[] eventQueues;
-    private final OCLEvent internalEvent;
-    private int eventIndex;
-    private int eventPoolSize;
+    private record QueuedEvent(long oclEventId, OCLCommandQueue queue) {
+    }
+
+    private final EventPool<QueuedEvent> events;
+    private final ThreadLocal<long[]> waitEventsBuffer;
 
     protected OCLEventPool(int poolSize) {
-        this.eventPoolSize = poolSize;
-        this.retain = new BitSet(eventPoolSize);
-        this.retain.clear();
-        this.events = new long[eventPoolSize];
-        this.descriptors = new EventDescriptor[eventPoolSize];
-        this.eventQueues = new OCLCommandQueue[eventPoolSize];
-        this.eventIndex = 0;
-        this.waitEventsBuffer = new long[MAX_WAIT_EVENTS];
-        this.internalEvent = new OCLEvent();
+        this.events = new EventPool<>("OpenCL", poolSize, CIRCULAR_EVENTS, OCLEventPool::releaseOCLEvent);
+        this.waitEventsBuffer = ThreadLocal.withInitial(() -> new long[MAX_WAIT_EVENTS]);
     }
 
-    protected int registerEvent(long oclEventId, EventDescriptor descriptorId, OCLCommandQueue queue) {
-        if (retain.get(eventIndex)) {
-            findNextEventSlot();
+    private static void releaseOCLEvent(QueuedEvent event) {
+        try {
+            OCLEvent.clReleaseEvent(event.oclEventId());
+        } catch (OCLException e) {
+            TornadoLogger.error(e.getMessage());
         }
-        final int currentEvent = eventIndex;
-        guarantee(!retain.get(currentEvent), "overwriting retained event");
+    }
 
+    protected int registerEvent(long oclEventId, EventDescriptor descriptorId, OCLCommandQueue queue) {
         /*
          * OpenCL can produce an out of resources error which results in an invalid
-         * event (-1). If this happens, then we log a fatal exception and gracefully
-         * exit.
+         * event (-1). If this happens, then we log a fatal exception and bailout.
          */
         if (oclEventId == -1) {
-            fatal("invalid event: event=0x%x, description=%s, tag=0x%x\n", oclEventId, descriptorId.getNameDescription());
-            fatal("terminating application as system integrity has been compromised.");
-            System.exit(-1);
+            fatal("invalid event: event=0x%x, description=%s\n", oclEventId, descriptorId.getNameDescription());
+            throw new TornadoBailoutRuntimeException("[ERROR] Invalid event received from the OpenCL driver: " + descriptorId.getNameDescription());
         }
-
-        if (events[currentEvent] > 0 && !retain.get(currentEvent)) {
-            internalEvent.setEventId(currentEvent, events[currentEvent]);
-            releaseEvent(currentEvent);
-            internalEvent.release();
-        }
-        events[currentEvent] = oclEventId;
-        descriptors[currentEvent] = descriptorId;
-        eventQueues[currentEvent] = queue;
-
-        findNextEventSlot();
-        return currentEvent;
+        return events.register(new QueuedEvent(oclEventId, queue), descriptorId);
     }
 
-    private void findNextEventSlot() {
-        eventIndex = retain.nextClearBit(eventIndex + 1);
+    /**
+     * Enqueues a command that waits for the given events and registers the event
+     * of the command.
+     *
+     * @return the handle of the event of the command.
+     */
+    protected int enqueue(OCLCommandQueue queue, int[] dependencies, EventDescriptor descriptor, ToLongFunction<long[]> command) {
+        return registerEvent(enqueue(queue, dependencies, command), descriptor, queue);
+    }
 
-        if (CIRCULAR_EVENTS && (eventIndex >= events.length)) {
-            eventIndex = 0;
+    /**
+     * Enqueues a command that waits for the given events. The events of the wait
+     * list are pinned in the pool until the command has been enqueued, so another
+     * thread cannot release them in the meantime. The driver keeps its own
+     * reference to them from then on.
+     *
+     * @return the OpenCL event of the command.
+     */
+    protected long enqueue(OCLCommandQueue queue, int[] dependencies, ToLongFunction<long[]> command) {
+        long[] waitList = pinWaitList(dependencies, queue);
+        try {
+            return command.applyAsLong(waitList);
+        } finally {
+            if (waitList != null) {
+                unpin(dependencies, dependencies.length);
+            }
         }
+    }
 
-        guarantee(eventIndex != -1, "event window is full (retained=%d, capacity=%d)", retain.cardinality(), eventPoolSize);
+    private void unpin(int[] dependencies, int count) {
+        for (int i = 0; i < count; i++) {
+            if (dependencies[i] != -1) {
+                events.unpin(dependencies[i]);
+            }
+        }
     }
 
-    protected boolean serialiseEvents(int[] dependencies, OCLCommandQueue queue) {
+    /**
+     * Builds the list of OpenCL events to wait for, in the format expected by the
+     * native enqueue calls (the first element is the number of events), and pins
+     * the events in the pool.
+     *
+     * @return the wait list, or null if there is nothing to wait for.
+     * @throws TornadoRuntimeException
+     *     if the event of a dependency has already been evicted from the pool,
+     *     since the command could start before the dependency finishes.
+     */
+    private long[] pinWaitList(int[] dependencies, OCLCommandQueue queue) {
         boolean outOfOrderQueue = (queue.getProperties() & CL_QUEUE_OUT_OF_ORDER_EXEC_MODE_ENABLE) == 1;
         if (dependencies == null || dependencies.length == 0 || !outOfOrderQueue) {
-            return false;
+            return null;
         }
 
-        Arrays.fill(waitEventsBuffer, 0);
-
+        final long[] buffer = waitEventsBuffer.get();
         int index = 0;
-        for (final int value : dependencies) {
+        for (int i = 0; i < dependencies.length; i++) {
+            final int value = dependencies[i];
             if (value != -1) {
+                QueuedEvent event = events.pin(value);
+                if (event == null) {
+                    unpin(dependencies, i);
+                    throw new TornadoRuntimeException(String.format(
+                            "[ERROR] The OpenCL event %d was evicted from the event pool before the commands that depend on it were enqueued. Increase the size of the pool with -Dtornado.eventpool.size=<size>",
+                            value));
+                }
                 index++;
-                waitEventsBuffer[index] = events[value];
-                debug("[%d] 0x%x - %s\n", index, events[value], descriptors[value].getNameDescription());
-
+                buffer[index] = event.oclEventId();
+                debug("[%d] 0x%x\n", index, event.oclEventId());
             }
         }
-        waitEventsBuffer[0] = index;
-        return (index > 0);
+        if (index == 0) {
+            return null;
+        }
+        buffer[0] = index;
+        return buffer;
     }
 
     public List<OCLEvent> getEvents() {
         List<OCLEvent> result = new ArrayList<>();
-        for (int i = 0; i < eventIndex; i++) {
-            final long eventId = events[i];
-            if (eventId <= 0) {
-                continue;
+        for (int handle : events.getHandles()) {
+            OCLEvent event = getOCLEvent(handle);
+            if (event != null) {
+                result.add(event);
             }
-            result.add(new OCLEvent(getDescriptor(i).getNameDescription(), eventQueues[i], i, eventId));
         }
         return result;
     }
 
     protected void reset() {
-        for (int index = 0; index < events.length; index++) {
-            if (events[index] > 0) {
-                internalEvent.setEventId(index, events[index]);
-                releaseEvent(index);
-                internalEvent.release();
-            }
-        }
-        Arrays.fill(events, 0);
-        eventIndex = 0;
+        events.reset();
     }
 
     protected void retainEvent(int localEventID) {
-        retain.set(localEventID);
+        events.retain(localEventID);
     }
 
     protected void releaseEvent(int localEventID) {
-        retain.clear(localEventID);
+        events.unretain(localEventID);
     }
 
-    protected long getOCLEvent(int localEventID) {
-        return events[localEventID];
+    /**
+     * @return the event of the handle, or null if the handle is stale.
+     */
+    protected OCLEvent getOCLEvent(int localEventID) {
+        // The new event retains the OpenCL event while it is pinned in the pool
+        return events.read(localEventID, (event, descriptor) -> new OCLEvent(descriptor.getNameDescription(), event.queue(), localEventID, event.oclEventId()));
     }
 
     protected EventDescriptor getDescriptor(int localEventID) {
-        return descriptors[localEventID];
+        return events.getDescriptor(localEventID);
+    }
+
+    protected String getMetrics() {
+        return events.toString();
     }
 
 }
@@ -28,6 +28,7 @@ import uk.ac.manchester.tornado.api.WorkerGrid;
 import uk.ac.manchester.tornado.api.common.Event;
 import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupTuner;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
 public abstract class OCLKernelScheduler {
@@ -37,6 +38,12 @@ public abstract class OCLKernelScheduler {
     protected double min;
     protected double max;
 
+    /**
+     * Hash of the code of the kernel launched by this scheduler. It is null if
+     * the work-group sizes are not tuned.
+     */
+    private String kernelHash;
+
     public static final String WARNING_FPGA_THREAD_LOCAL = "[TornadoVM OCL] Warning: TornadoVM changed the user-defined local size to: " + Arrays.toString(
             OCLFPGAScheduler.DEFAULT_LOCAL_WORK_SIZE) + ".";
 
@@ -50,6 +57,17 @@ public abstract class OCLKernelScheduler {
 
     public abstract void calculateLocalWork(final TaskMetaData meta);
 
+    /**
+     * Enables the tuning of the work-group sizes for the kernel, if the tuning
+     * is enabled.
+     *
+     * @param code
+     *     Code of the kernel.
+     */
+    public void setKernelCode(final byte[] code) {
+        kernelHash = (WorkGroupTuner.isEnabled() && code != null && !deviceContext.isPlatformFPGA()) ? WorkGroupTuner.hash(code) : null;
+    }
+
     public int submit(final OCLKernel kernel, final TaskMetaData meta, long batchThreads) {
         return submit(kernel, meta, null, batchThreads);
     }
@@ -58,15 +76,12 @@ public abstract class OCLKernelScheduler {
         if (TornadoOptions.isProfilerEnabled()) {
             Event tornadoKernelEvent = deviceContext.resolveEvent(taskEvent);
             tornadoKernelEvent.waitForEvents();
-            long timer = meta.getProfiler().getTimer(ProfilerType.TOTAL_KERNEL_TIME);
             // Register globalTime
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_KERNEL_TIME, timer + tornadoKernelEvent.getElapsedTime());
+            meta.getProfiler().sum(ProfilerType.TOTAL_KERNEL_TIME, tornadoKernelEvent.getElapsedTime());
             // Register the time for the task
             meta.getProfiler().setTaskTimer(ProfilerType.TASK_KERNEL_TIME, meta.getId(), tornadoKernelEvent.getElapsedTime());
             // Register the dispatch time of the kernel
-            long dispatchValue = meta.getProfiler().getTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME);
-            dispatchValue += tornadoKernelEvent.getDriverDispatchTime();
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, dispatchValue);
+            meta.getProfiler().sum(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, tornadoKernelEvent.getDriverDispatchTime());
         }
     }
 
@@ -112,13 +127,36 @@ public abstract class OCLKernelScheduler {
         }
     }
 
+    private WorkGroupTuner.Trial tuneLocalWork(final TaskMetaData meta, final long[] originalGlobalWork) {
+        if (meta.shouldUseOpenCLDriverScheduling() || meta.hasReduction()) {
+            // The partial results of the reductions are sized from the selected work-group
+            return null;
+        }
+        OCLTargetDevice device = deviceContext.getDevice();
+        // The global work can only be padded when it is computed by the scheduler
+        boolean padding = TornadoOptions.PAD_GLOBAL_WORK && !meta.isGlobalWorkDefined();
+        return WorkGroupTuner.getInstance().selectLocalWork(kernelHash, device.getDeviceName(), meta.getDims(), originalGlobalWork, meta.getGlobalWork(), meta.getLocalWork(),
+                device.getDeviceMaxWorkItemSizes(), device.getDeviceMaxWorkGroupSize()[0], padding);
+    }
+
+    private void recordTuningTime(final WorkGroupTuner.Trial trial, final int taskEvent) {
+        Event kernelEvent = deviceContext.resolveEvent(taskEvent);
+        kernelEvent.waitForEvents();
+        WorkGroupTuner.getInstance().record(trial, kernelEvent.getElapsedTime());
+    }
+
     public int submit(final OCLKernel kernel, final TaskMetaData meta, final int[] waitEvents, long batchThreads) {
+        WorkGroupTuner.Trial trial = null;
         if (!meta.isWorkerGridAvailable()) {
             if (!meta.isGlobalWorkDefined()) {
                 calculateGlobalWork(meta, batchThreads);
             }
             if (!meta.isLocalWorkDefined()) {
+                long[] originalGlobalWork = (kernelHash != null) ? meta.getGlobalWork().clone() : null;
                 calculateLocalWork(meta);
+                if (kernelHash != null) {
+                    trial = tuneLocalWork(meta, originalGlobalWork);
+                }
             }
         } else {
             checkLocalWorkGroupFitsOnDevice(meta);
@@ -128,6 +166,9 @@ public abstract class OCLKernelScheduler {
             meta.printThreadDims();
         }
         final int taskEvent = launch(kernel, meta, waitEvents, batchThreads);
+        if (trial != null) {
+            recordTuningTime(trial, taskEvent);
+        }
         updateProfiler(taskEvent, meta);
         return taskEvent;
     }
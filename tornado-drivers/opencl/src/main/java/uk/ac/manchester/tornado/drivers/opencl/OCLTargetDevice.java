@@ -34,6 +34,8 @@ public interface OCLTargetDevice extends TornadoTargetDevice {
 
     String getVersion();
 
+    String getDriverVersion();
+
     int getIndex();
 
     int getWordSize();
@@ -59,6 +59,42 @@ public class OpenCLIntrinsics {
      */
     public static native void globalBarrier();
 
+    /**
+     * Combines the partial result of a work-group of a single-kernel reduction
+     * into an accumulator of the atomics region.
+     *
+     * @return the number of work-groups that combined their result before.
+     */
+    public static native int atomicCombineAdd(int value);
+
+    public static native int atomicCombineAdd(float value);
+
+    public static native int atomicCombineMul(int value);
+
+    public static native int atomicCombineMul(float value);
+
+    public static native int atomicCombineMax(int value);
+
+    public static native int atomicCombineMax(float value);
+
+    public static native int atomicCombineMin(int value);
+
+    public static native int atomicCombineMin(float value);
+
+    public static native int atomicCombineOr(int value);
+
+    public static native int atomicCombineAnd(int value);
+
+    public static native int atomicCombineXor(int value);
+
+    /**
+     * Reads the accumulator of a single-kernel reduction. Only the work-group
+     * with the last ticket can read it.
+     */
+    public static native int getCombinedInt(int ticket);
+
+    public static native float getCombinedFloat(int ticket);
+
     public static native void printf();
 
     public static native void printEmpty();
@@ -74,6 +74,7 @@ public class OCLInstalledCode extends InstalledCode implements TornadoInstalledC
         this.code = code;
         this.deviceContext = deviceContext;
         this.scheduler = OCLScheduler.create(deviceContext);
+        this.scheduler.setKernelCode(code);
         this.DEFAULT_SCHEDULER = new OCLGPUScheduler(deviceContext);
         this.kernel = kernel;
         this.program = program;
@@ -305,15 +306,12 @@ public class OCLInstalledCode extends InstalledCode implements TornadoInstalledC
         if (TornadoOptions.isProfilerEnabled()) {
             Event tornadoKernelEvent = deviceContext.resolveEvent(task);
             tornadoKernelEvent.waitForEvents();
-            long timer = meta.getProfiler().getTimer(ProfilerType.TOTAL_KERNEL_TIME);
             // Register globalTime
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_KERNEL_TIME, timer + tornadoKernelEvent.getElapsedTime());
+            meta.getProfiler().sum(ProfilerType.TOTAL_KERNEL_TIME, tornadoKernelEvent.getElapsedTime());
             // Register the time for the task
             meta.getProfiler().setTaskTimer(ProfilerType.TASK_KERNEL_TIME, meta.getId(), tornadoKernelEvent.getElapsedTime());
             // Register the dispatch time of the kernel
-            long dispatchValue = meta.getProfiler().getTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME);
-            dispatchValue += tornadoKernelEvent.getDriverDispatchTime();
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, dispatchValue);
+            meta.getProfiler().sum(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, tornadoKernelEvent.getDriverDispatchTime());
         }
         return task;
     }
@@ -377,25 +375,31 @@ public class OCLInstalledCode extends InstalledCode implements TornadoInstalledC
             TornadoProfiler profiler = meta.getProfiler();
             Event event = deviceContext.resolveEvent(kernelContextWriteEventId);
             event.waitForEvents();
-            long copyInTimer = meta.getProfiler().getTimer(ProfilerType.COPY_IN_TIME);
-            copyInTimer += event.getElapsedTime();
-            profiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
+            profiler.sum(ProfilerType.COPY_IN_TIME, event.getElapsedTime());
             profiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, meta.getId(), callWrapper.getSize());
 
-            long dispatchValue = profiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            profiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            profiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
         }
     }
 
+    /*
+     * Launches are serialized per device: the kernel arguments are set on the
+     * shared cl_kernel and the kernel context buffer is shared by all the call
+     * wrappers of the device, so the arguments, the write of the context and the
+     * kernel must be enqueued together when task-graphs run from several threads.
+     */
     @Override
     public int launchWithDependencies(KernelArgs callWrapper, ObjectBuffer atomicSpace, TaskMetaData meta, long batchThreads, int[] waitEvents) {
-        return submitWithEvents((OCLKernelArgs) callWrapper, atomicSpace, meta, waitEvents, batchThreads);
+        synchronized (deviceContext) {
+            return submitWithEvents((OCLKernelArgs) callWrapper, atomicSpace, meta, waitEvents, batchThreads);
+        }
     }
 
     @Override
     public int launchWithoutDependencies(KernelArgs callWrapper, ObjectBuffer atomicSpace, TaskMetaData meta, long batchThreads) {
-        submitWithoutEvents((OCLKernelArgs) callWrapper, atomicSpace, meta, batchThreads);
+        synchronized (deviceContext) {
+            submitWithoutEvents((OCLKernelArgs) callWrapper, atomicSpace, meta, batchThreads);
+        }
         return -1;
     }
 
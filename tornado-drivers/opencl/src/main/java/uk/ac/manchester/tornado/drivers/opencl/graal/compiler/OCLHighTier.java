@@ -53,6 +53,7 @@ import uk.ac.manchester.tornado.drivers.common.compiler.phases.memalloc.TornadoP
 import uk.ac.manchester.tornado.drivers.opencl.graal.phases.TornadoHalfFloatReplacement;
 import uk.ac.manchester.tornado.drivers.opencl.graal.phases.TornadoOpenCLIntrinsicsReplacements;
 import uk.ac.manchester.tornado.drivers.opencl.graal.phases.TornadoParallelScheduler;
+import uk.ac.manchester.tornado.drivers.opencl.graal.phases.TornadoSingleKernelReduction;
 import uk.ac.manchester.tornado.drivers.opencl.graal.phases.TornadoTaskSpecialisation;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoHighTier;
@@ -117,6 +118,8 @@ public class OCLHighTier extends TornadoHighTier {
 
         appendPhase(new SchedulePhase(SchedulePhase.SchedulingStrategy.EARLIEST));
 
+        appendPhase(new TornadoSingleKernelReduction());
+
         appendPhase(new HighTierLoweringPhase(canonicalizer));
 
         // After the first Lowering, TornadoVM replaces reductions with snippets
@@ -21,6 +21,8 @@
  */
 package uk.ac.manchester.tornado.drivers.opencl.graal.lir;
 
+import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.shouldNotReachHere;
+
 import org.graalvm.compiler.lir.LIRInstruction;
 import org.graalvm.compiler.lir.LIRInstructionClass;
 import org.graalvm.compiler.lir.Opcode;
@@ -28,6 +30,7 @@ import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
 
 import jdk.vm.ci.meta.AllocatableValue;
 import jdk.vm.ci.meta.Value;
+import uk.ac.manchester.tornado.drivers.opencl.graal.OCLArchitecture;
 import uk.ac.manchester.tornado.drivers.opencl.graal.asm.OCLAssembler;
 import uk.ac.manchester.tornado.drivers.opencl.graal.asm.OCLAssembler.OCLBinaryIntrinsic;
 import uk.ac.manchester.tornado.drivers.opencl.graal.asm.OCLAssembler.OCLTernaryIntrinsic;
@@ -930,6 +933,137 @@ public class OCLLIRStmt {
         }
     }
 
+    /**
+     * Combines the partial result of a work-group of a single-kernel reduction
+     * into an accumulator of the atomics region, and takes a ticket from the
+     * following slot. The work-group that gets the last ticket reads the
+     * accumulator with {@link ReduceCombinedValueStmt}.
+     */
+    @Opcode("REDUCE_COMBINE")
+    public static class ReduceCombineStmt extends AbstractInstruction {
+
+        public static final LIRInstructionClass<ReduceCombineStmt> TYPE = LIRInstructionClass.create(ReduceCombineStmt.class);
+
+        public enum Operation {
+            ADD, MUL, MAX, MIN, OR, AND, XOR
+        }
+
+        private static final String ATOMICS = OCLArchitecture.atomicSpace.getName();
+
+        @Def
+        protected AllocatableValue ticket;
+        @Use
+        protected Value value;
+
+        private final Operation operation;
+        private final boolean isFloat;
+        private final int accumulatorIndex;
+
+        public ReduceCombineStmt(AllocatableValue ticket, Value value, Operation operation, boolean isFloat, int accumulatorIndex) {
+            super(TYPE);
+            this.ticket = ticket;
+            this.value = value;
+            this.operation = operation;
+            this.isFloat = isFloat;
+            this.accumulatorIndex = accumulatorIndex;
+        }
+
+        private String combine(String current, String operand) {
+            if (isFloat) {
+                String currentValue = "as_float(" + current + ")";
+                return switch (operation) {
+                    case ADD -> "as_int(" + currentValue + " + " + operand + ")";
+                    case MUL -> "as_int(" + currentValue + " * " + operand + ")";
+                    case MAX -> "as_int(fmax(" + currentValue + ", " + operand + "))";
+                    case MIN -> "as_int(fmin(" + currentValue + ", " + operand + "))";
+                    case OR, AND, XOR -> throw shouldNotReachHere("Bitwise reduction of a floating-point value");
+                };
+            }
+            return switch (operation) {
+                case ADD -> current + " + " + operand;
+                case MUL -> current + " * " + operand;
+                case MAX -> "max(" + current + ", " + operand + ")";
+                case MIN -> "min(" + current + ", " + operand + ")";
+                case OR -> current + " | " + operand;
+                case AND -> current + " & " + operand;
+                case XOR -> current + " ^ " + operand;
+            };
+        }
+
+        private void emitCompareAndSwapLoop(OCLAssembler asm, String accumulator, String operand) {
+            // The first read can be stale: atomic_cmpxchg returns the value in memory
+            asm.beginScope();
+            asm.emitLine("int atomicCurrent = " + accumulator + ";");
+            asm.emitLine("int atomicExpected;");
+            asm.emitLine("do {");
+            asm.pushIndent();
+            asm.emitLine("atomicExpected = atomicCurrent;");
+            asm.emitLine("atomicCurrent = atomic_cmpxchg(&" + accumulator + ", atomicExpected, " + combine("atomicExpected", operand) + ");");
+            asm.popIndent();
+            asm.emitLine("} while (atomicCurrent != atomicExpected);");
+            asm.endScope();
+        }
+
+        @Override
+        public void emitCode(OCLCompilationResultBuilder crb, OCLAssembler asm) {
+            final String accumulator = ATOMICS + "[" + accumulatorIndex + "]";
+            final String operand = asm.getStringValue(crb, value);
+            if (!isFloat && operation != Operation.MUL) {
+                // 32-bit integer atomics of OpenCL 1.1
+                asm.emitLine("atomic_" + operation.name().toLowerCase() + "(&" + accumulator + ", " + operand + ");");
+            } else {
+                emitCompareAndSwapLoop(asm, accumulator, operand);
+            }
+            // The accumulator is updated before the ticket is taken
+            asm.emitLine("mem_fence(CLK_GLOBAL_MEM_FENCE);");
+            asm.indent();
+            asm.emitValue(crb, ticket);
+            asm.emit(" = atomic_inc(&" + ATOMICS + "[" + (accumulatorIndex + 1) + "])");
+            asm.delimiter();
+            asm.eol();
+        }
+
+        public int getAccumulatorIndex() {
+            return accumulatorIndex;
+        }
+    }
+
+    /**
+     * Reads the accumulator of a single-kernel reduction once all work-groups
+     * have combined their partial results.
+     */
+    @Opcode("REDUCE_COMBINED_VALUE")
+    public static class ReduceCombinedValueStmt extends AbstractInstruction {
+
+        public static final LIRInstructionClass<ReduceCombinedValueStmt> TYPE = LIRInstructionClass.create(ReduceCombinedValueStmt.class);
+
+        @Def
+        protected AllocatableValue result;
+
+        private final boolean isFloat;
+        private final int accumulatorIndex;
+
+        public ReduceCombinedValueStmt(AllocatableValue result, boolean isFloat, int accumulatorIndex) {
+            super(TYPE);
+            this.result = result;
+            this.isFloat = isFloat;
+            this.accumulatorIndex = accumulatorIndex;
+        }
+
+        @Override
+        public void emitCode(OCLCompilationResultBuilder crb, OCLAssembler asm) {
+            final String accumulator = "atomic_add(&" + OCLArchitecture.atomicSpace.getName() + "[" + accumulatorIndex + "], 0)";
+            asm.indent();
+            asm.emitValue(crb, result);
+            asm.space();
+            asm.assign();
+            asm.space();
+            asm.emit(isFloat ? "as_float(" + accumulator + ")" : accumulator);
+            asm.delimiter();
+            asm.eol();
+        }
+    }
+
     @Opcode("Pragma")
     public static class PragmaExpr extends AbstractInstruction {
 
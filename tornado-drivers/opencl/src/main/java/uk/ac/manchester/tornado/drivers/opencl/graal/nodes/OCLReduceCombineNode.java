@@ -0,0 +1,104 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.graal.nodes;
+
+import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.shouldNotReachHere;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLLIRStmt;
+import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLLIRStmt.ReduceCombineStmt.Operation;
+
+/**
+ * Combines the partial result of a work-group into the accumulator of a
+ * single-kernel reduction. The node reserves two positions in the atomic
+ * buffer of the kernel: the accumulator, initialised with the neutral element
+ * of the operation, and a counter of the work-groups that have combined their
+ * result. The value of the node is the ticket of the work-group (0 for the
+ * first one to finish, number of groups - 1 for the last one).
+ */
+@NodeInfo(shortName = "REDUCE_COMBINE")
+public class OCLReduceCombineNode extends FixedWithNextNode implements LIRLowerable {
+
+    public static final NodeClass<OCLReduceCombineNode> TYPE = NodeClass.create(OCLReduceCombineNode.class);
+
+    @Input
+    ValueNode value;
+
+    private final Operation operation;
+
+    private int accumulatorIndex = -1;
+
+    public OCLReduceCombineNode(ValueNode value, Operation operation) {
+        super(TYPE, StampFactory.forKind(JavaKind.Int));
+        this.value = value;
+        this.operation = operation;
+    }
+
+    public boolean isFloat() {
+        return value.getStackKind() == JavaKind.Float;
+    }
+
+    public int getAccumulatorIndex() {
+        return accumulatorIndex;
+    }
+
+    private int getNeutralElement() {
+        if (isFloat()) {
+            return switch (operation) {
+                case ADD -> Float.floatToRawIntBits(0.0f);
+                case MUL -> Float.floatToRawIntBits(1.0f);
+                case MAX -> Float.floatToRawIntBits(Float.NEGATIVE_INFINITY);
+                case MIN -> Float.floatToRawIntBits(Float.POSITIVE_INFINITY);
+                case OR, AND, XOR -> throw shouldNotReachHere("Bitwise reduction of a floating-point value");
+            };
+        }
+        return switch (operation) {
+            case ADD -> 0;
+            case MUL -> 1;
+            case MAX -> Integer.MIN_VALUE;
+            case MIN -> Integer.MAX_VALUE;
+            case OR, XOR -> 0;
+            case AND -> -1;
+        };
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        accumulatorIndex = TornadoAtomicIntegerNode.reserveGlobalAtomics(graph().method(), getNeutralElement(), 0);
+        Variable ticket = tool.newVariable(tool.getLIRKind(stamp));
+        tool.append(new OCLLIRStmt.ReduceCombineStmt(ticket, gen.operand(value), operation, isFloat(), accumulatorIndex));
+        gen.setResult(this, ticket);
+    }
+}
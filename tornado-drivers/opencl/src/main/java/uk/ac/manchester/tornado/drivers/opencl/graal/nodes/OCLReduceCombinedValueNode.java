@@ -0,0 +1,68 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.graal.nodes;
+
+import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.guarantee;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.lir.Variable;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.FixedWithNextNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+
+import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLLIRStmt;
+
+/**
+ * Value of the accumulator of a single-kernel reduction. It must only be read
+ * by the work-group that got the last ticket from the
+ * {@link OCLReduceCombineNode}.
+ */
+@NodeInfo(shortName = "REDUCE_COMBINED_VALUE")
+public class OCLReduceCombinedValueNode extends FixedWithNextNode implements LIRLowerable {
+
+    public static final NodeClass<OCLReduceCombinedValueNode> TYPE = NodeClass.create(OCLReduceCombinedValueNode.class);
+
+    @Input
+    ValueNode ticket;
+
+    public OCLReduceCombinedValueNode(ValueNode ticket, JavaKind kind) {
+        super(TYPE, StampFactory.forKind(kind));
+        this.ticket = ticket;
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        guarantee(ticket instanceof OCLReduceCombineNode, "the ticket of a single-kernel reduction must come from a combine node: %s", ticket);
+        OCLReduceCombineNode combine = (OCLReduceCombineNode) ticket;
+        LIRGeneratorTool tool = gen.getLIRGeneratorTool();
+        Variable result = tool.newVariable(tool.getLIRKind(stamp));
+        tool.append(new OCLLIRStmt.ReduceCombinedValueStmt(result, combine.isFloat(), combine.getAccumulatorIndex()));
+        gen.setResult(this, result);
+    }
+}
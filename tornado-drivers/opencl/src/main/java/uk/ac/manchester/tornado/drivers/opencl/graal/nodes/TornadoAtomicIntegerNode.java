@@ -23,6 +23,8 @@ package uk.ac.manchester.tornado.drivers.opencl.graal.nodes;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.graalvm.compiler.core.common.type.StampFactory;
 import org.graalvm.compiler.graph.NodeClass;
@@ -57,7 +59,7 @@ public class TornadoAtomicIntegerNode extends FixedWithNextNode implements LIRLo
 
     // Mapping between:
     // Java Method: -> { ParamIndex -> Position in the Atomic Buffer }
-    public static HashMap<ResolvedJavaMethod, HashMap<Integer, Integer>> globalAtomicsParameters = new HashMap<>();
+    public static final Map<ResolvedJavaMethod, HashMap<Integer, Integer>> globalAtomicsParameters = new ConcurrentHashMap<>();
 
     private static final int DEFAULT_VALUE = -1;
 
@@ -156,6 +158,26 @@ public class TornadoAtomicIntegerNode extends FixedWithNextNode implements LIRLo
         return atomicsByParameter;
     }
 
+    /**
+     * Reserves consecutive positions in the atomic-int global buffer of the
+     * method. The TornadoVM runtime writes the initial values into the buffer
+     * before each kernel launch.
+     *
+     * @param method
+     *            Method being compiled.
+     * @param initialValues
+     *            Initial values of the reserved positions.
+     * @return the position of the first reserved slot.
+     */
+    public static synchronized int reserveGlobalAtomics(ResolvedJavaMethod method, int... initialValues) {
+        ArrayList<Integer> al = globalAtomics.computeIfAbsent(method, k -> new ArrayList<>());
+        int index = al.size();
+        for (int initialValue : initialValues) {
+            al.add(initialValue);
+        }
+        return index;
+    }
+
     private synchronized void assignIndex() {
         if (!globalAtomics.containsKey(this.graph().method())) {
             ArrayList<Integer> al = new ArrayList<>();
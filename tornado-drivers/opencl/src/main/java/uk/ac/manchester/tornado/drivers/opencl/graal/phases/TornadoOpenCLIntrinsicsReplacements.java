@@ -47,6 +47,7 @@ import jdk.vm.ci.meta.PrimitiveConstant;
 import jdk.vm.ci.meta.ResolvedJavaType;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLArchitecture;
 import uk.ac.manchester.tornado.drivers.opencl.graal.OCLLoweringProvider;
+import uk.ac.manchester.tornado.drivers.opencl.graal.lir.OCLLIRStmt.ReduceCombineStmt.Operation;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.FixedArrayNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadIdNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadSizeNode;
@@ -55,6 +56,8 @@ import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalArrayNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalGroupSizeNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.LocalThreadIDFixedNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLBarrierNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLReduceCombineNode;
+import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OCLReduceCombinedValueNode;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.OpenCLPrintf;
 import uk.ac.manchester.tornado.runtime.graal.phases.TornadoHighTierContext;
 
@@ -129,6 +132,39 @@ public class TornadoOpenCLIntrinsicsReplacements extends BasePhase<TornadoHighTi
                     graph.replaceFixed(invoke, groupIdNode);
                     break;
                 }
+                case "Direct#OpenCLIntrinsics.atomicCombineAdd":
+                    replaceAtomicCombine(graph, invoke, Operation.ADD);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineMul":
+                    replaceAtomicCombine(graph, invoke, Operation.MUL);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineMax":
+                    replaceAtomicCombine(graph, invoke, Operation.MAX);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineMin":
+                    replaceAtomicCombine(graph, invoke, Operation.MIN);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineOr":
+                    replaceAtomicCombine(graph, invoke, Operation.OR);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineAnd":
+                    replaceAtomicCombine(graph, invoke, Operation.AND);
+                    break;
+                case "Direct#OpenCLIntrinsics.atomicCombineXor":
+                    replaceAtomicCombine(graph, invoke, Operation.XOR);
+                    break;
+                case "Direct#OpenCLIntrinsics.getCombinedInt": {
+                    ValueNode ticket = invoke.callTarget().arguments().get(0);
+                    OCLReduceCombinedValueNode combinedValue = graph.addOrUnique(new OCLReduceCombinedValueNode(ticket, JavaKind.Int));
+                    graph.replaceFixed(invoke, combinedValue);
+                    break;
+                }
+                case "Direct#OpenCLIntrinsics.getCombinedFloat": {
+                    ValueNode ticket = invoke.callTarget().arguments().get(0);
+                    OCLReduceCombinedValueNode combinedValue = graph.addOrUnique(new OCLReduceCombinedValueNode(ticket, JavaKind.Float));
+                    graph.replaceFixed(invoke, combinedValue);
+                    break;
+                }
                 case "Direct#OpenCLIntrinsics.printEmpty":
                     OpenCLPrintf printfNode = graph.addOrUnique(new OpenCLPrintf("\"\""));
                     graph.replaceFixed(invoke, printfNode);
@@ -137,6 +173,12 @@ public class TornadoOpenCLIntrinsicsReplacements extends BasePhase<TornadoHighTi
         }
     }
 
+    private void replaceAtomicCombine(StructuredGraph graph, InvokeNode invoke, Operation operation) {
+        ValueNode value = invoke.callTarget().arguments().get(0);
+        OCLReduceCombineNode combine = graph.addOrUnique(new OCLReduceCombineNode(value, operation));
+        graph.replaceFixed(invoke, combine);
+    }
+
     private void lowerLocalInvokeNodeNewArray(StructuredGraph graph, int length, JavaKind elementKind, InvokeNode newArray) {
         LocalArrayNode localArrayNode;
         ConstantNode newLengthNode = ConstantNode.forInt(length, graph);
@@ -28,6 +28,9 @@ package uk.ac.manchester.tornado.drivers.opencl.graal.snippets;
 import org.graalvm.compiler.api.replacements.Snippet;
 import org.graalvm.compiler.nodes.GraphState;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
 import org.graalvm.compiler.nodes.java.NewArrayNode;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.options.OptionValues;
@@ -39,6 +42,7 @@ import org.graalvm.compiler.replacements.SnippetTemplate.SnippetInfo;
 import org.graalvm.compiler.replacements.Snippets;
 
 import jdk.vm.ci.meta.JavaKind;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.math.TornadoMath;
 import uk.ac.manchester.tornado.drivers.opencl.builtins.OpenCLIntrinsics;
 import uk.ac.manchester.tornado.drivers.opencl.graal.nodes.GlobalThreadSizeNode;
@@ -802,6 +806,862 @@ public class ReduceGPUSnippets implements Snippets {
         }
     }
 
+    @Snippet
+    public static void partialReduceIntOr(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntOrCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOr(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOrCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAnd(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAndCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAnd(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAndCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXor(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXorCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXor(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXorCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int groupID = OpenCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    /*
+     * Single-kernel reductions: after the reduction within the work-group, the
+     * first thread of each group combines the partial result into an
+     * accumulator with atomics. The last group to finish applies the
+     * accumulator to the first element of the output array, so the output array
+     * does not need one element per work-group.
+     */
+
+    @Snippet
+    public static void singleKernelReduceIntAdd(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] += localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAdd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] += OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntAddCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] += localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAdd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] += OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatAdd(float[] inputArray, float[] outputArray, int gidx) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] += localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAdd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] += OpenCLIntrinsics.getCombinedFloat(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatAddCarrierValue(float[] inputArray, float[] outputArray, int gidx, float value) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] += localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAdd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] += OpenCLIntrinsics.getCombinedFloat(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMult(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] *= localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMul(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] *= OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMultCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] *= localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMul(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] *= OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMult(float[] inputArray, float[] outputArray, int gidx) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] *= localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMul(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] *= OpenCLIntrinsics.getCombinedFloat(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMultCarrierValue(float[] inputArray, float[] outputArray, int gidx, float value) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] *= localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMul(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] *= OpenCLIntrinsics.getCombinedFloat(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMax(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.max(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMax(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.max(outputArray[0], OpenCLIntrinsics.getCombinedInt(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMaxCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.max(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMax(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.max(outputArray[0], OpenCLIntrinsics.getCombinedInt(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMax(float[] inputArray, float[] outputArray, int gidx) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.max(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMax(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.max(outputArray[0], OpenCLIntrinsics.getCombinedFloat(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMaxCarrierValue(float[] inputArray, float[] outputArray, int gidx, float value) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.max(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMax(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.max(outputArray[0], OpenCLIntrinsics.getCombinedFloat(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMin(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.min(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMin(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.min(outputArray[0], OpenCLIntrinsics.getCombinedInt(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntMinCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.min(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMin(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.min(outputArray[0], OpenCLIntrinsics.getCombinedInt(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMin(float[] inputArray, float[] outputArray, int gidx) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.min(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMin(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.min(outputArray[0], OpenCLIntrinsics.getCombinedFloat(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceFloatMinCarrierValue(float[] inputArray, float[] outputArray, int gidx, float value) {
+        float[] localArray = (float[]) NewArrayNode.newUninitializedArray(float.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = TornadoMath.min(localArray[localIdx], localArray[localIdx + stride]);
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineMin(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = TornadoMath.min(outputArray[0], OpenCLIntrinsics.getCombinedFloat(ticket));
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntOr(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineOr(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] | OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntOrCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineOr(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] | OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntAnd(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAnd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] & OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntAndCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineAnd(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] & OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntXor(int[] inputArray, int[] outputArray, int gidx) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineXor(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] ^ OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
+    @Snippet
+    public static void singleKernelReduceIntXorCarrierValue(int[] inputArray, int[] outputArray, int gidx, int value) {
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        int localIdx = OpenCLIntrinsics.get_local_id(0);
+        int localGroupSize = OpenCLIntrinsics.get_local_size(0);
+        int numGroups = OpenCLIntrinsics.get_global_size(0) / localGroupSize;
+
+        localArray[localIdx] = value;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            OpenCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        OpenCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            int ticket = OpenCLIntrinsics.atomicCombineXor(localArray[0]);
+            if (ticket == numGroups - 1) {
+                outputArray[0] = outputArray[0] ^ OpenCLIntrinsics.getCombinedInt(ticket);
+            }
+        }
+    }
+
     protected static class Tuple2<T0, T1> {
         T0 t0;
         T1 t1;
@@ -862,6 +1722,44 @@ public class ReduceGPUSnippets implements Snippets {
         private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceMinDoubleSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceDoubleMin");
         private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceMinDoubleSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceDoubleMinCarrierValue");
 
+        // Bitwise reductions
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntOrSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntOr");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntOrSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntOrCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntAndSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntAnd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntAndSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntAndCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntXorSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntXor");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntXorSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntXorCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongOrSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongOr");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongOrSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongOrCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongAndSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongAnd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongAndSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongAndCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongXorSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongXor");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongXorSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongXorCarrierValue");
+
+        // Single-kernel reductions
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntAddSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntAdd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntAddSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntAddCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatAddSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatAdd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatAddSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatAddCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMultSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMult");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMultSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMultCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMultSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMult");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMultSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMultCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMaxSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMax");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMaxSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMaxCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMaxSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMax");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMaxSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMaxCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMinSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMin");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntMinSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntMinCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMinSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMin");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceFloatMinSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceFloatMinCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntOrSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntOr");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntOrSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntOrCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntAndSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntAnd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntAndSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntAndCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntXorSnippet = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntXor");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> singleKernelReduceIntXorSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "singleKernelReduceIntXorCarrierValue");
+
         Providers providers;
 
         public Templates(OptionValues options, Providers providers) {
@@ -907,6 +1805,12 @@ public class ReduceGPUSnippets implements Snippets {
             } else if (value instanceof OCLIntBinaryIntrinsicNode) {
                 OCLIntBinaryIntrinsicNode op = (OCLIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeInteger(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntOrSnippet) : snippet(partialReduceIntOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntAndSnippet) : snippet(partialReduceIntAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntXorSnippet) : snippet(partialReduceIntXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
@@ -923,6 +1827,12 @@ public class ReduceGPUSnippets implements Snippets {
             } else if (value instanceof OCLIntBinaryIntrinsicNode) {
                 OCLIntBinaryIntrinsicNode op = (OCLIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeLong(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongOrSnippet) : snippet(partialReduceLongOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongAndSnippet) : snippet(partialReduceLongAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongXorSnippet) : snippet(partialReduceLongXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
@@ -996,12 +1906,71 @@ public class ReduceGPUSnippets implements Snippets {
             return snippet;
         }
 
+        private SnippetInfo selectSnippet(ValueNode extra, Tuple2<Class<? extends ReduceGPUSnippets>, String> snippet,
+                Tuple2<Class<? extends ReduceGPUSnippets>, String> snippetCarrierValue) {
+            return (extra == null) ? snippet(snippet) : snippet(snippetCarrierValue);
+        }
+
+        private SnippetInfo getSingleKernelIntSnippet(ValueNode value, ValueNode extra) {
+            if (value instanceof TornadoReduceAddNode) {
+                return selectSnippet(extra, singleKernelReduceIntAddSnippet, singleKernelReduceIntAddSnippetCarrierValue);
+            } else if (value instanceof TornadoReduceMulNode) {
+                return selectSnippet(extra, singleKernelReduceIntMultSnippet, singleKernelReduceIntMultSnippetCarrierValue);
+            } else if (value instanceof OrNode) {
+                return selectSnippet(extra, singleKernelReduceIntOrSnippet, singleKernelReduceIntOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                return selectSnippet(extra, singleKernelReduceIntAndSnippet, singleKernelReduceIntAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                return selectSnippet(extra, singleKernelReduceIntXorSnippet, singleKernelReduceIntXorSnippetCarrierValue);
+            } else if (value instanceof OCLIntBinaryIntrinsicNode op) {
+                switch (op.operation()) {
+                    case MAX:
+                        return selectSnippet(extra, singleKernelReduceIntMaxSnippet, singleKernelReduceIntMaxSnippetCarrierValue);
+                    case MIN:
+                        return selectSnippet(extra, singleKernelReduceIntMinSnippet, singleKernelReduceIntMinSnippetCarrierValue);
+                    default:
+                        break;
+                }
+            }
+            throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
+        }
+
+        private SnippetInfo getSingleKernelFloatSnippet(ValueNode value, ValueNode extra) {
+            if (value instanceof TornadoReduceAddNode) {
+                return selectSnippet(extra, singleKernelReduceFloatAddSnippet, singleKernelReduceFloatAddSnippetCarrierValue);
+            } else if (value instanceof TornadoReduceMulNode) {
+                return selectSnippet(extra, singleKernelReduceFloatMultSnippet, singleKernelReduceFloatMultSnippetCarrierValue);
+            } else if (value instanceof OCLFPBinaryIntrinsicNode op) {
+                switch (op.operation()) {
+                    case FMAX:
+                        return selectSnippet(extra, singleKernelReduceFloatMaxSnippet, singleKernelReduceFloatMaxSnippetCarrierValue);
+                    case FMIN:
+                        return selectSnippet(extra, singleKernelReduceFloatMinSnippet, singleKernelReduceFloatMinSnippetCarrierValue);
+                    default:
+                        break;
+                }
+            }
+            throw new RuntimeException("OCLFPBinaryIntrinsicNode operation not supported yet");
+        }
+
+        /**
+         * Snippets for reductions that are combined within the kernel. The runtime
+         * only marks int and float reductions as single-kernel.
+         */
+        public SnippetInfo getSingleKernelSnippetInstance(JavaKind elementKind, ValueNode value, ValueNode extra) {
+            return switch (elementKind) {
+                case Int -> getSingleKernelIntSnippet(value, extra);
+                case Float -> getSingleKernelFloatSnippet(value, extra);
+                default -> throw new TornadoRuntimeException("Single-kernel reductions are not supported for " + elementKind);
+            };
+        }
+
         public void lower(StoreAtomicIndexedNode storeAtomicIndexed, ValueNode globalId, GlobalThreadSizeNode globalSize, LoweringTool tool) {
             JavaKind elementKind = storeAtomicIndexed.elementKind();
             ValueNode value = storeAtomicIndexed.value();
             ValueNode extra = storeAtomicIndexed.getExtraOperation();
 
-            SnippetInfo snippet = getSnippetInstance(elementKind, value, extra);
+            SnippetInfo snippet = storeAtomicIndexed.isSingleKernel() ? getSingleKernelSnippetInstance(elementKind, value, extra) : getSnippetInstance(elementKind, value, extra);
 
             // Sets the guard stage to AFTER_FSA because we want to avoid any frame state
             // assignment for the snippet (see SnippetTemplate::assignNecessaryFrameStates)
@@ -1025,7 +1994,7 @@ public class ReduceGPUSnippets implements Snippets {
             ValueNode value = writeAtomic.value();
             ValueNode extra = writeAtomic.getExtraOperation();
 
-            SnippetInfo snippet = getSnippetInstance(elementKind, value, extra);
+            SnippetInfo snippet = writeAtomic.isSingleKernel() ? getSingleKernelSnippetInstance(elementKind, value, extra) : getSnippetInstance(elementKind, value, extra);
 
             // Sets the guard stage to AFTER_FSA because we want to avoid any frame state
             // assignment for the snippet (see SnippetTemplate::assignNecessaryFrameStates)
@@ -26,11 +26,14 @@ package uk.ac.manchester.tornado.drivers.opencl.mm;
 import static uk.ac.manchester.tornado.drivers.opencl.mm.OCLKernelArgs.RESERVED_SLOTS;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_AVAILABLE_MEMORY;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
 import uk.ac.manchester.tornado.api.memory.TornadoMemoryProvider;
 import uk.ac.manchester.tornado.drivers.opencl.OCLContext;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
 import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
+import uk.ac.manchester.tornado.runtime.common.CommandQueueSelector;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 
 public class OCLMemoryManager extends TornadoLogger implements TornadoMemoryProvider {
@@ -38,12 +41,14 @@ public class OCLMemoryManager extends TornadoLogger implements TornadoMemoryProv
     private static final int MAX_NUMBER_OF_ATOMICS_PER_KERNEL = 128;
     private static final int INTEGER_BYTES_SIZE = 4;
     private final OCLDeviceContext deviceContext;
-    public OCLKernelArgs oclKernelCallWrapper = null;
+    private final ConcurrentHashMap<Integer, Long> kernelCallBuffers;
+    private final ConcurrentHashMap<Integer, Long> atomicsRegions;
     private long constantPointer;
-    private long atomicsRegion = -1;
 
     public OCLMemoryManager(final OCLDeviceContext deviceContext) {
         this.deviceContext = deviceContext;
+        this.kernelCallBuffers = new ConcurrentHashMap<>();
+        this.atomicsRegions = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -51,12 +56,19 @@ public class OCLMemoryManager extends TornadoLogger implements TornadoMemoryProv
         return DEVICE_AVAILABLE_MEMORY;
     }
 
+    /**
+     * Creates the call wrapper of a task. Each call wrapper keeps its own list of
+     * arguments, so task-graphs can set up their kernels from different threads,
+     * but the call wrappers of a command queue share the device buffer of the
+     * kernel context. Kernel launches on the device are serialized (see
+     * {@link uk.ac.manchester.tornado.drivers.opencl.graal.OCLInstalledCode}), and
+     * the queues run in order, so the write of that buffer is always followed by
+     * its own kernel.
+     */
     public OCLKernelArgs createCallWrapper(final int maxArgs) {
-        if (this.oclKernelCallWrapper == null) {
-            long kernelCallBuffer = deviceContext.getPlatformContext().createBuffer(OCLMemFlags.CL_MEM_READ_ONLY, RESERVED_SLOTS * Long.BYTES).getBuffer();
-            this.oclKernelCallWrapper = new OCLKernelArgs(kernelCallBuffer, maxArgs, deviceContext);
-        }
-        return this.oclKernelCallWrapper;
+        long kernelCallBuffer = kernelCallBuffers.computeIfAbsent(CommandQueueSelector.current(),
+                queue -> deviceContext.getPlatformContext().createBuffer(OCLMemFlags.CL_MEM_READ_ONLY, RESERVED_SLOTS * Long.BYTES).getBuffer());
+        return new OCLKernelArgs(kernelCallBuffer, maxArgs, deviceContext);
     }
 
     public ObjectBuffer createAtomicsBuffer(final int[] arr) {
@@ -83,21 +95,24 @@ public class OCLMemoryManager extends TornadoLogger implements TornadoMemoryProv
         return constantPointer;
     }
 
+    /**
+     * @return the region of atomics of the command queue of the current thread,
+     *     or -1 if it is not allocated. Kernels on different queues can run at
+     *     the same time, so each queue has its own region.
+     */
     long toAtomicAddress() {
-        return atomicsRegion;
+        return atomicsRegions.getOrDefault(CommandQueueSelector.current(), -1L);
     }
 
     void allocateAtomicRegion() {
-        if (this.atomicsRegion == -1) {
-            this.atomicsRegion = deviceContext.getPlatformContext().createBuffer(OCLMemFlags.CL_MEM_READ_WRITE | OCLMemFlags.CL_MEM_ALLOC_HOST_PTR,
-                    INTEGER_BYTES_SIZE * MAX_NUMBER_OF_ATOMICS_PER_KERNEL).getBuffer();
-        }
+        atomicsRegions.computeIfAbsent(CommandQueueSelector.current(), queue -> deviceContext.getPlatformContext().createBuffer(OCLMemFlags.CL_MEM_READ_WRITE | OCLMemFlags.CL_MEM_ALLOC_HOST_PTR,
+                INTEGER_BYTES_SIZE * MAX_NUMBER_OF_ATOMICS_PER_KERNEL).getBuffer());
     }
 
     void deallocateAtomicRegion() {
-        if (this.atomicsRegion != -1) {
-            deviceContext.getPlatformContext().releaseBuffer(this.atomicsRegion);
-            this.atomicsRegion = -1;
+        Long atomicsRegion = atomicsRegions.remove(CommandQueueSelector.current());
+        if (atomicsRegion != null) {
+            deviceContext.getPlatformContext().releaseBuffer(atomicsRegion);
         }
     }
 
@@ -53,6 +53,7 @@ import uk.ac.manchester.tornado.api.types.collections.VectorInt2;
 import uk.ac.manchester.tornado.api.types.collections.VectorInt3;
 import uk.ac.manchester.tornado.api.types.collections.VectorInt4;
 import uk.ac.manchester.tornado.api.types.collections.VectorInt8;
+import uk.ac.manchester.tornado.drivers.common.mm.DeviceBufferArena;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.exceptions.TornadoUnsupportedError;
@@ -69,6 +70,8 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
 
     private long subregionSize;
 
+    private boolean sharesParentBuffer;
+
     public OCLMemorySegmentWrapper(OCLDeviceContext deviceContext, long batchSize) {
         this.deviceContext = deviceContext;
         this.batchSize = batchSize;
@@ -136,6 +139,14 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
         };
     }
 
+    /**
+     * The header of a view of a native array overlaps the elements of its parent,
+     * so the transfers of a view skip it.
+     */
+    private static long getHeaderSize(final Object reference) {
+        return reference instanceof TornadoNativeArray nativeArray && nativeArray.isSlice() ? TornadoNativeArray.ARRAY_HEADER : 0;
+    }
+
     @Override
     public int read(final Object reference, long hostOffset, long partialReadSize, int[] events, boolean useDeps) {
         MemorySegment segment;
@@ -147,7 +158,8 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
             returnEvent = deviceContext.readBuffer(toBuffer(), TornadoNativeArray.ARRAY_HEADER, partialReadSize, segment.address(), hostOffset, (useDeps) ? events : null);
         } else if (batchSize <= 0) {
             // Partial Copy Out due to batch processing
-            returnEvent = deviceContext.readBuffer(toBuffer(), bufferOffset, numBytes, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = deviceContext.readBuffer(toBuffer(), bufferOffset + headerSize, numBytes - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             // Full copy out (default)
             returnEvent = deviceContext.readBuffer(toBuffer(), TornadoNativeArray.ARRAY_HEADER, numBytes, segment.address(), hostOffset + TornadoNativeArray.ARRAY_HEADER, (useDeps) ? events : null);
@@ -162,7 +174,8 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
         MemorySegment segment;
         segment = getSegment(reference);
         if (batchSize <= 0) {
-            deviceContext.writeBuffer(toBuffer(), bufferOffset, bufferSize, segment.address(), 0, null);
+            final long headerSize = getHeaderSize(reference);
+            deviceContext.writeBuffer(toBuffer(), bufferOffset + headerSize, bufferSize - headerSize, segment.address(), headerSize, null);
         } else {
             throw new TornadoUnsupportedError("[UNSUPPORTED] batch processing for writeBuffer operation");
         }
@@ -176,7 +189,8 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
 
         final int returnEvent;
         if (batchSize <= 0) {
-            returnEvent = deviceContext.enqueueReadBuffer(toBuffer(), bufferOffset, bufferSize, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = deviceContext.enqueueReadBuffer(toBuffer(), bufferOffset + headerSize, bufferSize - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             throw new TornadoUnsupportedError("[UNSUPPORTED] batch processing for enqueueReadBuffer operation");
         }
@@ -191,7 +205,8 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
 
         int internalEvent;
         if (batchSize <= 0) {
-            internalEvent = deviceContext.enqueueWriteBuffer(toBuffer(), bufferOffset, bufferSize, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            internalEvent = deviceContext.enqueueWriteBuffer(toBuffer(), bufferOffset + headerSize, bufferSize - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             internalEvent = deviceContext.enqueueWriteBuffer(toBuffer(), 0, TornadoNativeArray.ARRAY_HEADER, segment.address(), 0, (useDeps) ? events : null);
             returnEvents.add(internalEvent);
@@ -225,10 +240,33 @@ public class OCLMemorySegmentWrapper implements ObjectBuffer {
         }
     }
 
+    @Override
+    public boolean allocateSlice(Object reference, ObjectBuffer parentBuffer) {
+        TornadoNativeArray slice = (TornadoNativeArray) reference;
+        long sliceSize = slice.getNumBytesOfSegment();
+        long sliceBuffer = deviceContext.getBufferProvider().getSliceBuffer(parentBuffer.toBuffer(), parentBuffer.getBufferOffset() + slice.getParentOffset(), sliceSize);
+        if (sliceBuffer == DeviceBufferArena.INVALID_HANDLE) {
+            return false;
+        }
+        bufferId = sliceBuffer;
+        bufferSize = sliceSize;
+        sharesParentBuffer = true;
+
+        if (Tornado.FULL_DEBUG) {
+            info("allocated slice: %s", toString());
+        }
+        return true;
+    }
+
     @Override
     public void deallocate() throws TornadoMemoryException {
         TornadoInternalError.guarantee(bufferId != INIT_VALUE, "Fatal error: trying to deallocate an invalid buffer");
-        deviceContext.getBufferProvider().markBufferReleased(bufferId, bufferSize);
+        if (sharesParentBuffer) {
+            deviceContext.getBufferProvider().releaseSliceBuffer(bufferId);
+            sharesParentBuffer = false;
+        } else {
+            deviceContext.getBufferProvider().markBufferReleased(bufferId, bufferSize);
+        }
         bufferId = INIT_VALUE;
         bufferSize = INIT_VALUE;
 
@@ -23,7 +23,10 @@
  */
 package uk.ac.manchester.tornado.drivers.opencl.runtime;
 
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.OPENCL_ARRAY_ALIGNMENT;
+
 import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
+import uk.ac.manchester.tornado.drivers.opencl.OCLDevice;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
 import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
 
@@ -43,4 +46,49 @@ public class OCLBufferProvider extends TornadoBufferProvider {
         ((OCLDeviceContext) deviceContext).getMemoryManager().releaseBuffer(buffer);
     }
 
+    @Override
+    protected boolean isSubAllocationSupported() {
+        return true;
+    }
+
+    @Override
+    protected long createSubBuffer(long buffer, long offset, long size) {
+        return ((OCLDeviceContext) deviceContext).getPlatformContext().createSubBuffer(buffer, OCLMemFlags.CL_MEM_READ_WRITE, offset, size);
+    }
+
+    @Override
+    protected void releaseSubBuffer(long subBuffer) {
+        ((OCLDeviceContext) deviceContext).getMemoryManager().releaseBuffer(subBuffer);
+    }
+
+    /**
+     * The arguments carved from an arena are sub-buffers, so their origin must be
+     * aligned to CL_DEVICE_MEM_BASE_ADDR_ALIGN as well as to the alignment of the
+     * arrays.
+     */
+    @Override
+    protected long getArenaAlignment() {
+        return Math.max(OPENCL_ARRAY_ALIGNMENT, getSubBufferAlignment());
+    }
+
+    /**
+     * Views of native arrays are sub-buffers of the buffer of their parent, so
+     * their origin must be aligned to CL_DEVICE_MEM_BASE_ADDR_ALIGN.
+     */
+    @Override
+    protected long getSliceAlignment() {
+        return getSubBufferAlignment();
+    }
+
+    /**
+     * @return CL_DEVICE_MEM_BASE_ADDR_ALIGN in bytes. The device reports it in
+     *     bits.
+     */
+    private long getSubBufferAlignment() {
+        if (((OCLDeviceContext) deviceContext).getDevice() instanceof OCLDevice device) {
+            return Math.max(device.getDeviceMemoryBaseAlignment() / Byte.SIZE, 1);
+        }
+        return OPENCL_ARRAY_ALIGNMENT;
+    }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.opencl.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import uk.ac.manchester.tornado.drivers.common.mm.PinnedMemoryPool;
+import uk.ac.manchester.tornado.drivers.opencl.OCLCommandQueue;
+import uk.ac.manchester.tornado.drivers.opencl.OCLContext;
+import uk.ac.manchester.tornado.drivers.opencl.OCLContext.OCLBufferResult;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMapFlags;
+import uk.ac.manchester.tornado.drivers.opencl.enums.OCLMemFlags;
+
+/**
+ * Pinned host memory for OpenCL devices. OpenCL has no call to allocate pinned
+ * memory, but the buffers created with {@code CL_MEM_ALLOC_HOST_PTR} are
+ * allocated by the driver in host memory that the device can access, and they
+ * stay mapped into the host address space while they are in use.
+ */
+public class OCLPinnedMemoryPool extends PinnedMemoryPool {
+
+    private final OCLContext context;
+    private final OCLCommandQueue queue;
+
+    /**
+     * Buffers of the mapped blocks, indexed by their host address.
+     */
+    private final Map<Long, Long> buffers;
+
+    public OCLPinnedMemoryPool(OCLContext context, OCLCommandQueue queue) {
+        this.context = context;
+        this.queue = queue;
+        this.buffers = new HashMap<>();
+    }
+
+    @Override
+    protected long allocateHostBuffer(long size) {
+        OCLBufferResult result = context.createBuffer(OCLMemFlags.CL_MEM_READ_WRITE | OCLMemFlags.CL_MEM_ALLOC_HOST_PTR, size);
+        if (result == null) {
+            return 0;
+        }
+        long address = queue.enqueueMapBuffer(result.getBuffer(), OCLMapFlags.CL_MAP_READ | OCLMapFlags.CL_MAP_WRITE, size);
+        if (address == 0) {
+            context.releaseBuffer(result.getBuffer());
+            return 0;
+        }
+        buffers.put(address, result.getBuffer());
+        return address;
+    }
+
+    @Override
+    protected void releaseHostBuffer(long address) {
+        long buffer = buffers.remove(address);
+        queue.enqueueUnmapMemObject(buffer, address);
+        context.releaseBuffer(buffer);
+    }
+}
@@ -44,6 +44,7 @@ import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.internal.annotations.Vector;
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
 import uk.ac.manchester.tornado.api.memory.TaskMetaDataInterface;
@@ -59,6 +60,7 @@ import uk.ac.manchester.tornado.api.types.arrays.HalfFloatArray;
 import uk.ac.manchester.tornado.api.types.arrays.IntArray;
 import uk.ac.manchester.tornado.api.types.arrays.LongArray;
 import uk.ac.manchester.tornado.api.types.arrays.ShortArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
 import uk.ac.manchester.tornado.drivers.opencl.OCLCodeCache;
 import uk.ac.manchester.tornado.drivers.opencl.OCLDeviceContext;
@@ -85,6 +87,10 @@ import uk.ac.manchester.tornado.drivers.opencl.mm.OCLObjectWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLShortArrayWrapper;
 import uk.ac.manchester.tornado.drivers.opencl.mm.OCLVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.codecache.KernelBundle;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.codecache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -93,6 +99,8 @@ import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.CompilationEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DriverBuildEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -248,6 +256,21 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         final Access[] taskAccess = taskMeta.getArgumentsAccess();
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        if (KernelBundle.isLoadEnabled() && !OCLBackend.isDeviceAnFPGAAccelerator(deviceContext) && !hasAtomics(executable, sketch)) {
+            OCLInstalledCode bundledCode = installFromKernelBundle(executable, resolvedMethod);
+            if (bundledCode != null) {
+                return bundledCode;
+            }
+        }
+
+        final String kernelCacheKey = getKernelCacheKey(executable, resolvedMethod, sketch);
+        if (kernelCacheKey != null) {
+            OCLInstalledCode cachedCode = installFromKernelCache(executable, resolvedMethod, kernelCacheKey);
+            if (cachedCode != null) {
+                return cachedCode;
+            }
+        }
+
         try {
             OCLProviders providers = (OCLProviders) getBackend().getProviders();
             TornadoProfiler profiler = task.getProfiler();
@@ -256,7 +279,14 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
             profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
             profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
             profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
-            final OCLCompilationResult result = OCLCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+            final CompilationEvent compilationEvent = new CompilationEvent();
+            compilationEvent.begin();
+            final OCLCompilationResult result;
+            try {
+                result = OCLCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+            } finally {
+                compilationEvent.finish(task.getId(), resolvedMethod.getName(), TornadoVMBackendType.OPENCL.name(), getDeviceName());
+            }
 
             // Update atomics buffer for inner methods that are not inlined
             ResolvedJavaMethod[] methods = result.getMethods();
@@ -277,18 +307,31 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
             profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
 
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+            driverBuildEvent.begin();
             // Compile the code
             OCLInstalledCode installedCode;
-            if (OCLBackend.isDeviceAnFPGAAccelerator(deviceContext)) {
-                // A) for FPGA
-                installedCode = deviceContext.installCode(result.getId(), result.getName(), result.getTargetCode(), task.shouldCompile());
-            } else {
-                // B) for CPU multi-core or GPU
-                installedCode = deviceContext.installCode(result);
+            try {
+                if (OCLBackend.isDeviceAnFPGAAccelerator(deviceContext)) {
+                    // A) for FPGA
+                    installedCode = deviceContext.installCode(result.getId(), result.getName(), result.getTargetCode(), task.shouldCompile());
+                } else {
+                    // B) for CPU multi-core or GPU
+                    installedCode = deviceContext.installCode(result);
+                }
+            } finally {
+                driverBuildEvent.finish(task.getId(), result.getName(), TornadoVMBackendType.OPENCL.name(), getDeviceName(), result.getTargetCode().length);
             }
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
 
+            if (kernelCacheKey != null && installedCode.isValid()) {
+                storeInKernelCache(kernelCacheKey, result, installedCode);
+            }
+            if (KernelBundle.isRecordEnabled() && installedCode.isValid() && !hasAtomics(executable, sketch)) {
+                KernelBundle.record(TornadoVMBackendType.OPENCL.name(), getPhysicalDevice().getDeviceName(), executable, resolvedMethod, result.getName(), result.getTargetCode());
+            }
+
             return installedCode;
         } catch (Exception e) {
             driver.fatal("Unable to compile %s for device %s\n", task.getId(), getDeviceName());
@@ -301,6 +344,92 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         }
     }
 
+    /**
+     * Computes the key of the task in the persistent kernel cache. FPGAs keep
+     * their own bitstream cache, and kernels with atomics are not cached because
+     * the compiler registers the atomic parameters as a side effect.
+     *
+     * @return the key, or null if the kernel should not be cached.
+     */
+    private String getKernelCacheKey(CompilableTask task, ResolvedJavaMethod resolvedMethod, Sketch sketch) {
+        final OCLDeviceContextInterface deviceContext = getDeviceContext();
+        if (!PersistentKernelCache.isEnabled() || OCLBackend.isDeviceAnFPGAAccelerator(deviceContext) || hasAtomics(task, sketch)) {
+            return null;
+        }
+        final OCLTargetDevice targetDevice = deviceContext.getDevice();
+        final String deviceIdentity = targetDevice.getDeviceName() + "|" + targetDevice.getVersion() + "|" + targetDevice.getDriverVersion();
+        return KernelCacheKey.forTask(task, resolvedMethod, deviceIdentity, OCLTornadoDevice.class);
+    }
+
+    private boolean hasAtomics(CompilableTask task, Sketch sketch) {
+        return sketch.getGraph().getNodes().filter(TornadoAtomicIntegerNode.class).isNotEmpty() || KernelBundle.usesAtomics(task);
+    }
+
+    private OCLInstalledCode installFromKernelCache(CompilableTask task, ResolvedJavaMethod resolvedMethod, String kernelCacheKey) {
+        final KernelCacheEntry entry = PersistentKernelCache.getInstance().lookup(kernelCacheKey);
+        if (entry == null) {
+            return null;
+        }
+        final OCLDeviceContextInterface deviceContext = getDeviceContext();
+        final TaskMetaData taskMeta = task.meta();
+        final TornadoProfiler profiler = task.getProfiler();
+        final String entryPoint = OCLDeviceContext.checkKernelName(resolvedMethod.getName());
+        entry.applyTo(taskMeta);
+        taskMeta.setCompiledGraph(resolvedMethod);
+
+        profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+        final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+        driverBuildEvent.begin();
+        OCLInstalledCode installedCode = null;
+        try {
+            if (entry.hasBinary()) {
+                installedCode = deviceContext.getCodeCache().installCachedBinary(taskMeta, task.getId(), entryPoint, entry.getBinary());
+            }
+            if (installedCode == null) {
+                installedCode = deviceContext.installCode(taskMeta, task.getId(), entryPoint, entry.getCode());
+                if (installedCode.isValid()) {
+                    PersistentKernelCache.getInstance().storeBinary(kernelCacheKey, installedCode.getProgram().getBinary());
+                }
+            }
+        } finally {
+            driverBuildEvent.finish(task.getId(), entryPoint, TornadoVMBackendType.OPENCL.name(), getDeviceName(), entry.getCode().length);
+        }
+        profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+        profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+        return installedCode.isValid() ? installedCode : null;
+    }
+
+    private OCLInstalledCode installFromKernelBundle(CompilableTask task, ResolvedJavaMethod resolvedMethod) {
+        final KernelCacheEntry entry = KernelBundle.find(TornadoVMBackendType.OPENCL.name(), getPhysicalDevice().getDeviceName(), task, resolvedMethod);
+        if (entry == null) {
+            return null;
+        }
+        final TaskMetaData taskMeta = task.meta();
+        final TornadoProfiler profiler = task.getProfiler();
+        entry.applyTo(taskMeta);
+        taskMeta.setCompiledGraph(resolvedMethod);
+
+        profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+        final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+        driverBuildEvent.begin();
+        OCLInstalledCode installedCode;
+        try {
+            installedCode = getDeviceContext().installCode(taskMeta, task.getId(), entry.getEntryPoint(), entry.getCode());
+        } finally {
+            driverBuildEvent.finish(task.getId(), entry.getEntryPoint(), TornadoVMBackendType.OPENCL.name(), getDeviceName(), entry.getCode().length);
+        }
+        profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+        profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+        return installedCode.isValid() ? installedCode : null;
+    }
+
+    private void storeInKernelCache(String kernelCacheKey, OCLCompilationResult result, OCLInstalledCode installedCode) {
+        final KernelCacheEntry entry = new KernelCacheEntry(result.getName(), result.getTargetCode(), result.getMeta());
+        final PersistentKernelCache kernelCache = PersistentKernelCache.getInstance();
+        kernelCache.store(kernelCacheKey, entry);
+        kernelCache.storeBinary(kernelCacheKey, installedCode.getProgram().getBinary());
+    }
+
     private TornadoInstalledCode compilePreBuiltTask(SchedulableTask task) {
         final OCLDeviceContextInterface deviceContext = getDeviceContext();
         final PrebuiltTask executable = (PrebuiltTask) task;
@@ -555,11 +684,28 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
     @Override
     public int allocateObjects(Object[] objects, long batchSize, TornadoDeviceObjectState[] states) {
         TornadoBufferProvider bufferProvider = getDeviceContext().getBufferProvider();
-        if (!bufferProvider.checkBufferAvailability(objects.length)) {
-            bufferProvider.resetBuffers();
-        }
-        for (int i = 0; i < objects.length; i++) {
-            allocate(objects[i], batchSize, states[i]);
+        // Task-graphs running from different threads may share objects, so the
+        // check and the allocation of their buffers must happen atomically.
+        synchronized (bufferProvider) {
+            if (!bufferProvider.checkBufferAvailability(objects.length)) {
+                bufferProvider.resetBuffers();
+            }
+            bufferProvider.openArena(objects, batchSize, states);
+            try {
+                for (int i = 0; i < objects.length; i++) {
+                    if (!isSlice(objects[i])) {
+                        allocate(objects[i], batchSize, states[i]);
+                    }
+                }
+            } finally {
+                bufferProvider.closeArena();
+            }
+            // Views are allocated once the buffers of their parents exist
+            for (int i = 0; i < objects.length; i++) {
+                if (isSlice(objects[i])) {
+                    allocateSlice(objects, i, batchSize, states);
+                }
+            }
         }
         return -1;
     }
@@ -573,6 +719,44 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         return buffer;
     }
 
+    private static boolean isSlice(Object object) {
+        return object instanceof TornadoNativeArray nativeArray && nativeArray.isSlice();
+    }
+
+    /**
+     * Allocates a view of a native array within the buffer of its parent, if the
+     * parent is allocated by the same ALLOC bytecode. Views whose parent is not
+     * used by the task-graph get a buffer of their own. A view whose parent is used
+     * by the task-graph must share its buffer, since separate buffers would not
+     * see the writes to each other.
+     */
+    private void allocateSlice(Object[] objects, int index, long batchSize, TornadoDeviceObjectState[] states) {
+        TornadoNativeArray slice = (TornadoNativeArray) objects[index];
+        TornadoDeviceObjectState state = states[index];
+        int parentIndex = indexOfParent(objects, slice);
+        if (!state.hasObjectBuffer() && parentIndex != -1) {
+            if (batchSize <= 0 && states[parentIndex].hasObjectBuffer()) {
+                ObjectBuffer buffer = createDeviceBuffer(slice.getClass(), slice, (OCLDeviceContext) getDeviceContext(), batchSize);
+                if (buffer.allocateSlice(slice, states[parentIndex].getObjectBuffer())) {
+                    state.setObjectBuffer(buffer);
+                    return;
+                }
+            }
+            throw new TornadoRuntimeException("[ERROR] A view at byte offset " + slice.getParentOffset() + " of a " + slice.getParent().getClass().getSimpleName()
+                    + " cannot share the device buffer of its parent, which is used by the same task-graph. Views must be aligned to the sub-buffer alignment of the device and cannot be used with batch processing.");
+        }
+        allocate(slice, batchSize, state);
+    }
+
+    private static int indexOfParent(Object[] objects, TornadoNativeArray slice) {
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i] == slice.getParent()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public int allocate(Object object, long batchSize, TornadoDeviceObjectState state) {
         final ObjectBuffer buffer;
@@ -593,13 +777,15 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
 
     @Override
     public int deallocate(TornadoDeviceObjectState state) {
-        if (state.isLockedBuffer()) {
-            return -1;
-        }
+        synchronized (getDeviceContext().getBufferProvider()) {
+            if (state.isLockedBuffer() || !state.hasObjectBuffer()) {
+                return -1;
+            }
 
-        state.getObjectBuffer().deallocate();
-        state.setContents(false);
-        state.setObjectBuffer(null);
+            state.getObjectBuffer().deallocate();
+            state.setContents(false);
+            state.setObjectBuffer(null);
+        }
         return -1;
     }
 
@@ -783,6 +969,20 @@ public class OCLTornadoDevice implements TornadoAcceleratorDevice {
         reuseBuffer = bufferAtomics;
     }
 
+    @Override
+    public MemorySegment allocatePinnedMemory(long byteSize) {
+        if (getDeviceContext() instanceof OCLDeviceContext deviceContext) {
+            return deviceContext.getPinnedMemoryPool().allocate(byteSize);
+        }
+        // Virtual devices do not have an OpenCL context
+        return null;
+    }
+
+    @Override
+    public long getPinnedMemoryPoolHits() {
+        return (getDeviceContext() instanceof OCLDeviceContext deviceContext) ? deviceContext.getPinnedMemoryPool().getHits() : 0;
+    }
+
     @Override
     public TornadoVMBackendType getTornadoVMBackend() {
         return TornadoVMBackendType.OPENCL;
@@ -54,6 +54,7 @@ import uk.ac.manchester.tornado.drivers.opencl.graal.backend.OCLBackend;
 import uk.ac.manchester.tornado.drivers.opencl.graal.compiler.OCLCompilationResult;
 import uk.ac.manchester.tornado.drivers.opencl.graal.compiler.OCLCompiler;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.codecache.KernelBundle;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -192,6 +193,9 @@ public class VirtualOCLTornadoDevice implements TornadoAcceleratorDevice {
 
             RuntimeUtilities.maybePrintSource(result.getTargetCode());
 
+            // Virtual devices are used to build kernel bundles for the real device they describe
+            KernelBundle.record(TornadoVMBackendType.OPENCL.name(), device.getDeviceName(), executable, resolvedMethod, result.getName(), result.getTargetCode());
+
             return null;
         } catch (Exception e) {
             driver.fatal("unable to compile %s for device %s", task.getId(), getDeviceName());
@@ -91,6 +91,40 @@ JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_ptx_PTXContext_cuM
     return (jlong) result;
 }
 
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_ptx_PTXContext
+ * Method:    cuMemHostAlloc
+ * Signature: (JJ)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_ptx_PTXContext_cuMemHostAlloc
+  (JNIEnv *env, jclass clazz, jlong cuContext, jlong num_bytes) {
+    CUcontext* ctx = (CUcontext*) cuContext;
+    CUresult result = cuCtxSetCurrent(*ctx);
+    LOG_PTX_AND_VALIDATE("cuCtxSetCurrent", result);
+
+    void *host_ptr;
+    result = cuMemHostAlloc(&host_ptr, (size_t) num_bytes, CU_MEMHOSTALLOC_PORTABLE);
+    LOG_PTX_AND_VALIDATE("cuMemHostAlloc", result);
+    if (result != CUDA_SUCCESS) return 0;
+    return (jlong) host_ptr;
+}
+
+/*
+ * Class:     uk_ac_manchester_tornado_drivers_ptx_PTXContext
+ * Method:    cuMemFreeHost
+ * Signature: (JJ)J
+ */
+JNIEXPORT jlong JNICALL Java_uk_ac_manchester_tornado_drivers_ptx_PTXContext_cuMemFreeHost
+  (JNIEnv *env, jclass clazz, jlong cuContext, jlong host_ptr) {
+    CUcontext* ctx = (CUcontext*) cuContext;
+    CUresult result = cuCtxSetCurrent(*ctx);
+    LOG_PTX_AND_VALIDATE("cuCtxSetCurrent", result);
+
+    result = cuMemFreeHost((void *) host_ptr);
+    LOG_PTX_AND_VALIDATE("cuMemFreeHost", result);
+    return (jlong) result;
+}
+
 /*
  * Class:     uk_ac_manchester_tornado_drivers_ptx_PTXContext
  * Method:    cuCtxSetCurrent
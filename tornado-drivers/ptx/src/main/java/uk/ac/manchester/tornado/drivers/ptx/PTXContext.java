@@ -53,6 +53,10 @@ public class PTXContext {
 
     private native static long cuMemFree(long cuContext, long devicePtr);
 
+    private native static long cuMemHostAlloc(long cuContext, long numBytes);
+
+    private native static long cuMemFreeHost(long cuContext, long hostPtr);
+
     private native static long cuCtxSetCurrent(long cuContext);
 
     public void enablePTXContext() {
@@ -83,4 +87,18 @@ public class PTXContext {
     public void freeMemory(long address) {
         cuMemFree(ptxContext, address);
     }
+
+    /**
+     * Allocates page-locked host memory that is accessible from all the CUDA
+     * contexts.
+     *
+     * @return host address of the memory, or 0 if it could not be allocated.
+     */
+    public long allocateHostMemory(long numBytes) {
+        return cuMemHostAlloc(ptxContext, numBytes);
+    }
+
+    public void freeHostMemory(long address) {
+        cuMemFreeHost(ptxContext, address);
+    }
 }
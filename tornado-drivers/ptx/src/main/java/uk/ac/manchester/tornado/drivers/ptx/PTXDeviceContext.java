@@ -31,6 +31,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import uk.ac.manchester.tornado.api.TornadoDeviceContext;
 import uk.ac.manchester.tornado.api.WorkerGrid;
@@ -44,11 +45,14 @@ import uk.ac.manchester.tornado.drivers.ptx.graal.compiler.PTXCompilationResult;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXKernelArgs;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXMemoryManager;
 import uk.ac.manchester.tornado.drivers.ptx.runtime.PTXBufferProvider;
+import uk.ac.manchester.tornado.drivers.ptx.runtime.PTXPinnedMemoryPool;
 import uk.ac.manchester.tornado.drivers.ptx.runtime.PTXTornadoDevice;
+import uk.ac.manchester.tornado.runtime.common.CommandQueueSelector;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupTuner;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
 public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceContext {
@@ -56,19 +60,23 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
     private final PTXDevice device;
     private final PTXMemoryManager memoryManager;
     private final PTXStream stream;
+    private final ConcurrentHashMap<Integer, PTXStream> invocationStreams;
     private final PTXCodeCache codeCache;
     private final PTXScheduler scheduler;
     private final TornadoBufferProvider bufferProvider;
+    private final PTXPinnedMemoryPool pinnedMemoryPool;
     private boolean wasReset;
 
     public PTXDeviceContext(PTXDevice device, PTXStream stream) {
         this.device = device;
         this.stream = stream;
+        this.invocationStreams = new ConcurrentHashMap<>();
 
         this.scheduler = new PTXScheduler(device);
         codeCache = new PTXCodeCache(this);
         memoryManager = new PTXMemoryManager(this);
         bufferProvider = new PTXBufferProvider(this);
+        pinnedMemoryPool = new PTXPinnedMemoryPool(this);
         wasReset = false;
     }
 
@@ -81,6 +89,10 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
         return bufferProvider;
     }
 
+    public PTXPinnedMemoryPool getPinnedMemoryPool() {
+        return pinnedMemoryPool;
+    }
+
     @Override
     public boolean needsBump() {
         return false;
@@ -159,8 +171,22 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
         return device.getByteOrder();
     }
 
+    /**
+     * @return the stream selected by the current thread (see
+     *     {@link CommandQueueSelector}). The streams of the concurrent invocations
+     *     are created on first use. Event handles are only valid on the stream
+     *     that created them.
+     */
+    public PTXStream getStream() {
+        final int index = CommandQueueSelector.current();
+        if (index == CommandQueueSelector.DEFAULT_QUEUE) {
+            return stream;
+        }
+        return invocationStreams.computeIfAbsent(index, i -> new PTXStream());
+    }
+
     public Event resolveEvent(int event) {
-        return stream.resolveEvent(event);
+        return getStream().resolveEvent(event);
     }
 
     public void flushEvents() {
@@ -168,27 +194,27 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
     }
 
     public int enqueueBarrier() {
-        return stream.enqueueBarrier();
+        return getStream().enqueueBarrier();
     }
 
     public int enqueueBarrier(int[] events) {
-        return stream.enqueueBarrier(events);
+        return getStream().enqueueBarrier(events);
     }
 
     public int enqueueMarker() {
         // Since streams are always in-order in CUDA there is no difference
         // between marker and barrier
-        return stream.enqueueBarrier();
+        return getStream().enqueueBarrier();
     }
 
     public int enqueueMarker(int[] events) {
         // Since streams are always in-order in CUDA there is no difference
         // between marker and barrier
-        return stream.enqueueBarrier(events);
+        return getStream().enqueueBarrier(events);
     }
 
     public void sync() {
-        stream.sync();
+        getStream().sync();
     }
 
     public void flush() {
@@ -198,6 +224,7 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
 
     public void reset() {
         stream.reset();
+        invocationStreams.values().forEach(PTXStream::reset);
         codeCache.reset();
         wasReset = true;
     }
@@ -205,6 +232,7 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
     public int enqueueKernelLaunch(PTXModule module, KernelArgs kernelArgs, TaskMetaData taskMeta, long batchThreads) {
         int[] blockDimension = { 1, 1, 1 };
         int[] gridDimension = { 1, 1, 1 };
+        WorkGroupTuner.Trial trial = null;
         if (taskMeta.isWorkerGridAvailable()) {
             WorkerGrid grid = taskMeta.getWorkerGrid(taskMeta.getId());
             int[] global = Arrays.stream(grid.getGlobalWork()).mapToInt(l -> (int) l).toArray();
@@ -224,11 +252,20 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
             gridDimension = scheduler.calculateGridDimension(module.javaName, grid.dimension(), global, blockDimension);
         } else if (taskMeta.isParallel()) {
             scheduler.calculateGlobalWork(taskMeta, batchThreads);
+            long[] originalGlobalWork = WorkGroupTuner.isEnabled() ? taskMeta.getGlobalWork().clone() : null;
             blockDimension = scheduler.calculateBlockDimension(module, taskMeta);
+            if (WorkGroupTuner.isEnabled()) {
+                trial = scheduler.tuneBlockDimension(module, taskMeta, originalGlobalWork, blockDimension);
+            }
             gridDimension = scheduler.calculateGridDimension(module, taskMeta, blockDimension);
         }
 
-        int kernelLaunchEvent = stream.enqueueKernelLaunch(module, taskMeta, writePTXKernelContextOnDevice((PTXKernelArgs) kernelArgs, taskMeta), gridDimension, blockDimension);
+        int kernelLaunchEvent = getStream().enqueueKernelLaunch(module, taskMeta, writePTXKernelContextOnDevice((PTXKernelArgs) kernelArgs, taskMeta), gridDimension, blockDimension);
+        if (trial != null) {
+            Event kernelEvent = resolveEvent(kernelLaunchEvent);
+            kernelEvent.waitForEvents();
+            WorkGroupTuner.getInstance().record(trial, kernelEvent.getElapsedTime());
+        }
         updateProfiler(kernelLaunchEvent, taskMeta);
         return kernelLaunchEvent;
     }
@@ -265,14 +302,10 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
             TornadoProfiler profiler = meta.getProfiler();
             Event event = resolveEvent(kernelContextWriteEventId);
             event.waitForEvents();
-            long copyInTimer = meta.getProfiler().getTimer(ProfilerType.COPY_IN_TIME);
-            copyInTimer += event.getElapsedTime();
-            profiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
+            profiler.sum(ProfilerType.COPY_IN_TIME, event.getElapsedTime());
             profiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, meta.getId(), callWrapper.getSize());
 
-            long dispatchValue = profiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            profiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            profiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
         }
     }
 
@@ -280,15 +313,12 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
         if (TornadoOptions.isProfilerEnabled()) {
             Event tornadoKernelEvent = resolveEvent(taskEvent);
             tornadoKernelEvent.waitForEvents();
-            long timer = meta.getProfiler().getTimer(ProfilerType.TOTAL_KERNEL_TIME);
             // Register globalTime
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_KERNEL_TIME, timer + tornadoKernelEvent.getElapsedTime());
+            meta.getProfiler().sum(ProfilerType.TOTAL_KERNEL_TIME, tornadoKernelEvent.getElapsedTime());
             // Register the time for the task
             meta.getProfiler().setTaskTimer(ProfilerType.TASK_KERNEL_TIME, meta.getId(), tornadoKernelEvent.getElapsedTime());
             // Register the dispatch time of the kernel
-            long dispatchValue = meta.getProfiler().getTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME);
-            dispatchValue += tornadoKernelEvent.getDriverDispatchTime();
-            meta.getProfiler().setTimer(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, dispatchValue);
+            meta.getProfiler().sum(ProfilerType.TOTAL_DISPATCH_KERNEL_TIME, tornadoKernelEvent.getDriverDispatchTime());
         }
     }
 
@@ -299,6 +329,8 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
 
     public void cleanup() {
         stream.cleanup();
+        invocationStreams.values().forEach(PTXStream::cleanup);
+        invocationStreams.clear();
     }
 
     /*
@@ -306,35 +338,35 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
      */
 
     public int readBuffer(long address, long length, long hostPointer, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, hostPointer, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, hostPointer, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, byte[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, short[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, char[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, int[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, long[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, float[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int readBuffer(long address, long length, double[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueRead(address, length, array, hostOffset, waitEvents);
     }
 
     /*
@@ -342,70 +374,70 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
      */
 
     public int enqueueReadBuffer(long address, long length, long hostPointer, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, hostPointer, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, hostPointer, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, byte[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, short[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, char[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, int[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, long[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, float[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueReadBuffer(long address, long length, double[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncRead(address, length, array, hostOffset, waitEvents);
     }
 
     /*
      * SYNC WRITES
      */
     public void writeBuffer(long address, long length, byte[] array, long hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, long hostPointer, long hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, hostPointer, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, hostPointer, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, short[] array, long hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, char[] array, long hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, int[] array, long hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, long[] array, int hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, float[] array, int hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void writeBuffer(long address, long length, double[] array, int hostOffset, int[] waitEvents) {
-        stream.enqueueWrite(address, length, array, hostOffset, waitEvents);
+        getStream().enqueueWrite(address, length, array, hostOffset, waitEvents);
     }
 
     /*
@@ -413,35 +445,35 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
      */
 
     public int enqueueWriteBuffer(long address, long length, long hostPointer, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, hostPointer, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, hostPointer, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, byte[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, short[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, char[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, int[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, long[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, float[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public int enqueueWriteBuffer(long address, long length, double[] array, long hostOffset, int[] waitEvents) {
-        return stream.enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
+        return getStream().enqueueAsyncWrite(address, length, array, hostOffset, waitEvents);
     }
 
     public void dumpEvents() {
@@ -449,6 +481,7 @@ public class PTXDeviceContext extends TornadoLogger implements TornadoDeviceCont
 
         final String deviceName = "PTX-" + device.getDeviceName();
         System.out.printf("Found %d events on device %s:\n", events.size(), deviceName);
+        System.out.println(stream.getEventPool().getMetrics());
         if (events.isEmpty()) {
             return;
         }
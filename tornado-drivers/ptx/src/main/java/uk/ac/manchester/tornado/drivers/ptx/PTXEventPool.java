@@ -23,98 +23,73 @@
  */
 package uk.ac.manchester.tornado.drivers.ptx;
 
-import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.guarantee;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.fatal;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.CIRCULAR_EVENTS;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.BitSet;
 import java.util.List;
 
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
+import uk.ac.manchester.tornado.drivers.common.EventPool;
 import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
 
+/**
+ * Maps the TornadoVM local events of a stream to CUDA events. The slots are
+ * managed by the common {@link EventPool}.
+ */
 public class PTXEventPool {
 
-    private final PTXEvent[] events;
-    private final BitSet retain;
-    private int eventIndex;
-    private int eventPoolSize;
+    private final EventPool<PTXEvent> events;
 
     protected PTXEventPool(int poolSize) {
-        this.eventPoolSize = poolSize;
-        this.retain = new BitSet(poolSize);
-        this.retain.clear();
-        this.events = new PTXEvent[poolSize];
-        this.eventIndex = 0;
+        this.events = new EventPool<>("PTX", poolSize, CIRCULAR_EVENTS, PTXEventPool::releasePTXEvent);
     }
 
-    protected int registerEvent(byte[][] eventWrapper, EventDescriptor descriptorId) {
-        if (retain.get(eventIndex)) {
-            findNextEventSlot();
-        }
-        final int currentEvent = eventIndex;
-        guarantee(!retain.get(currentEvent), "overwriting retained event");
+    private static void releasePTXEvent(PTXEvent event) {
+        event.waitForEvents();
+        event.destroy();
+    }
 
+    protected int registerEvent(byte[][] eventWrapper, EventDescriptor descriptorId) {
         if (eventWrapper == null) {
             fatal("invalid event: description=%s\n", descriptorId.getNameDescription());
-            fatal("terminating application as system integrity has been compromised.");
             throw new TornadoBailoutRuntimeException("[ERROR] NULL event received from the CUDA driver !");
         }
-
-        if (events[currentEvent] != null && !retain.get(currentEvent)) {
-            events[currentEvent].waitForEvents();
-            events[currentEvent].destroy();
-            events[currentEvent] = null;
-        }
-        events[currentEvent] = new PTXEvent(eventWrapper, descriptorId);
-
-        findNextEventSlot();
-        return currentEvent;
-    }
-
-    private void findNextEventSlot() {
-        eventIndex = retain.nextClearBit(eventIndex + 1);
-
-        if (CIRCULAR_EVENTS && (eventIndex >= events.length)) {
-            eventIndex = 0;
-        }
-
-        guarantee(eventIndex != -1, "event window is full (retained=%d, capacity=%d)", retain.cardinality(), eventPoolSize);
+        return events.register(new PTXEvent(eventWrapper, descriptorId), descriptorId);
     }
 
     protected void reset() {
-        for (PTXEvent event : events) {
-            if (event != null) {
-                event.destroy();
-            }
-        }
-        Arrays.fill(events, null);
-        eventIndex = 0;
+        events.reset();
     }
 
-    private void releaseEvent(int localEventID) {
-        retain.clear(localEventID);
+    protected void retainEvent(int localEventID) {
+        events.retain(localEventID);
     }
 
-    private void retainEvent(int localEventID) {
-        retain.set(localEventID);
+    protected void releaseEvent(int localEventID) {
+        events.unretain(localEventID);
     }
 
+    /**
+     * @return the event of the handle, or null if the handle is stale.
+     */
     protected PTXEvent getEvent(int localEventID) {
-        return events[localEventID];
+        return events.get(localEventID);
     }
 
     public List<PTXEvent> getEvents() {
         List<PTXEvent> result = new ArrayList<>();
-        for (int i = 0; i < eventIndex; i++) {
-            if (events[i] == null) {
-                continue;
+        for (int handle : events.getHandles()) {
+            PTXEvent event = events.get(handle);
+            if (event != null) {
+                result.add(event);
             }
-            result.add(events[i]);
         }
         return result;
     }
 
+    public String getMetrics() {
+        return events.toString();
+    }
+
 }
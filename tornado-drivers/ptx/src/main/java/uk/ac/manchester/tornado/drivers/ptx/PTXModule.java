@@ -23,12 +23,15 @@
  */
 package uk.ac.manchester.tornado.drivers.ptx;
 
+import uk.ac.manchester.tornado.runtime.common.WorkGroupTuner;
+
 public class PTXModule {
     public final byte[] moduleWrapper;
     public final String kernelFunctionName;
     private int maxBlockSize;
     public final String javaName;
     private final byte[] source;
+    private String sourceHash;
 
     public PTXModule(String name, byte[] source, String kernelFunctionName) {
         moduleWrapper = cuModuleLoadData(source);
@@ -55,6 +58,13 @@ public class PTXModule {
         return source;
     }
 
+    public String getSourceHash() {
+        if (sourceHash == null) {
+            sourceHash = WorkGroupTuner.hash(source);
+        }
+        return sourceHash;
+    }
+
     public boolean isPTXJITSuccess() {
         return moduleWrapper.length != 0;
     }
@@ -31,6 +31,9 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
 import java.util.Arrays;
 
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupSizeSelector;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupTuner;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
 public class PTXScheduler {
@@ -62,15 +65,49 @@ public class PTXScheduler {
         if (taskMeta.getDims() > 1) {
             maxThreadsPerBlock = module.getPotentialBlockSizeMaxOccupancy();
         }
-        return calculateBlockDimension(taskMeta.getGlobalWork(), maxThreadsPerBlock, taskMeta.getDims(), module.javaName);
+        // The global work can only be padded when it is computed by the scheduler
+        boolean padding = TornadoOptions.PAD_GLOBAL_WORK && !taskMeta.isGlobalWorkDefined() && !taskMeta.hasReduction();
+        int[] blocks = calculateBlockDimension(taskMeta.getGlobalWork(), maxThreadsPerBlock, taskMeta.getDims(), module.javaName, padding);
+        if (padding) {
+            WorkGroupSizeSelector.padGlobalWork(taskMeta.getGlobalWork(), Arrays.stream(blocks).mapToLong(b -> b).toArray(), taskMeta.getDims());
+        }
+        return blocks;
+    }
+
+    /**
+     * Replaces the block dimensions selected by the scheduler with the tuned
+     * ones (see {@link WorkGroupTuner}).
+     *
+     * @param originalGlobalWork
+     *     Global work before it is padded by the scheduler.
+     * @return the trial to report once the kernel has run, or null.
+     */
+    public WorkGroupTuner.Trial tuneBlockDimension(PTXModule module, TaskMetaData taskMeta, long[] originalGlobalWork, int[] blockDimension) {
+        if (taskMeta.isLocalWorkDefined() || taskMeta.hasReduction()) {
+            // The partial results of the reductions are sized from the selected block
+            return null;
+        }
+        long[] localWork = Arrays.stream(blockDimension).mapToLong(b -> b).toArray();
+        // The global work can only be padded when it is computed by the scheduler
+        boolean padding = TornadoOptions.PAD_GLOBAL_WORK && !taskMeta.isGlobalWorkDefined();
+        WorkGroupTuner.Trial trial = WorkGroupTuner.getInstance().selectLocalWork(module.getSourceHash(), device.getDeviceName(), taskMeta.getDims(), originalGlobalWork, taskMeta.getGlobalWork(),
+                localWork, device.getDeviceMaxWorkItemSizes(), module.getPotentialBlockSizeMaxOccupancy(), padding);
+        for (int i = 0; i < blockDimension.length; i++) {
+            blockDimension[i] = (int) localWork[i];
+        }
+        return trial;
     }
 
     public int[] calculateBlockDimension(long[] globalWork, long maxThreadBlocks, int dimension, String javaName) {
+        return calculateBlockDimension(globalWork, maxThreadBlocks, dimension, javaName, false);
+    }
+
+    private int[] calculateBlockDimension(long[] globalWork, long maxThreadBlocks, int dimension, String javaName, boolean padding) {
         int[] defaultBlocks = { 1, 1, 1 };
         try {
             long maxBlockThreads = maxThreadBlocks;
             for (int i = 0; i < dimension; i++) {
-                defaultBlocks[i] = calculateBlockSize(calculateEffectiveMaxWorkItemSize(dimension, maxBlockThreads), globalWork[i]);
+                defaultBlocks[i] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSize(dimension, maxBlockThreads), globalWork[i], padding);
             }
         } catch (Exception e) {
             warn("[CUDA-PTX] Failed to calculate blocks for " + javaName);
@@ -90,21 +127,6 @@ public class PTXScheduler {
         return (long) Math.pow(threads, (double) 1 / dimension);
     }
 
-    private int calculateBlockSize(long maxBlockSize, long globalWorkSize) {
-        if (maxBlockSize == globalWorkSize) {
-            maxBlockSize /= 4;
-        }
-
-        int value = (int) Math.min(maxBlockSize, globalWorkSize);
-        if (value == 0) {
-            return 1;
-        }
-        while (globalWorkSize % value != 0) {
-            value--;
-        }
-        return value;
-    }
-
     public int[] calculateGridDimension(PTXModule module, TaskMetaData taskMeta, int[] blockDimension) {
         int[] globalWork = Arrays.stream(taskMeta.getGlobalWork()).mapToInt(l -> (int) l).toArray();
         return calculateGridDimension(module.javaName, taskMeta.getDims(), globalWork, blockDimension);
@@ -152,7 +152,8 @@ public class PTXStream extends TornadoLogger {
         if (event == -1) {
             return EMPTY_EVENT;
         }
-        return ptxEventPool.getEvent(event);
+        PTXEvent ptxEvent = ptxEventPool.getEvent(event);
+        return ptxEvent != null ? ptxEvent : EMPTY_EVENT;
     }
 
     private void waitForEvents(int[] localEventIds) {
@@ -167,7 +168,7 @@ public class PTXStream extends TornadoLogger {
                 events.add(cuEvent);
             }
         }
-        PTXEvent.waitForEventArray((PTXEvent[]) events.toArray());
+        PTXEvent.waitForEventArray(events.toArray(new PTXEvent[0]));
     }
 
     public int enqueueKernelLaunch(PTXModule module, TaskMetaData taskMeta, byte[] kernelParams, int[] gridDim, int[] blockDim) {
@@ -24,6 +24,9 @@ package uk.ac.manchester.tornado.drivers.ptx.graal.snippets;
 import org.graalvm.compiler.api.replacements.Snippet;
 import org.graalvm.compiler.nodes.GraphState;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
 import org.graalvm.compiler.nodes.java.NewArrayNode;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.options.OptionValues;
@@ -797,6 +800,282 @@ public class PTXGPUReduceSnippets implements Snippets {
         }
     }
 
+    @Snippet
+    public static void partialReduceIntOr(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntOrCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOr(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOrCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAnd(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAndCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAnd(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAndCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXor(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXorCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXor(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXorCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = PTXIntrinsics.get_local_id(0);
+        int localGroupSize = PTXIntrinsics.get_local_size(0);
+        int groupID = PTXIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            PTXIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        PTXIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
     protected static class Tuple2<T0, T1> {
         T0 t0;
         T1 t1;
@@ -857,6 +1136,20 @@ public class PTXGPUReduceSnippets implements Snippets {
         private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceMinDoubleSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceDoubleMin");
         private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceMinDoubleSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceDoubleMinCarrierValue");
 
+        // Bitwise reductions
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntOrSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntOr");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntOrSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntOrCarrierValue");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntAndSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntAnd");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntAndSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntAndCarrierValue");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntXorSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntXor");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceIntXorSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceIntXorCarrierValue");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongOrSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongOr");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongOrSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongOrCarrierValue");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongAndSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongAnd");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongAndSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongAndCarrierValue");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongXorSnippet = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongXor");
+        private final Tuple2<Class<? extends PTXGPUReduceSnippets>, String> partialReduceLongXorSnippetCarrierValue = new Tuple2<>(PTXGPUReduceSnippets.class, "partialReduceLongXorCarrierValue");
+
         Providers providers;
 
         public Templates(OptionValues options, Providers providers) {
@@ -903,6 +1196,12 @@ public class PTXGPUReduceSnippets implements Snippets {
             } else if (value instanceof PTXIntBinaryIntrinsicNode) {
                 PTXIntBinaryIntrinsicNode op = (PTXIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeInteger(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntOrSnippet) : snippet(partialReduceIntOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntAndSnippet) : snippet(partialReduceIntAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntXorSnippet) : snippet(partialReduceIntXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
@@ -919,6 +1218,12 @@ public class PTXGPUReduceSnippets implements Snippets {
             } else if (value instanceof PTXIntBinaryIntrinsicNode) {
                 PTXIntBinaryIntrinsicNode op = (PTXIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeLong(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongOrSnippet) : snippet(partialReduceLongOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongAndSnippet) : snippet(partialReduceLongAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongXorSnippet) : snippet(partialReduceLongXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
@@ -26,17 +26,21 @@ package uk.ac.manchester.tornado.drivers.ptx.mm;
 import static uk.ac.manchester.tornado.drivers.ptx.mm.PTXKernelArgs.RESERVED_SLOTS;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.DEVICE_AVAILABLE_MEMORY;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import uk.ac.manchester.tornado.api.memory.TornadoMemoryProvider;
 import uk.ac.manchester.tornado.drivers.ptx.PTXDeviceContext;
+import uk.ac.manchester.tornado.runtime.common.CommandQueueSelector;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 
 public class PTXMemoryManager extends TornadoLogger implements TornadoMemoryProvider {
 
     private PTXDeviceContext deviceContext;
-    private PTXKernelArgs ptxKernelCallWrapper = null;
+    private final ConcurrentHashMap<Integer, Long> kernelCallBuffers;
 
     public PTXMemoryManager(PTXDeviceContext deviceContext) {
         this.deviceContext = deviceContext;
+        this.kernelCallBuffers = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -44,12 +48,17 @@ public class PTXMemoryManager extends TornadoLogger implements TornadoMemoryProv
         return DEVICE_AVAILABLE_MEMORY;
     }
 
+    /**
+     * Creates the call wrapper of a task. Each call wrapper keeps its own list of
+     * arguments, so task-graphs can set up their kernels from different threads.
+     * The call wrappers of a stream share the device buffer of the kernel
+     * context: streams run in order, so each kernel reads the context written
+     * right before it.
+     */
     public PTXKernelArgs createCallWrapper(final int maxArgs) {
-        if (this.ptxKernelCallWrapper == null) {
-            long kernelCallBuffer = deviceContext.getDevice().getPTXContext().allocateMemory(RESERVED_SLOTS * Long.BYTES);
-            this.ptxKernelCallWrapper = new PTXKernelArgs(kernelCallBuffer, maxArgs, deviceContext);
-        }
-        return this.ptxKernelCallWrapper;
+        long kernelCallBuffer = kernelCallBuffers.computeIfAbsent(CommandQueueSelector.current(),
+                stream -> deviceContext.getDevice().getPTXContext().allocateMemory(RESERVED_SLOTS * Long.BYTES));
+        return new PTXKernelArgs(kernelCallBuffer, maxArgs, deviceContext);
     }
 
 }
@@ -52,6 +52,7 @@ import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
 import uk.ac.manchester.tornado.api.exceptions.TornadoMemoryException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoOutOfMemoryException;
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
+import uk.ac.manchester.tornado.drivers.common.mm.DeviceBufferArena;
 import uk.ac.manchester.tornado.drivers.ptx.PTXDeviceContext;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
@@ -67,6 +68,8 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
 
     private long setSubRegionSize;
 
+    private boolean sharesParentBuffer;
+
     public PTXMemorySegmentWrapper(PTXDeviceContext deviceContext, long batchSize) {
         this.deviceContext = deviceContext;
         this.batchSize = batchSize;
@@ -132,6 +135,14 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
         };
     }
 
+    /**
+     * The header of a view of a native array overlaps the elements of its parent,
+     * so the transfers of a view skip it.
+     */
+    private static long getHeaderSize(final Object reference) {
+        return reference instanceof TornadoNativeArray nativeArray && nativeArray.isSlice() ? TornadoNativeArray.ARRAY_HEADER : 0;
+    }
+
     @Override
     public int read(final Object reference, long hostOffset, long partialReadSize, int[] events, boolean useDeps) {
         MemorySegment segment = getSegment(reference);
@@ -142,7 +153,8 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
             // Partial Copy Out due to a copy under demand copy by the user
             returnEvent = deviceContext.readBuffer(toBuffer() + TornadoNativeArray.ARRAY_HEADER, partialReadSize, segment.address(), hostOffset, (useDeps) ? events : null);
         } else if (batchSize <= 0) {
-            returnEvent = deviceContext.readBuffer(toBuffer(), numBytes, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = deviceContext.readBuffer(toBuffer() + headerSize, numBytes - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             returnEvent = deviceContext.readBuffer(toBuffer() + TornadoNativeArray.ARRAY_HEADER, bufferSize, segment.address(), hostOffset + TornadoNativeArray.ARRAY_HEADER, (useDeps)
                     ? events
@@ -156,7 +168,8 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
         MemorySegment segment = getSegment(reference);
 
         if (batchSize <= 0) {
-            deviceContext.writeBuffer(toBuffer(), bufferSize, segment.address(), 0, null);
+            final long headerSize = getHeaderSize(reference);
+            deviceContext.writeBuffer(toBuffer() + headerSize, bufferSize - headerSize, segment.address(), headerSize, null);
         } else {
             throw new TornadoUnsupportedError("[UNSUPPORTED] Batch processing for the writeBuffer operation");
         }
@@ -168,7 +181,8 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
 
         final int returnEvent;
         if (batchSize <= 0) {
-            returnEvent = deviceContext.enqueueReadBuffer(toBuffer(), bufferSize, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = deviceContext.enqueueReadBuffer(toBuffer() + headerSize, bufferSize - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             returnEvent = deviceContext.enqueueReadBuffer(toBuffer() + TornadoNativeArray.ARRAY_HEADER, bufferSize - TornadoNativeArray.ARRAY_HEADER, segment.address(), hostOffset, (useDeps)
                     ? events
@@ -185,7 +199,8 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
 
         int internalEvent;
         if (batchSize <= 0) {
-            internalEvent = deviceContext.enqueueWriteBuffer(toBuffer(), bufferSize, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            internalEvent = deviceContext.enqueueWriteBuffer(toBuffer() + headerSize, bufferSize - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             internalEvent = deviceContext.enqueueWriteBuffer(toBuffer(), TornadoNativeArray.ARRAY_HEADER, segment.address(), 0, (useDeps) ? events : null);
             returnEvents.add(internalEvent);
@@ -218,10 +233,33 @@ public class PTXMemorySegmentWrapper extends TornadoLogger implements ObjectBuff
         }
     }
 
+    @Override
+    public boolean allocateSlice(Object reference, ObjectBuffer parentBuffer) {
+        TornadoNativeArray slice = (TornadoNativeArray) reference;
+        long sliceSize = slice.getNumBytesOfSegment();
+        long sliceBuffer = deviceContext.getBufferProvider().getSliceBuffer(parentBuffer.toBuffer(), slice.getParentOffset(), sliceSize);
+        if (sliceBuffer == DeviceBufferArena.INVALID_HANDLE) {
+            return false;
+        }
+        bufferId = sliceBuffer;
+        bufferSize = sliceSize;
+        sharesParentBuffer = true;
+
+        if (Tornado.FULL_DEBUG) {
+            info("allocated slice: %s", toString());
+        }
+        return true;
+    }
+
     @Override
     public void deallocate() throws TornadoMemoryException {
         TornadoInternalError.guarantee(bufferId != INIT_VALUE, "Fatal error: trying to deallocate an invalid buffer");
-        deviceContext.getBufferProvider().markBufferReleased(bufferId, bufferSize);
+        if (sharesParentBuffer) {
+            deviceContext.getBufferProvider().releaseSliceBuffer(bufferId);
+            sharesParentBuffer = false;
+        } else {
+            deviceContext.getBufferProvider().markBufferReleased(bufferId, bufferSize);
+        }
         bufferId = INIT_VALUE;
         bufferSize = INIT_VALUE;
 
@@ -23,6 +23,8 @@
  */
 package uk.ac.manchester.tornado.drivers.ptx.runtime;
 
+import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.PTX_ARRAY_ALIGNMENT;
+
 import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
 import uk.ac.manchester.tornado.drivers.ptx.PTXDeviceContext;
 
@@ -41,4 +43,32 @@ public class PTXBufferProvider extends TornadoBufferProvider {
     protected void releaseBuffer(long buffer) {
         ((PTXDeviceContext) deviceContext).getDevice().getPTXContext().freeMemory(buffer);
     }
+
+    @Override
+    protected boolean isSubAllocationSupported() {
+        return true;
+    }
+
+    /**
+     * Buffers are device pointers, so a sub-buffer is the pointer to the first
+     * byte of the region.
+     */
+    @Override
+    protected long createSubBuffer(long buffer, long offset, long size) {
+        return buffer + offset;
+    }
+
+    @Override
+    protected long getArenaAlignment() {
+        return PTX_ARRAY_ALIGNMENT;
+    }
+
+    /**
+     * The elements of a view keep their alignment in the buffer of the parent,
+     * so views can start at any element.
+     */
+    @Override
+    protected long getSliceAlignment() {
+        return 1;
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.drivers.ptx.runtime;
+
+import uk.ac.manchester.tornado.drivers.common.mm.PinnedMemoryPool;
+import uk.ac.manchester.tornado.drivers.ptx.PTXDeviceContext;
+
+/**
+ * Pinned host memory for CUDA devices, allocated with {@code cuMemHostAlloc}.
+ * The memory is portable, so it is pinned for all the CUDA contexts.
+ */
+public class PTXPinnedMemoryPool extends PinnedMemoryPool {
+
+    private final PTXDeviceContext deviceContext;
+
+    public PTXPinnedMemoryPool(PTXDeviceContext deviceContext) {
+        this.deviceContext = deviceContext;
+    }
+
+    @Override
+    protected long allocateHostBuffer(long size) {
+        return deviceContext.getDevice().getPTXContext().allocateHostMemory(size);
+    }
+
+    @Override
+    protected void releaseHostBuffer(long address) {
+        deviceContext.getDevice().getPTXContext().freeHostMemory(address);
+    }
+}
@@ -42,6 +42,7 @@ import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.internal.annotations.Vector;
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
 import uk.ac.manchester.tornado.api.memory.TornadoDeviceObjectState;
@@ -56,7 +57,9 @@ import uk.ac.manchester.tornado.api.types.arrays.HalfFloatArray;
 import uk.ac.manchester.tornado.api.types.arrays.IntArray;
 import uk.ac.manchester.tornado.api.types.arrays.LongArray;
 import uk.ac.manchester.tornado.api.types.arrays.ShortArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 import uk.ac.manchester.tornado.drivers.common.TornadoBufferProvider;
+import uk.ac.manchester.tornado.drivers.ptx.CUDAComputeCapability;
 import uk.ac.manchester.tornado.drivers.ptx.PTX;
 import uk.ac.manchester.tornado.drivers.ptx.PTXDevice;
 import uk.ac.manchester.tornado.drivers.ptx.PTXDeviceContext;
@@ -78,6 +81,10 @@ import uk.ac.manchester.tornado.drivers.ptx.mm.PTXObjectWrapper;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXShortArrayWrapper;
 import uk.ac.manchester.tornado.drivers.ptx.mm.PTXVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.codecache.KernelBundle;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.codecache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -85,6 +92,8 @@ import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.CompilationEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DriverBuildEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -173,14 +182,41 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
 
         try {
             PTXCompilationResult result;
-            if (!deviceContext.isCached(resolvedMethod.getName(), executable)) {
+            final boolean isCached = deviceContext.isCached(resolvedMethod.getName(), executable);
+            KernelCacheEntry cachedEntry = isCached ? null : KernelBundle.find(TornadoVMBackendType.PTX.name(), device.getDeviceName(), executable, resolvedMethod);
+            final String kernelCacheKey = (isCached || cachedEntry != null) ? null : getKernelCacheKey(executable, resolvedMethod);
+            if (kernelCacheKey != null) {
+                cachedEntry = PersistentKernelCache.getInstance().lookup(kernelCacheKey);
+            }
+            if (cachedEntry != null) {
+                cachedEntry.applyTo(taskMeta);
+                profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+                driverBuildEvent.begin();
+                TornadoInstalledCode installedCode;
+                try {
+                    installedCode = deviceContext.installCode(buildKernelName(resolvedMethod.getName(), executable), cachedEntry.getCode(), resolvedMethod.getName());
+                } finally {
+                    driverBuildEvent.finish(task.getId(), cachedEntry.getEntryPoint(), TornadoVMBackendType.PTX.name(), getDeviceName(), cachedEntry.getCode().length);
+                }
+                profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+                profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+                return installedCode;
+            }
+            if (!isCached) {
                 PTXProviders providers = (PTXProviders) getBackend().getProviders();
                 // profiler
                 profiler.registerBackend(taskMeta.getId(), taskMeta.getLogicDevice().getTornadoVMBackend().name());
                 profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
                 profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
                 profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
-                result = PTXCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+                final CompilationEvent compilationEvent = new CompilationEvent();
+                compilationEvent.begin();
+                try {
+                    result = PTXCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+                } finally {
+                    compilationEvent.finish(task.getId(), resolvedMethod.getName(), TornadoVMBackendType.PTX.name(), getDeviceName());
+                }
                 profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
                 profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
             } else {
@@ -188,9 +224,22 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
             }
 
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
-            TornadoInstalledCode installedCode = deviceContext.installCode(result, resolvedMethod.getName());
+            final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+            driverBuildEvent.begin();
+            TornadoInstalledCode installedCode;
+            try {
+                installedCode = deviceContext.installCode(result, resolvedMethod.getName());
+            } finally {
+                driverBuildEvent.finish(task.getId(), result.getName(), TornadoVMBackendType.PTX.name(), getDeviceName(), result.getTargetCode() != null ? result.getTargetCode().length : 0);
+            }
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+            if (kernelCacheKey != null) {
+                PersistentKernelCache.getInstance().store(kernelCacheKey, new KernelCacheEntry(result.getName(), result.getTargetCode(), taskMeta));
+            }
+            if (!isCached) {
+                KernelBundle.record(TornadoVMBackendType.PTX.name(), device.getDeviceName(), executable, resolvedMethod, result.getName(), result.getTargetCode());
+            }
             return installedCode;
         } catch (Exception e) {
             System.err.println(e.getMessage());
@@ -200,6 +249,22 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
         }
     }
 
+    /**
+     * Computes the key of the task in the persistent kernel cache. Only the PTX
+     * code is stored: the CUDA driver keeps its own cache of the binaries that it
+     * JIT-compiles from PTX.
+     *
+     * @return the key, or null if the kernel should not be cached.
+     */
+    private String getKernelCacheKey(CompilableTask task, ResolvedJavaMethod resolvedMethod) {
+        if (!PersistentKernelCache.isEnabled()) {
+            return null;
+        }
+        final CUDAComputeCapability computeCapability = device.getComputeCapability();
+        final String deviceIdentity = device.getDeviceName() + "|sm_" + computeCapability.getMajor() + computeCapability.getMinor() + "|" + device.getTargetPTXVersion();
+        return KernelCacheKey.forTask(task, resolvedMethod, deviceIdentity, PTXTornadoDevice.class);
+    }
+
     private TornadoInstalledCode compilePreBuiltTask(SchedulableTask task) {
         final PTXDeviceContext deviceContext = getDeviceContext();
         final PrebuiltTask executable = (PrebuiltTask) task;
@@ -290,8 +355,59 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
         if (!bufferProvider.checkBufferAvailability(objects.length)) {
             bufferProvider.resetBuffers();
         }
+        bufferProvider.openArena(objects, batchSize, states);
+        try {
+            for (int i = 0; i < objects.length; i++) {
+                if (!isSlice(objects[i])) {
+                    allocate(objects[i], batchSize, states[i]);
+                }
+            }
+        } finally {
+            bufferProvider.closeArena();
+        }
+        // Views are allocated once the buffers of their parents exist
         for (int i = 0; i < objects.length; i++) {
-            allocate(objects[i], batchSize, states[i]);
+            if (isSlice(objects[i])) {
+                allocateSlice(objects, i, batchSize, states);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSlice(Object object) {
+        return object instanceof TornadoNativeArray nativeArray && nativeArray.isSlice();
+    }
+
+    /**
+     * Allocates a view of a native array within the buffer of its parent, if the
+     * parent is allocated by the same ALLOC bytecode. Views whose parent is not
+     * used by the task-graph get a buffer of their own. A view whose parent is used
+     * by the task-graph must share its buffer, since separate buffers would not
+     * see the writes to each other.
+     */
+    private void allocateSlice(Object[] objects, int index, long batchSize, TornadoDeviceObjectState[] states) {
+        TornadoNativeArray slice = (TornadoNativeArray) objects[index];
+        TornadoDeviceObjectState state = states[index];
+        int parentIndex = indexOfParent(objects, slice);
+        if (!state.hasObjectBuffer() && parentIndex != -1) {
+            if (batchSize <= 0 && states[parentIndex].hasObjectBuffer()) {
+                ObjectBuffer buffer = createDeviceBuffer(slice.getClass(), slice, batchSize);
+                if (buffer.allocateSlice(slice, states[parentIndex].getObjectBuffer())) {
+                    state.setObjectBuffer(buffer);
+                    return;
+                }
+            }
+            throw new TornadoRuntimeException("[ERROR] A view at byte offset " + slice.getParentOffset() + " of a " + slice.getParent().getClass().getSimpleName()
+                    + " cannot share the device buffer of its parent, which is used by the same task-graph. Views must be aligned to the sub-buffer alignment of the device and cannot be used with batch processing.");
+        }
+        allocate(slice, batchSize, state);
+    }
+
+    private static int indexOfParent(Object[] objects, TornadoNativeArray slice) {
+        for (int i = 0; i < objects.length; i++) {
+            if (objects[i] == slice.getParent()) {
+                return i;
+            }
         }
         return -1;
     }
@@ -659,6 +775,16 @@ public class PTXTornadoDevice implements TornadoAcceleratorDevice {
 
     }
 
+    @Override
+    public MemorySegment allocatePinnedMemory(long byteSize) {
+        return getDeviceContext().getPinnedMemoryPool().allocate(byteSize);
+    }
+
+    @Override
+    public long getPinnedMemoryPoolHits() {
+        return getDeviceContext().getPinnedMemoryPool().getHits();
+    }
+
     @Override
     public String toString() {
         return getPlatformName() + " -- " + device.getDeviceName();
@@ -80,4 +80,18 @@ public abstract class SPIRVContext {
     public abstract void flush(int deviceIndex);
 
     public abstract void readBuffer(int deviceIndex, long bufferId, long offset, long bytes, long offHeapSegmentAddress, long hostOffset, int[] waitEvents, ProfilerTransfer profilerTransfer);
+
+    /**
+     * Allocates page-locked host memory that the devices of the context can
+     * access.
+     *
+     * @return host address of the memory, or 0 if the dispatcher does not
+     *     support host allocations.
+     */
+    public long allocateHostMemory(long numBytes) {
+        return 0;
+    }
+
+    public void freeHostMemory(long address) {
+    }
 }
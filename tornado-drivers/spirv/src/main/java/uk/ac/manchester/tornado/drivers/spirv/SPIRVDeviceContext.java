@@ -38,6 +38,7 @@ import uk.ac.manchester.tornado.drivers.spirv.graal.compiler.SPIRVCompilationRes
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.LevelZeroDevice;
 import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVMemoryManager;
 import uk.ac.manchester.tornado.drivers.spirv.runtime.SPIRVBufferProvider;
+import uk.ac.manchester.tornado.drivers.spirv.runtime.SPIRVPinnedMemoryPool;
 import uk.ac.manchester.tornado.drivers.spirv.runtime.SPIRVTornadoDevice;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.LevelZeroTransferTimeStamp;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.TimeStamp;
@@ -65,6 +66,7 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
     protected boolean wasReset;
     protected SPIRVEventPool spirvEventPool;
     private TornadoBufferProvider bufferProvider;
+    private SPIRVPinnedMemoryPool pinnedMemoryPool;
 
     protected SPIRVDeviceContext(SPIRVDevice device, SPIRVCommandQueue queue, SPIRVContext context) {
         init(device, queue);
@@ -84,6 +86,7 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
         this.wasReset = false;
         this.spirvEventPool = new SPIRVEventPool(Tornado.EVENT_WINDOW);
         this.bufferProvider = new SPIRVBufferProvider(this);
+        this.pinnedMemoryPool = new SPIRVPinnedMemoryPool(this);
     }
 
     public SPIRVContext getSpirvContext() {
@@ -103,6 +106,10 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
         return bufferProvider;
     }
 
+    public SPIRVPinnedMemoryPool getPinnedMemoryPool() {
+        return pinnedMemoryPool;
+    }
+
     @Override
     public boolean needsBump() {
         return false;
@@ -181,6 +188,7 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
     }
 
     public void reset() {
+        spirvEventPool.reset();
         codeCache.reset();
         wasReset = true;
     }
@@ -404,6 +412,10 @@ public abstract class SPIRVDeviceContext implements TornadoDeviceContext {
 
         LinkedList<TimeStamp> list = spirvEventPool.getTimers(eventId);
         EventDescriptor eventDescriptor = spirvEventPool.getDescriptor(eventId);
+        if (list == null || eventDescriptor == null) {
+            // The slot of the event has been recycled
+            return EMPTY_EVENT;
+        }
         if (TornadoOptions.USE_LEVELZERO_FOR_SPIRV) {
             if (!TornadoOptions.isProfilerEnabled()) {
                 return new SPIRVLevelZeroEvent(eventDescriptor, eventId, null, null);
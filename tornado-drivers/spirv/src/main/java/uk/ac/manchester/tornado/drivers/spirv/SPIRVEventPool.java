@@ -23,53 +23,31 @@
  */
 package uk.ac.manchester.tornado.drivers.spirv;
 
-import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.guarantee;
-import static uk.ac.manchester.tornado.runtime.common.Tornado.EVENT_WINDOW;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.CIRCULAR_EVENTS;
 
-import java.util.BitSet;
-import java.util.HashMap;
 import java.util.LinkedList;
 
+import uk.ac.manchester.tornado.drivers.common.EventPool;
 import uk.ac.manchester.tornado.drivers.common.utils.EventDescriptor;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.TimeStamp;
 
 /**
  * This class controls a pools of low-level events for the device. There is a
  * pool of events per device, and it handles the actual events that will
- * communicate with the correct driver (e.g., LevelZero event, OCL events).
+ * communicate with the correct driver (e.g., LevelZero event, OCL events). The
+ * slots are managed by the common {@link EventPool}.
  */
 public class SPIRVEventPool {
 
-    private final int poolSize;
-    private final BitSet retain;
-    private final HashMap<Integer, LinkedList<TimeStamp>> events;
-    private final EventDescriptor[] descriptors;
-    private int eventPositionIndex;
+    private final EventPool<LinkedList<TimeStamp>> events;
 
     protected SPIRVEventPool(int poolSize) {
-        this.poolSize = poolSize;
-        this.events = new HashMap<>();
-        this.descriptors = new EventDescriptor[poolSize];
-        this.retain = new BitSet(poolSize);
-        this.eventPositionIndex = 0;
-    }
-
-    private void findNextEventSlot() {
-        eventPositionIndex = retain.nextClearBit(eventPositionIndex + 1);
-        if (CIRCULAR_EVENTS && (eventPositionIndex >= poolSize)) {
-            eventPositionIndex = 0;
-        }
-        guarantee(eventPositionIndex != -1, "event window is full (retained=%d, capacity=%d)", retain.cardinality(), EVENT_WINDOW);
+        // The timestamps do not hold driver resources, so there is nothing to release
+        this.events = new EventPool<>("SPIR-V", poolSize, CIRCULAR_EVENTS, timeStamps -> {
+        });
     }
 
     protected int registerEvent(EventDescriptor eventDescriptor, ProfilerTransfer profilerTransfer) {
-        if (retain.get(eventPositionIndex)) {
-            findNextEventSlot();
-        }
-        final int currentEventPosition = eventPositionIndex;
-        guarantee(!retain.get(currentEventPosition), "overwriting retained event");
-
         LinkedList<TimeStamp> listTimeStamps = new LinkedList<>();
 
         if (profilerTransfer != null) {
@@ -77,17 +55,25 @@ public class SPIRVEventPool {
             listTimeStamps.add(profilerTransfer.getStop());
         }
 
-        events.put(currentEventPosition, listTimeStamps);
-        descriptors[currentEventPosition] = eventDescriptor;
-        findNextEventSlot();
-        return currentEventPosition;
+        return events.register(listTimeStamps, eventDescriptor);
     }
 
+    /**
+     * @return the timestamps of the event, or null if the handle is stale.
+     */
     public LinkedList<TimeStamp> getTimers(int eventId) {
         return events.get(eventId);
     }
 
     public EventDescriptor getDescriptor(int eventId) {
-        return descriptors[eventId];
+        return events.getDescriptor(eventId);
+    }
+
+    protected void reset() {
+        events.reset();
+    }
+
+    public String getMetrics() {
+        return events.toString();
     }
 }
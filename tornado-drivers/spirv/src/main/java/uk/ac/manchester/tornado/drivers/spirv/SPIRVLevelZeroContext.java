@@ -49,6 +49,7 @@ import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeHostMemAllocDescriptor
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeHostMemAllocFlags;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeRelaxedAllocationLimitsExpDescriptor;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeRelaxedAllocationLimitsFlags;
+import uk.ac.manchester.tornado.drivers.spirv.levelzero.ZeResult;
 import uk.ac.manchester.tornado.drivers.spirv.levelzero.utils.LevelZeroUtils;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.LevelZeroTransferTimeStamp;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.TimeStamp;
@@ -63,6 +64,7 @@ public class SPIRVLevelZeroContext extends SPIRVContext {
     private List<SPIRVLevelZeroCommandQueue> commandQueues;
     // Maps buffer ID -> LevelZeroByteBuffer
     private final Map<Long, LevelZeroByteBuffer> deviceBufferMap;
+    private final Map<Long, LevelZeroByteBuffer> hostBufferMap;
 
     // This class should only receive 1 device, not a list of devices.
     public SPIRVLevelZeroContext(SPIRVPlatform platform, List<SPIRVDevice> devices, LevelZeroContext levelZeroContext) {
@@ -78,6 +80,7 @@ public class SPIRVLevelZeroContext extends SPIRVContext {
 
         spirvDeviceContext = new ArrayList<>();
         deviceBufferMap = new HashMap<>();
+        hostBufferMap = new HashMap<>();
 
         // Create LevelZeroDeviceContext
         for (int deviceIndex = 0; deviceIndex < devices.size(); deviceIndex++) {
@@ -239,6 +242,28 @@ public class SPIRVLevelZeroContext extends SPIRVContext {
         LevelZeroUtils.errorLog("zeMemAllocDevice", result);
     }
 
+    @Override
+    public synchronized long allocateHostMemory(long numBytes) {
+        LevelZeroByteBuffer hostBuffer = new LevelZeroByteBuffer();
+        int result = levelZeroContext.zeMemAllocHost(levelZeroContext.getDefaultContextPtr(), createHostMemDescription(), numBytes, TornadoOptions.LEVEL_ZERO_BUFFER_ALIGNMENT, hostBuffer);
+        LevelZeroUtils.errorLog("zeMemAllocHost", result);
+        if (result != ZeResult.ZE_RESULT_SUCCESS) {
+            return 0;
+        }
+        hostBufferMap.put(hostBuffer.getPtrBuffer(), hostBuffer);
+        return hostBuffer.getPtrBuffer();
+    }
+
+    @Override
+    public synchronized void freeHostMemory(long address) {
+        LevelZeroByteBuffer hostBuffer = hostBufferMap.remove(address);
+        if (hostBuffer == null) {
+            TornadoInternalError.shouldNotReachHere(BUFFER_NOT_FOUND_ERROR_MESSAGE);
+        }
+        int result = levelZeroContext.zeMemFree(levelZeroContext.getDefaultContextPtr(), hostBuffer);
+        LevelZeroUtils.errorLog("zeMemFree", result);
+    }
+
     @Override
     public int readBuffer(int deviceIndex, long bufferId, long srcOffset, long bytes, byte[] value, long dstOffset, int[] waitEvents, ProfilerTransfer profilerTransfer) {
         SPIRVLevelZeroCommandQueue spirvCommandQueue = commandQueues.get(deviceIndex);
@@ -46,6 +46,7 @@ import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVKernelArgs;
 import uk.ac.manchester.tornado.drivers.spirv.timestamps.LevelZeroKernelTimeStamp;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupSizeSelector;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
 public class SPIRVLevelZeroInstalledCode extends SPIRVInstalledCode {
@@ -242,38 +243,29 @@ public class SPIRVLevelZeroInstalledCode extends SPIRVInstalledCode {
 
     private void calculateLocalWork(TaskMetaData meta) {
         final long[] localWork = meta.initLocalWork();
+        // The global work can only be padded when it is computed by the scheduler
+        final boolean padding = TornadoOptions.PAD_GLOBAL_WORK && !meta.isGlobalWorkDefined() && !meta.hasReduction();
 
         switch (meta.getDims()) {
             case 3:
                 localWork[2] = 1;
-                localWork[1] = calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[1], meta.getGlobalWork()[1]);
-                localWork[0] = calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0]);
+                localWork[1] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[1], meta.getGlobalWork()[1], padding);
+                localWork[0] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0], padding);
                 break;
             case 2:
-                localWork[1] = calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[1], meta.getGlobalWork()[1]);
-                localWork[0] = calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0]);
+                localWork[1] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[1], meta.getGlobalWork()[1], padding);
+                localWork[0] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0], padding);
                 break;
             case 1:
-                localWork[0] = calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0]);
+                localWork[0] = WorkGroupSizeSelector.calculateGroupSize(calculateEffectiveMaxWorkItemSizes(meta)[0], meta.getGlobalWork()[0], padding);
                 break;
             default:
                 break;
         }
-    }
-
-    private int calculateGroupSize(long maxBlockSize, long globalWorkSize) {
-        if (maxBlockSize == globalWorkSize) {
-            maxBlockSize /= 4;
-        }
 
-        int value = (int) Math.min(maxBlockSize, globalWorkSize);
-        if (value == 0) {
-            return 1;
-        }
-        while (globalWorkSize % value != 0) {
-            value--;
+        if (padding) {
+            WorkGroupSizeSelector.padGlobalWork(meta.getGlobalWork(), localWork, meta.getDims());
         }
-        return value;
     }
 
     private long[] calculateEffectiveMaxWorkItemSizes(TaskMetaData metaData) {
@@ -27,6 +27,9 @@ package uk.ac.manchester.tornado.drivers.spirv.graal.snippets;
 import org.graalvm.compiler.api.replacements.Snippet;
 import org.graalvm.compiler.nodes.GraphState;
 import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
 import org.graalvm.compiler.nodes.java.NewArrayNode;
 import org.graalvm.compiler.nodes.spi.LoweringTool;
 import org.graalvm.compiler.options.OptionValues;
@@ -800,6 +803,282 @@ public class ReduceGPUSnippets implements Snippets {
         }
     }
 
+    @Snippet
+    public static void partialReduceIntOr(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntOrCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOr(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongOrCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] | localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAnd(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntAndCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAnd(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongAndCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] & localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXor(int[] inputArray, int[] outputArray, int gidx) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceIntXorCarrierValue(int[] inputArray, int[] outputArray, int gidx, int extra) {
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        int[] localArray = (int[]) NewArrayNode.newUninitializedArray(int.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXor(long[] inputArray, long[] outputArray, int gidx) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = inputArray[gidx];
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
+    @Snippet
+    public static void partialReduceLongXorCarrierValue(long[] inputArray, long[] outputArray, int gidx, long extra) {
+
+        int localIdx = SPIRVOCLIntrinsics.get_local_id(0);
+        int localGroupSize = SPIRVOCLIntrinsics.get_local_size(0);
+        int groupID = SPIRVOCLIntrinsics.get_group_id(0);
+
+        long[] localArray = (long[]) NewArrayNode.newUninitializedArray(long.class, LOCAL_WORK_GROUP_SIZE);
+
+        localArray[localIdx] = extra;
+
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            SPIRVOCLIntrinsics.localBarrier();
+            if (localIdx < stride) {
+                localArray[localIdx] = localArray[localIdx] ^ localArray[localIdx + stride];
+            }
+        }
+
+        SPIRVOCLIntrinsics.globalBarrier();
+        if (localIdx == 0) {
+            outputArray[groupID + 1] = localArray[0];
+        }
+    }
+
     protected static class Tuple2<T0, T1> {
         T0 t0;
         T1 t1;
@@ -859,6 +1138,20 @@ public class ReduceGPUSnippets implements Snippets {
         private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceMinDoubleSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceDoubleMin");
         private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceMinDoubleSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceDoubleMinCarrierValue");
 
+        // Bitwise reductions
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntOrSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntOr");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntOrSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntOrCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntAndSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntAnd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntAndSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntAndCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntXorSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntXor");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceIntXorSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceIntXorCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongOrSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongOr");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongOrSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongOrCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongAndSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongAnd");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongAndSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongAndCarrierValue");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongXorSnippet = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongXor");
+        private final Tuple2<Class<? extends ReduceGPUSnippets>, String> partialReduceLongXorSnippetCarrierValue = new Tuple2<>(ReduceGPUSnippets.class, "partialReduceLongXorCarrierValue");
+
         Providers providers;
 
         public Templates(OptionValues options, Providers providers) {
@@ -904,6 +1197,12 @@ public class ReduceGPUSnippets implements Snippets {
             } else if (value instanceof SPIRVIntBinaryIntrinsicNode) {
                 SPIRVIntBinaryIntrinsicNode op = (SPIRVIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeInteger(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntOrSnippet) : snippet(partialReduceIntOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntAndSnippet) : snippet(partialReduceIntAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceIntXorSnippet) : snippet(partialReduceIntXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
@@ -920,6 +1219,12 @@ public class ReduceGPUSnippets implements Snippets {
             } else if (value instanceof SPIRVIntBinaryIntrinsicNode) {
                 SPIRVIntBinaryIntrinsicNode op = (SPIRVIntBinaryIntrinsicNode) value;
                 snippet = getSnippetFromOCLBinaryNodeLong(op, extra);
+            } else if (value instanceof OrNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongOrSnippet) : snippet(partialReduceLongOrSnippetCarrierValue);
+            } else if (value instanceof AndNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongAndSnippet) : snippet(partialReduceLongAndSnippetCarrierValue);
+            } else if (value instanceof XorNode) {
+                snippet = (extra == null) ? snippet(partialReduceLongXorSnippet) : snippet(partialReduceLongXorSnippetCarrierValue);
             } else {
                 throw new RuntimeException("Reduce Operation no supported yet: snippet not installed");
             }
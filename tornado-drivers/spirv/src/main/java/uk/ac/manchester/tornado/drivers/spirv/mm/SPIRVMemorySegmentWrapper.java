@@ -142,6 +142,14 @@ public class SPIRVMemorySegmentWrapper implements ObjectBuffer {
         };
     }
 
+    /**
+     * The header of a view of a native array overlaps the elements of its parent,
+     * so the transfers of a view skip it.
+     */
+    private static long getHeaderSize(Object reference) {
+        return reference instanceof TornadoNativeArray nativeArray && nativeArray.isSlice() ? TornadoNativeArray.ARRAY_HEADER : 0;
+    }
+
     @Override
     public int read(Object reference, long hostOffset, long partialReadSize, int[] waitEvents, boolean useDeps) {
         MemorySegment segment = getSegment(reference);
@@ -153,7 +161,8 @@ public class SPIRVMemorySegmentWrapper implements ObjectBuffer {
             returnEvent = spirvDeviceContext.readBuffer(toBuffer(), TornadoNativeArray.ARRAY_HEADER, partialReadSize, segment.address(), hostOffset, waitEvents);
         } else if (batchSize <= 0) {
             // Partial Copy Out due to batch processing
-            returnEvent = spirvDeviceContext.readBuffer(toBuffer(), bufferOffset, numBytes, segment.address(), hostOffset, waitEvents);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = spirvDeviceContext.readBuffer(toBuffer(), bufferOffset + headerSize, numBytes - headerSize, segment.address(), hostOffset + headerSize, waitEvents);
         } else {
             // Full copy out (default)
             returnEvent = spirvDeviceContext.readBuffer(toBuffer(), TornadoOptions.PANAMA_OBJECT_HEADER_SIZE, numBytes, segment.address(), hostOffset + TornadoOptions.PANAMA_OBJECT_HEADER_SIZE,
@@ -166,7 +175,8 @@ public class SPIRVMemorySegmentWrapper implements ObjectBuffer {
     public void write(Object reference) {
         MemorySegment segment = getSegment(reference);
         if (batchSize <= 0) {
-            spirvDeviceContext.writeBuffer(toBuffer(), bufferOffset, bufferSize, segment.address(), 0, null);
+            final long headerSize = getHeaderSize(reference);
+            spirvDeviceContext.writeBuffer(toBuffer(), bufferOffset + headerSize, bufferSize - headerSize, segment.address(), headerSize, null);
         } else {
             throw new TornadoUnsupportedError("[UNSUPPORTED] batch processing for writeBuffer operation");
         }
@@ -178,7 +188,8 @@ public class SPIRVMemorySegmentWrapper implements ObjectBuffer {
         final int returnEvent;
         final long numBytes = getSizeSubRegionSize() > 0 ? getSizeSubRegionSize() : bufferSize;
         if (batchSize <= 0) {
-            returnEvent = spirvDeviceContext.enqueueReadBuffer(toBuffer(), bufferOffset, numBytes, segment.address(), hostOffset, waitEvents);
+            final long headerSize = getHeaderSize(reference);
+            returnEvent = spirvDeviceContext.enqueueReadBuffer(toBuffer(), bufferOffset + headerSize, numBytes - headerSize, segment.address(), hostOffset + headerSize, waitEvents);
         } else {
             throw new TornadoUnsupportedError("[UNSUPPORTED] batch processing for enqueueReadBuffer operation");
         }
@@ -191,7 +202,8 @@ public class SPIRVMemorySegmentWrapper implements ObjectBuffer {
         MemorySegment segment = getSegment(reference);
         int internalEvent;
         if (batchSize <= 0) {
-            internalEvent = spirvDeviceContext.enqueueWriteBuffer(toBuffer(), bufferOffset, bufferSize, segment.address(), hostOffset, (useDeps) ? events : null);
+            final long headerSize = getHeaderSize(reference);
+            internalEvent = spirvDeviceContext.enqueueWriteBuffer(toBuffer(), bufferOffset + headerSize, bufferSize - headerSize, segment.address(), hostOffset + headerSize, (useDeps) ? events : null);
         } else {
             internalEvent = spirvDeviceContext.enqueueWriteBuffer(toBuffer(), 0, TornadoOptions.PANAMA_OBJECT_HEADER_SIZE, segment.address(), 0, (useDeps) ? events : null);
             returnEvents.add(internalEvent);
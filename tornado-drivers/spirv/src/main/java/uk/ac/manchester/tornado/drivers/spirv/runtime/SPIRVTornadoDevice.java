@@ -68,6 +68,10 @@ import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVObjectWrapper;
 import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVShortArrayWrapper;
 import uk.ac.manchester.tornado.drivers.spirv.mm.SPIRVVectorWrapper;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.codecache.KernelBundle;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheEntry;
+import uk.ac.manchester.tornado.runtime.codecache.KernelCacheKey;
+import uk.ac.manchester.tornado.runtime.codecache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -75,6 +79,8 @@ import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.CompilationEvent;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.DriverBuildEvent;
 import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
 import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
 import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
@@ -173,6 +179,28 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
 
         System.arraycopy(sketchAccess, 0, taskAccess, 0, sketchAccess.length);
 
+        KernelCacheEntry cachedEntry = KernelBundle.find(TornadoVMBackendType.SPIRV.name(), getPhysicalDevice().getDeviceName(), executable, resolvedMethod);
+        final String kernelCacheKey = (cachedEntry != null) ? null : getKernelCacheKey(executable, resolvedMethod);
+        if (kernelCacheKey != null) {
+            cachedEntry = PersistentKernelCache.getInstance().lookup(kernelCacheKey);
+        }
+        if (cachedEntry != null) {
+            cachedEntry.applyTo(taskMeta);
+            profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            String entryPoint = SPIRVCompiler.buildKernelName(resolvedMethod.getName(), executable);
+            final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+            driverBuildEvent.begin();
+            TornadoInstalledCode installedCode;
+            try {
+                installedCode = deviceContext.installBinary(taskMeta, task.getId(), entryPoint, cachedEntry.getCode());
+            } finally {
+                driverBuildEvent.finish(task.getId(), entryPoint, TornadoVMBackendType.SPIRV.name(), getDeviceName(), cachedEntry.getCode().length);
+            }
+            profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
+            profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+            return installedCode;
+        }
+
         try {
             SPIRVCompilationResult result;
             // Compile the code and insert the SPIRV binary into the code cache
@@ -183,14 +211,31 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
             profiler.registerDeviceID(taskMeta.getId(), taskMeta.getLogicDevice().getDriverIndex() + ":" + taskMeta.getDeviceIndex());
             profiler.registerDeviceName(taskMeta.getId(), taskMeta.getLogicDevice().getPhysicalDevice().getDeviceName());
             profiler.start(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
-            result = SPIRVCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+            final CompilationEvent compilationEvent = new CompilationEvent();
+            compilationEvent.begin();
+            try {
+                result = SPIRVCompiler.compileSketchForDevice(sketch, executable, providers, getBackend(), executable.getProfiler());
+            } finally {
+                compilationEvent.finish(task.getId(), resolvedMethod.getName(), TornadoVMBackendType.SPIRV.name(), getDeviceName());
+            }
             profiler.stop(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId());
             profiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_GRAAL_TIME, taskMeta.getId()));
 
             profiler.start(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
-            TornadoInstalledCode installedCode = deviceContext.installBinary(result);
+            final DriverBuildEvent driverBuildEvent = new DriverBuildEvent();
+            driverBuildEvent.begin();
+            TornadoInstalledCode installedCode;
+            try {
+                installedCode = deviceContext.installBinary(result);
+            } finally {
+                driverBuildEvent.finish(task.getId(), result.getName(), TornadoVMBackendType.SPIRV.name(), getDeviceName(), result.getSPIRVBinary().length);
+            }
             profiler.stop(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId());
             profiler.sum(ProfilerType.TOTAL_DRIVER_COMPILE_TIME, profiler.getTaskTimer(ProfilerType.TASK_COMPILE_DRIVER_TIME, taskMeta.getId()));
+            if (kernelCacheKey != null) {
+                PersistentKernelCache.getInstance().store(kernelCacheKey, new KernelCacheEntry(result.getName(), result.getSPIRVBinary(), taskMeta));
+            }
+            KernelBundle.record(TornadoVMBackendType.SPIRV.name(), getPhysicalDevice().getDeviceName(), executable, resolvedMethod, result.getName(), result.getSPIRVBinary());
             return installedCode;
         } catch (Exception e) {
             driver.fatal("Unable to compile %s for device %s\n", task.getId(), getDeviceName());
@@ -203,6 +248,20 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
         }
     }
 
+    /**
+     * Computes the key of the task in the persistent kernel cache. The SPIR-V
+     * module is stored as the code of the entry.
+     *
+     * @return the key, or null if the kernel should not be cached.
+     */
+    private String getKernelCacheKey(CompilableTask task, ResolvedJavaMethod resolvedMethod) {
+        if (!PersistentKernelCache.isEnabled()) {
+            return null;
+        }
+        final String deviceIdentity = device.getPlatformName() + "|" + device.getName() + "|" + device.getDeviceOpenCLCVersion();
+        return KernelCacheKey.forTask(task, resolvedMethod, deviceIdentity, SPIRVTornadoDevice.class);
+    }
+
     @Override
     public boolean isFullJITMode(SchedulableTask task) {
         return false;
@@ -248,6 +307,16 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
         throw new RuntimeException("Unsupported");
     }
 
+    @Override
+    public MemorySegment allocatePinnedMemory(long byteSize) {
+        return getDeviceContext().getPinnedMemoryPool().allocate(byteSize);
+    }
+
+    @Override
+    public long getPinnedMemoryPoolHits() {
+        return getDeviceContext().getPinnedMemoryPool().getHits();
+    }
+
     private ObjectBuffer createArrayWrapper(Class<?> klass, SPIRVDeviceContext device, long batchSize) {
         if (klass == int[].class) {
             return new SPIRVIntArrayWrapper(device, batchSize);
@@ -325,12 +394,36 @@ public class SPIRVTornadoDevice implements TornadoAcceleratorDevice {
         if (!bufferProvider.checkBufferAvailability(objects.length)) {
             bufferProvider.resetBuffers();
         }
-        for (int i = 0; i < objects.length; i++) {
-            allocate(objects[i], batchSize, states[i]);
+        checkSlices(objects);
+        bufferProvider.openArena(objects, batchSize, states);
+        try {
+            for (int i = 0; i < objects.length; i++) {
+                allocate(objects[i], batchSize, states[i]);
+            }
+        } finally {
+            bufferProvider.closeArena();
         }
         return -1;
     }
 
+    /**
+     * Level Zero has no sub-buffers, so views of native arrays get a buffer of
+     * their own. This is only correct if the parent of the view is not used by
+     * the same task-graph, since separate buffers would not see the writes to each
+     * other.
+     */
+    private static void checkSlices(Object[] objects) {
+        for (Object object : objects) {
+            if (object instanceof TornadoNativeArray nativeArray && nativeArray.isSlice()) {
+                for (Object other : objects) {
+                    if (other == nativeArray.getParent()) {
+                        throw new TornadoRuntimeException("[ERROR] A view of a " + other.getClass().getSimpleName() + " cannot be used in the same task-graph as its parent on the SPIR-V backend");
+                    }
+                }
+            }
+        }
+    }
+
     private ObjectBuffer createNewBufferAllocation(Object object, long batchSize, TornadoDeviceObjectState state) {
         final ObjectBuffer buffer;
         TornadoInternalError.guarantee(state.isAtomicRegionPresent() || !state.hasObjectBuffer(), "A device memory leak might be occurring.");
@@ -122,10 +122,9 @@ public class LevelZeroKernelTimeStamp {
     }
 
     private void updateProfiler(ZeKernelTimeStampResult resultKernel, final TaskMetaData meta) {
-        long timer = meta.getProfiler().getTimer(ProfilerType.TOTAL_KERNEL_TIME);
         long kernelElapsedTime = (long) resultKernel.getKernelElapsedTime();
         // Register globalTime
-        meta.getProfiler().setTimer(ProfilerType.TOTAL_KERNEL_TIME, timer + kernelElapsedTime);
+        meta.getProfiler().sum(ProfilerType.TOTAL_KERNEL_TIME, kernelElapsedTime);
         // Register the time for the task
         meta.getProfiler().setTaskTimer(ProfilerType.TASK_KERNEL_TIME, meta.getId(), kernelElapsedTime);
     }
@@ -1,6 +1,7 @@
 open module tornado.runtime {
     requires java.logging;
     requires jdk.unsupported;
+    requires transitive jdk.jfr;
 
     requires transitive jdk.internal.vm.ci;
     requires transitive jdk.internal.vm.compiler;
@@ -8,6 +9,7 @@ open module tornado.runtime {
 
     exports uk.ac.manchester.tornado.runtime;
     exports uk.ac.manchester.tornado.runtime.analyzer;
+    exports uk.ac.manchester.tornado.runtime.codecache;
     exports uk.ac.manchester.tornado.runtime.common;
     exports uk.ac.manchester.tornado.runtime.common.enums;
     exports uk.ac.manchester.tornado.runtime.common.exceptions;
@@ -23,9 +25,11 @@ open module tornado.runtime {
     exports uk.ac.manchester.tornado.runtime.graph;
     exports uk.ac.manchester.tornado.runtime.graph.nodes;
     exports uk.ac.manchester.tornado.runtime.profiler;
+    exports uk.ac.manchester.tornado.runtime.profiler.jfr;
     exports uk.ac.manchester.tornado.runtime.sketcher;
     exports uk.ac.manchester.tornado.runtime.tasks;
     exports uk.ac.manchester.tornado.runtime.tasks.meta;
+    exports uk.ac.manchester.tornado.runtime.tests;
     exports uk.ac.manchester.tornado.runtime.utils;
     exports uk.ac.manchester.tornado.runtime.graal.phases.sketcher;
     exports uk.ac.manchester.tornado.runtime.graal.nodes.interfaces;
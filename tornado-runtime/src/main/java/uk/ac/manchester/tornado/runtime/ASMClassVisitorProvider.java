@@ -23,9 +23,114 @@
  */
 package uk.ac.manchester.tornado.runtime;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.runtime.common.ParallelAnnotationProvider;
 
 public interface ASMClassVisitorProvider {
+
+    /**
+     * Suffix of the name of the classes generated for fused tasks.
+     */
+    String FUSED_CLASS_SUFFIX = "$TornadoFused";
+
+    /**
+     * Functions of the tasks of a reduction with a user combiner. Each one
+     * implements a {@link uk.ac.manchester.tornado.api.common.TornadoFunctions}
+     * interface.
+     *
+     * @param partial
+     *     Combines contiguous chunks of the input tuples in parallel.
+     * @param combine
+     *     Combines all the input tuples into the first tuple of the result.
+     */
+    record TupleReductionTasks(Object partial, Object combine) {
+    }
+
     ParallelAnnotationProvider[] getParallelAnnotations(ResolvedJavaMethod method);
+
+    /**
+     * Builds a version of a task that runs a chunk of the iterations of its
+     * outermost {@code @Parallel} loop. The handle receives the parameters of the
+     * task followed by the index of the chunk and the number of chunks.
+     *
+     * @param method
+     *     Static method of the task.
+     * @return {@link MethodHandle}, or null if the loop cannot be split.
+     */
+    MethodHandle getHostParallelVersion(Method method);
+
+    /**
+     * @return true if the task may synchronize the threads of a work-group with a
+     *     barrier of the {@link uk.ac.manchester.tornado.api.KernelContext}.
+     */
+    boolean callsKernelContextBarriers(Method method);
+
+    /**
+     * Builds a static method that runs the producer task and then the consumer
+     * task. Its class is generated in the package of the producer. If both tasks
+     * have a single one-dimensional parallel loop, the loops are merged into one
+     * loop. Otherwise, the method calls both tasks.
+     *
+     * @param name
+     *     Name of the method.
+     * @param parameterTypes
+     *     Types of the parameters of the method.
+     * @param producer
+     *     Static method of the producer task.
+     * @param producerArguments
+     *     Index of the parameter passed as each argument of the producer.
+     * @param consumer
+     *     Static method of the consumer task.
+     * @param consumerArguments
+     *     Index of the parameter passed as each argument of the consumer.
+     * @param forwardedParameters
+     *     Index of the parameters that only the two tasks access, with the same
+     *     element in each iteration. If the loops are merged, the values the
+     *     producer stores in them are passed to the consumer in local variables,
+     *     instead of through memory.
+     * @return {@link Method}, or null if the tasks cannot be called from the
+     *     generated class.
+     */
+    Method getFusedTask(String name, Class<?>[] parameterTypes, Method producer, int[] producerArguments, Method consumer, int[] consumerArguments, int[] forwardedParameters);
+
+    /**
+     * Builds the function of a task implemented by a static method, as the lambda
+     * passed to a task-graph does. The class of the function is generated in the
+     * package of the method.
+     *
+     * @param method
+     *     Static method of the task.
+     * @return an instance of a
+     *     {@link uk.ac.manchester.tornado.api.common.TornadoFunctions}
+     *     interface, or null if the method cannot be called from the generated
+     *     class.
+     */
+    Object getTaskFunction(Method method);
+
+    /**
+     * Builds the tasks of a reduction with a user combiner over tuples stored in
+     * {@code componentTypes.length} arrays. The combiner combines the tuple at
+     * the second index into the tuple at the first index:
+     *
+     * <p>
+     * <code>
+     * static void combine(T1 acc1, ..., Tk acck, int acc, T1 in1, ..., Tk ink, int in)
+     * </code>
+     * </p>
+     *
+     * <p>
+     * The parameters of the {@code partial} task are the input arrays, the
+     * identity arrays, the output arrays, the number of input tuples, the number
+     * of tuples per chunk and the number of chunks. The parameters of the
+     * {@code combine} task are the input arrays, the identity arrays, the result
+     * arrays and the number of input tuples.
+     * </p>
+     *
+     * @return the functions of the tasks, or null if the combiner cannot be
+     *     called from the generated classes.
+     */
+    TupleReductionTasks getTupleReduction(Method combiner, Class<?>[] componentTypes);
 }
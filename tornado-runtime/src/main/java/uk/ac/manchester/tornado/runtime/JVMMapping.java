@@ -37,11 +37,19 @@ import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoInstalledCode;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 import uk.ac.manchester.tornado.runtime.common.TornadoSchedulingStrategy;
 
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Device that runs the Java version of the tasks with the threads of the host
+ * (see {@code HostParallelExecutor}). The data stays in the Java heap and in
+ * the off-heap segments of the native arrays, so there is no allocation nor
+ * transfer. The task-graphs mapped to this device are not compiled: the
+ * task-graph runs them directly, instead of running the TornadoVM bytecodes.
+ */
 public class JVMMapping implements TornadoAcceleratorDevice {
 
     @Override
@@ -80,7 +88,7 @@ public class JVMMapping implements TornadoAcceleratorDevice {
 
     @Override
     public String getDescription() {
-        return "default JVM";
+        return STR."Host JVM (\{TornadoOptions.HOST_PARALLEL_THREADS} threads)";
     }
 
     @Override
@@ -197,7 +205,7 @@ public class JVMMapping implements TornadoAcceleratorDevice {
 
     @Override
     public TornadoDeviceType getDeviceType() {
-        return null;
+        return TornadoDeviceType.CPU;
     }
 
     @Override
@@ -27,6 +27,7 @@ import static org.graalvm.compiler.debug.GraalError.guarantee;
 import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.shouldNotReachHere;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.SHOULD_LOAD_RMI;
 
+import java.lang.foreign.MemorySegment;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -56,6 +58,7 @@ import jdk.vm.ci.runtime.JVMCIBackend;
 import uk.ac.manchester.tornado.api.TornadoDriver;
 import uk.ac.manchester.tornado.api.TornadoRuntimeInterface;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.runtime.codecache.PersistentKernelCache;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.common.TornadoAcceleratorDevice;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
@@ -78,6 +81,18 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         }
     };
     private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(TornadoOptions.TORNADO_SKETCHER_THREADS, executorThreadFactory);
+    private static final ThreadFactory compilerThreadFactory = new ThreadFactory() {
+        private final AtomicInteger threadId = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, String.format("TornadoCompilerThread - %d", threadId.getAndIncrement()));
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+    // Kept apart from the sketcher executor: compilations wait for sketches
+    private static final ExecutorService COMPILER_EXECUTOR = Executors.newFixedThreadPool(TornadoOptions.TORNADO_COMPILER_THREADS, compilerThreadFactory);
     private static final TornadoCoreRuntime runtime = new TornadoCoreRuntime();
     private static final JVMMapping JVM = new JVMMapping();
     private static final int DEFAULT_DRIVER = 0;
@@ -120,6 +135,10 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         return EXECUTOR;
     }
 
+    public static ExecutorService getTornadoCompilerExecutor() {
+        return COMPILER_EXECUTOR;
+    }
+
     public static JVMCIBackend getVMBackend() {
         return runtime.vmBackend;
     }
@@ -151,7 +170,7 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         options = new OptionValues(opts);
     }
 
-    public void clearObjectState() {
+    public synchronized void clearObjectState() {
         for (GlobalObjectState gs : objectMappings.values()) {
             gs.clear();
         }
@@ -180,12 +199,8 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         return tornadoAcceleratorDrivers;
     }
 
-    public GlobalObjectState resolveObject(Object object) {
-        if (!objectMappings.containsKey(object)) {
-            final GlobalObjectState state = new GlobalObjectState();
-            objectMappings.put(object, state);
-        }
-        return objectMappings.get(object);
+    public synchronized GlobalObjectState resolveObject(Object object) {
+        return objectMappings.computeIfAbsent(object, k -> new GlobalObjectState());
     }
 
     @Override
@@ -203,6 +218,25 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         return TornadoOptions.PROFILER_LOGS_ACCUMULATE() && TornadoOptions.isProfilerEnabled();
     }
 
+    /**
+     * The memory is pinned by the backend of the default device, but it can be
+     * used as the host memory of any device.
+     */
+    @Override
+    public MemorySegment allocatePinnedMemory(long byteSize) {
+        return getDefaultDevice().allocatePinnedMemory(byteSize);
+    }
+
+    @Override
+    public long getPinnedMemoryPoolHits() {
+        return getDefaultDevice().getPinnedMemoryPoolHits();
+    }
+
+    @Override
+    public long getPersistentKernelCacheHits() {
+        return PersistentKernelCache.isEnabled() ? PersistentKernelCache.getInstance().getHits() : 0;
+    }
+
     public MetaAccessProvider getMetaAccess() {
         return vmBackend.getMetaAccess();
     }
@@ -244,6 +278,11 @@ public final class TornadoCoreRuntime extends TornadoLogger implements TornadoRu
         return driverCount;
     }
 
+    @Override
+    public TornadoAcceleratorDevice getJVMDevice() {
+        return JVM;
+    }
+
     @Override
     public TornadoAcceleratorDevice getDefaultDevice() {
         return (tornadoVMDrivers == null || tornadoVMDrivers[DEFAULT_DRIVER] == null) ? JVM : (TornadoAcceleratorDevice) tornadoVMDrivers[DEFAULT_DRIVER].getDefaultDevice();
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.analyzer;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValueProxyNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
+import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+
+/**
+ * Rejects tasks that read the size of a native array with more than
+ * {@link Integer#MAX_VALUE} elements as an {@code int}. The specialisation of
+ * the kernel folds {@code getSize()} into a constant, so the size would
+ * silently wrap in the kernel. These tasks must use {@code getSizeAsLong()}.
+ */
+public final class NativeArraySizeAnalysis {
+
+    private static final String NUMBER_OF_ELEMENTS = "numberOfElements";
+
+    private NativeArraySizeAnalysis() {
+    }
+
+    private static boolean hasLargeNativeArray(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof TornadoNativeArray nativeArray && nativeArray.getSizeAsLong() > Integer.MAX_VALUE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Object getArgument(ValueNode node, Object[] arguments) {
+        ValueNode value = node;
+        while (value instanceof PiNode || value instanceof ValueProxyNode) {
+            value = (value instanceof PiNode piNode) ? piNode.object() : ((ValueProxyNode) value).value();
+        }
+        if (value instanceof ParameterNode parameter && parameter.index() < arguments.length) {
+            return arguments[parameter.index()];
+        }
+        return null;
+    }
+
+    private static boolean isNarrowedToInt(LoadFieldNode loadField) {
+        for (Node usage : loadField.usages()) {
+            if (usage instanceof IntegerConvertNode<?> convert && convert.getResultBits() <= Integer.SIZE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the sizes of the native arrays passed to a task before it is
+     * compiled. Tasks in batch mode are not checked, since the size of each batch
+     * is folded instead.
+     *
+     * @throws TornadoRuntimeException
+     *     if the task narrows the size of a native array with more than
+     *     {@link Integer#MAX_VALUE} elements to an {@code int}.
+     */
+    public static void checkArraySizes(SchedulableTask task) {
+        if (!(task instanceof CompilableTask executable) || task.getBatchThreads() > 0) {
+            return;
+        }
+        final Object[] arguments = executable.getArguments();
+        if (!hasLargeNativeArray(arguments)) {
+            return;
+        }
+        final ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(executable.getMethod());
+        final Sketch sketch = TornadoSketcher.lookup(resolvedMethod, executable.meta().getDriverIndex(), executable.meta().getDeviceIndex());
+        for (LoadFieldNode loadField : sketch.getGraph().getNodes().filter(LoadFieldNode.class)) {
+            if (loadField.field().getName().equals(NUMBER_OF_ELEMENTS) && isNarrowedToInt(loadField)
+                    && getArgument(loadField.object(), arguments) instanceof TornadoNativeArray nativeArray && nativeArray.getSizeAsLong() > Integer.MAX_VALUE) {
+                throw new TornadoRuntimeException("Task " + task.getId() + " calls getSize() on an array of " + nativeArray.getSizeAsLong()
+                        + " elements, which does not fit in an int. Use getSizeAsLong() instead.");
+            }
+        }
+    }
+}
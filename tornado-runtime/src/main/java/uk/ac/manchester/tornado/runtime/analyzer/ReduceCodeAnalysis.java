@@ -49,10 +49,13 @@ import org.graalvm.compiler.nodes.StartNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
 import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
 import org.graalvm.compiler.nodes.calc.BinaryNode;
 import org.graalvm.compiler.nodes.calc.IntegerLessThanNode;
 import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
 import org.graalvm.compiler.nodes.java.ArrayLengthNode;
 import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.java.StoreIndexedNode;
@@ -102,6 +105,12 @@ public class ReduceCodeAnalysis {
                 operations.add(REDUCE_OPERATION.SUM);
             } else if (operation instanceof MulNode) {
                 operations.add(REDUCE_OPERATION.MUL);
+            } else if (operation instanceof OrNode) {
+                operations.add(REDUCE_OPERATION.OR);
+            } else if (operation instanceof AndNode) {
+                operations.add(REDUCE_OPERATION.AND);
+            } else if (operation instanceof XorNode) {
+                operations.add(REDUCE_OPERATION.XOR);
             } else if (operation instanceof InvokeNode invoke) {
                 if (invoke.callTarget().targetName().equals("Math.max")) {
                     operations.add(REDUCE_OPERATION.MAX);
@@ -476,6 +485,9 @@ public class ReduceCodeAnalysis {
         SUM, //
         MUL, //
         MIN, //
-        MAX //
+        MAX, //
+        OR, //
+        AND, //
+        XOR //
     }
 }
@@ -0,0 +1,597 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.analyzer;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.ConstantNode;
+import org.graalvm.compiler.nodes.ParameterNode;
+import org.graalvm.compiler.nodes.PiNode;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.ValuePhiNode;
+import org.graalvm.compiler.nodes.ValueProxyNode;
+import org.graalvm.compiler.nodes.VirtualState;
+import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.BinaryNode;
+import org.graalvm.compiler.nodes.calc.IntegerConvertNode;
+import org.graalvm.compiler.nodes.calc.IsNullNode;
+import org.graalvm.compiler.nodes.calc.LeftShiftNode;
+import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.java.ArrayLengthNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
+import org.graalvm.compiler.nodes.java.LoadIndexedNode;
+import org.graalvm.compiler.nodes.java.StoreIndexedNode;
+import org.graalvm.compiler.nodes.memory.AbstractWriteNode;
+import org.graalvm.compiler.nodes.memory.FixedAccessNode;
+import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
+import org.graalvm.compiler.phases.util.Providers;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.KernelContext;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.common.SchedulableTask;
+import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoSuitesProvider;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelOffsetNode;
+import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelRangeNode;
+import uk.ac.manchester.tornado.runtime.sketcher.Sketch;
+import uk.ac.manchester.tornado.runtime.sketcher.SketchRequest;
+import uk.ac.manchester.tornado.runtime.sketcher.TornadoSketcher;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * Analysis that fuses consecutive tasks of a task-graph into a single task.
+ * Two tasks are fused when:
+ *
+ * <ul>
+ * <li>They run on the same device and they are implemented by static
+ * methods.</li>
+ * <li>Their parallel loops iterate over the same domain (same offsets, strides
+ * and bounds for each dimension).</li>
+ * <li>The consumer reads an object that the producer writes.</li>
+ * <li>Each object that is written by one of the tasks and accessed by both is
+ * accessed with the same index, and that index depends on all the parallel
+ * loops. Therefore, each thread only reads the elements that the same thread
+ * has written.</li>
+ * </ul>
+ *
+ * <p>
+ * When both tasks have a single one-dimensional parallel loop, their loops are
+ * merged into one loop that runs the body of the producer and then the body of
+ * the consumer. Intermediate objects that the producer writes and the consumer
+ * reads, that are not transferred between the host and the device and that no
+ * other task accesses, are forwarded: each thread keeps the element it
+ * computes in a local variable, and the fused kernel neither stores it to nor
+ * loads it from global memory. Otherwise, the fused task calls the producer
+ * and then the consumer. Their parallel loops get the same indexes, so they
+ * are compiled into a single kernel that runs both loops one after the other
+ * in each thread.
+ * </p>
+ */
+public final class TaskFusion {
+
+    private static final ASMClassVisitorProvider ASM_PROVIDER = loadProvider();
+
+    private TaskFusion() {
+    }
+
+    /**
+     * A task that replaces the tasks {@code first..last} (inclusive) of a
+     * task-graph. The function calls the static method of the task, so the task
+     * can be added to a task-graph as any other task.
+     */
+    public record FusedTask(String id, Object function, Object[] arguments, int first, int last) {
+    }
+
+    private record Candidate(String id, Method method, Object[] arguments, int first, int last, TaskShape shape, SchedulableTask task) {
+    }
+
+    /**
+     * Parallel domain of a task and the accesses of the task to each object.
+     * Each dimension of the domain is stored as {@code [offset, stride, bound]}.
+     */
+    private record TaskShape(TreeMap<Integer, List<Long>> domain, int numRanges, Map<Object, ObjectAccesses> accesses) {
+    }
+
+    private static final class ObjectAccesses {
+        private static final String UNKNOWN_INDEX = "?";
+
+        private final Set<String> indexes = new HashSet<>();
+        private boolean read;
+        private boolean write;
+        private boolean opaque;
+
+        private void addRead(String index) {
+            read = true;
+            indexes.add(index == null ? UNKNOWN_INDEX : index);
+        }
+
+        private void addWrite(String index) {
+            write = true;
+            indexes.add(index == null ? UNKNOWN_INDEX : index);
+        }
+    }
+
+    private static ASMClassVisitorProvider loadProvider() {
+        try {
+            String tornadoAnnotationImplementation = System.getProperty("tornado.load.annotation.implementation");
+            Class<?> klass = Class.forName(tornadoAnnotationImplementation);
+            return (ASMClassVisitorProvider) klass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Tornado.debug("Tornado annotation implementation not found. Tasks are not fused.");
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the method was generated to fuse tasks.
+     */
+    public static boolean isFusedMethod(ResolvedJavaMethod method) {
+        return method != null && method.getDeclaringClass().getName().contains(ASMClassVisitorProvider.FUSED_CLASS_SUFFIX);
+    }
+
+    private static boolean hasReduceParameters(Method method) {
+        for (Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : parameterAnnotations) {
+                if (annotation instanceof Reduce) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the groups of consecutive tasks that can be fused.
+     *
+     * @param taskGraphName
+     *     Name of the task-graph.
+     * @param tasks
+     *     Tasks of the task-graph, in order.
+     * @param transferredObjects
+     *     Objects transferred between the host and the device. They are
+     *     observed outside the task-graph, so their values are never forwarded.
+     * @return the fused tasks, in order. The list is empty if no tasks can be
+     *     fused.
+     */
+    public static List<FusedTask> fuseTasks(String taskGraphName, List<SchedulableTask> tasks, Set<Object> transferredObjects) {
+        List<FusedTask> fusedTasks = new ArrayList<>();
+        if (ASM_PROVIDER == null || TornadoOptions.AUTO_PARALLELISATION) {
+            return fusedTasks;
+        }
+        for (SchedulableTask task : tasks) {
+            // The reductions rewrite the task-graph using the index of each task
+            if (task instanceof CompilableTask compilableTask && hasReduceParameters(compilableTask.getMethod())) {
+                return fusedTasks;
+            }
+        }
+
+        Candidate current = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            Candidate next = createCandidate(taskGraphName, tasks.get(i), i);
+            Candidate fused = (current != null && next != null) ? fuse(current, next, tasks, transferredObjects) : null;
+            if (fused != null) {
+                current = fused;
+            } else {
+                addFusedTask(taskGraphName, current, fusedTasks);
+                current = next;
+            }
+        }
+        addFusedTask(taskGraphName, current, fusedTasks);
+        return fusedTasks;
+    }
+
+    private static void addFusedTask(String taskGraphName, Candidate candidate, List<FusedTask> fusedTasks) {
+        if (candidate == null || candidate.first() == candidate.last()) {
+            return;
+        }
+        Object function = ASM_PROVIDER.getTaskFunction(candidate.method());
+        if (function == null) {
+            Tornado.debug("Tasks %d to %d of %s cannot be fused: the function of task %s could not be generated", candidate.first(), candidate.last(), taskGraphName, candidate.id());
+            return;
+        }
+        fusedTasks.add(new FusedTask(candidate.id(), function, candidate.arguments(), candidate.first(), candidate.last()));
+        Tornado.info("Tasks %d to %d of %s fused into task %s", candidate.first(), candidate.last(), taskGraphName, candidate.id());
+        if (TornadoOptions.PRINT_TASK_FUSION) {
+            System.out.println(STR."[TornadoVM] Task fusion: tasks \{candidate.first()}-\{candidate.last()} of \{taskGraphName} -> \{taskGraphName}.\{candidate.id()}");
+        }
+    }
+
+    private static Candidate createCandidate(String taskGraphName, SchedulableTask task, int taskIndex) {
+        if (!(task instanceof CompilableTask compilableTask)) {
+            return null;
+        }
+        Method method = compilableTask.getMethod();
+        Object[] arguments = compilableTask.getArguments();
+        if (!Modifier.isStatic(method.getModifiers()) || method.getReturnType() != void.class || method.getParameterCount() != arguments.length) {
+            return null;
+        }
+        for (Object argument : arguments) {
+            if (argument instanceof KernelContext) {
+                return null;
+            }
+        }
+
+        TaskMetaData meta = compilableTask.meta();
+        TaskShape shape;
+        try {
+            ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(method);
+            Sketch sketch = TornadoSketcher.lookup(resolvedMethod, meta.getDriverIndex(), meta.getDeviceIndex());
+            shape = analyse((StructuredGraph) sketch.getGraph(), arguments);
+        } catch (RuntimeException | TornadoInternalError e) {
+            Tornado.debug("Task %s cannot be fused: %s", meta.getId(), e.getMessage());
+            return null;
+        }
+        if (shape == null) {
+            return null;
+        }
+
+        String prefix = taskGraphName + ".";
+        String id = meta.getId().startsWith(prefix) ? meta.getId().substring(prefix.length()) : meta.getId();
+        return new Candidate(id, method, arguments, taskIndex, taskIndex, shape, task);
+    }
+
+    private static Candidate fuse(Candidate producer, Candidate consumer, List<SchedulableTask> tasks, Set<Object> transferredObjects) {
+        SchedulableTask producerTask = producer.task();
+        SchedulableTask consumerTask = consumer.task();
+        if (!producerTask.getDevice().equals(consumerTask.getDevice()) || producerTask.meta().getDriverIndex() != consumerTask.meta().getDriverIndex()
+                || producerTask.meta().getDeviceIndex() != consumerTask.meta().getDeviceIndex()) {
+            return null;
+        }
+        if (!producer.shape().domain().equals(consumer.shape().domain()) || !hasDependency(producer.shape(), consumer.shape()) || !isLegal(producer.shape(), consumer.shape())) {
+            return null;
+        }
+
+        List<Object> arguments = new ArrayList<>();
+        List<Class<?>> parameterTypes = new ArrayList<>();
+        int[] producerArguments = addArguments(producer.method(), producer.arguments(), arguments, parameterTypes);
+        int[] consumerArguments = addArguments(consumer.method(), consumer.arguments(), arguments, parameterTypes);
+
+        String name = STR."\{producer.method().getName()}_\{consumer.method().getName()}";
+        int[] forwardedParameters = getForwardedParameters(producer, consumer, arguments, tasks, transferredObjects);
+        Method method = ASM_PROVIDER.getFusedTask(name, parameterTypes.toArray(new Class<?>[0]), producer.method(), producerArguments, consumer.method(), consumerArguments,
+                forwardedParameters);
+        if (method == null) {
+            return null;
+        }
+
+        Object[] fusedArguments = arguments.toArray();
+        TaskShape shape = sketchFusedTask(method, fusedArguments, producerTask.meta().getDriverIndex(), producerTask.meta().getDeviceIndex());
+        // The fused task runs both loops, or a single merged loop
+        if (shape == null || !shape.domain().equals(producer.shape().domain())
+                || (shape.numRanges() != producer.shape().numRanges() + consumer.shape().numRanges() && shape.numRanges() != shape.domain().size())) {
+            // The tasks were not inlined into the fused task
+            return null;
+        }
+        return new Candidate(STR."\{producer.id()}_\{consumer.id()}", method, fusedArguments, producer.first(), consumer.last(), shape, producerTask);
+    }
+
+    /**
+     * Adds the arguments of a task to the arguments of the fused task. Objects
+     * that are passed to both tasks with the same type are passed once.
+     *
+     * @return the index of each argument of the task within the arguments of
+     *     the fused task.
+     */
+    private static int[] addArguments(Method method, Object[] taskArguments, List<Object> arguments, List<Class<?>> parameterTypes) {
+        Class<?>[] taskParameterTypes = method.getParameterTypes();
+        int[] indexes = new int[taskArguments.length];
+        for (int i = 0; i < taskArguments.length; i++) {
+            indexes[i] = -1;
+            if (!(taskArguments[i] instanceof Number)) {
+                for (int j = 0; j < arguments.size() && indexes[i] < 0; j++) {
+                    if (arguments.get(j) == taskArguments[i] && parameterTypes.get(j) == taskParameterTypes[i]) {
+                        indexes[i] = j;
+                    }
+                }
+            }
+            if (indexes[i] < 0) {
+                indexes[i] = arguments.size();
+                arguments.add(taskArguments[i]);
+                parameterTypes.add(taskParameterTypes[i]);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Finds the intermediate objects of two tasks: objects that the producer only
+     * writes and the consumer only reads, that are not transferred between the
+     * host and the device, and that no other task of the task-graph accesses.
+     * No one observes them after the fused task, so the producer can forward
+     * their values to the consumer instead of storing them to memory.
+     *
+     * @return the index of each intermediate object within the arguments of the
+     *     fused task.
+     */
+    private static int[] getForwardedParameters(Candidate producer, Candidate consumer, List<Object> arguments, List<SchedulableTask> tasks, Set<Object> transferredObjects) {
+        List<Integer> forwardedParameters = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++) {
+            Object argument = arguments.get(i);
+            ObjectAccesses producerAccesses = producer.shape().accesses().get(argument);
+            ObjectAccesses consumerAccesses = consumer.shape().accesses().get(argument);
+            if (producerAccesses == null || consumerAccesses == null || !producerAccesses.write || producerAccesses.read || consumerAccesses.write || !consumerAccesses.read) {
+                continue;
+            }
+            if (!transferredObjects.contains(argument) && countParameters(argument, arguments) == 1 && !isAccessedByOtherTasks(argument, tasks, producer.first(), consumer.last())) {
+                forwardedParameters.add(i);
+            }
+        }
+        return forwardedParameters.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int countParameters(Object object, List<Object> arguments) {
+        int count = 0;
+        for (Object argument : arguments) {
+            if (argument == object) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isAccessedByOtherTasks(Object object, List<SchedulableTask> tasks, int first, int last) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i >= first && i <= last) {
+                continue;
+            }
+            for (Object argument : tasks.get(i).getArguments()) {
+                if (argument == object) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static TaskShape sketchFusedTask(Method method, Object[] arguments, int driverIndex, int deviceIndex) {
+        Providers providers = TornadoCoreRuntime.getTornadoRuntime().getDriver(driverIndex).getProviders();
+        TornadoSuitesProvider suites = TornadoCoreRuntime.getTornadoRuntime().getDriver(driverIndex).getSuitesProvider();
+        try {
+            ResolvedJavaMethod resolvedMethod = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(method);
+            new SketchRequest(resolvedMethod, providers, suites.getGraphBuilderSuite(), suites.getSketchTier(), driverIndex, deviceIndex).run();
+            StructuredGraph graph = (StructuredGraph) TornadoSketcher.lookup(resolvedMethod, driverIndex, deviceIndex).getGraph();
+            if (graph.getInvokes().iterator().hasNext()) {
+                return null;
+            }
+            return analyse(graph, arguments);
+        } catch (RuntimeException | TornadoInternalError e) {
+            Tornado.debug("Task %s cannot be sketched: %s", method.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean hasDependency(TaskShape producer, TaskShape consumer) {
+        for (Map.Entry<Object, ObjectAccesses> entry : producer.accesses().entrySet()) {
+            ObjectAccesses consumerAccesses = consumer.accesses().get(entry.getKey());
+            if (entry.getValue().write && consumerAccesses != null && consumerAccesses.read) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLegal(TaskShape producer, TaskShape consumer) {
+        for (Map.Entry<Object, ObjectAccesses> entry : producer.accesses().entrySet()) {
+            ObjectAccesses producerAccesses = entry.getValue();
+            ObjectAccesses consumerAccesses = consumer.accesses().get(entry.getKey());
+            if (consumerAccesses == null) {
+                continue;
+            }
+            if (producerAccesses.opaque || consumerAccesses.opaque) {
+                return false;
+            }
+            if (!producerAccesses.write && !consumerAccesses.write) {
+                continue;
+            }
+            Set<String> indexes = new HashSet<>(producerAccesses.indexes);
+            indexes.addAll(consumerAccesses.indexes);
+            if (indexes.size() != 1) {
+                return false;
+            }
+            String index = indexes.iterator().next();
+            for (int dimension : producer.domain().keySet()) {
+                if (!index.contains(STR."iv\{dimension}")) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static ValueNode skipProxies(ValueNode node) {
+        ValueNode value = node;
+        while (value instanceof PiNode || value instanceof ValueProxyNode) {
+            value = (value instanceof PiNode piNode) ? piNode.object() : ((ValueProxyNode) value).value();
+        }
+        return value;
+    }
+
+    private static Object getArgument(ValueNode node, Object[] arguments) {
+        if (skipProxies(node) instanceof ParameterNode parameter && parameter.index() < arguments.length) {
+            return arguments[parameter.index()];
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates an integer value of the graph with the arguments of the task.
+     *
+     * @return the value, or null if it cannot be evaluated.
+     */
+    private static Long evaluate(ValueNode node, Object[] arguments) {
+        ValueNode value = skipProxies(node);
+        if (value instanceof ConstantNode constant && constant.getStackKind().isNumericInteger()) {
+            return constant.asJavaConstant().asLong();
+        } else if (value instanceof ParameterNode parameter && parameter.getStackKind().isNumericInteger()) {
+            return (getArgument(parameter, arguments) instanceof Number number) ? number.longValue() : null;
+        } else if (value instanceof ArrayLengthNode arrayLength) {
+            Object array = getArgument(arrayLength.array(), arguments);
+            return (array != null && array.getClass().isArray()) ? (long) Array.getLength(array) : null;
+        } else if (value instanceof LoadFieldNode loadField && loadField.field().getName().equals("numberOfElements")) {
+            return (getArgument(loadField.object(), arguments) instanceof TornadoNativeArray nativeArray) ? nativeArray.getSizeAsLong() : null;
+        } else if (value instanceof IntegerConvertNode<?> convert) {
+            // The size of the native arrays is narrowed to an int by getSize()
+            Long input = evaluate(convert.getValue(), arguments);
+            return (input != null && convert.getResultBits() == Integer.SIZE) ? Long.valueOf((int) input.longValue()) : input;
+        } else if (value instanceof AddNode || value instanceof SubNode || value instanceof MulNode) {
+            BinaryNode binary = (BinaryNode) value;
+            Long x = evaluate(binary.getX(), arguments);
+            Long y = evaluate(binary.getY(), arguments);
+            if (x == null || y == null) {
+                return null;
+            }
+            if (value instanceof AddNode) {
+                return x + y;
+            } else if (value instanceof SubNode) {
+                return x - y;
+            }
+            return x * y;
+        }
+        return null;
+    }
+
+    /**
+     * Builds a canonical form of an index expression. The parallel induction
+     * variables are named after the dimension of their loop, so the same index
+     * has the same form in the producer and in the consumer.
+     *
+     * @return the canonical form, or null if the index cannot be analysed.
+     */
+    private static String canonicalIndex(ValueNode node, Object[] arguments) {
+        ValueNode value = skipProxies(node);
+        if (value instanceof ValuePhiNode phi) {
+            ParallelOffsetNode offset = phi.inputs().filter(ParallelOffsetNode.class).first();
+            return (offset != null) ? STR."iv\{offset.index()}" : null;
+        }
+        Long constant = evaluate(value, arguments);
+        if (constant != null) {
+            return Long.toString(constant);
+        }
+        if (value instanceof AddNode || value instanceof SubNode || value instanceof MulNode || value instanceof LeftShiftNode) {
+            BinaryNode binary = (BinaryNode) value;
+            String x = canonicalIndex(binary.getX(), arguments);
+            String y = canonicalIndex(binary.getY(), arguments);
+            return (x != null && y != null) ? STR."\{value.getClass().getSimpleName()}(\{x},\{y})" : null;
+        } else if (value instanceof IntegerConvertNode<?> convert) {
+            String x = canonicalIndex(convert.getValue(), arguments);
+            return (x != null) ? STR."\{value.getClass().getSimpleName()}\{convert.getResultBits()}(\{x})" : null;
+        }
+        return null;
+    }
+
+    private static TaskShape analyse(StructuredGraph graph, Object[] arguments) {
+        TreeMap<Integer, List<Long>> domain = new TreeMap<>();
+        int numRanges = 0;
+        for (ParallelRangeNode range : graph.getNodes().filter(ParallelRangeNode.class)) {
+            Long offset = evaluate(range.offset().value(), arguments);
+            Long stride = evaluate(range.stride().value(), arguments);
+            Long bound = evaluate(range.value(), arguments);
+            if (offset == null || stride == null || bound == null) {
+                return null;
+            }
+            List<Long> dimension = List.of(offset, stride, bound);
+            List<Long> previous = domain.putIfAbsent(range.index(), dimension);
+            if (previous != null && !previous.equals(dimension)) {
+                return null;
+            }
+            numRanges++;
+        }
+        if (domain.isEmpty() || domain.firstKey() != 0 || domain.lastKey() != domain.size() - 1) {
+            return null;
+        }
+
+        Map<Object, ObjectAccesses> accesses = new IdentityHashMap<>();
+        for (ParameterNode parameter : graph.getNodes().filter(ParameterNode.class)) {
+            Object argument = getArgument(parameter, arguments);
+            if (argument == null || argument instanceof Number) {
+                continue;
+            }
+            addAccesses(parameter, arguments, accesses.computeIfAbsent(argument, object -> new ObjectAccesses()), new HashSet<>());
+        }
+        return new TaskShape(domain, numRanges, accesses);
+    }
+
+    private static void addAccesses(ValueNode node, Object[] arguments, ObjectAccesses accesses, Set<Node> visited) {
+        if (!visited.add(node)) {
+            return;
+        }
+        for (Node usage : node.usages()) {
+            if (usage instanceof VirtualState || usage instanceof ArrayLengthNode || usage instanceof IsNullNode) {
+                continue;
+            }
+            if (usage instanceof PiNode || usage instanceof ValueProxyNode) {
+                addAccesses((ValueNode) usage, arguments, accesses, visited);
+            } else if (usage instanceof LoadFieldNode loadField && loadField.object() == node) {
+                if (loadField.field().getName().equals("segment")) {
+                    addAccesses(loadField, arguments, accesses, visited);
+                } else if (!loadField.field().getJavaKind().isPrimitive()) {
+                    accesses.opaque = true;
+                }
+            } else if (usage instanceof OffsetAddressNode address && address.getBase() == node) {
+                String index = canonicalIndex(address.getOffset(), arguments);
+                for (Node access : address.usages()) {
+                    if (access instanceof AbstractWriteNode) {
+                        accesses.addWrite(index);
+                    } else if (access instanceof FixedAccessNode) {
+                        accesses.addRead(index);
+                    } else {
+                        accesses.opaque = true;
+                    }
+                }
+            } else if (usage instanceof LoadIndexedNode loadIndexed && loadIndexed.array() == node) {
+                if (loadIndexed.elementKind() == JavaKind.Object) {
+                    accesses.opaque = true;
+                } else {
+                    accesses.addRead(canonicalIndex(loadIndexed.index(), arguments));
+                }
+            } else if (usage instanceof StoreIndexedNode storeIndexed && storeIndexed.array() == node && storeIndexed.value() != node) {
+                accesses.addWrite(canonicalIndex(storeIndexed.index(), arguments));
+            } else {
+                // Any other use (e.g., atomics or escaping references) cannot be analysed
+                accesses.opaque = true;
+            }
+        }
+    }
+}
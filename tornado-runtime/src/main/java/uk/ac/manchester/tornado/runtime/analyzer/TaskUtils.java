@@ -39,10 +39,15 @@ import jdk.vm.ci.meta.ConstantPool;
 import jdk.vm.ci.meta.JavaMethod;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.api.common.PrebuiltTaskPackage;
+import uk.ac.manchester.tornado.api.common.TaskPackage;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task1;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task10;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task11;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task12;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task13;
+import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task14;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task15;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task2;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task3;
@@ -53,6 +58,7 @@ import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task7;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task8;
 import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task9;
 import uk.ac.manchester.tornado.api.exceptions.TornadoInternalError;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.domain.DomainTree;
@@ -323,6 +329,41 @@ public class TaskUtils {
         return prebuiltTask;
     }
 
+    /**
+     * Builds the package of a task from its function and its arguments.
+     *
+     * @param id
+     *     Id of the task.
+     * @param code
+     *     Function of the task, which implements the
+     *     {@link TornadoFunctions} interface with as many parameters as
+     *     arguments.
+     * @param a
+     *     Arguments of the task.
+     * @return {@link TaskPackage}
+     */
+    public static TaskPackage createPackage(String id, Object code, Object[] a) {
+        return switch (a.length) {
+            case 0 -> TaskPackage.createPackage(id, (Task) code);
+            case 1 -> TaskPackage.createPackage(id, (Task1) code, a[0]);
+            case 2 -> TaskPackage.createPackage(id, (Task2) code, a[0], a[1]);
+            case 3 -> TaskPackage.createPackage(id, (Task3) code, a[0], a[1], a[2]);
+            case 4 -> TaskPackage.createPackage(id, (Task4) code, a[0], a[1], a[2], a[3]);
+            case 5 -> TaskPackage.createPackage(id, (Task5) code, a[0], a[1], a[2], a[3], a[4]);
+            case 6 -> TaskPackage.createPackage(id, (Task6) code, a[0], a[1], a[2], a[3], a[4], a[5]);
+            case 7 -> TaskPackage.createPackage(id, (Task7) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6]);
+            case 8 -> TaskPackage.createPackage(id, (Task8) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7]);
+            case 9 -> TaskPackage.createPackage(id, (Task9) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8]);
+            case 10 -> TaskPackage.createPackage(id, (Task10) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9]);
+            case 11 -> TaskPackage.createPackage(id, (Task11) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9], a[10]);
+            case 12 -> TaskPackage.createPackage(id, (Task12) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9], a[10], a[11]);
+            case 13 -> TaskPackage.createPackage(id, (Task13) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9], a[10], a[11], a[12]);
+            case 14 -> TaskPackage.createPackage(id, (Task14) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9], a[10], a[11], a[12], a[13]);
+            case 15 -> TaskPackage.createPackage(id, (Task15) code, a[0], a[1], a[2], a[3], a[4], a[5], a[6], a[7], a[8], a[9], a[10], a[11], a[12], a[13], a[14]);
+            default -> throw new TornadoRuntimeException(STR."[ERROR] Unexpected number of parameters for task \{id}: \{a.length}");
+        };
+    }
+
     private static CompilableTask createTask(ScheduleMetaData meta, String id, Method method, Object code, boolean extractCVs, Object... args) {
         final int numArgs;
         final Object[] cvs;
@@ -0,0 +1,285 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.codecache;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.info;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * A deployable set of kernels compiled ahead of time, e.g., on a CI machine
+ * with virtual devices (see {@link KernelBundleCompiler}). At runtime, a task
+ * found in the bundle for its backend and device is installed from the bundle
+ * instead of invoking the Graal compiler.
+ *
+ * <p>
+ * Layout:
+ * </p>
+ *
+ * <pre>
+ * {bundle}/bundle.properties                       layout version
+ * {bundle}/{backend}/{device}/{taskId}.code        OpenCL C, PTX or SPIR-V
+ * {bundle}/{backend}/{device}/{taskId}.properties  entry point, signature,
+ *                                                  accesses, argument types,
+ *                                                  parallel domain
+ * </pre>
+ *
+ * <p>
+ * Entries are only used when the task matches the one that was compiled: same
+ * bytecode, same argument types and same specialised values (see
+ * {@link KernelCacheKey#forBundle}). Otherwise, the task is JIT compiled as
+ * usual.
+ * </p>
+ */
+public final class KernelBundle {
+
+    public static final int LAYOUT_VERSION = 1;
+
+    private static final String INDEX_FILE = "bundle.properties";
+    private static final String LAYOUT = "layout";
+    private static final String CODE_SUFFIX = ".code";
+    private static final String PROPERTIES_SUFFIX = ".properties";
+
+    private static KernelBundle input;
+    private static KernelBundle output;
+
+    private final Path root;
+    private final ConcurrentHashMap<String, KernelCacheEntry> entries;
+
+    private KernelBundle(Path root) {
+        this.root = root;
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    public static boolean isLoadEnabled() {
+        return TornadoOptions.KERNEL_BUNDLE != null;
+    }
+
+    public static boolean isRecordEnabled() {
+        return TornadoOptions.KERNEL_BUNDLE_OUTPUT != null;
+    }
+
+    /**
+     * @return the bundle set with {@code -Dtornado.kernel.bundle}, loaded on
+     *     first use.
+     */
+    public static synchronized KernelBundle getInput() {
+        if (input == null) {
+            input = load(Paths.get(TornadoOptions.KERNEL_BUNDLE));
+        }
+        return input;
+    }
+
+    private static synchronized KernelBundle getOutput() {
+        if (output == null) {
+            output = create(Paths.get(TornadoOptions.KERNEL_BUNDLE_OUTPUT));
+        }
+        return output;
+    }
+
+    /**
+     * Loads all the entries of a bundle.
+     */
+    public static KernelBundle load(Path root) {
+        KernelBundle bundle = new KernelBundle(root);
+        Properties index = readProperties(root.resolve(INDEX_FILE));
+        if (index == null || !Integer.toString(LAYOUT_VERSION).equals(index.getProperty(LAYOUT))) {
+            warn("[Kernel Bundle] %s is not a kernel bundle with layout version %d", root, LAYOUT_VERSION);
+            return bundle;
+        }
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            List<Path> propertyFiles = files.filter(file -> root.relativize(file).getNameCount() == 3 && file.getFileName().toString().endsWith(PROPERTIES_SUFFIX)).toList();
+            for (Path file : propertyFiles) {
+                String fileName = file.getFileName().toString();
+                String taskId = fileName.substring(0, fileName.length() - PROPERTIES_SUFFIX.length());
+                Path code = file.resolveSibling(taskId + CODE_SUFFIX);
+                Properties properties = readProperties(file);
+                if (properties == null || !Files.exists(code)) {
+                    continue;
+                }
+                Path relative = root.relativize(file);
+                String key = key(relative.getName(0).toString(), relative.getName(1).toString(), taskId);
+                bundle.entries.put(key, new KernelCacheEntry(Files.readAllBytes(code), null, properties));
+            }
+        } catch (IOException e) {
+            throw new TornadoRuntimeException(e);
+        }
+        info("[Kernel Bundle] loaded %d kernels from %s", bundle.entries.size(), root);
+        return bundle;
+    }
+
+    /**
+     * Creates (or reuses) a bundle directory for writing.
+     */
+    public static KernelBundle create(Path root) {
+        KernelBundle bundle = new KernelBundle(root);
+        Properties index = new Properties();
+        index.setProperty(LAYOUT, Integer.toString(LAYOUT_VERSION));
+        try {
+            Files.createDirectories(root);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            index.store(out, "TornadoVM kernel bundle");
+            writeAtomically(root.resolve(INDEX_FILE), out.toByteArray());
+        } catch (IOException e) {
+            throw new TornadoRuntimeException(e);
+        }
+        return bundle;
+    }
+
+    /**
+     * Looks up the entry of a task in the bundle set for this run.
+     *
+     * @return the entry, or null if there is no bundle, the task is not in the
+     *     bundle, the task uses atomics, or the task does not match the one that
+     *     was compiled.
+     */
+    public static KernelCacheEntry find(String backend, String deviceName, CompilableTask task, ResolvedJavaMethod method) {
+        if (!isLoadEnabled() || usesAtomics(task)) {
+            return null;
+        }
+        KernelCacheEntry entry = getInput().get(backend, deviceName, task.getId());
+        if (entry == null) {
+            return null;
+        }
+        String signature = KernelCacheKey.forBundle(task, method);
+        if (!entry.matchesArguments(task.getArguments()) || signature == null || !signature.equals(entry.getSignature())) {
+            warn("[Kernel Bundle] task %s does not match the bundled kernel for %s. It will be JIT compiled", task.getId(), deviceName);
+            return null;
+        }
+        debug("[Kernel Bundle] using bundled kernel for %s on %s", task.getId(), deviceName);
+        return entry;
+    }
+
+    /**
+     * Records a compiled task in the output bundle, if one has been set for this
+     * run. Tasks that use atomics are not recorded.
+     */
+    public static void record(String backend, String deviceName, CompilableTask task, ResolvedJavaMethod method, String entryPoint, byte[] code) {
+        if (!isRecordEnabled() || usesAtomics(task)) {
+            return;
+        }
+        String signature = KernelCacheKey.forBundle(task, method);
+        if (signature == null) {
+            warn("[Kernel Bundle] task %s cannot be bundled", task.getId());
+            return;
+        }
+        TaskMetaData meta = task.meta();
+        KernelCacheEntry entry = new KernelCacheEntry(entryPoint, code, meta);
+        entry.setSignature(signature);
+        entry.setArgumentLayout(meta.getArgumentsAccess(), task.getArguments());
+        getOutput().put(backend, deviceName, task.getId(), entry);
+    }
+
+    /**
+     * Checks whether a task needs the atomics buffer that the driver sets up when
+     * it compiles the task. A bundled kernel would skip that set up, so these
+     * tasks are always JIT compiled.
+     */
+    public static boolean usesAtomics(CompilableTask task) {
+        // Single-kernel reductions reserve their accumulators in the atomics buffer
+        if (task.meta().isSingleKernelReduction()) {
+            return true;
+        }
+        for (Object arg : task.getArguments()) {
+            if (arg instanceof AtomicInteger) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public KernelCacheEntry get(String backend, String deviceName, String taskId) {
+        return entries.get(key(backend, sanitise(deviceName), taskId));
+    }
+
+    public void put(String backend, String deviceName, String taskId, KernelCacheEntry entry) {
+        Path directory = root.resolve(backend).resolve(sanitise(deviceName));
+        try {
+            Files.createDirectories(directory);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entry.getProperties().store(out, null);
+            writeAtomically(directory.resolve(taskId + CODE_SUFFIX), entry.getCode());
+            writeAtomically(directory.resolve(taskId + PROPERTIES_SUFFIX), out.toByteArray());
+        } catch (IOException e) {
+            throw new TornadoRuntimeException(e);
+        }
+        entries.put(key(backend, sanitise(deviceName), taskId), entry);
+        info("[Kernel Bundle] recorded %s for %s", taskId, deviceName);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static String key(String backend, String device, String taskId) {
+        return backend + "/" + device + "/" + taskId;
+    }
+
+    private static String sanitise(String deviceName) {
+        return deviceName.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static Properties readProperties(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            warn("[Kernel Bundle] unable to read %s: %s", file, e.getMessage());
+            return null;
+        }
+        return properties;
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", target.getFileName().toString());
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.codecache;
+
+import java.util.function.Supplier;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Ahead-of-time compiler for {@link KernelBundle}s. Each argument is the name
+ * of a class with a public no-argument constructor that implements
+ * {@link Supplier}, returning a {@link TaskGraph} or an
+ * {@link ImmutableTaskGraph}. All the tasks of the graphs are compiled for the
+ * device of this run (usually a virtual device described by
+ * {@code -Dtornado.device.desc}) and recorded in the bundle set with
+ * {@code -Dtornado.kernel.bundle.output}.
+ *
+ * <p>
+ * The arguments of the tasks must have the same types and the same
+ * specialised values (sizes and scalars) as the ones used at runtime.
+ * </p>
+ *
+ * <p>
+ * How to run?
+ * </p>
+ *
+ * <code>
+ * tornado-bundle --descriptors gpu.json --output bundle -cp app.jar com.example.MyGraphFactory
+ * </code>
+ */
+public final class KernelBundleCompiler {
+
+    private KernelBundleCompiler() {
+    }
+
+    public static void main(String[] args) {
+        if (!KernelBundle.isRecordEnabled()) {
+            throw new TornadoRuntimeException("[Kernel Bundle] the output bundle must be set with -Dtornado.kernel.bundle.output=<dir>");
+        }
+        if (args.length == 0) {
+            throw new TornadoRuntimeException("[Kernel Bundle] usage: KernelBundleCompiler <factory class> [<factory class> ...]");
+        }
+        for (String factoryName : args) {
+            ImmutableTaskGraph immutableTaskGraph = createTaskGraph(factoryName);
+            TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+            executionPlan.withWarmUp();
+        }
+        System.out.println("Kernel bundle written to " + TornadoOptions.KERNEL_BUNDLE_OUTPUT);
+    }
+
+    private static ImmutableTaskGraph createTaskGraph(String factoryName) {
+        Object taskGraph;
+        try {
+            Class<?> klass = Class.forName(factoryName, true, Thread.currentThread().getContextClassLoader());
+            Supplier<?> factory = (Supplier<?>) klass.getConstructor().newInstance();
+            taskGraph = factory.get();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new TornadoRuntimeException("[Kernel Bundle] " + factoryName + " is not a Supplier of task-graphs: " + e.getMessage());
+        }
+        if (taskGraph instanceof TaskGraph graph) {
+            return graph.snapshot();
+        } else if (taskGraph instanceof ImmutableTaskGraph immutableTaskGraph) {
+            return immutableTaskGraph;
+        }
+        throw new TornadoRuntimeException("[Kernel Bundle] " + factoryName + " did not return a TaskGraph or an ImmutableTaskGraph");
+    }
+}
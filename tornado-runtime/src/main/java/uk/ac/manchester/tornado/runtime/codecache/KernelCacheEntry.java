@@ -0,0 +1,165 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.codecache;
+
+import java.util.Properties;
+import java.util.StringJoiner;
+
+import uk.ac.manchester.tornado.api.common.Access;
+import uk.ac.manchester.tornado.runtime.domain.Domain;
+import uk.ac.manchester.tornado.runtime.domain.DomainTree;
+import uk.ac.manchester.tornado.runtime.domain.IntDomain;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * Contents of an entry of the {@link PersistentKernelCache} or of a
+ * {@link KernelBundle}: the generated code (OpenCL C, PTX or SPIR-V), the
+ * optional device binary, and the meta-data that the compiler would otherwise
+ * have set on the task (the parallel domain). Bundle entries also record the
+ * signature and the argument layout of the task.
+ */
+public class KernelCacheEntry {
+
+    private static final String ENTRY_POINT = "entryPoint";
+    private static final String DOMAIN = "domain";
+    private static final String SIGNATURE = "signature";
+    private static final String ACCESSES = "accesses";
+    private static final String ARGUMENTS = "arguments";
+
+    private final byte[] code;
+    private final byte[] binary;
+    private final Properties properties;
+
+    KernelCacheEntry(byte[] code, byte[] binary, Properties properties) {
+        this.code = code;
+        this.binary = binary;
+        this.properties = properties;
+    }
+
+    public KernelCacheEntry(String entryPoint, byte[] code, TaskMetaData meta) {
+        this(code, null, new Properties());
+        properties.setProperty(ENTRY_POINT, entryPoint);
+        if (meta.getDomain() != null && meta.getDomain().getDepth() > 0) {
+            properties.setProperty(DOMAIN, encodeDomain(meta.getDomain()));
+        }
+    }
+
+    public void setSignature(String signature) {
+        properties.setProperty(SIGNATURE, signature);
+    }
+
+    public String getSignature() {
+        return properties.getProperty(SIGNATURE);
+    }
+
+    /**
+     * Records the access mode and the type of each argument, so the runtime can
+     * check that a task matches the entry before using it.
+     */
+    public void setArgumentLayout(Access[] accesses, Object[] args) {
+        StringJoiner accessJoiner = new StringJoiner(",");
+        for (Access access : accesses) {
+            accessJoiner.add(access.name());
+        }
+        properties.setProperty(ACCESSES, accessJoiner.toString());
+        properties.setProperty(ARGUMENTS, encodeArgumentTypes(args));
+    }
+
+    public boolean matchesArguments(Object[] args) {
+        return encodeArgumentTypes(args).equals(properties.getProperty(ARGUMENTS));
+    }
+
+    public Access[] getAccesses() {
+        String value = properties.getProperty(ACCESSES);
+        if (value == null || value.isEmpty()) {
+            return new Access[0];
+        }
+        String[] names = value.split(",");
+        Access[] accesses = new Access[names.length];
+        for (int i = 0; i < names.length; i++) {
+            accesses[i] = Access.valueOf(names[i]);
+        }
+        return accesses;
+    }
+
+    private static String encodeArgumentTypes(Object[] args) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (Object arg : args) {
+            joiner.add(arg == null ? "null" : arg.getClass().getName());
+        }
+        return joiner.toString();
+    }
+
+    public String getEntryPoint() {
+        return properties.getProperty(ENTRY_POINT);
+    }
+
+    public byte[] getCode() {
+        return code;
+    }
+
+    public byte[] getBinary() {
+        return binary;
+    }
+
+    public boolean hasBinary() {
+        return binary != null && binary.length > 0;
+    }
+
+    Properties getProperties() {
+        return properties;
+    }
+
+    /**
+     * Restores on the task the meta-data that compiling the kernel would have
+     * produced.
+     */
+    public void applyTo(TaskMetaData meta) {
+        String domain = properties.getProperty(DOMAIN);
+        if (domain != null && meta.getDomain() == null) {
+            meta.setDomain(decodeDomain(domain));
+        }
+    }
+
+    private static String encodeDomain(DomainTree tree) {
+        StringJoiner joiner = new StringJoiner(";");
+        for (int i = 0; i < tree.getDepth(); i++) {
+            Domain domain = tree.get(i);
+            if (domain instanceof IntDomain intDomain) {
+                joiner.add(intDomain.getOffset() + ":" + intDomain.getStep() + ":" + intDomain.cardinality());
+            }
+        }
+        return joiner.toString();
+    }
+
+    private static DomainTree decodeDomain(String value) {
+        String[] domains = value.split(";");
+        DomainTree tree = new DomainTree(domains.length);
+        for (int i = 0; i < domains.length; i++) {
+            String[] fields = domains[i].split(":");
+            tree.set(i, new IntDomain(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2])));
+        }
+        return tree;
+    }
+}
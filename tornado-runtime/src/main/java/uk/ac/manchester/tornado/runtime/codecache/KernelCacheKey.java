@@ -0,0 +1,403 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.codecache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.bytecode.BytecodeStream;
+import org.graalvm.compiler.bytecode.Bytecodes;
+
+import jdk.vm.ci.meta.Assumptions.AssumptionResult;
+import jdk.vm.ci.meta.JavaMethod;
+import jdk.vm.ci.meta.MetaAccessProvider;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+import jdk.vm.ci.meta.ResolvedJavaType;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
+import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
+
+/**
+ * Builds the content hash used to look up kernels in the
+ * {@link PersistentKernelCache}. The key covers every input that can change the
+ * generated code: the bytecode of the task method and of all the methods it can
+ * reach (inlined or not), the values that the compiler specialises into the
+ * kernel (boxed scalars and primitive fields of the arguments), the device and
+ * driver, the compiler flags, the TornadoVM options and the TornadoVM build
+ * itself.
+ *
+ * <p>
+ * Some tasks cannot be keyed safely (e.g., arguments whose fields cannot be
+ * inspected). In that case {@link #isCacheable()} returns false and the task
+ * is always compiled.
+ * </p>
+ */
+public final class KernelCacheKey {
+
+    private static final String PROPERTY_PREFIX = "tornado.";
+    private static final String KERNEL_PROPERTY_PREFIX = "tornado.kernel.";
+    private static final int MAX_FIELD_DEPTH = 4;
+
+    /**
+     * Hash of the content of each jar (or class directory) of the build, computed
+     * once per run.
+     */
+    private static final Map<Path, String> BUILD_HASHES = new ConcurrentHashMap<>();
+
+    private final MessageDigest digest;
+    private final Set<Class<?>> argumentClasses = new LinkedHashSet<>();
+    private boolean cacheable;
+
+    public KernelCacheKey() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new TornadoRuntimeException(e);
+        }
+        cacheable = true;
+        add("layout", Integer.toString(PersistentKernelCache.LAYOUT_VERSION));
+    }
+
+    /**
+     * Builds the key of a compilable task for a given device.
+     *
+     * @param task
+     *     Task to be compiled.
+     * @param method
+     *     Resolved method of the task.
+     * @param deviceIdentity
+     *     String that identifies the device and the driver version.
+     * @param backendClass
+     *     A class of the backend that generates the code. The build of its
+     *     module is part of the key.
+     * @return the key, or null if the task cannot be cached.
+     */
+    public static String forTask(CompilableTask task, ResolvedJavaMethod method, String deviceIdentity, Class<?> backendClass) {
+        KernelCacheKey key = ofTaskCode(task, method) //
+                .addOptions() //
+                .add("device", deviceIdentity) //
+                .addBuild(KernelCacheKey.class) //
+                .addBuild(backendClass);
+        return key.isCacheable() ? key.build() : null;
+    }
+
+    /**
+     * Builds the signature of a task stored in a {@link KernelBundle}. Unlike
+     * {@link #forTask}, it does not cover the device, the options or the build,
+     * since bundles are produced ahead of time on a different machine.
+     *
+     * @return the signature, or null if the task cannot be keyed.
+     */
+    public static String forBundle(CompilableTask task, ResolvedJavaMethod method) {
+        KernelCacheKey key = ofTaskCode(task, method);
+        return key.isCacheable() ? key.build() : null;
+    }
+
+    private static KernelCacheKey ofTaskCode(CompilableTask task, ResolvedJavaMethod method) {
+        final TaskMetaData meta = task.meta();
+        // The classes of the arguments are needed to find the implementations of virtual calls
+        return new KernelCacheKey() //
+                .addArguments(task.getArguments()) //
+                .addMethod(method) //
+                .add("flags", meta.getCompilerFlags()) //
+                .add("threads", Long.toString(meta.getNumThreads())) //
+                .add("batch", Long.toString(task.getBatchThreads())) //
+                .add("grid", Boolean.toString(meta.isGridSchedulerEnabled()));
+    }
+
+    public KernelCacheKey add(String label, String value) {
+        digest.update(label.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '=');
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        return this;
+    }
+
+    private KernelCacheKey add(String label, byte[] value) {
+        add(label, Integer.toString(value.length));
+        digest.update(value);
+        return this;
+    }
+
+    /**
+     * Adds the bytecode of the method and of every method transitively invoked
+     * from it. JDK methods are identified by their signature only, since the JDK
+     * version is already part of the key.
+     *
+     * <p>
+     * For virtual and interface calls, the methods that override the callee are
+     * also added: the ones of the classes of the arguments added before with
+     * {@link #addArguments}, to which the compiler devirtualises the calls, and
+     * the unique implementation of the callee in the class hierarchy. If
+     * neither of them identifies the code that runs, the task is not cacheable.
+     * </p>
+     */
+    public KernelCacheKey addMethod(ResolvedJavaMethod root) {
+        final List<ResolvedJavaType> receiverTypes = getArgumentTypes();
+        final Set<String> visited = new HashSet<>();
+        final Deque<ResolvedJavaMethod> workList = new ArrayDeque<>();
+        workList.push(root);
+        while (!workList.isEmpty()) {
+            ResolvedJavaMethod method = workList.pop();
+            String name = method.format("%H.%n(%P)%R");
+            if (!visited.add(name)) {
+                continue;
+            }
+            add("method", name);
+            byte[] code = method.getCode();
+            if (code == null || isJDKMethod(method)) {
+                continue;
+            }
+            add("code", code);
+            BytecodeStream stream = new BytecodeStream(code);
+            while (stream.currentBC() != Bytecodes.END) {
+                int opcode = stream.currentBC();
+                switch (opcode) {
+                    case Bytecodes.INVOKEVIRTUAL, Bytecodes.INVOKESPECIAL, Bytecodes.INVOKESTATIC, Bytecodes.INVOKEINTERFACE -> {
+                        JavaMethod callee = lookupCallee(method, stream.readCPI(), opcode);
+                        if (callee == null) {
+                            cacheable = false;
+                        } else if (callee instanceof ResolvedJavaMethod resolvedCallee) {
+                            workList.push(resolvedCallee);
+                            if (opcode == Bytecodes.INVOKEVIRTUAL || opcode == Bytecodes.INVOKEINTERFACE) {
+                                addOverridingMethods(resolvedCallee, receiverTypes, workList);
+                            }
+                        } else {
+                            add("unresolved", callee.format("%H.%n(%P)%R"));
+                        }
+                    }
+                    case Bytecodes.INVOKEDYNAMIC -> cacheable = false;
+                    default -> {
+                    }
+                }
+                stream.next();
+            }
+        }
+        return this;
+    }
+
+    private List<ResolvedJavaType> getArgumentTypes() {
+        if (argumentClasses.isEmpty()) {
+            return List.of();
+        }
+        MetaAccessProvider metaAccess = TornadoCoreRuntime.getTornadoRuntime().getMetaAccess();
+        return argumentClasses.stream().map(metaAccess::lookupJavaType).toList();
+    }
+
+    private void addOverridingMethods(ResolvedJavaMethod callee, List<ResolvedJavaType> receiverTypes, Deque<ResolvedJavaMethod> workList) {
+        if (callee.canBeStaticallyBound()) {
+            return;
+        }
+        ResolvedJavaType holder = callee.getDeclaringClass();
+        boolean resolved = false;
+        for (ResolvedJavaType receiverType : receiverTypes) {
+            if (holder.isAssignableFrom(receiverType)) {
+                ResolvedJavaMethod implementation = receiverType.resolveConcreteMethod(callee, receiverType);
+                if (implementation != null) {
+                    workList.push(implementation);
+                    resolved = true;
+                }
+            }
+        }
+        AssumptionResult<ResolvedJavaMethod> uniqueImplementation = holder.findUniqueConcreteMethod(callee);
+        if (uniqueImplementation != null) {
+            workList.push(uniqueImplementation.getResult());
+            resolved = true;
+        }
+        if (!resolved) {
+            // Any implementation loaded at run time may be called
+            cacheable = false;
+        }
+    }
+
+    /**
+     * Adds the values that task specialisation folds into the kernel: boxed
+     * scalars, array lengths and the primitive fields of the arguments (and of
+     * the objects reachable through their final fields).
+     */
+    public KernelCacheKey addArguments(Object[] args) {
+        if (args == null) {
+            return this;
+        }
+        for (Object arg : args) {
+            addValue(arg, 0);
+        }
+        return this;
+    }
+
+    private void addValue(Object value, int depth) {
+        if (value == null) {
+            add("arg", "null");
+        } else if (RuntimeUtilities.isBoxedPrimitiveClass(value.getClass())) {
+            add(value.getClass().getName(), value.toString());
+        } else if (value.getClass().isArray()) {
+            add(value.getClass().getName(), Integer.toString(Array.getLength(value)));
+        } else if (value.getClass().getName().startsWith("java.") || value.getClass().getName().startsWith("jdk.")) {
+            add("jdk", value.getClass().getName());
+        } else if (depth > MAX_FIELD_DEPTH) {
+            cacheable = false;
+        } else {
+            add("object", value.getClass().getName());
+            argumentClasses.add(value.getClass());
+            addFields(value, depth);
+        }
+    }
+
+    private void addFields(Object value, int depth) {
+        for (Class<?> klass = value.getClass(); klass != null && klass != Object.class; klass = klass.getSuperclass()) {
+            for (Field field : klass.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    if (field.getType().isPrimitive()) {
+                        add(field.getName(), String.valueOf(field.get(value)));
+                    } else if (Modifier.isFinal(field.getModifiers())) {
+                        addValue(field.get(value), depth + 1);
+                    }
+                } catch (RuntimeException | IllegalAccessException e) {
+                    cacheable = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds all the TornadoVM options set for this run, except the ones that
+     * configure the kernel cache and the kernel bundles.
+     */
+    public KernelCacheKey addOptions() {
+        TreeMap<String, String> options = new TreeMap<>();
+        System.getProperties().forEach((k, v) -> {
+            String name = k.toString();
+            if (name.startsWith(PROPERTY_PREFIX) && !name.startsWith(KERNEL_PROPERTY_PREFIX)) {
+                options.put(name, v.toString());
+            }
+        });
+        options.forEach(this::add);
+        add("java.vm.version", System.getProperty("java.vm.version"));
+        return this;
+    }
+
+    /**
+     * Adds the hash of the content of the jar (or class directory) that contains
+     * the given class, so a rebuild of TornadoVM invalidates previous entries,
+     * while the same build installed in another location, or copied, keeps them.
+     * If the content cannot be read, the task is not cacheable.
+     */
+    public KernelCacheKey addBuild(Class<?> klass) {
+        CodeSource source = klass.getProtectionDomain().getCodeSource();
+        if (source == null || source.getLocation() == null) {
+            add("build", klass.getModule().getName());
+            return this;
+        }
+        try {
+            Path path = Path.of(source.getLocation().toURI());
+            add("build", BUILD_HASHES.computeIfAbsent(path, KernelCacheKey::hashBuild));
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException | UncheckedIOException e) {
+            cacheable = false;
+        }
+        return this;
+    }
+
+    private static String hashBuild(Path path) {
+        try {
+            MessageDigest buildDigest = MessageDigest.getInstance("SHA-256");
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.walk(path)) {
+                    for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                        buildDigest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        buildDigest.update(Files.readAllBytes(file));
+                    }
+                }
+            } else {
+                try (InputStream inputStream = Files.newInputStream(path)) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = inputStream.read(buffer)) > 0) {
+                        buildDigest.update(buffer, 0, read);
+                    }
+                }
+            }
+            return HexFormat.of().formatHex(buildDigest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    private static JavaMethod lookupCallee(ResolvedJavaMethod method, int cpi, int opcode) {
+        try {
+            return method.getConstantPool().lookupMethod(cpi, opcode);
+        } catch (RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static boolean isJDKMethod(ResolvedJavaMethod method) {
+        String holder = method.getDeclaringClass().toJavaName();
+        return holder.startsWith("java.") || holder.startsWith("jdk.") || holder.startsWith("sun.");
+    }
+
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * @return the hexadecimal representation of the hash.
+     */
+    public String build() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
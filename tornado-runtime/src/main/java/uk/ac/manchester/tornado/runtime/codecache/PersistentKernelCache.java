@@ -0,0 +1,303 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.codecache;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Content-addressed on-disk cache of generated kernels, shared by all the
+ * backends and persistent across runs. Entries are indexed by the hash computed
+ * by {@link KernelCacheKey}.
+ *
+ * <p>
+ * Layout (one directory per entry, under a directory per layout version):
+ * </p>
+ *
+ * <pre>
+ * {cache.dir}/v1/{key}/kernel.code        OpenCL C, PTX or SPIR-V
+ * {cache.dir}/v1/{key}/kernel.bin         device binary (optional)
+ * {cache.dir}/v1/{key}/kernel.properties  entry point and task meta-data
+ * </pre>
+ *
+ * <p>
+ * Entries are written in a temporary directory and moved into place with an
+ * atomic rename, so concurrent processes never observe a partial entry. The
+ * modification time of an entry directory is updated on every hit and used to
+ * evict the least recently used entries when the cache grows over its maximum
+ * size.
+ * </p>
+ *
+ * <p>
+ * The size of the cache is computed from the directory once, and then updated
+ * with the size of each entry stored by this process. The directory is only
+ * scanned again when the size goes over the maximum, which also accounts for
+ * the entries stored or evicted by other processes.
+ * </p>
+ */
+public final class PersistentKernelCache {
+
+    public static final int LAYOUT_VERSION = 1;
+
+    private static final String CODE_FILE = "kernel.code";
+    private static final String BINARY_FILE = "kernel.bin";
+    private static final String PROPERTIES_FILE = "kernel.properties";
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    private static PersistentKernelCache instance;
+
+    private final Path root;
+    private final long maxSize;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    /**
+     * Size in bytes of the entries, or -1 until the directory is scanned.
+     */
+    private long totalSize;
+
+    public PersistentKernelCache(Path directory, long maxSize) {
+        this.root = directory.resolve("v" + LAYOUT_VERSION);
+        this.maxSize = maxSize;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.totalSize = -1;
+    }
+
+    public static boolean isEnabled() {
+        return TornadoOptions.PERSISTENT_KERNEL_CACHE;
+    }
+
+    public static synchronized PersistentKernelCache getInstance() {
+        if (instance == null) {
+            instance = new PersistentKernelCache(Paths.get(TornadoOptions.PERSISTENT_KERNEL_CACHE_DIR), TornadoOptions.PERSISTENT_KERNEL_CACHE_MAX_SIZE);
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up an entry and marks it as recently used.
+     *
+     * @param key
+     *     Hash of the kernel, as returned by {@link KernelCacheKey}.
+     * @return the entry, or null if the kernel is not in the cache.
+     */
+    public KernelCacheEntry lookup(String key) {
+        final Path entryDir = root.resolve(key);
+        try {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(entryDir.resolve(PROPERTIES_FILE))) {
+                properties.load(in);
+            }
+            byte[] code = Files.readAllBytes(entryDir.resolve(CODE_FILE));
+            Path binaryFile = entryDir.resolve(BINARY_FILE);
+            byte[] binary = Files.exists(binaryFile) ? Files.readAllBytes(binaryFile) : null;
+            Files.setLastModifiedTime(entryDir, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            debug("[Kernel Cache] hit %s (%s)", key, properties.getProperty("entryPoint"));
+            return new KernelCacheEntry(code, binary, properties);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            // An entry evicted while reading, or a corrupted one, is treated as a miss
+            warn("[Kernel Cache] unable to read entry %s: %s", key, e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores a new entry. If another thread or process has already stored the
+     * same key, the existing entry is kept.
+     */
+    public void store(String key, KernelCacheEntry entry) {
+        Path tempDir = null;
+        try {
+            Files.createDirectories(root);
+            tempDir = Files.createTempDirectory(root, TEMP_PREFIX + key);
+            Files.write(tempDir.resolve(CODE_FILE), entry.getCode());
+            if (entry.hasBinary()) {
+                Files.write(tempDir.resolve(BINARY_FILE), entry.getBinary());
+            }
+            try (OutputStream out = Files.newOutputStream(tempDir.resolve(PROPERTIES_FILE))) {
+                entry.getProperties().store(out, null);
+            }
+            Files.move(tempDir, root.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            tempDir = null;
+            addSize(sizeOf(root.resolve(key)));
+            debug("[Kernel Cache] stored %s (%s)", key, entry.getEntryPoint());
+        } catch (FileAlreadyExistsException e) {
+            debug("[Kernel Cache] entry %s already stored", key);
+        } catch (IOException e) {
+            if (Files.isDirectory(root.resolve(key))) {
+                // Some file systems report a non-empty target as a generic error
+                debug("[Kernel Cache] entry %s already stored", key);
+            } else {
+                warn("[Kernel Cache] unable to store entry %s: %s", key, e.getMessage());
+            }
+        } finally {
+            if (tempDir != null) {
+                deleteDirectory(tempDir);
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Adds the device binary to an existing entry. The binary is built by the
+     * driver after the code has been stored.
+     */
+    public void storeBinary(String key, byte[] binary) {
+        final Path entryDir = root.resolve(key);
+        if (binary == null || binary.length == 0 || !Files.isDirectory(entryDir)) {
+            return;
+        }
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(entryDir, TEMP_PREFIX, BINARY_FILE);
+            Files.write(tempFile, binary);
+            long previousSize = sizeOf(entryDir.resolve(BINARY_FILE));
+            Files.move(tempFile, entryDir.resolve(BINARY_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+            addSize(binary.length - previousSize);
+        } catch (AtomicMoveNotSupportedException e) {
+            warn("[Kernel Cache] atomic move not supported in %s", root);
+        } catch (IOException e) {
+            warn("[Kernel Cache] unable to store binary for %s: %s", key, e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // best effort
+                }
+            }
+        }
+        evict();
+    }
+
+    private synchronized void addSize(long size) {
+        if (totalSize >= 0) {
+            totalSize += size;
+        }
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits in its
+     * maximum size. The directory is only scanned the first time, or when the
+     * size of the cache goes over the maximum.
+     */
+    public synchronized void evict() {
+        if (totalSize >= 0 && totalSize <= maxSize) {
+            return;
+        }
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        List<Path> entries = new ArrayList<>();
+        long scannedSize = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, path -> !path.getFileName().toString().startsWith(TEMP_PREFIX))) {
+            for (Path entry : stream) {
+                entries.add(entry);
+                scannedSize += sizeOf(entry);
+            }
+        } catch (IOException e) {
+            warn("[Kernel Cache] unable to scan %s: %s", root, e.getMessage());
+            return;
+        }
+        if (scannedSize <= maxSize) {
+            this.totalSize = scannedSize;
+            return;
+        }
+        entries.sort(Comparator.comparingLong(PersistentKernelCache::lastUsed));
+        for (Path entry : entries) {
+            if (scannedSize <= maxSize) {
+                break;
+            }
+            long size = sizeOf(entry);
+            deleteDirectory(entry);
+            scannedSize -= size;
+            debug("[Kernel Cache] evicted %s", entry.getFileName());
+        }
+        this.totalSize = scannedSize;
+    }
+
+    private static long lastUsed(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long sizeOf(Path entry) {
+        try (Stream<Path> files = Files.walk(entry)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException | RuntimeException e) {
+            // Another process may be evicting the same entry
+        }
+    }
+
+    public Path getDirectory() {
+        return root;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -24,18 +24,9 @@
 package uk.ac.manchester.tornado.runtime.common;
 
 import java.lang.reflect.Array;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 
-import uk.ac.manchester.tornado.api.types.arrays.ByteArray;
-import uk.ac.manchester.tornado.api.types.arrays.CharArray;
-import uk.ac.manchester.tornado.api.types.arrays.DoubleArray;
-import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
-import uk.ac.manchester.tornado.api.types.arrays.IntArray;
-import uk.ac.manchester.tornado.api.types.arrays.LongArray;
-import uk.ac.manchester.tornado.api.types.arrays.ShortArray;
+import uk.ac.manchester.tornado.api.BatchPartition;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
 import uk.ac.manchester.tornado.runtime.common.enums.DataTypeSize;
@@ -45,9 +36,18 @@ import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
  * It presents the configuration for processing data in batches. This class
  * provides methods to compute chunk sizes based on the batch size and input
  * objects.
- */
-/**
+ *
+ * <p>
+ * The iteration space is split in items, and each batch (chunk) processes a
+ * contiguous range of items. An item covers {@code stride} elements of each
+ * partitioned array, so arrays with different element types are split at the
+ * same indexes. The arrays that are not partitioned are broadcast: they are
+ * copied in full before the first chunk and released after the last one.
+ * </p>
+ *
+ * <p>
  * How to test?
+ * </p>
  *
  * <p>
  * <code>
@@ -57,93 +57,186 @@ import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
  */
 public class BatchConfiguration {
 
+    private final long numItems;
+    private final long itemsPerChunk;
     private final int totalChunks;
-    private final int remainingChunkSize;
-    private final short numBytesType;
+    private final long remainingItems;
+    private final long[] bytesPerItem;
 
     /**
      * Constructs a BatchConfiguration object with the specified parameters.
      *
-     * @param totalChunks
-     *     The total number of chunks.
-     * @param remainingChunkSize
-     *     The size of the remaining chunk.
-     * @param numBytesType
-     *     The number of bytes for the data type.
+     * @param numItems
+     *     The total number of items of the iteration space.
+     * @param itemsPerChunk
+     *     The number of items processed by each chunk.
+     * @param bytesPerItem
+     *     The number of bytes of one item for each object of the execution
+     *     context, indexed by object index. A value of 0 means that the object
+     *     is broadcast.
      */
-    public BatchConfiguration(int totalChunks, int remainingChunkSize, short numBytesType) {
-        this.totalChunks = totalChunks;
-        this.remainingChunkSize = remainingChunkSize;
-        this.numBytesType = numBytesType;
+    public BatchConfiguration(long numItems, long itemsPerChunk, long[] bytesPerItem) {
+        this.numItems = numItems;
+        this.itemsPerChunk = itemsPerChunk;
+        this.totalChunks = Math.toIntExact(numItems / itemsPerChunk);
+        this.remainingItems = numItems % itemsPerChunk;
+        this.bytesPerItem = bytesPerItem;
     }
 
     public static BatchConfiguration computeChunkSizes(TornadoExecutionContext context, long batchSize) {
-        // Get the size of the batch
-        long totalSize = 0;
-
-        HashSet<Long> inputSizes = new HashSet<>();
-        LinkedHashSet<Byte> elementSizes = new LinkedHashSet<>();
-
-        for (Object o : context.getObjects()) {
-            if (o.getClass().isArray()) {
-                Class<?> componentType = o.getClass().getComponentType();
-                DataTypeSize dataTypeSize = DataTypeSize.findDataTypeSize(componentType);
-                if (dataTypeSize == null) {
-                    throw new TornadoRuntimeException("[UNSUPPORTED] Data type not supported for processing in batches");
+        final List<Object> objects = context.getObjects();
+        final List<BatchPartition> partitions = context.getBatchPartitions();
+        final long[] bytesPerItem = new long[objects.size()];
+        long numItems = -1;
+
+        if (partitions.isEmpty()) {
+            // All the objects are split, one element per item
+            for (int i = 0; i < objects.size(); i++) {
+                Object object = objects.get(i);
+                numItems = checkNumItems(numItems, getNumElements(object));
+                bytesPerItem[i] = getElementSize(object);
+            }
+        } else {
+            for (BatchPartition partition : partitions) {
+                int index = indexOf(objects, partition.getArray());
+                if (index == -1) {
+                    throw new TornadoRuntimeException(STR."[ERROR] The array of a batch partition is not used by the task-graph: \{partition.getArray().getClass()}");
                 }
-                long size = Array.getLength(o);
-                totalSize = size * dataTypeSize.getSize();
-
-                elementSizes.add(dataTypeSize.getSize());
-                inputSizes.add(totalSize);
-            } else if (o instanceof TornadoNativeArray tornadoNativeArray) {
-                totalSize = tornadoNativeArray.getNumBytesWithoutHeader();
-                inputSizes.add(totalSize);
-                byte elementSize = switch (tornadoNativeArray) {
-                    case IntArray _ -> DataTypeSize.INT.getSize();
-                    case FloatArray _ -> DataTypeSize.FLOAT.getSize();
-                    case DoubleArray _ -> DataTypeSize.DOUBLE.getSize();
-                    case LongArray _ -> DataTypeSize.LONG.getSize();
-                    case ShortArray _ -> DataTypeSize.SHORT.getSize();
-                    case ByteArray _ -> DataTypeSize.BYTE.getSize();
-                    case CharArray _ -> DataTypeSize.CHAR.getSize();
-                    default -> throw new TornadoRuntimeException(STR."Unsupported array type: \{o.getClass()}");
-                };
-                elementSizes.add(elementSize);
-            } else {
-                throw new TornadoRuntimeException(STR."Unsupported type: \{o.getClass()}");
+                long numElements = getNumElements(partition.getArray());
+                if (numElements % partition.getStride() != 0) {
+                    throw new TornadoRuntimeException(STR."[ERROR] The number of elements (\{numElements}) is not a multiple of the stride of the batch partition (\{partition.getStride()})");
+                }
+                numItems = checkNumItems(numItems, numElements / partition.getStride());
+                bytesPerItem[index] = (long) getElementSize(partition.getArray()) * partition.getStride();
             }
         }
 
-        if (inputSizes.size() > 1) {
-            throw new TornadoRuntimeException("[UNSUPPORTED] Input objects with different sizes not currently supported");
+        long maxBytesPerItem = 0;
+        for (long bytes : bytesPerItem) {
+            maxBytesPerItem = Math.max(maxBytesPerItem, bytes);
         }
-
-        if (elementSizes.size() > 1) {
-            throw new TornadoRuntimeException("[UNSUPPORTED] Input objects with different element sizes not currently supported");
+        if (maxBytesPerItem == 0 || numItems <= 0) {
+            throw new TornadoRuntimeException("[ERROR] There are no arrays to be processed in batches");
         }
 
-        int totalChunks = (int) (totalSize / batchSize);
-        int remainingChunkSize = (int) (totalSize % batchSize);
+        long itemsPerChunk = batchSize / maxBytesPerItem;
+        if (itemsPerChunk == 0) {
+            throw new TornadoRuntimeException(STR."[ERROR] The batch size (\{batchSize} bytes) is smaller than one item of the partitioned arrays (\{maxBytesPerItem} bytes)");
+        }
+        long numChunks = (numItems + itemsPerChunk - 1) / itemsPerChunk;
+        if (numChunks > Integer.MAX_VALUE) {
+            throw new TornadoRuntimeException(STR."[ERROR] The batch size (\{batchSize} bytes) splits the arrays in \{numChunks} chunks, more than the maximum of \{Integer.MAX_VALUE}");
+        }
 
+        BatchConfiguration batchConfiguration = new BatchConfiguration(numItems, itemsPerChunk, bytesPerItem);
         if (Tornado.DEBUG) {
             System.out.println(STR."Batch Size: \{batchSize}");
-            System.out.println(STR."Total chunks: \{totalChunks}");
-            System.out.println(STR."remainingChunkSize: \{remainingChunkSize}");
+            System.out.println(STR."Items per chunk: \{itemsPerChunk}");
+            System.out.println(STR."Total chunks: \{batchConfiguration.getTotalChunks()}");
+            System.out.println(STR."Remaining items: \{batchConfiguration.getRemainingItems()}");
+        }
+        return batchConfiguration;
+    }
+
+    private static long checkNumItems(long numItems, long newNumItems) {
+        if (numItems != -1 && numItems != newNumItems) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Input objects with different number of elements. Use a BatchPartition to select the arrays to be split and their stride");
+        }
+        return newNumItems;
+    }
+
+    private static int indexOf(List<Object> objects, Object array) {
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i) == array) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long getNumElements(Object object) {
+        if (object.getClass().isArray()) {
+            return Array.getLength(object);
+        } else if (object instanceof TornadoNativeArray tornadoNativeArray) {
+            return tornadoNativeArray.getSizeAsLong();
+        }
+        throw new TornadoRuntimeException(STR."Unsupported type: \{object.getClass()}");
+    }
+
+    private static int getElementSize(Object object) {
+        if (object.getClass().isArray()) {
+            DataTypeSize dataTypeSize = DataTypeSize.findDataTypeSize(object.getClass().getComponentType());
+            if (dataTypeSize == null) {
+                throw new TornadoRuntimeException("[UNSUPPORTED] Data type not supported for processing in batches");
+            }
+            return dataTypeSize.getSize();
+        } else if (object instanceof TornadoNativeArray tornadoNativeArray) {
+            return tornadoNativeArray.getElementSize();
         }
-        return new BatchConfiguration(totalChunks, remainingChunkSize, elementSizes.getFirst());
+        throw new TornadoRuntimeException(STR."Unsupported type: \{object.getClass()}");
     }
 
+    /**
+     * @return the number of chunks that process {@link #getItemsPerChunk()}
+     *     items.
+     */
     public int getTotalChunks() {
         return totalChunks;
     }
 
-    public int getRemainingChunkSize() {
-        return remainingChunkSize;
+    /**
+     * @return the number of chunks, including the last one if it is smaller.
+     */
+    public int getNumChunks() {
+        return remainingItems == 0 ? totalChunks : totalChunks + 1;
+    }
+
+    public long getNumItems() {
+        return numItems;
+    }
+
+    public long getItemsPerChunk() {
+        return itemsPerChunk;
+    }
+
+    public long getRemainingItems() {
+        return remainingItems;
+    }
+
+    public boolean isPartitioned(int objectIndex) {
+        return bytesPerItem[objectIndex] > 0;
+    }
+
+    public long getFirstItem(int chunk) {
+        return chunk * itemsPerChunk;
+    }
+
+    public long getNumItems(int chunk) {
+        return chunk < totalChunks ? itemsPerChunk : remainingItems;
+    }
+
+    /**
+     * @return the offset, in bytes, of the slice of a partitioned object for a
+     *     chunk.
+     */
+    public long getOffset(int objectIndex, int chunk) {
+        return getFirstItem(chunk) * bytesPerItem[objectIndex];
     }
 
-    public short getNumBytesType() {
-        return numBytesType;
+    /**
+     * @return the size, in bytes, of the slice of a partitioned object for a
+     *     chunk.
+     */
+    public long getSize(int objectIndex, int chunk) {
+        return getNumItems(chunk) * bytesPerItem[objectIndex];
+    }
+
+    /**
+     * @return the chunk that a transfer of a partitioned object belongs to,
+     *     given its offset in bytes.
+     */
+    public long getChunkIndex(int objectIndex, long offset) {
+        return offset / (itemsPerChunk * bytesPerItem[objectIndex]);
     }
 
 }
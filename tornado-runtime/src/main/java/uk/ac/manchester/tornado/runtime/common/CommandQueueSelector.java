@@ -0,0 +1,90 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.common;
+
+import java.util.BitSet;
+
+/**
+ * Selects the command queue (or stream) that the devices use for the operations
+ * issued by the current thread. The copies of a task-graph that run the
+ * concurrent invocations of an execution plan get a queue index of their own,
+ * so their transfers, kernel launches and synchronizations do not wait for the
+ * other invocations. Index {@link #DEFAULT_QUEUE} is the queue that each device
+ * creates at start-up, and it is used by everything else.
+ *
+ * <p>
+ * The indexes are recycled, so the backends create at most as many queues per
+ * device as copies are alive at the same time.
+ * </p>
+ */
+public final class CommandQueueSelector {
+
+    public static final int DEFAULT_QUEUE = 0;
+
+    private static final ThreadLocal<int[]> CURRENT_QUEUE = ThreadLocal.withInitial(() -> new int[] { DEFAULT_QUEUE });
+
+    private static final BitSet USED_QUEUES = new BitSet();
+
+    private CommandQueueSelector() {
+    }
+
+    /**
+     * Reserves a queue index that is not used by any other task-graph.
+     */
+    public static synchronized int acquire() {
+        int index = USED_QUEUES.nextClearBit(DEFAULT_QUEUE + 1);
+        USED_QUEUES.set(index);
+        return index;
+    }
+
+    /**
+     * Returns an index reserved with {@link #acquire()}. The work enqueued with
+     * it must have finished.
+     */
+    public static synchronized void release(int index) {
+        if (index != DEFAULT_QUEUE) {
+            USED_QUEUES.clear(index);
+        }
+    }
+
+    /**
+     * @return the queue index of the current thread.
+     */
+    public static int current() {
+        return CURRENT_QUEUE.get()[0];
+    }
+
+    /**
+     * Sets the queue index of the current thread.
+     *
+     * @return the previous index, to be restored once the operations on the
+     *     queue have been issued.
+     */
+    public static int select(int index) {
+        final int[] current = CURRENT_QUEUE.get();
+        final int previous = current[0];
+        current[0] = index;
+        return previous;
+    }
+}
@@ -22,6 +22,8 @@
  */
 package uk.ac.manchester.tornado.runtime.common;
 
+import java.lang.foreign.MemorySegment;
+
 import uk.ac.manchester.tornado.api.common.SchedulableTask;
 import uk.ac.manchester.tornado.api.common.TornadoDevice;
 import uk.ac.manchester.tornado.api.memory.ObjectBuffer;
@@ -171,4 +173,25 @@ public interface TornadoAcceleratorDevice extends TornadoDevice {
      */
     void setAtomicRegion(ObjectBuffer bufferAtomics);
 
+    /**
+     * It allocates page-locked (pinned) host memory for a native array. The
+     * memory is released when the returned segment is reclaimed by the GC.
+     *
+     * @param byteSize
+     *     The size in bytes of the memory segment.
+     * @return The pinned {@link MemorySegment}, or null if the device cannot
+     *     allocate pinned host memory.
+     */
+    default MemorySegment allocatePinnedMemory(long byteSize) {
+        return null;
+    }
+
+    /**
+     * @return Number of pinned allocations served with a free block of the pool
+     *     of the device, instead of pinning new memory.
+     */
+    default long getPinnedMemoryPoolHits() {
+        return 0;
+    }
+
 }
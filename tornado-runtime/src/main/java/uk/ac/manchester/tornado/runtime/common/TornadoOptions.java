@@ -57,6 +57,59 @@ public class TornadoOptions {
      * Option to set the device maximum memory usage. It is set to 1GB by default.
      */
     public static final long DEVICE_AVAILABLE_MEMORY = RuntimeUtilities.parseSize(System.getProperty("tornado.device.memory", "1GB"));
+    /**
+     * Option to allocate all the arrays of a task-graph from a single device
+     * buffer (arena), instead of one device buffer per array. False by default.
+     */
+    public static final boolean DEVICE_BUFFER_ARENA = getBooleanValue("tornado.device.memory.arena", FALSE);
+    /**
+     * Maximum number of bytes of free pinned host memory kept by each device
+     * for later allocations of native arrays. It is set to 512MB by default.
+     */
+    public static final long PINNED_MEMORY_POOL_SIZE = RuntimeUtilities.parseSize(System.getProperty("tornado.pinned.memory.pool", "512MB"));
+    /**
+     * Option to keep on the device the outputs of a task-graph that a later
+     * task-graph of the same execution plan uses. Their transfers to the host are
+     * deferred to the end of the execution plan. True by default.
+     */
+    public static final boolean DEFER_TRANSFERS_TO_HOST = getBooleanValue("tornado.plan.defer.transfers", TRUE);
+    /**
+     * Option to enable the persistent kernel cache. Generated kernels and device
+     * binaries are stored on disk, keyed by a hash of everything that affects
+     * code generation, and reused across runs. False by default.
+     */
+    public static final boolean PERSISTENT_KERNEL_CACHE = getBooleanValue("tornado.kernel.cache.enable", FALSE);
+    /**
+     * Root directory of the persistent kernel cache.
+     */
+    public static final String PERSISTENT_KERNEL_CACHE_DIR = getProperty("tornado.kernel.cache.dir", System.getProperty("user.home") + "/.tornadovm/kernel-cache");
+    /**
+     * Maximum size on disk of the persistent kernel cache. Least recently used
+     * entries are evicted when the limit is exceeded. It is set to 512MB by
+     * default.
+     */
+    public static final long PERSISTENT_KERNEL_CACHE_MAX_SIZE = RuntimeUtilities.parseSize(System.getProperty("tornado.kernel.cache.size", "512MB"));
+    /**
+     * File that stores the execution times measured by the dynamic
+     * reconfiguration in {@code DRMode.MODEL}, shared across runs.
+     */
+    public static final String DYNAMIC_RECONFIGURATION_MODEL_FILE = getProperty("tornado.dynamic.model.file", System.getProperty("user.home") + "/.tornadovm/device-model.properties");
+    /**
+     * Number of executions in {@code DRMode.MODEL} between two re-explorations
+     * of a device that the model does not select. 0 disables re-exploration.
+     * Default is 100.
+     */
+    public static final int DYNAMIC_RECONFIGURATION_MODEL_REEXPLORE = Integer.parseInt(getProperty("tornado.dynamic.model.reexplore", "100"));
+    /**
+     * Directory of a kernel bundle produced ahead of time. When set, tasks found
+     * in the bundle are installed from it instead of being JIT compiled.
+     */
+    public static final String KERNEL_BUNDLE = getProperty("tornado.kernel.bundle", null);
+    /**
+     * Output directory for the kernel bundle. When set, every kernel compiled in
+     * this run is recorded in the bundle. Used by the bundle compiler.
+     */
+    public static final String KERNEL_BUNDLE_OUTPUT = getProperty("tornado.kernel.bundle.output", null);
     /**
      * Option to enable exceptions for the OpenCL generated code. This is
      * experimental.
@@ -72,6 +125,27 @@ public class TornadoOptions {
      * reductions.
      */
     public static final boolean EXPERIMENTAL_REDUCE = getBooleanValue("tornado.experimental.reduce", TRUE);
+    /**
+     * Option to compile reductions that run on OpenCL GPUs into a single kernel.
+     * Work-groups combine their partial results with atomics and the last
+     * work-group writes the result into the reduce array, so the task-graph is
+     * not rewritten to resize the reduce arrays. Reductions that are not
+     * supported use the rewritten task-graph. It stays off until it has been
+     * validated on more OpenCL drivers and ported to the PTX backend. Default
+     * is False.
+     */
+    public static final boolean REDUCE_SINGLE_KERNEL = getBooleanValue("tornado.reduce.singlekernel", FALSE);
+    /**
+     * Option to fuse consecutive producer/consumer tasks of a task-graph that
+     * have the same parallel domain into a single kernel. The task-graph is
+     * fused when it is snapshot. Default is False.
+     */
+    public static final boolean TASK_FUSION = getBooleanValue("tornado.fusion", FALSE);
+    /**
+     * Option to print the tasks that are fused into a single kernel. Default is
+     * False.
+     */
+    public static final boolean PRINT_TASK_FUSION = getBooleanValue("tornado.fusion.print", FALSE);
     /**
      * Temporal option for disabling null checks for Apache-Flink.
      */
@@ -155,6 +229,55 @@ public class TornadoOptions {
      * Sets the number of threads for the Tornado Sketcher. Default is 4.
      */
     public static final int TORNADO_SKETCHER_THREADS = Integer.parseInt(getProperty("tornado.sketcher.threads", "4"));
+    /**
+     * Compiles all the tasks of a task-graph concurrently the first time the
+     * graph is executed, instead of compiling each task when it is launched.
+     * False by default.
+     */
+    public static final boolean EAGER_PARALLEL_COMPILATION = getBooleanValue("tornado.compiler.eager", FALSE);
+    /**
+     * Sets the number of threads used to compile tasks in parallel. Default is 4.
+     */
+    public static final int TORNADO_COMPILER_THREADS = Integer.parseInt(getProperty("tornado.compiler.threads", "4"));
+    /**
+     * Runs the Java version of the tasks after a bailout with multiple threads,
+     * as the JVM device does. False by default: bailouts run the tasks
+     * sequentially in the calling thread.
+     */
+    public static final boolean HOST_PARALLEL_EXECUTION = getBooleanValue("tornado.jvm.parallel", FALSE);
+    /**
+     * Sets the number of threads of the JVM device.
+     * Default is the number of available processors.
+     */
+    public static final int HOST_PARALLEL_THREADS = getIntValue("tornado.jvm.threads", Integer.toString(Runtime.getRuntime().availableProcessors()));
+    /**
+     * Rounds up the global work size of the kernels to a multiple of the
+     * work-group size when the global size has no large divisor, instead of
+     * using small work-groups. It only applies when the user does not define
+     * the grid. Default is True.
+     */
+    public static final boolean PAD_GLOBAL_WORK = getBooleanValue("tornado.scheduler.padding", TRUE);
+    /**
+     * Tunes the work-group sizes of the kernels that are launched without a
+     * user-defined grid. The first executions of each kernel, device and global
+     * size try a set of work-group sizes, and the fastest one is stored in a
+     * tuning database and used afterwards. Default is False.
+     */
+    public static final boolean TUNE_WORK_GROUPS = getBooleanValue("tornado.tuning", FALSE);
+    /**
+     * Number of executions measured for each work-group size during the tuning.
+     * Default is 3.
+     */
+    public static final int TUNING_SAMPLES = Integer.parseInt(getProperty("tornado.tuning.samples", "3"));
+    /**
+     * File that stores the tuned work-group sizes, shared across runs.
+     */
+    public static final String TUNING_DATABASE_FILE = getProperty("tornado.tuning.file", System.getProperty("user.home") + "/.tornadovm/work-group-tuning.properties");
+    /**
+     * Option to print the work-group sizes selected by the tuning. Default is
+     * False.
+     */
+    public static final boolean PRINT_TUNING = getBooleanValue("tornado.tuning.print", FALSE);
     /**
      * It enables automatic discovery and parallelization of loops. Please note that
      * this option is experimental and may cause issues if enabled.
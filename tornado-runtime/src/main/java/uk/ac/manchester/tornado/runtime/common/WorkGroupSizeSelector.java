@@ -0,0 +1,97 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.common;
+
+/**
+ * Selection of the work-group (thread-block) sizes for the kernels compiled
+ * from {@code @Parallel} loops when the user does not provide a grid.
+ *
+ * <p>
+ * The schedulers used to decrement the group size until it divided the global
+ * size. For sizes with no large divisor (e.g., prime sizes) this ends up with
+ * groups of a few threads. Instead, when the largest divisor is less than half
+ * the maximum group size, a multiple of the warp size is selected and the
+ * global size is rounded up to a multiple of it. The extra threads do not run
+ * any iteration, because the parallel loops are compiled as grid-stride loops
+ * and their condition checks the original bound.
+ * </p>
+ */
+public final class WorkGroupSizeSelector {
+
+    public static final int WARP_SIZE = 32;
+
+    private WorkGroupSizeSelector() {
+    }
+
+    /**
+     * @param maxBlockSize
+     *     Maximum number of threads per group for the dimension.
+     * @param globalWorkSize
+     *     Number of threads in the dimension.
+     * @param allowPadding
+     *     True if the global size can be rounded up to a multiple of the
+     *     group size.
+     * @return number of threads per group in the dimension. If padding is not
+     *     allowed, this value divides the global size.
+     */
+    public static int calculateGroupSize(long maxBlockSize, long globalWorkSize, boolean allowPadding) {
+        if (maxBlockSize == globalWorkSize) {
+            maxBlockSize /= 4;
+        }
+
+        int value = (int) Math.min(maxBlockSize, globalWorkSize);
+        if (value == 0) {
+            return 1;
+        }
+        int divisor = value;
+        while (globalWorkSize % divisor != 0) {
+            divisor--;
+        }
+        if (!allowPadding || value < WARP_SIZE || divisor * 2L >= value) {
+            // Divisible and power of two sizes keep the same group size
+            return divisor;
+        }
+        return value - (value % WARP_SIZE);
+    }
+
+    /**
+     * @return the global size rounded up to a multiple of the group size.
+     */
+    public static long padGlobalWork(long globalWorkSize, long groupSize) {
+        if (groupSize <= 1) {
+            return globalWorkSize;
+        }
+        return ((globalWorkSize + groupSize - 1) / groupSize) * groupSize;
+    }
+
+    /**
+     * Rounds up the global sizes of the first {@code dims} dimensions to a
+     * multiple of the group sizes.
+     */
+    public static void padGlobalWork(long[] globalWork, long[] localWork, int dims) {
+        for (int i = 0; i < dims; i++) {
+            globalWork[i] = padGlobalWork(globalWork[i], localWork[i]);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.common;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Auto-tuner of the work-group (thread-block) sizes of the kernels compiled from
+ * {@code @Parallel} loops, for the launches that do not use a
+ * {@code GridScheduler}.
+ *
+ * <p>
+ * The tuning is indexed by the hash of the kernel code, the device and the
+ * global sizes. The first launches of an entry that is not in the tuning
+ * database try each work-group size of the search space
+ * {@link TornadoOptions#TUNING_SAMPLES} times, and measure the kernel time. The
+ * search space contains the size selected by the scheduler and the power of two
+ * sizes that fit on the device. After that, the size with the lowest time is
+ * stored in the database and used for all launches of the entry.
+ * </p>
+ *
+ * <p>
+ * The database is written with an atomic rename each time an entry is tuned.
+ * Processes that share the file do not merge their updates: the last one to
+ * save wins.
+ * </p>
+ */
+public final class WorkGroupTuner {
+
+    private static final String SEPARATOR = "|";
+
+    private static WorkGroupTuner instance;
+
+    private final Path file;
+    private final int samples;
+    // kernel|device|global sizes -> work-group sizes
+    private final Map<String, long[]> database;
+    private final Map<String, Search> searches;
+
+    public WorkGroupTuner(Path file, int samples) {
+        this.file = file;
+        this.samples = Math.max(samples, 1);
+        this.database = new HashMap<>();
+        this.searches = new HashMap<>();
+        load();
+    }
+
+    public static synchronized WorkGroupTuner getInstance() {
+        if (instance == null) {
+            instance = new WorkGroupTuner(Paths.get(TornadoOptions.TUNING_DATABASE_FILE), TornadoOptions.TUNING_SAMPLES);
+        }
+        return instance;
+    }
+
+    /**
+     * @return true if the launches of kernels without a user-defined grid are
+     *     tuned. The kernel times are only available if the profiling of the
+     *     command queues is enabled.
+     */
+    public static boolean isEnabled() {
+        return TornadoOptions.TUNE_WORK_GROUPS && Tornado.ENABLE_PROFILING;
+    }
+
+    /**
+     * @return a hash of the code of a kernel, used to index the database. The
+     *     entries of a kernel are not used once its code changes.
+     */
+    public static String hash(byte[] code) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(code);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(Arrays.hashCode(code));
+        }
+    }
+
+    /**
+     * A launch with one of the work-group sizes of the search space.
+     */
+    public record Trial(String key, int candidate) {
+    }
+
+    /**
+     * Selects the work-group sizes of a launch. If the entry is tuned, its
+     * work-group sizes are used. Otherwise, the next size of the search space
+     * is used, and the time of the launch must be reported with
+     * {@link #record}.
+     *
+     * @param kernelHash
+     *     Hash of the kernel code (see {@link #hash}).
+     * @param device
+     *     Name of the device.
+     * @param dims
+     *     Number of dimensions of the launch.
+     * @param originalGlobalWork
+     *     Global sizes before they are rounded up to a multiple of the
+     *     work-group sizes.
+     * @param globalWork
+     *     Global sizes of the launch. They are updated if padding is allowed.
+     * @param localWork
+     *     Work-group sizes selected by the scheduler. They are updated with
+     *     the selected sizes.
+     * @param maxWorkItemSizes
+     *     Maximum work-group size of each dimension.
+     * @param maxWorkGroupSize
+     *     Maximum number of threads of a work-group.
+     * @param padding
+     *     True if the global sizes can be rounded up to a multiple of the
+     *     work-group sizes.
+     * @return the trial to report, or null if the entry is already tuned.
+     */
+    public synchronized Trial selectLocalWork(String kernelHash, String device, int dims, long[] originalGlobalWork, long[] globalWork, long[] localWork, long[] maxWorkItemSizes,
+            long maxWorkGroupSize, boolean padding) {
+        String key = key(kernelHash, device, dims, originalGlobalWork);
+        Trial trial = null;
+        long[] selected = database.get(key);
+        if (selected == null || selected.length != dims) {
+            Search search = searches.computeIfAbsent(key, k -> new Search(searchSpace(dims, originalGlobalWork, localWork, maxWorkItemSizes, maxWorkGroupSize, padding), samples));
+            int candidate = search.next();
+            selected = search.candidates.get(candidate);
+            trial = new Trial(key, candidate);
+        }
+        System.arraycopy(selected, 0, localWork, 0, dims);
+        System.arraycopy(originalGlobalWork, 0, globalWork, 0, dims);
+        if (padding) {
+            WorkGroupSizeSelector.padGlobalWork(globalWork, localWork, dims);
+        }
+        return trial;
+    }
+
+    /**
+     * Adds the time of a launch to the search. Once all the sizes of the search
+     * space have been measured, the fastest one is stored in the database.
+     *
+     * @param time
+     *     Kernel time in nanoseconds.
+     */
+    public synchronized void record(Trial trial, long time) {
+        Search search = searches.get(trial.key());
+        if (search == null || time <= 0) {
+            return;
+        }
+        search.add(trial.candidate(), time);
+        debug("[Tuning] %s %s time=%d", trial.key(), Arrays.toString(search.candidates.get(trial.candidate())), time);
+        if (search.isFinished()) {
+            long[] best = search.candidates.get(search.best());
+            database.put(trial.key(), best);
+            searches.remove(trial.key());
+            if (TornadoOptions.PRINT_TUNING) {
+                System.out.println(STR."[TornadoVM] Tuned work-group size for \{trial.key()}: \{Arrays.toString(best)}");
+            }
+            save();
+        }
+    }
+
+    /**
+     * @return the work-group sizes to try. The first one is the size selected by
+     *     the scheduler.
+     */
+    static List<long[]> searchSpace(int dims, long[] globalWork, long[] localWork, long[] maxWorkItemSizes, long maxWorkGroupSize, boolean padding) {
+        List<long[]> candidates = new ArrayList<>();
+        candidates.add(Arrays.copyOf(localWork, dims));
+
+        List<List<Long>> sizes = new ArrayList<>();
+        long maxThreads = 1;
+        for (int i = 0; i < dims; i++) {
+            List<Long> dimensionSizes = new ArrayList<>();
+            // As in the schedulers, the groups of 3D kernels have one thread in the last dimension
+            long max = (i == 2) ? 1 : Math.max(Math.min(maxWorkItemSizes[i], globalWork[i]), 1);
+            for (long size = 1; size <= max; size *= 2) {
+                if (padding || globalWork[i] % size == 0) {
+                    dimensionSizes.add(size);
+                }
+            }
+            sizes.add(dimensionSizes);
+            maxThreads *= dimensionSizes.getLast();
+        }
+        // Groups with fewer threads than a warp are only tried for small kernels
+        long minThreads = Math.min(WorkGroupSizeSelector.WARP_SIZE, Math.min(maxThreads, maxWorkGroupSize));
+        addCandidates(sizes, new long[dims], 0, 1, minThreads, maxWorkGroupSize, candidates);
+        return candidates;
+    }
+
+    private static void addCandidates(List<List<Long>> sizes, long[] candidate, int dimension, long threads, long minThreads, long maxThreads, List<long[]> candidates) {
+        if (dimension == candidate.length) {
+            if (threads >= minThreads && candidates.stream().noneMatch(c -> Arrays.equals(c, candidate))) {
+                candidates.add(candidate.clone());
+            }
+            return;
+        }
+        for (long size : sizes.get(dimension)) {
+            if (threads * size > maxThreads) {
+                break;
+            }
+            candidate[dimension] = size;
+            addCandidates(sizes, candidate, dimension + 1, threads * size, minThreads, maxThreads, candidates);
+        }
+    }
+
+    private static String key(String kernelHash, String device, int dims, long[] globalWork) {
+        StringBuilder key = new StringBuilder().append(kernelHash).append(SEPARATOR).append(device).append(SEPARATOR);
+        for (int i = 0; i < dims; i++) {
+            key.append(i == 0 ? "" : "x").append(globalWork[i]);
+        }
+        return key.toString();
+    }
+
+    private void load() {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            warn("[Tuning] unable to read %s: %s", file, e.getMessage());
+            return;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                long[] localWork = Arrays.stream(properties.getProperty(name).split(",")).mapToLong(Long::parseLong).toArray();
+                database.put(name, localWork);
+            } catch (RuntimeException e) {
+                warn("[Tuning] ignoring malformed entry %s", name);
+            }
+        }
+    }
+
+    private void save() {
+        Properties properties = new Properties();
+        for (Map.Entry<String, long[]> entry : database.entrySet()) {
+            StringBuilder value = new StringBuilder();
+            for (long size : entry.getValue()) {
+                value.append(value.isEmpty() ? "" : ",").append(size);
+            }
+            properties.setProperty(entry.getKey(), value.toString());
+        }
+        Path tempFile = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, ".tmp-", file.getFileName().toString());
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "TornadoVM work-group tuning database");
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+        } catch (IOException e) {
+            warn("[Tuning] unable to write %s: %s", file, e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Measurements of the work-group sizes of an entry that is being tuned. The
+     * time of a size is the minimum of its measurements.
+     */
+    private static final class Search {
+        private final List<long[]> candidates;
+        private final long[] times;
+        private final int[] measurements;
+        private final int samples;
+
+        private Search(List<long[]> candidates, int samples) {
+            this.candidates = candidates;
+            this.times = new long[candidates.size()];
+            this.measurements = new int[candidates.size()];
+            this.samples = samples;
+            Arrays.fill(times, Long.MAX_VALUE);
+        }
+
+        private int next() {
+            int next = 0;
+            for (int i = 1; i < measurements.length; i++) {
+                if (measurements[i] < measurements[next]) {
+                    next = i;
+                }
+            }
+            return next;
+        }
+
+        private void add(int candidate, long time) {
+            times[candidate] = Math.min(times[candidate], time);
+            measurements[candidate]++;
+        }
+
+        private boolean isFinished() {
+            return Arrays.stream(measurements).allMatch(m -> m >= samples);
+        }
+
+        private int best() {
+            int best = 0;
+            for (int i = 1; i < times.length; i++) {
+                if (times[i] < times[best]) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+    }
+}
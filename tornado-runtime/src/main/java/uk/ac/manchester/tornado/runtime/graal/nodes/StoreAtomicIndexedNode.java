@@ -51,6 +51,8 @@ public final class StoreAtomicIndexedNode extends AccessIndexedNode implements S
     @Input StoreAtomicIndexedNodeExtension storeAtomicExtraNode;
     //@formatter:on
 
+    private boolean singleKernel;
+
     @Override
     public FrameState stateAfter() {
         return storeAtomicExtraNode.getStateAfter();
@@ -113,4 +115,16 @@ public final class StoreAtomicIndexedNode extends AccessIndexedNode implements S
     public StoreAtomicIndexedNodeExtension getStoreAtomicExtraNode() {
         return storeAtomicExtraNode;
     }
+
+    /**
+     * Marks the reduction to be lowered into a kernel that also combines the
+     * results of all work-groups.
+     */
+    public void setSingleKernel(boolean singleKernel) {
+        this.singleKernel = singleKernel;
+    }
+
+    public boolean isSingleKernel() {
+        return singleKernel;
+    }
 }
@@ -46,6 +46,8 @@ public class WriteAtomicNode extends FixedWithNextNode implements StateSplit, Lo
     JavaKind kind;
     //@formatter:on
 
+    private boolean singleKernel;
+
     public WriteAtomicNode(JavaKind kind, AddressNode address, ValueNode value, ValueNode accumulator, ValueNode inputArray, ValueNode outArray, WriteAtomicNodeExtension extension) {
         super(TYPE, StampFactory.forVoid());
         this.value = value;
@@ -110,4 +112,15 @@ public class WriteAtomicNode extends FixedWithNextNode implements StateSplit, Lo
         return true;
     }
 
+    /**
+     * Marks the reduction to be lowered into a kernel that also combines the
+     * results of all work-groups.
+     */
+    public void setSingleKernel(boolean singleKernel) {
+        this.singleKernel = singleKernel;
+    }
+
+    public boolean isSingleKernel() {
+        return singleKernel;
+    }
 }
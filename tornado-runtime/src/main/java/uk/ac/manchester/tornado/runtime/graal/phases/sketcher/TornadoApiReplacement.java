@@ -27,9 +27,11 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.nodes.ConstantNode;
@@ -48,6 +50,7 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoCompilationException;
 import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+import uk.ac.manchester.tornado.runtime.analyzer.TaskFusion;
 import uk.ac.manchester.tornado.runtime.common.ParallelAnnotationProvider;
 import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelOffsetNode;
 import uk.ac.manchester.tornado.runtime.graal.nodes.ParallelRangeNode;
@@ -127,6 +130,8 @@ public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
                 Collections.reverse(loops);
             }
 
+            final Map<LoopEx, Integer> fusedLoopIndexes = TaskFusion.isFusedMethod(context.getMethod()) ? getFusedLoopIndexes(loops, parallelNodes) : null;
+
             for (LoopEx loop : loops) {
                 for (InductionVariable iv : loop.getInductionVariables().getValues()) {
                     if (!parallelNodes.containsKey(iv.valueNode())) {
@@ -139,7 +144,8 @@ public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
 
                     maxIterations = lessThan.getY();
 
-                    parallelizationReplacement(graph, iv, loopIndex, maxIterations, conditions);
+                    int index = (fusedLoopIndexes != null) ? fusedLoopIndexes.get(loop) : loopIndex;
+                    parallelizationReplacement(graph, iv, index, maxIterations, conditions);
 
                     loopIndex++;
                 }
@@ -147,6 +153,42 @@ public class TornadoApiReplacement extends BasePhase<TornadoSketchTierContext> {
         }
     }
 
+    /*
+     * A fused task runs the parallel loops of several tasks one after the other.
+     * The index of each loop depends on its nesting level, so the loops of all the
+     * tasks are mapped to the same dimensions. Without the fusion, sibling loops
+     * would get consecutive indexes.
+     */
+    private static Map<LoopEx, Integer> getFusedLoopIndexes(List<LoopEx> loops, Map<Node, ParallelAnnotationProvider> parallelNodes) {
+        Set<LoopEx> parallelLoops = new HashSet<>();
+        for (LoopEx loop : loops) {
+            for (InductionVariable iv : loop.getInductionVariables().getValues()) {
+                if (parallelNodes.containsKey(iv.valueNode())) {
+                    parallelLoops.add(loop);
+                }
+            }
+        }
+
+        Map<LoopEx, Integer> indexes = new HashMap<>();
+        for (LoopEx loop : parallelLoops) {
+            int depth = 0;
+            indexes.putIfAbsent(loop, 0);
+            for (LoopEx parent = loop.parent(); parent != null; parent = parent.parent()) {
+                if (parallelLoops.contains(parent)) {
+                    depth++;
+                    if (TORNADO_LOOPS_REVERSE) {
+                        // Inner loops are mapped to the first dimension
+                        indexes.merge(parent, depth, Math::max);
+                    }
+                }
+            }
+            if (!TORNADO_LOOPS_REVERSE) {
+                indexes.put(loop, depth);
+            }
+        }
+        return indexes;
+    }
+
     private void parallelizationReplacement(StructuredGraph graph, InductionVariable inductionVar, int loopIndex, ValueNode maxIterations, List<IntegerLessThanNode> conditions)
             throws TornadoCompilationException {
         if (inductionVar.isConstantInit() && inductionVar.isConstantStride()) {
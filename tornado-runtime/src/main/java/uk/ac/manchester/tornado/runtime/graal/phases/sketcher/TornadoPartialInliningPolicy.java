@@ -33,6 +33,7 @@ import org.graalvm.compiler.phases.common.inlining.InliningUtil;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
 import org.graalvm.compiler.phases.common.inlining.walker.MethodInvocation;
 
+import uk.ac.manchester.tornado.runtime.analyzer.TaskFusion;
 import uk.ac.manchester.tornado.runtime.graal.phases.TornadoInliningPolicy;
 
 public class TornadoPartialInliningPolicy implements TornadoInliningPolicy {
@@ -52,6 +53,10 @@ public class TornadoPartialInliningPolicy implements TornadoInliningPolicy {
     @Override
     public Decision isWorthInlining(Replacements replacements, MethodInvocation invocation, InlineInfo calleeInfo, int inliningDepth, boolean fullyProcessed) {
         final InlineInfo info = invocation.callee();
+        if (TaskFusion.isFusedMethod(info.invoke().getContextMethod())) {
+            // The tasks of a fused task must be inlined to run in the same kernel
+            return Decision.YES;
+        }
         int nodes = info.determineNodeCount();
         if (nodes > MaximumInliningSize.getValue(info.graph().getOptions()) && !invocation.isRoot()) {
             return Decision.NO;
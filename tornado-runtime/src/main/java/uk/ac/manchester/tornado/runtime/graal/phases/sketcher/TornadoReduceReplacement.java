@@ -42,11 +42,14 @@ import org.graalvm.compiler.nodes.StartNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.calc.AddNode;
+import org.graalvm.compiler.nodes.calc.AndNode;
 import org.graalvm.compiler.nodes.calc.BinaryArithmeticNode;
 import org.graalvm.compiler.nodes.calc.BinaryNode;
 import org.graalvm.compiler.nodes.calc.CompareNode;
 import org.graalvm.compiler.nodes.calc.MulNode;
+import org.graalvm.compiler.nodes.calc.OrNode;
 import org.graalvm.compiler.nodes.calc.SubNode;
+import org.graalvm.compiler.nodes.calc.XorNode;
 import org.graalvm.compiler.nodes.extended.JavaReadNode;
 import org.graalvm.compiler.nodes.extended.JavaWriteNode;
 import org.graalvm.compiler.nodes.java.LoadFieldNode;
@@ -210,6 +213,22 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
         return array;
     }
 
+    /**
+     * Obtains the operand of a bitwise reduction that does not read the
+     * reduction variable.
+     */
+    private ValueNode getBitwiseOperand(Node store, BinaryNode bitwise) {
+        ValueNode arrayToStore = null;
+        ValueNode indexToStore;
+        if (store instanceof StoreIndexedNode storeIndexedNode) {
+            arrayToStore = storeIndexedNode.array();
+            indexToStore = storeIndexedNode.index();
+        } else {
+            indexToStore = ((JavaWriteNode) store).getAddress();
+        }
+        return recursiveCheck(arrayToStore, indexToStore, bitwise.getX()) ? bitwise.getY() : bitwise.getX();
+    }
+
     private ReductionMetadataNode createReductionNode(StructuredGraph graph, Node store, ValueNode inputArray, ValueNode startNode) throws RuntimeException {
         ValueNode value;
         ValueNode accumulator;
@@ -239,6 +258,11 @@ public class TornadoReduceReplacement extends BasePhase<TornadoSketchTierContext
             accumulator = subNode.getX();
             value = atomicSub;
             subNode.safeDelete();
+        } else if (storeValue instanceof OrNode || storeValue instanceof AndNode || storeValue instanceof XorNode) {
+            // Bitwise reductions. They also come from user combiners that have
+            // been inlined in the sketch.
+            accumulator = getBitwiseOperand(store, (BinaryNode) storeValue);
+            value = storeValue;
         } else if (storeValue instanceof BinaryNode) {
 
             // We need to compare with the name because it is loaded from inner core
@@ -40,6 +40,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import uk.ac.manchester.tornado.api.BatchPartition;
 import uk.ac.manchester.tornado.api.KernelContext;
 import uk.ac.manchester.tornado.api.TornadoDeviceContext;
 import uk.ac.manchester.tornado.api.common.Access;
@@ -55,6 +56,7 @@ import uk.ac.manchester.tornado.api.types.images.TornadoImagesInterface;
 import uk.ac.manchester.tornado.api.types.matrix.TornadoMatrixInterface;
 import uk.ac.manchester.tornado.api.types.vectors.TornadoVectorsInterface;
 import uk.ac.manchester.tornado.api.types.volumes.TornadoVolumesInterface;
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
@@ -82,8 +84,12 @@ public class TornadoExecutionContext {
     private int nextTask;
 
     private long batchSize;
+    private int batchPipelineDepth;
+    private List<BatchPartition> batchPartitions;
+    private BatchConfiguration batchConfiguration;
     private long executionPlanMemoryLimit;
     private Set<TornadoAcceleratorDevice> lastDevices;
+    private Set<Object> deferredTransfersToHost;
 
     private boolean redeployOnDevice;
     private boolean defaultScheduler;
@@ -108,8 +114,11 @@ public class TornadoExecutionContext {
         Arrays.fill(taskToDeviceMapTable, null);
         nextTask = 0;
         batchSize = INIT_VALUE;
+        batchPipelineDepth = 1;
+        batchPartitions = List.of();
         executionPlanMemoryLimit = INIT_VALUE;
         lastDevices = new HashSet<>();
+        deferredTransfersToHost = Set.of();
         this.profiler = null;
         this.isDataDependencyDetected = isDataDependencyInTaskGraph();
     }
@@ -145,6 +154,42 @@ public class TornadoExecutionContext {
         this.batchSize = size;
     }
 
+    /**
+     * @return the number of device buffer sets used to overlap the batches. A
+     *     value of 1 means that the batches are executed one after the other.
+     */
+    public int getBatchPipelineDepth() {
+        return batchPipelineDepth;
+    }
+
+    public void setBatchPipelineDepth(int depth) {
+        this.batchPipelineDepth = depth;
+    }
+
+    /**
+     * @return the arrays split in batches. If empty, all the arrays of the
+     *     task-graph are split.
+     */
+    public List<BatchPartition> getBatchPartitions() {
+        return batchPartitions;
+    }
+
+    public void setBatchPartitions(List<BatchPartition> partitions) {
+        this.batchPartitions = partitions;
+    }
+
+    /**
+     * @return the configuration of the batches computed when the task-graph was
+     *     compiled, or null if batch processing is not enabled.
+     */
+    public BatchConfiguration getBatchConfiguration() {
+        return batchConfiguration;
+    }
+
+    public void setBatchConfiguration(BatchConfiguration batchConfiguration) {
+        this.batchConfiguration = batchConfiguration;
+    }
+
     public void setExecutionPlanMemoryLimit(long memoryLimitSize) {
         this.executionPlanMemoryLimit = memoryLimitSize;
     }
@@ -527,9 +572,7 @@ public class TornadoExecutionContext {
                 Event event = localState.sync(object, meta().getLogicDevice());
 
                 if (TornadoOptions.isProfilerEnabled() && event != null) {
-                    long value = profiler.getTimer(ProfilerType.COPY_OUT_TIME_SYNC);
-                    value += event.getElapsedTime();
-                    profiler.setTimer(ProfilerType.COPY_OUT_TIME_SYNC, value);
+                    profiler.sum(ProfilerType.COPY_OUT_TIME_SYNC, event.getElapsedTime());
                     DeviceObjectState deviceObjectState = localState.getGlobalState().getDeviceState(meta().getLogicDevice());
                     profiler.addValueToMetric(ProfilerType.COPY_OUT_SIZE_BYTES_SYNC, TimeProfiler.NO_TASK_NAME, deviceObjectState.getObjectBuffer().size());
                 }
@@ -545,6 +588,22 @@ public class TornadoExecutionContext {
         return lastDevices;
     }
 
+    /**
+     * Sets the objects whose transfers to the host can be deferred to the end of
+     * the execution plan, because a later task-graph of the plan uses them.
+     */
+    public void setDeferredTransfersToHost(Set<Object> objects) {
+        deferredTransfersToHost = objects;
+    }
+
+    public Set<Object> getDeferredTransfersToHost() {
+        return deferredTransfersToHost;
+    }
+
+    public boolean isTransferToHostDeferred(Object object) {
+        return deferredTransfersToHost.contains(object);
+    }
+
     public void newCallWrapper(boolean newCallWrapper) {
         this.redeployOnDevice = newCallWrapper;
     }
@@ -27,8 +27,12 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.getProperty;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.TornadoLogger;
 import uk.ac.manchester.tornado.runtime.graph.nodes.AbstractNode;
@@ -105,6 +109,62 @@ public class TornadoVMBytecodeBuilder {
         }
     }
 
+    /**
+     * Emits a node for one chunk of a batched execution. Partitioned objects are
+     * allocated, transferred and released for every chunk with the offset and
+     * size of their slice. Broadcast objects are allocated and copied in full
+     * in the first chunk, and copied out and released in the last chunk. The
+     * offset of a launch is the index of the first item of the chunk.
+     */
+    void emitBatchAsyncNode(AbstractNode node, int dependencyBC, BatchConfiguration batchConfiguration, int chunk) {
+        final boolean firstChunk = chunk == 0;
+        final boolean lastChunk = chunk == batchConfiguration.getNumChunks() - 1;
+        if (node instanceof AllocateMultipleBuffersNode allocateNode) {
+            // A single ALLOC bytecode has one size for all its objects
+            Map<Long, List<AbstractNode>> valuesBySize = new LinkedHashMap<>();
+            for (AbstractNode value : allocateNode.getValues()) {
+                if (batchConfiguration.isPartitioned(value.getIndex())) {
+                    valuesBySize.computeIfAbsent(batchConfiguration.getSize(value.getIndex(), chunk), size -> new ArrayList<>()).add(value);
+                } else if (firstChunk) {
+                    valuesBySize.computeIfAbsent(0L, size -> new ArrayList<>()).add(value);
+                }
+            }
+            valuesBySize.forEach((size, values) -> bitcodeASM.allocate(values, size));
+        } else if (node instanceof CopyInNode copyInNode) {
+            final int index = copyInNode.getValue().getIndex();
+            if (batchConfiguration.isPartitioned(index)) {
+                bitcodeASM.transferToDeviceOnce(index, dependencyBC, batchConfiguration.getOffset(index, chunk), batchConfiguration.getSize(index, chunk));
+            } else if (firstChunk) {
+                bitcodeASM.transferToDeviceOnce(index, dependencyBC, 0, 0);
+            }
+        } else if (node instanceof CopyOutNode copyOutNode) {
+            final int index = copyOutNode.getValue().getValue().getIndex();
+            if (batchConfiguration.isPartitioned(index)) {
+                bitcodeASM.transferToHost(index, dependencyBC, batchConfiguration.getOffset(index, chunk), batchConfiguration.getSize(index, chunk));
+            } else if (lastChunk) {
+                bitcodeASM.transferToHost(index, dependencyBC, 0, 0);
+            }
+        } else if (node instanceof StreamInNode streamInNode) {
+            final int index = streamInNode.getValue().getIndex();
+            if (batchConfiguration.isPartitioned(index)) {
+                bitcodeASM.transferToDeviceAlways(index, dependencyBC, batchConfiguration.getOffset(index, chunk), batchConfiguration.getSize(index, chunk));
+            } else if (firstChunk) {
+                bitcodeASM.transferToDeviceAlways(index, dependencyBC, 0, 0);
+            }
+        } else if (node instanceof DeallocateNode deallocateNode) {
+            final int index = deallocateNode.getValue().getIndex();
+            if (batchConfiguration.isPartitioned(index) || lastChunk) {
+                bitcodeASM.deallocate(index);
+            }
+        } else if (node instanceof TaskNode taskNode) {
+            bitcodeASM.launch(taskNode.getContext().getDeviceIndex(), taskNode.getTaskIndex(), taskNode.getNumArgs(), dependencyBC, batchConfiguration.getFirstItem(chunk), batchConfiguration
+                    .getNumItems(chunk));
+            emitArgList(taskNode);
+        } else {
+            emitAsyncNode(node, dependencyBC, 0, 0, 0);
+        }
+    }
+
     private void emitArgList(TaskNode taskNode) {
         final int numArgs = taskNode.getNumArgs();
         for (int i = 0; i < numArgs; i++) {
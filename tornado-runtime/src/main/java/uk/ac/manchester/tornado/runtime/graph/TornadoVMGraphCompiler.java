@@ -25,6 +25,7 @@ package uk.ac.manchester.tornado.runtime.graph;
 import java.nio.BufferOverflowException;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.function.ObjIntConsumer;
 
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
@@ -116,20 +117,16 @@ public class TornadoVMGraphCompiler {
         final long batchSize = executionContext.getBatchSize();
 
         BatchConfiguration batchConfiguration = BatchConfiguration.computeChunkSizes(executionContext, batchSize);
+        executionContext.setBatchConfiguration(batchConfiguration);
 
-        long offset = 0;
-        long numberOfThreads = batchSize / batchConfiguration.getNumBytesType();
-        for (int i = 0; i < batchConfiguration.getTotalChunks(); i++) {
-            offset = (batchSize * i);
-            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, offset, batchSize, numberOfThreads, 1, executionContext);
+        if (batchConfiguration.getTotalChunks() == 0) {
+            // All the data fits in a single batch
+            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, 0, 0, batchConfiguration.getNumItems(), 1, executionContext);
+            return;
         }
-        // Last chunk
-        if (batchConfiguration.getRemainingChunkSize() != 0) {
-            offset += (batchSize);
-            numberOfThreads = batchConfiguration.getRemainingChunkSize() / batchConfiguration.getNumBytesType();
-            long realBatchSize = batchConfiguration.getTotalChunks() == 0 ? 0 : batchConfiguration.getRemainingChunkSize();
-            long realOffsetSize = batchConfiguration.getTotalChunks() == 0 ? 0 : offset;
-            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, realOffsetSize, realBatchSize, numberOfThreads, 1, executionContext);
+
+        for (int chunk = 0; chunk < batchConfiguration.getNumChunks(); chunk++) {
+            scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, batchConfiguration, chunk, executionContext);
         }
     }
 
@@ -145,6 +142,18 @@ public class TornadoVMGraphCompiler {
 
     private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph, long offset,
             long bufferBatchSize, long nThreads, int id, TornadoExecutionContext executionContext) {
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, id, executionContext, (asyncNode, dependencyBC) -> tornadoVMBytecodeBuilder.emitAsyncNode(
+                asyncNode, dependencyBC, offset, bufferBatchSize, nThreads));
+    }
+
+    private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph,
+            BatchConfiguration batchConfiguration, int chunk, TornadoExecutionContext executionContext) {
+        scheduleAndEmitTornadoVMBytecodes(tornadoVMBytecodeBuilder, graph, intermediateTornadoGraph, 1, executionContext, (asyncNode, dependencyBC) -> tornadoVMBytecodeBuilder.emitBatchAsyncNode(
+                asyncNode, dependencyBC, batchConfiguration, chunk));
+    }
+
+    private static void scheduleAndEmitTornadoVMBytecodes(TornadoVMBytecodeBuilder tornadoVMBytecodeBuilder, TornadoGraph graph, IntermediateTornadoGraph intermediateTornadoGraph, int id,
+            TornadoExecutionContext executionContext, ObjIntConsumer<ContextOpNode> emitter) {
         final int[] nodeIds = intermediateTornadoGraph.getNodeIds();
         final BitSet[] dependencies = intermediateTornadoGraph.getDependencies();
 
@@ -177,7 +186,7 @@ public class TornadoVMGraphCompiler {
 
                         if (shouldEmitAsyncNodeForTheCurrentContext(id, asyncNode, tornadoVMBytecodeBuilder.isSingleContext(), executionContext)) {
                             try {
-                                tornadoVMBytecodeBuilder.emitAsyncNode(asyncNode, (dependencies[i].isEmpty()) ? -1 : depLists[i], offset, bufferBatchSize, nThreads);
+                                emitter.accept(asyncNode, (dependencies[i].isEmpty()) ? -1 : depLists[i]);
                             } catch (BufferOverflowException e) {
                                 throw new TornadoRuntimeException(
                                         STR."[ERROR] Buffer Overflow exception. Use -Dtornado.tvm.maxbytecodesize=<value> with value > \{TornadoVMBytecodeBuilder.MAX_TORNADO_VM_BYTECODE_SIZE} to increase the buffer code size");
@@ -29,10 +29,19 @@ import static uk.ac.manchester.tornado.runtime.common.Tornado.USE_VM_FLUSH;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.VM_USE_DEPS;
 import static uk.ac.manchester.tornado.runtime.common.TornadoOptions.VIRTUAL_DEVICE_ENABLED;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import uk.ac.manchester.tornado.api.GridScheduler;
@@ -52,6 +61,8 @@ import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.runtime.EmptyEvent;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
+import uk.ac.manchester.tornado.runtime.analyzer.NativeArraySizeAnalysis;
+import uk.ac.manchester.tornado.runtime.common.BatchConfiguration;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.KernelArgs;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
@@ -63,6 +74,8 @@ import uk.ac.manchester.tornado.runtime.graph.TornadoExecutionContext;
 import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodeResult;
 import uk.ac.manchester.tornado.runtime.graph.TornadoVMBytecodes;
 import uk.ac.manchester.tornado.runtime.profiler.TimeProfiler;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.BytecodeEvent;
+import uk.ac.manchester.tornado.runtime.tasks.CompilableTask;
 import uk.ac.manchester.tornado.runtime.tasks.GlobalObjectState;
 import uk.ac.manchester.tornado.runtime.tasks.PrebuiltTask;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
@@ -99,9 +112,25 @@ public class TornadoVMInterpreter extends TornadoLogger {
     private double totalTime;
     private long invocations;
     private boolean finishedWarmup;
+    private boolean eagerCompilationDone;
     private boolean doUpdate;
     private GridScheduler gridScheduler;
 
+    /**
+     * Number of device buffer sets used to pipeline batches. A value of 1 means
+     * that the batches are processed one after the other.
+     */
+    private final int pipelineDepth;
+    private final BatchConfiguration batchConfiguration;
+    private final DeviceObjectState[][] pipelineStates;
+    private final int[] pipelineMarkers;
+    private final Set<Integer> deferredDeallocations;
+    private final Map<Integer, Long> pipelineAllocationSizes;
+    private final Map<DeviceObjectState, Long> pipelineBufferSizes;
+    private final List<DeviceObjectState> retiredBuffers;
+    private final List<Integer> broadcastEvents;
+    private long currentChunk;
+
     /**
      * It constructs a new TornadoVMInterpreter object.
      *
@@ -122,7 +151,10 @@ public class TornadoVMInterpreter extends TornadoLogger {
         assert device != null;
         this.deviceForInterpreter = device;
 
-        useDependencies = executionContext.meta().enableOooExecution() || VM_USE_DEPS;
+        final boolean isBatchEnabled = executionContext.getBatchSize() != TornadoExecutionContext.INIT_VALUE;
+        batchConfiguration = isBatchEnabled ? executionContext.getBatchConfiguration() : null;
+        pipelineDepth = (isBatchEnabled && batchConfiguration != null) ? Math.max(1, executionContext.getBatchPipelineDepth()) : 1;
+        useDependencies = executionContext.meta().enableOooExecution() || VM_USE_DEPS || isPipelinedBatch();
         totalTime = 0;
         invocations = 0;
 
@@ -150,6 +182,14 @@ public class TornadoVMInterpreter extends TornadoLogger {
         globalStates = new GlobalObjectState[objects.size()];
         fetchGlobalStates();
 
+        pipelineStates = new DeviceObjectState[objects.size()][];
+        pipelineMarkers = new int[pipelineDepth];
+        deferredDeallocations = new HashSet<>();
+        pipelineAllocationSizes = new HashMap<>();
+        pipelineBufferSizes = new IdentityHashMap<>();
+        retiredBuffers = new ArrayList<>();
+        broadcastEvents = new ArrayList<>();
+
         rewindBufferToBegin();
 
         constants = executionContext.getConstants();
@@ -247,6 +287,10 @@ public class TornadoVMInterpreter extends TornadoLogger {
         isWarmup = isWarmup || VIRTUAL_DEVICE_ENABLED;
         deviceForInterpreter.enableThreadSharing();
 
+        if (TornadoOptions.EAGER_PARALLEL_COMPILATION && !eagerCompilationDone && !VIRTUAL_DEVICE_ENABLED) {
+            compileTasksInParallel();
+        }
+
         if (isMemoryLimitEnabled() && executionContext.doesExceedExecutionPlanLimit()) {
             throw new TornadoMemoryException(STR."OutofMemoryException due to executionPlan.withMemoryLimit of \{executionContext.getExecutionPlanMemoryLimit()}");
         }
@@ -254,6 +298,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
         final long t0 = System.nanoTime();
         int lastEvent = -1;
         initWaitEventList();
+        initPipeline();
 
         StringBuilder tornadoVMBytecodeList = null;
         if (TornadoOptions.PRINT_BYTECODES) {
@@ -274,13 +319,23 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                lastEvent = executeAlloc(tornadoVMBytecodeList, args, sizeBatch);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    lastEvent = executeAlloc(tornadoVMBytecodeList, args, sizeBatch);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.ALLOC, null, args, sizeBatch);
+                }
             } else if (op == TornadoVMBytecodes.DEALLOC.value()) {
                 final int objectIndex = bytecodeResult.getInt();
                 if (isWarmup) {
                     continue;
                 }
-                lastEvent = executeDeAlloc(tornadoVMBytecodeList, objectIndex);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    lastEvent = executeDeAlloc(tornadoVMBytecodeList, objectIndex);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.DEALLOC, null, null, 0);
+                }
             } else if (op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ONCE.value()) {
                 final int objectIndex = bytecodeResult.getInt();
                 final int eventList = bytecodeResult.getInt();
@@ -290,7 +345,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                transferHostToDeviceOnce(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    transferHostToDeviceOnce(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ONCE, null, new int[] { objectIndex }, sizeBatch);
+                }
             } else if (op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ALWAYS.value()) {
                 final int objectIndex = bytecodeResult.getInt();
                 final int eventList = bytecodeResult.getInt();
@@ -300,7 +360,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                transferHostToDeviceAlways(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    transferHostToDeviceAlways(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ALWAYS, null, new int[] { objectIndex }, sizeBatch);
+                }
             } else if (op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS.value()) {
                 final int objectIndex = bytecodeResult.getInt();
                 final int eventList = bytecodeResult.getInt();
@@ -310,7 +375,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                lastEvent = transferDeviceToHost(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    lastEvent = transferDeviceToHost(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS, null, new int[] { objectIndex }, sizeBatch);
+                }
             } else if (op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING.value()) {
                 final int objectIndex = bytecodeResult.getInt();
                 final int eventList = bytecodeResult.getInt();
@@ -320,7 +390,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                transferDeviceToHostBlocking(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    transferDeviceToHostBlocking(tornadoVMBytecodeList, objectIndex, offset, eventList, sizeBatch, waitList);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING, null, new int[] { objectIndex }, sizeBatch);
+                }
             } else if (op == TornadoVMBytecodes.LAUNCH.value()) {
                 final int callWrapperIndex = bytecodeResult.getInt();
                 final int taskIndex = bytecodeResult.getInt();
@@ -333,7 +408,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                     popArgumentsFromCall(numArgs);
                     continue;
                 }
-                lastEvent = executeLaunch(tornadoVMBytecodeList, numArgs, eventList, taskIndex, batchThreads, offset, info);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    lastEvent = executeLaunch(tornadoVMBytecodeList, numArgs, eventList, taskIndex, batchThreads, offset, info);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.LAUNCH, tasks.get(taskIndex), null, 0);
+                }
             } else if (op == TornadoVMBytecodes.ADD_DEPENDENCY.value()) {
                 final int eventList = bytecodeResult.getInt();
                 if (isWarmup) {
@@ -346,7 +426,12 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 if (isWarmup) {
                     continue;
                 }
-                lastEvent = executeBarrier(tornadoVMBytecodeList, eventList, waitList);
+                final BytecodeEvent bytecodeEvent = beginBytecodeEvent();
+                try {
+                    lastEvent = executeBarrier(tornadoVMBytecodeList, eventList, waitList);
+                } finally {
+                    commitBytecodeEvent(bytecodeEvent, TornadoVMBytecodes.BARRIER, null, null, 0);
+                }
             } else if (op == TornadoVMBytecodes.END.value()) {
                 if (!isWarmup && TornadoOptions.PRINT_BYTECODES) {
                     tornadoVMBytecodeList.append("bc: ").append(InterpreterUtilities.debugHighLightBC("END\n")).append("\n");
@@ -364,6 +449,10 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 barrier = deviceForInterpreter.resolveEvent(event);
             }
 
+            if (isPipelinedBatch()) {
+                releasePipelineBuffers();
+            }
+
             if (USE_VM_FLUSH) {
                 deviceForInterpreter.flush();
             }
@@ -389,6 +478,55 @@ public class TornadoVMInterpreter extends TornadoLogger {
         return barrier;
     }
 
+    private static BytecodeEvent beginBytecodeEvent() {
+        BytecodeEvent event = new BytecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits a JFR event for a bytecode. The fields are only filled in when the
+     * event is enabled in the running recording, so the cost of a disabled event
+     * is the check in {@link BytecodeEvent#shouldCommit()}.
+     *
+     * @param event
+     *     Event created with {@link #beginBytecodeEvent()}.
+     * @param bytecode
+     *     Bytecode executed.
+     * @param task
+     *     Task launched by the bytecode, or null.
+     * @param objectIndexes
+     *     Objects allocated or transferred by the bytecode, or null.
+     * @param sizeBatch
+     *     Size of the batch in bytes, or 0 if the whole objects are used.
+     */
+    private void commitBytecodeEvent(BytecodeEvent event, TornadoVMBytecodes bytecode, SchedulableTask task, int[] objectIndexes, long sizeBatch) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.taskGraph = executionContext.getId();
+        event.bytecode = bytecode.name();
+        event.device = deviceForInterpreter.getDeviceName();
+        if (task != null) {
+            event.task = task.getId();
+        }
+        if (objectIndexes != null) {
+            long bytes = 0;
+            for (int objectIndex : objectIndexes) {
+                bytes += sizeBatch > 0 ? sizeBatch : getBufferSize(objectIndex);
+            }
+            event.bytes = bytes;
+        }
+        event.commit();
+    }
+
+    private long getBufferSize(int objectIndex) {
+        // Pipelined batches always have a batch size, so we only need the global state
+        DeviceObjectState objectState = globalStates[objectIndex].getDeviceState(deviceForInterpreter);
+        return (objectState != null && objectState.getObjectBuffer() != null) ? objectState.getObjectBuffer().size() : 0;
+    }
+
     private void initWaitEventList() {
         for (int[] waitList : events) {
             Arrays.fill(waitList, -1);
@@ -397,6 +535,14 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
     private int executeAlloc(StringBuilder tornadoVMBytecodeList, int[] args, long sizeBatch) {
 
+        for (int arg : args) {
+            syncResidentCopy(arg, sizeBatch);
+        }
+
+        if (isPipelinedBatch()) {
+            return executePipelinedAlloc(tornadoVMBytecodeList, args, sizeBatch);
+        }
+
         Object[] objects = new Object[args.length];
         DeviceObjectState[] objectStates = new DeviceObjectState[args.length];
         for (int i = 0; i < objects.length; i++) {
@@ -413,9 +559,33 @@ public class TornadoVMInterpreter extends TornadoLogger {
         return deviceForInterpreter.allocateObjects(objects, sizeBatch, objectStates);
     }
 
+    /**
+     * In pipelined mode, ALLOC only records the size of the buffers. Each buffer
+     * set is allocated when a batch first uses it (see
+     * {@link #resolveObjectState}), since the last batch can be smaller than the
+     * others.
+     */
+    private int executePipelinedAlloc(StringBuilder tornadoVMBytecodeList, int[] args, long sizeBatch) {
+        for (int arg : args) {
+            pipelineAllocationSizes.put(arg, sizeBatch);
+            if (TornadoOptions.PRINT_BYTECODES) {
+                String verbose = String.format("bc: " + InterpreterUtilities.debugHighLightBC("ALLOC") + "%s on %s, size=%d, buffer sets=%d", this.objects.get(arg), InterpreterUtilities.debugDeviceBC(
+                        deviceForInterpreter), sizeBatch, pipelineDepth);
+                tornadoVMBytecodeList.append(verbose).append("\n");
+            }
+        }
+        return -1;
+    }
+
     private int executeDeAlloc(StringBuilder tornadoVMBytecodeList, final int objectIndex) {
         Object object = objects.get(objectIndex);
 
+        if (isPipelinedBatch()) {
+            // Buffers may still be in use by the batches in flight
+            deferredDeallocations.add(objectIndex);
+            return -1;
+        }
+
         if (TornadoOptions.PRINT_BYTECODES && isObjectAtomic(object)) {
             String verbose = String.format("bc: " + InterpreterUtilities.debugHighLightBC("DEALLOC") + "[0x%x] %s on %s", object.hashCode(), object, InterpreterUtilities.debugDeviceBC(
                     deviceForInterpreter));
@@ -424,22 +594,91 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex);
+        if (!objectState.isLockedBuffer() && globalStates[objectIndex].isResidentOn(deviceForInterpreter)) {
+            // The buffer is released, so the deferred transfer cannot wait
+            globalStates[objectIndex].syncResidentCopy(object);
+        }
         return deviceForInterpreter.deallocate(objectState);
     }
 
+    /**
+     * Performs the deferred transfer to the host of an object before this
+     * task-graph uses it, unless the latest version is already on this device
+     * and the whole object is used.
+     */
+    private void syncResidentCopy(int objectIndex, long sizeBatch) {
+        final GlobalObjectState globalState = globalStates[objectIndex];
+        if (globalState.isResident() && !isDeviceCopyValid(objectIndex, sizeBatch)) {
+            globalState.syncResidentCopy(objects.get(objectIndex));
+        }
+    }
+
+    /**
+     * @return true if a previous task-graph of the execution plan left the latest
+     *     version of the object on this device, so the transfer from the host can
+     *     be skipped.
+     */
+    private boolean isDeviceCopyValid(int objectIndex, long sizeBatch) {
+        return sizeBatch <= 0 && !isPipelinedBatch() && globalStates[objectIndex].isResidentOn(deviceForInterpreter);
+    }
+
+    /**
+     * @return true if the transfer to the host can be deferred to the end of the
+     *     execution plan, because a later task-graph of the plan uses the object.
+     */
+    private boolean isTransferToHostDeferred(Object object, DeviceObjectState objectState, long offset, long sizeBatch) {
+        return sizeBatch <= 0 && offset == 0 && !isPipelinedBatch() && !objectState.isAtomicRegionPresent() && objectState.getPartialCopySize() == 0 && executionContext.isTransferToHostDeferred(
+                object);
+    }
+
+    private void deferTransferToHost(int objectIndex, DeviceObjectState objectState) {
+        // The device copy is the valid one until the deferred transfer is performed
+        objectState.setContents(true);
+        globalStates[objectIndex].setResidentDevice(deviceForInterpreter);
+        debug("deferred transfer to host of object[%d] on %s", objectIndex, deviceForInterpreter);
+    }
+
+    /**
+     * Transfers an object shared by the copies of a task-graph, which run on
+     * different command queues. Only the first copy transfers it, and it waits
+     * for the transfer to finish, so the others never read the buffer before its
+     * contents are on the device.
+     */
+    private void transferSharedObject(Object object, DeviceObjectState objectState, long offset) {
+        synchronized (objectState) {
+            if (!objectState.hasContents()) {
+                deviceForInterpreter.ensurePresent(object, objectState, null, 0, offset);
+                deviceForInterpreter.sync();
+            }
+        }
+    }
+
     private int transferHostToDeviceOnce(StringBuilder tornadoVMBytecodeList, final int objectIndex, final long offset, final int eventList, final long sizeBatch, final int[] waitList) {
         Object object = objects.get(objectIndex);
+        beginBatchChunk(objectIndex, offset, sizeBatch);
 
         if (isObjectKernelContext(object)) {
             return 0;
         }
 
+        if (isDeviceCopyValid(objectIndex, sizeBatch)) {
+            resetEventIndexes(eventList);
+            return 0;
+        }
+
         final DeviceObjectState objectState = resolveObjectState(objectIndex);
 
+        if (sizeBatch <= 0 && globalStates[objectIndex].isShared()) {
+            transferSharedObject(object, objectState, offset);
+            resetEventIndexes(eventList);
+            return 0;
+        }
+
         // We need to stream-in when using batches, because the whole data is not copied
         List<Integer> allEvents = (sizeBatch > 0)
                 ? deviceForInterpreter.streamIn(object, sizeBatch, offset, objectState, waitList)
                 : deviceForInterpreter.ensurePresent(object, objectState, waitList, sizeBatch, offset);
+        recordBroadcastEvents(objectIndex, allEvents);
 
         resetEventIndexes(eventList);
 
@@ -465,15 +704,11 @@ public class TornadoVMInterpreter extends TornadoLogger {
             for (Integer e : allEvents) {
                 Event event = deviceForInterpreter.resolveEvent(e);
                 event.waitForEvents();
-                long copyInTimer = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                copyInTimer += event.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
+                timeProfiler.sum(ProfilerType.COPY_IN_TIME, event.getElapsedTime());
 
                 timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
 
-                long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-                dispatchValue += event.getDriverDispatchTime();
-                timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+                timeProfiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
             }
         }
         return 0;
@@ -481,6 +716,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
     private int transferHostToDeviceAlways(StringBuilder tornadoVMBytecodeList, final int objectIndex, final long offset, final int eventList, final long sizeBatch, final int[] waitList) {
         Object object = objects.get(objectIndex);
+        beginBatchChunk(objectIndex, offset, sizeBatch);
 
         if (isObjectKernelContext(object)) {
             return 0;
@@ -493,8 +729,14 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
         }
 
+        if (isDeviceCopyValid(objectIndex, sizeBatch)) {
+            resetEventIndexes(eventList);
+            return 0;
+        }
+
         final DeviceObjectState objectState = resolveObjectState(objectIndex);
         List<Integer> allEvents = deviceForInterpreter.streamIn(object, sizeBatch, offset, objectState, waitList);
+        recordBroadcastEvents(objectIndex, allEvents);
 
         resetEventIndexes(eventList);
 
@@ -502,15 +744,11 @@ public class TornadoVMInterpreter extends TornadoLogger {
             for (Integer e : allEvents) {
                 Event event = deviceForInterpreter.resolveEvent(e);
                 event.waitForEvents();
-                long copyInTimer = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                copyInTimer += event.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, copyInTimer);
+                timeProfiler.sum(ProfilerType.COPY_IN_TIME, event.getElapsedTime());
 
                 timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_IN_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
 
-                long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-                dispatchValue += event.getDriverDispatchTime();
-                timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+                timeProfiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
             }
         }
         return 0;
@@ -518,6 +756,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
     private int transferDeviceToHost(StringBuilder tornadoVMBytecodeList, final int objectIndex, final long offset, final int eventList, final long sizeBatch, final int[] waitList) {
         Object object = objects.get(objectIndex);
+        beginBatchChunk(objectIndex, offset, sizeBatch);
 
         if (isObjectKernelContext(object)) {
             return 0;
@@ -531,22 +770,28 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex);
-        int lastEvent = deviceForInterpreter.streamOutBlocking(object, offset, objectState, waitList);
+        if (isTransferToHostDeferred(object, objectState, offset, sizeBatch)) {
+            deferTransferToHost(objectIndex, objectState);
+            resetEventIndexes(eventList);
+            return -1;
+        }
+
+        // In pipelined mode, the host does not wait for each batch. All batches are synchronised at the end.
+        int lastEvent = isPipelinedBatch()
+                ? deviceForInterpreter.streamOut(object, offset, objectState, waitList)
+                : deviceForInterpreter.streamOutBlocking(object, offset, objectState, waitList);
+        globalStates[objectIndex].clearResidentDevice();
 
         resetEventIndexes(eventList);
 
         if (TornadoOptions.isProfilerEnabled() && lastEvent != -1) {
             Event event = deviceForInterpreter.resolveEvent(lastEvent);
             event.waitForEvents();
-            long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME);
-            value += event.getElapsedTime();
-            timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME, value);
+            timeProfiler.sum(ProfilerType.COPY_OUT_TIME, event.getElapsedTime());
 
             timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
 
-            long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            timeProfiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
         }
         return lastEvent;
     }
@@ -554,6 +799,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
     private void transferDeviceToHostBlocking(StringBuilder tornadoVMBytecodeList, final int objectIndex, final long offset, final int eventList, final long sizeBatch, final int[] waitList) {
 
         Object object = objects.get(objectIndex);
+        beginBatchChunk(objectIndex, offset, sizeBatch);
 
         if (isObjectKernelContext(object)) {
             return;
@@ -567,21 +813,23 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
 
         final DeviceObjectState objectState = resolveObjectState(objectIndex);
+        if (isTransferToHostDeferred(object, objectState, offset, sizeBatch)) {
+            deferTransferToHost(objectIndex, objectState);
+            resetEventIndexes(eventList);
+            return;
+        }
 
         final int tornadoEventID = deviceForInterpreter.streamOutBlocking(object, offset, objectState, waitList);
+        globalStates[objectIndex].clearResidentDevice();
 
         if (TornadoOptions.isProfilerEnabled() && tornadoEventID != -1) {
             Event event = deviceForInterpreter.resolveEvent(tornadoEventID);
             event.waitForEvents();
-            long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME);
-            value += event.getElapsedTime();
-            timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME, value);
+            timeProfiler.sum(ProfilerType.COPY_OUT_TIME, event.getElapsedTime());
 
             timeProfiler.addValueToMetric(ProfilerType.TOTAL_COPY_OUT_SIZE_BYTES, TimeProfiler.NO_TASK_NAME, objectState.getObjectBuffer().size());
 
-            long dispatchValue = timeProfiler.getTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME);
-            dispatchValue += event.getDriverDispatchTime();
-            timeProfiler.setTimer(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, dispatchValue);
+            timeProfiler.sum(ProfilerType.TOTAL_DISPATCH_DATA_TRANSFERS_TIME, event.getDriverDispatchTime());
         }
         resetEventIndexes(eventList);
     }
@@ -599,6 +847,15 @@ public class TornadoVMInterpreter extends TornadoLogger {
         final int[] waitList = (useDependencies && eventList != -1) ? events[eventList] : null;
         final SchedulableTask task = tasks.get(taskIndex);
 
+        prepareTaskForCompilation(task, taskIndex, batchThreads);
+
+        if (shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)])) {
+            compileTask(task, taskIndex);
+        }
+        return new ExecutionInfo(callWrapper, waitList);
+    }
+
+    private void prepareTaskForCompilation(SchedulableTask task, int taskIndex, long batchThreads) {
         // Check if a different batch size was used for the same kernel. If true, then
         // the kernel needs to be recompiled.
         if (!shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)]) && task.getBatchThreads() != 0 && task.getBatchThreads() != batchThreads) {
@@ -613,29 +870,151 @@ public class TornadoVMInterpreter extends TornadoLogger {
             task.setUseGridScheduler(true);
             task.setGridScheduler(gridScheduler);
         }
+    }
 
-        if (shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)])) {
-            task.mapTo(deviceForInterpreter);
+    private void compileTask(SchedulableTask task, int taskIndex) {
+        task.mapTo(deviceForInterpreter);
+        try {
+            task.attachProfiler(timeProfiler);
+            if (taskIndex == (tasks.size() - 1)) {
+                // If it is the last task within the task-schedule or doUpdate is true -> we
+                // force compilation. This is useful when compiling code for Xilinx/Altera
+                // FPGAs, that has to be a single source.
+                task.forceCompilation();
+            }
+            NativeArraySizeAnalysis.checkArraySizes(task);
+            installedCodes[globalToLocalTaskIndex(taskIndex)] = deviceForInterpreter.installCode(task);
+            profilerUpdateForPreCompiledTask(task);
+        } catch (TornadoBailoutRuntimeException e) {
+            throw new TornadoBailoutRuntimeException("Unable to compile " + task.getFullName() + "\n" + "The internal error is: " + e.getMessage() + "\n" + "Stacktrace: " + Arrays.toString(e
+                    .getStackTrace()), e);
+        } catch (TornadoDeviceFP64NotSupported e) {
+            throw e;
+        } catch (InternalError e) {
+            throw new TornadoBailoutRuntimeException("[Internal Error] Unable to compile " + task.getFullName() + "\n" + Arrays.toString(e.getStackTrace()));
+        }
+    }
+
+    /**
+     * Compiles all the tasks of the bytecode that run on this device concurrently,
+     * using the compiler thread pool. This runs once, before the first execution,
+     * when {@link TornadoOptions#EAGER_PARALLEL_COMPILATION} is enabled. The
+     * bytecode is scanned for LAUNCH instructions without executing anything, so
+     * the regular execution finds the installed codes in place.
+     *
+     * <p>
+     * Since the compilation times of the tasks are accumulated as if the tasks
+     * were compiled one after the other, the time saved by compiling in parallel
+     * is subtracted from the total compilation time and reported in
+     * {@link ProfilerType#TOTAL_PARALLEL_COMPILE_SAVING}.
+     * </p>
+     */
+    private void compileTasksInParallel() {
+        eagerCompilationDone = true;
+        final Map<Integer, Long> launches = collectLaunchedTasks();
+        final List<Integer> pendingTasks = new ArrayList<>();
+        for (Map.Entry<Integer, Long> launch : launches.entrySet()) {
+            final int taskIndex = launch.getKey();
+            final SchedulableTask task = tasks.get(taskIndex);
+            if (!(task instanceof CompilableTask) || deviceForInterpreter.isFullJITMode(task)) {
+                continue;
+            }
+            prepareTaskForCompilation(task, taskIndex, launch.getValue());
+            if (shouldCompile(installedCodes[globalToLocalTaskIndex(taskIndex)])) {
+                pendingTasks.add(taskIndex);
+            }
+        }
+        if (pendingTasks.size() < 2) {
+            // Nothing to gain. Tasks are compiled on demand.
+            return;
+        }
+
+        final long graalTimeBefore = timeProfiler.getTimer(ProfilerType.TOTAL_GRAAL_COMPILE_TIME);
+        final long driverTimeBefore = timeProfiler.getTimer(ProfilerType.TOTAL_DRIVER_COMPILE_TIME);
+        final long start = System.nanoTime();
+
+        final List<Future<?>> compilations = new ArrayList<>(pendingTasks.size());
+        final ExecutorService compilerExecutor = TornadoCoreRuntime.getTornadoCompilerExecutor();
+        for (int taskIndex : pendingTasks) {
+            compilations.add(compilerExecutor.submit(() -> {
+                deviceForInterpreter.enableThreadSharing();
+                compileTask(tasks.get(taskIndex), taskIndex);
+            }));
+        }
+        waitForCompilations(compilations);
+
+        final long wallClockTime = System.nanoTime() - start;
+        final long graalTime = timeProfiler.getTimer(ProfilerType.TOTAL_GRAAL_COMPILE_TIME) - graalTimeBefore;
+        final long driverTime = timeProfiler.getTimer(ProfilerType.TOTAL_DRIVER_COMPILE_TIME) - driverTimeBefore;
+        final long saving = Math.min(graalTime, Math.max(0, graalTime + driverTime - wallClockTime));
+        timeProfiler.sum(ProfilerType.TOTAL_GRAAL_COMPILE_TIME, -saving);
+        timeProfiler.sum(ProfilerType.TOTAL_PARALLEL_COMPILE_SAVING, saving);
+        debug("compiled %d tasks in parallel in %.9f s (saving %.9f s)", pendingTasks.size(), wallClockTime * 1e-9, saving * 1e-9);
+    }
+
+    private void waitForCompilations(List<Future<?>> compilations) {
+        RuntimeException failure = null;
+        for (Future<?> compilation : compilations) {
             try {
-                task.attachProfiler(timeProfiler);
-                if (taskIndex == (tasks.size() - 1)) {
-                    // If it is the last task within the task-schedule or doUpdate is true -> we
-                    // force compilation. This is useful when compiling code for Xilinx/Altera
-                    // FPGAs, that has to be a single source.
-                    task.forceCompilation();
+                compilation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TornadoRuntimeException(e);
+            } catch (ExecutionException e) {
+                // Wait for the rest of the compilations before reporting the first failure
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                } else if (failure == null) {
+                    failure = (e.getCause() instanceof RuntimeException runtimeException) ? runtimeException : new TornadoRuntimeException(e);
                 }
-                installedCodes[globalToLocalTaskIndex(taskIndex)] = deviceForInterpreter.installCode(task);
-                profilerUpdateForPreCompiledTask(task);
-            } catch (TornadoBailoutRuntimeException e) {
-                throw new TornadoBailoutRuntimeException("Unable to compile " + task.getFullName() + "\n" + "The internal error is: " + e.getMessage() + "\n" + "Stacktrace: " + Arrays.toString(e
-                        .getStackTrace()), e);
-            } catch (TornadoDeviceFP64NotSupported e) {
-                throw e;
-            } catch (InternalError e) {
-                throw new TornadoBailoutRuntimeException("[Internal Error] Unable to compile " + task.getFullName() + "\n" + Arrays.toString(e.getStackTrace()));
             }
         }
-        return new ExecutionInfo(callWrapper, waitList);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Scans the bytecode without executing it.
+     *
+     * @return the index of each task launched by the bytecode (in order) and its
+     *     batch size.
+     */
+    private Map<Integer, Long> collectLaunchedTasks() {
+        final Map<Integer, Long> launches = new LinkedHashMap<>();
+        while (bytecodeResult.hasRemaining()) {
+            final byte op = bytecodeResult.get();
+            if (op == TornadoVMBytecodes.ALLOC.value()) {
+                bytecodeResult.getLong();
+                final int argSize = bytecodeResult.getInt();
+                for (int i = 0; i < argSize; i++) {
+                    bytecodeResult.getInt();
+                }
+            } else if (op == TornadoVMBytecodes.DEALLOC.value() || op == TornadoVMBytecodes.ADD_DEPENDENCY.value() || op == TornadoVMBytecodes.BARRIER.value()) {
+                bytecodeResult.getInt();
+            } else if (op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ONCE.value() || op == TornadoVMBytecodes.TRANSFER_HOST_TO_DEVICE_ALWAYS.value()
+                    || op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS.value() || op == TornadoVMBytecodes.TRANSFER_DEVICE_TO_HOST_ALWAYS_BLOCKING.value()) {
+                bytecodeResult.getInt();
+                bytecodeResult.getInt();
+                bytecodeResult.getLong();
+                bytecodeResult.getLong();
+            } else if (op == TornadoVMBytecodes.LAUNCH.value()) {
+                bytecodeResult.getInt();
+                final int taskIndex = bytecodeResult.getInt();
+                final int numArgs = bytecodeResult.getInt();
+                bytecodeResult.getInt();
+                bytecodeResult.getLong();
+                final long batchThreads = bytecodeResult.getLong();
+                popArgumentsFromCall(numArgs);
+                launches.putIfAbsent(taskIndex, batchThreads);
+            } else if (op == TornadoVMBytecodes.END.value()) {
+                break;
+            } else {
+                throwError(op);
+            }
+        }
+        bytecodeResult.reset();
+        return launches;
     }
 
     private void popArgumentsFromCall(int numArgs) {
@@ -651,6 +1030,8 @@ public class TornadoVMInterpreter extends TornadoLogger {
         KernelArgs callWrapper = info.callWrapper;
         int[] waitList = info.waitList;
 
+        beginLaunchChunk(offset, batchThreads);
+
         if (installedCodes[globalToLocalTaskIndex(taskIndex)] == null) {
             // After warming-up, it is possible to get a null pointer in the task-cache due
             // to lazy compilation for FPGAs. In tha case, we check again the code cache.
@@ -696,8 +1077,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
                     continue;
                 }
 
-                final GlobalObjectState globalState = resolveGlobalObjectState(argIndex);
-                final DeviceObjectState objectState = globalState.getDeviceState(deviceForInterpreter);
+                final DeviceObjectState objectState = resolveObjectState(argIndex);
 
                 if (!isObjectInAtomicRegion(objectState, deviceForInterpreter, task)) {
                     // Add a reference (arrays, vector types, panama regions)
@@ -717,9 +1097,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
                 for (Integer e : allEvents) {
                     Event event = deviceForInterpreter.resolveEvent(e);
                     event.waitForEvents();
-                    long value = timeProfiler.getTimer(ProfilerType.COPY_IN_TIME);
-                    value += event.getElapsedTime();
-                    timeProfiler.setTimer(ProfilerType.COPY_IN_TIME, value);
+                    timeProfiler.sum(ProfilerType.COPY_IN_TIME, event.getElapsedTime());
                 }
             }
             if (TornadoOptions.PRINT_BYTECODES) {
@@ -794,9 +1172,144 @@ public class TornadoVMInterpreter extends TornadoLogger {
     }
 
     private DeviceObjectState resolveObjectState(int index) {
+        if (isPipelinedBatch()) {
+            int slot = isBroadcastObject(index) ? 0 : (int) (currentChunk % pipelineDepth);
+            DeviceObjectState objectState = resolvePipelineState(index, slot);
+            Long sizeBatch = pipelineAllocationSizes.get(index);
+            if (sizeBatch != null) {
+                ensurePipelineBuffer(index, objectState, sizeBatch);
+            }
+            return objectState;
+        }
         return globalStates[index].getDeviceState(deviceForInterpreter);
     }
 
+    private boolean isPipelinedBatch() {
+        return pipelineDepth > 1;
+    }
+
+    /**
+     * Returns the state of the object for a buffer set. The first buffer set is
+     * the global state of the object on this device, the rest are owned by the
+     * interpreter.
+     */
+    private DeviceObjectState resolvePipelineState(int index, int slot) {
+        if (slot == 0) {
+            return globalStates[index].getDeviceState(deviceForInterpreter);
+        }
+        if (pipelineStates[index] == null) {
+            pipelineStates[index] = new DeviceObjectState[pipelineDepth];
+            for (int i = 1; i < pipelineDepth; i++) {
+                pipelineStates[index][i] = new DeviceObjectState();
+            }
+        }
+        return pipelineStates[index][slot];
+    }
+
+    /**
+     * Allocates the buffer of a buffer set if it does not exist or if it was
+     * allocated for a batch of a different size. The previous buffer may still
+     * be in use by a batch in flight, so it is released at the end of the
+     * execution.
+     */
+    private void ensurePipelineBuffer(int index, DeviceObjectState objectState, long sizeBatch) {
+        Long allocatedSize = pipelineBufferSizes.get(objectState);
+        if (objectState.hasObjectBuffer() && allocatedSize != null && allocatedSize == sizeBatch) {
+            return;
+        }
+        if (objectState.hasObjectBuffer() && !objectState.isLockedBuffer()) {
+            DeviceObjectState retired = new DeviceObjectState();
+            retired.setObjectBuffer(objectState.getObjectBuffer());
+            retiredBuffers.add(retired);
+            objectState.setObjectBuffer(null);
+            objectState.setContents(false);
+        }
+        deviceForInterpreter.allocateObjects(new Object[] { objects.get(index) }, sizeBatch, new DeviceObjectState[] { objectState });
+        pipelineBufferSizes.put(objectState, sizeBatch);
+    }
+
+    private void initPipeline() {
+        currentChunk = 0;
+        broadcastEvents.clear();
+        Arrays.fill(pipelineMarkers, -1);
+    }
+
+    /**
+     * Broadcast objects are shared by all the batches, so they only use the
+     * first buffer set.
+     */
+    private boolean isBroadcastObject(int index) {
+        return batchConfiguration != null && !batchConfiguration.isPartitioned(index);
+    }
+
+    private void beginBatchChunk(int objectIndex, long offset, long sizeBatch) {
+        if (!isPipelinedBatch() || sizeBatch <= 0 || isBroadcastObject(objectIndex)) {
+            return;
+        }
+        switchBatchChunk(batchConfiguration.getChunkIndex(objectIndex, offset));
+    }
+
+    private void beginLaunchChunk(long firstItem, long batchThreads) {
+        if (!isPipelinedBatch() || batchThreads <= 0) {
+            return;
+        }
+        switchBatchChunk(firstItem / batchConfiguration.getItemsPerChunk());
+    }
+
+    /**
+     * Switches the buffer set when the bytecode moves on to a new batch. Batch
+     * {@code c} uses the buffer set {@code c % depth}, which was last used by batch
+     * {@code c - depth}. A marker is enqueued at the end of each batch and a
+     * barrier on that marker is enqueued before batch {@code c + depth} reuses its
+     * buffers. The batches in between are free to overlap their transfers and
+     * kernels when the device executes commands out of order.
+     */
+    private void switchBatchChunk(long chunk) {
+        if (chunk == currentChunk) {
+            return;
+        }
+        pipelineMarkers[(int) (currentChunk % pipelineDepth)] = deviceForInterpreter.enqueueMarker();
+        currentChunk = chunk;
+        final int marker = pipelineMarkers[(int) (chunk % pipelineDepth)];
+        if (marker != -1) {
+            deviceForInterpreter.enqueueBarrier(new int[] { marker });
+        }
+        if (!broadcastEvents.isEmpty()) {
+            // The broadcast objects are copied by the first batch only
+            deviceForInterpreter.enqueueBarrier(broadcastEvents.stream().mapToInt(Integer::intValue).toArray());
+            broadcastEvents.clear();
+        }
+    }
+
+    private void recordBroadcastEvents(int objectIndex, List<Integer> allEvents) {
+        if (isPipelinedBatch() && isBroadcastObject(objectIndex) && allEvents != null) {
+            allEvents.stream().filter(e -> e != -1).forEach(broadcastEvents::add);
+        }
+    }
+
+    /**
+     * Waits for all the batches in flight and releases the buffers of the
+     * de-allocations that were deferred.
+     */
+    private void releasePipelineBuffers() {
+        deviceForInterpreter.sync();
+        for (DeviceObjectState retired : retiredBuffers) {
+            deviceForInterpreter.deallocate(retired);
+        }
+        retiredBuffers.clear();
+        for (int objectIndex : deferredDeallocations) {
+            for (int slot = 0; slot < pipelineDepth; slot++) {
+                DeviceObjectState objectState = resolvePipelineState(objectIndex, slot);
+                if (objectState.hasObjectBuffer()) {
+                    deviceForInterpreter.deallocate(objectState);
+                }
+                pipelineBufferSizes.remove(objectState);
+            }
+        }
+        deferredDeallocations.clear();
+        pipelineAllocationSizes.clear();
+    }
+
     private boolean isObjectKernelContext(Object object) {
         return (object instanceof KernelContext);
     }
@@ -845,10 +1358,6 @@ public class TornadoVMInterpreter extends TornadoLogger {
         }
     }
 
-    private GlobalObjectState resolveGlobalObjectState(int index) {
-        return globalStates[index];
-    }
-
     private boolean isObjectInAtomicRegion(DeviceObjectState objectState, TornadoAcceleratorDevice device, SchedulableTask task) {
         return objectState.isAtomicRegionPresent() && device.checkAtomicsParametersForTask(task);
     }
@@ -863,6 +1372,7 @@ public class TornadoVMInterpreter extends TornadoLogger {
 
     public void clearInstalledCode() {
         Arrays.fill(installedCodes, null);
+        eagerCompilationDone = false;
     }
 
     private static class ExecutionInfo {
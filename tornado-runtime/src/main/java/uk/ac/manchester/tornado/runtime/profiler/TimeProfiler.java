@@ -23,13 +23,28 @@
  */
 package uk.ac.manchester.tornado.runtime.profiler;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
 
+/**
+ * Profiler of the task-graphs. The timers are stored in slots indexed by
+ * {@link ProfilerType#ordinal()}, and the accumulated values in striped
+ * counters, so the timers can be updated from multiple threads without locks
+ * and without allocating after the first update of each task.
+ *
+ * <p>
+ * The kernel, copy-in and copy-out times of each execution are also added to
+ * histograms that are kept across executions.
+ * </p>
+ */
 public class TimeProfiler implements TornadoProfiler {
 
     /**
@@ -39,145 +54,184 @@ public class TimeProfiler implements TornadoProfiler {
      */
     public static String NO_TASK_NAME = "noTask";
 
-    private HashMap<ProfilerType, Long> profilerTime;
-    private HashMap<String, HashMap<ProfilerType, Long>> taskTimers;
-    private HashMap<String, HashMap<ProfilerType, Long>> taskThroughputMetrics;
-    private HashMap<String, HashMap<ProfilerType, String>> taskDeviceIdentifiers;
-    private HashMap<String, HashMap<ProfilerType, String>> taskMethodNames;
+    private static final ProfilerType[] PROFILER_TYPES = ProfilerType.values();
+    private static final int NUM_TYPES = PROFILER_TYPES.length;
+    private static final ProfilerType[] HISTOGRAM_TYPES = { ProfilerType.TOTAL_KERNEL_TIME, ProfilerType.COPY_IN_TIME, ProfilerType.COPY_OUT_TIME };
 
-    private HashMap<String, HashMap<ProfilerType, String>> taskBackends;
+    static {
+        // The types with a value are tracked with a bit mask
+        if (NUM_TYPES > Long.SIZE) {
+            throw new ExceptionInInitializerError("Too many profiler types: " + NUM_TYPES);
+        }
+    }
+
+    private final LongAdder[] profilerTime;
+    private final AtomicLongArray profilerStartTime;
+    private final AtomicLong profilerTimeMask;
+    private final ConcurrentHashMap<String, TaskSlots> tasks;
+    private final LatencyHistogram[] histograms;
 
     private StringBuilder indent;
 
     public TimeProfiler() {
-        profilerTime = new HashMap<>();
-        taskTimers = new HashMap<>();
-        taskDeviceIdentifiers = new HashMap<>();
-        taskMethodNames = new HashMap<>();
-        taskThroughputMetrics = new HashMap<>();
-        taskBackends = new HashMap<>();
+        profilerTime = newCounters();
+        profilerStartTime = new AtomicLongArray(NUM_TYPES);
+        profilerTimeMask = new AtomicLong();
+        tasks = new ConcurrentHashMap<>();
+        histograms = new LatencyHistogram[NUM_TYPES];
+        for (ProfilerType type : HISTOGRAM_TYPES) {
+            histograms[type.ordinal()] = new LatencyHistogram();
+        }
         indent = new StringBuilder("");
     }
 
-    @Override
-    public synchronized void addValueToMetric(ProfilerType type, String taskName, long value) {
-        if (!taskThroughputMetrics.containsKey(taskName)) {
-            taskThroughputMetrics.put(taskName, new HashMap<>());
+    /**
+     * Values of one task. The slots are created once per task and reused by
+     * all executions.
+     */
+    private static final class TaskSlots {
+        private final AtomicLongArray timers = new AtomicLongArray(NUM_TYPES);
+        private final AtomicLong timersMask = new AtomicLong();
+        private final LongAdder[] metrics = newCounters();
+        private final AtomicLong metricsMask = new AtomicLong();
+        private volatile String methodName;
+        private volatile String deviceName;
+        private volatile String deviceID;
+        private volatile String backend;
+
+        private void clean() {
+            for (int i = 0; i < NUM_TYPES; i++) {
+                timers.set(i, 0);
+                metrics[i].reset();
+            }
+            timersMask.set(0);
+            metricsMask.set(0);
+        }
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[NUM_TYPES];
+        for (int i = 0; i < NUM_TYPES; i++) {
+            counters[i] = new LongAdder();
         }
-        HashMap<ProfilerType, Long> profilerType = taskThroughputMetrics.get(taskName);
-        profilerType.put(type, profilerType.get(type) != null ? profilerType.get(type) + value : value);
-        taskThroughputMetrics.put(taskName, profilerType);
+        return counters;
+    }
+
+    private static void mark(AtomicLong mask, ProfilerType type) {
+        long bit = 1L << type.ordinal();
+        if ((mask.get() & bit) == 0) {
+            mask.accumulateAndGet(bit, (current, value) -> current | value);
+        }
+    }
+
+    private static boolean isMarked(AtomicLong mask, ProfilerType type) {
+        return (mask.get() & (1L << type.ordinal())) != 0;
+    }
+
+    private TaskSlots getOrCreateTask(String taskName) {
+        TaskSlots slots = tasks.get(taskName);
+        if (slots == null) {
+            slots = tasks.computeIfAbsent(taskName, name -> new TaskSlots());
+        }
+        return slots;
     }
 
     @Override
-    public synchronized void start(ProfilerType type) {
-        long start = System.nanoTime();
-        profilerTime.put(type, start);
+    public void addValueToMetric(ProfilerType type, String taskName, long value) {
+        TaskSlots slots = getOrCreateTask(taskName);
+        slots.metrics[type.ordinal()].add(value);
+        mark(slots.metricsMask, type);
     }
 
     @Override
-    public synchronized void start(ProfilerType type, String taskName) {
-        long start = System.nanoTime();
-        if (!taskTimers.containsKey(taskName)) {
-            taskTimers.put(taskName, new HashMap<>());
-        }
-        HashMap<ProfilerType, Long> profilerType = taskTimers.get(taskName);
-        profilerType.put(type, start);
-        taskTimers.put(taskName, profilerType);
+    public void start(ProfilerType type) {
+        profilerStartTime.set(type.ordinal(), System.nanoTime());
     }
 
     @Override
-    public synchronized void registerMethodHandle(ProfilerType type, String taskName, String methodName) {
-        if (!taskMethodNames.containsKey(taskName)) {
-            taskMethodNames.put(taskName, new HashMap<>());
-        }
-        HashMap<ProfilerType, String> profilerType = taskMethodNames.get(taskName);
-        profilerType.put(type, methodName);
-        taskMethodNames.put(methodName, profilerType);
+    public void start(ProfilerType type, String taskName) {
+        long start = System.nanoTime();
+        TaskSlots slots = getOrCreateTask(taskName);
+        slots.timers.set(type.ordinal(), start);
+        mark(slots.timersMask, type);
     }
 
     @Override
-    public synchronized void registerDeviceName(String taskName, String deviceInfo) {
-        if (!taskDeviceIdentifiers.containsKey(taskName)) {
-            taskDeviceIdentifiers.put(taskName, new HashMap<>());
-        }
-        HashMap<ProfilerType, String> profilerType = taskDeviceIdentifiers.get(taskName);
-        profilerType.put(ProfilerType.DEVICE, deviceInfo);
-        taskDeviceIdentifiers.put(taskName, profilerType);
+    public void registerMethodHandle(ProfilerType type, String taskName, String methodName) {
+        getOrCreateTask(taskName).methodName = methodName;
     }
 
     @Override
-    public synchronized void registerBackend(String taskName, String backend) {
-        if (!taskBackends.containsKey(taskName)) {
-            taskBackends.put(taskName, new HashMap<>());
-        }
-        HashMap<ProfilerType, String> profilerType = taskBackends.get(taskName);
+    public void registerDeviceName(String taskName, String deviceInfo) {
+        getOrCreateTask(taskName).deviceName = deviceInfo;
+    }
 
-        profilerType.put(ProfilerType.BACKEND, backend);
-        taskBackends.put(taskName, profilerType);
+    @Override
+    public void registerBackend(String taskName, String backend) {
+        getOrCreateTask(taskName).backend = backend;
     }
 
     @Override
-    public synchronized void registerDeviceID(String taskName, String deviceID) {
-        if (!taskDeviceIdentifiers.containsKey(taskName)) {
-            taskDeviceIdentifiers.put(taskName, new HashMap<>());
-        }
-        HashMap<ProfilerType, String> profilerType = taskDeviceIdentifiers.get(taskName);
-        profilerType.put(ProfilerType.DEVICE_ID, deviceID);
-        taskDeviceIdentifiers.put(taskName, profilerType);
+    public void registerDeviceID(String taskName, String deviceID) {
+        getOrCreateTask(taskName).deviceID = deviceID;
     }
 
     @Override
-    public synchronized void stop(ProfilerType type) {
+    public void stop(ProfilerType type) {
         long end = System.nanoTime();
-        long start = profilerTime.get(type);
-        long total = end - start;
-        profilerTime.put(type, total);
+        setTimer(type, end - profilerStartTime.get(type.ordinal()));
     }
 
     @Override
-    public synchronized void stop(ProfilerType type, String taskName) {
+    public void stop(ProfilerType type, String taskName) {
         long end = System.nanoTime();
-        HashMap<ProfilerType, Long> profiledType = taskTimers.get(taskName);
-        long start = profiledType.get(type);
-        long total = end - start;
-        profiledType.put(type, total);
-        taskTimers.put(taskName, profiledType);
+        TaskSlots slots = getOrCreateTask(taskName);
+        long start = slots.timers.get(type.ordinal());
+        slots.timers.set(type.ordinal(), end - start);
     }
 
     @Override
     public long getTimer(ProfilerType type) {
-        if (!profilerTime.containsKey(type)) {
-            return 0;
-        }
-        return profilerTime.get(type);
+        return profilerTime[type.ordinal()].sum();
     }
 
     @Override
     public long getTaskTimer(ProfilerType type, String taskName) {
-        if (!taskTimers.containsKey(taskName)) {
+        TaskSlots slots = tasks.get(taskName);
+        if (slots == null) {
             return 0;
         }
-        if (!taskTimers.get(taskName).containsKey(type)) {
-            return 0;
-        }
-        return taskTimers.get(taskName).get(type);
+        return slots.timers.get(type.ordinal());
     }
 
     @Override
-    public synchronized void setTimer(ProfilerType type, long time) {
-        profilerTime.put(type, time);
+    public void setTimer(ProfilerType type, long time) {
+        LongAdder counter = profilerTime[type.ordinal()];
+        counter.reset();
+        counter.add(time);
+        mark(profilerTimeMask, type);
     }
 
     @Override
-    public synchronized void dump() {
-        for (ProfilerType p : profilerTime.keySet()) {
-            System.out.println("[PROFILER] " + p.getDescription() + ": " + profilerTime.get(p));
+    public void dump() {
+        for (ProfilerType p : PROFILER_TYPES) {
+            if (isMarked(profilerTimeMask, p)) {
+                System.out.println("[PROFILER] " + p.getDescription() + ": " + getTimer(p));
+            }
         }
 
-        for (String p : taskTimers.keySet()) {
-            System.out.println("[PROFILER-TASK] " + p + ": " + taskTimers.get(p));
+        tasks.forEach((name, slots) -> {
+            StringBuilder timers = new StringBuilder();
+            for (ProfilerType p : PROFILER_TYPES) {
+                if (isMarked(slots.timersMask, p)) {
+                    timers.append(timers.isEmpty() ? "" : ", ").append(p).append("=").append(slots.timers.get(p.ordinal()));
+                }
+            }
+            System.out.println("[PROFILER-TASK] " + name + ": {" + timers + "}");
+        });
 
+        for (ProfilerType p : HISTOGRAM_TYPES) {
+            System.out.println("[PROFILER-HISTOGRAM] " + p.getDescription() + ": " + histograms[p.ordinal()]);
         }
     }
 
@@ -198,41 +252,51 @@ public class TimeProfiler implements TornadoProfiler {
     }
 
     @Override
-    public String createJson(StringBuilder json, String sectionName) {
+    public synchronized String createJson(StringBuilder json, String sectionName) {
         json.append("{\n");
         increaseIndent();
         json.append(indent.toString() + "\"" + sectionName + "\": " + "{\n");
         increaseIndent();
-        for (ProfilerType p : profilerTime.keySet()) {
-            json.append(indent.toString() + "\"" + p + "\"" + ": " + "\"" + profilerTime.get(p) + "\",\n");
+        for (ProfilerType p : PROFILER_TYPES) {
+            if (isMarked(profilerTimeMask, p)) {
+                json.append(indent.toString() + "\"" + p + "\"" + ": " + "\"" + getTimer(p) + "\",\n");
+            }
         }
-        if (taskThroughputMetrics.containsKey(NO_TASK_NAME)) {
-            HashMap<ProfilerType, Long> noTaskValues = taskThroughputMetrics.get(NO_TASK_NAME);
-            for (ProfilerType p : noTaskValues.keySet()) {
-                json.append(indent.toString() + "\"" + p + "\"" + ": " + "\"" + noTaskValues.get(p) + "\",\n");
+        TaskSlots noTask = tasks.get(NO_TASK_NAME);
+        if (noTask != null) {
+            for (ProfilerType p : PROFILER_TYPES) {
+                if (isMarked(noTask.metricsMask, p)) {
+                    json.append(indent.toString() + "\"" + p + "\"" + ": " + "\"" + noTask.metrics[p.ordinal()].sum() + "\",\n");
+                }
             }
         }
 
-        final int size = taskTimers.keySet().size();
+        final long size = tasks.values().stream().filter(slots -> slots.timersMask.get() != 0).count();
         int counter = 0;
-        for (String p : taskTimers.keySet()) {
-            json.append(indent.toString() + "\"" + p + "\"" + ": {\n");
+        for (var entry : tasks.entrySet()) {
+            TaskSlots slots = entry.getValue();
+            if (slots.timersMask.get() == 0) {
+                continue;
+            }
+            json.append(indent.toString() + "\"" + entry.getKey() + "\"" + ": {\n");
             increaseIndent();
             counter++;
             if (TornadoOptions.LOG_IP) {
                 json.append(indent.toString() + "\"" + "IP" + "\"" + ": " + "\"" + RuntimeUtilities.getTornadoInstanceIP() + "\",\n");
             }
-            json.append(indent.toString() + "\"" + ProfilerType.BACKEND + "\"" + ": " + "\"" + taskBackends.get(p).get(ProfilerType.BACKEND) + "\",\n");
-            json.append(indent.toString() + "\"" + ProfilerType.METHOD + "\"" + ": " + "\"" + taskMethodNames.get(p).get(ProfilerType.METHOD) + "\",\n");
-            json.append(indent.toString() + "\"" + ProfilerType.DEVICE_ID + "\"" + ": " + "\"" + taskDeviceIdentifiers.get(p).get(ProfilerType.DEVICE_ID) + "\",\n");
-            json.append(indent.toString() + "\"" + ProfilerType.DEVICE + "\"" + ": " + "\"" + taskDeviceIdentifiers.get(p).get(ProfilerType.DEVICE) + "\",\n");
-            if (taskThroughputMetrics.containsKey(p)) {
-                for (ProfilerType p1 : taskThroughputMetrics.get(p).keySet()) {
-                    json.append(indent.toString() + "\"" + p1 + "\"" + ": " + "\"" + taskThroughputMetrics.get(p).get(p1) + "\",\n");
+            json.append(indent.toString() + "\"" + ProfilerType.BACKEND + "\"" + ": " + "\"" + slots.backend + "\",\n");
+            json.append(indent.toString() + "\"" + ProfilerType.METHOD + "\"" + ": " + "\"" + slots.methodName + "\",\n");
+            json.append(indent.toString() + "\"" + ProfilerType.DEVICE_ID + "\"" + ": " + "\"" + slots.deviceID + "\",\n");
+            json.append(indent.toString() + "\"" + ProfilerType.DEVICE + "\"" + ": " + "\"" + slots.deviceName + "\",\n");
+            for (ProfilerType p1 : PROFILER_TYPES) {
+                if (isMarked(slots.metricsMask, p1)) {
+                    json.append(indent.toString() + "\"" + p1 + "\"" + ": " + "\"" + slots.metrics[p1.ordinal()].sum() + "\",\n");
                 }
             }
-            for (ProfilerType p2 : taskTimers.get(p).keySet()) {
-                json.append(indent.toString() + "\"" + p2 + "\"" + ": " + "\"" + taskTimers.get(p).get(p2) + "\",\n");
+            for (ProfilerType p2 : PROFILER_TYPES) {
+                if (isMarked(slots.timersMask, p2)) {
+                    json.append(indent.toString() + "\"" + p2 + "\"" + ": " + "\"" + slots.timers.get(p2.ordinal()) + "\",\n");
+                }
             }
             json.delete(json.length() - 2, json.length() - 1); // remove last comma
             decreaseIndent();
@@ -252,31 +316,46 @@ public class TimeProfiler implements TornadoProfiler {
     }
 
     @Override
-    public synchronized void dumpJson(StringBuilder json, String id) {
+    public void dumpJson(StringBuilder json, String id) {
         String jsonContent = createJson(json, id);
         System.out.println(jsonContent);
     }
 
     @Override
-    public synchronized void clean() {
-        taskThroughputMetrics.clear();
-        profilerTime.clear();
-        taskTimers.clear();
-        indent = new StringBuilder("");
+    public void clean() {
+        for (int i = 0; i < NUM_TYPES; i++) {
+            profilerTime[i].reset();
+        }
+        profilerTimeMask.set(0);
+        tasks.values().forEach(TaskSlots::clean);
+    }
+
+    @Override
+    public void setTaskTimer(ProfilerType type, String taskID, long timer) {
+        TaskSlots slots = getOrCreateTask(taskID);
+        slots.timers.set(type.ordinal(), timer);
+        mark(slots.timersMask, type);
+    }
+
+    @Override
+    public void sum(ProfilerType acc, long value) {
+        profilerTime[acc.ordinal()].add(value);
+        mark(profilerTimeMask, acc);
     }
 
     @Override
-    public synchronized void setTaskTimer(ProfilerType type, String taskID, long timer) {
-        if (!taskTimers.containsKey(taskID)) {
-            taskTimers.put(taskID, new HashMap<>());
+    public void recordHistograms() {
+        for (ProfilerType type : HISTOGRAM_TYPES) {
+            if (isMarked(profilerTimeMask, type)) {
+                histograms[type.ordinal()].record(getTimer(type));
+            }
         }
-        taskTimers.get(taskID).put(type, timer);
     }
 
     @Override
-    public synchronized void sum(ProfilerType acc, long value) {
-        long sum = getTimer(acc) + value;
-        profilerTime.put(acc, sum);
+    public LatencyHistogram getHistogram(ProfilerType type) {
+        LatencyHistogram histogram = histograms[type.ordinal()];
+        return histogram != null ? histogram.copy() : new LatencyHistogram();
     }
 
 }
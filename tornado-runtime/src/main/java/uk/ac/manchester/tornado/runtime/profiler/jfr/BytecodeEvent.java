@@ -0,0 +1,64 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted by the TornadoVM interpreter for each bytecode that it
+ * executes. The duration of the event is the time spent by the interpreter in
+ * the bytecode. For non-blocking bytecodes, this is the time to enqueue the
+ * command, not the time the device spends running it.
+ */
+@Name("tornado.Bytecode")
+@Label("TornadoVM Bytecode")
+@Category({ "TornadoVM", "Interpreter" })
+@Description("Execution of a bytecode by the TornadoVM interpreter")
+@StackTrace(false)
+public class BytecodeEvent extends Event {
+
+    @Label("Task Graph")
+    public String taskGraph;
+
+    @Label("Bytecode")
+    public String bytecode;
+
+    @Label("Task")
+    @Description("Task launched by the bytecode, only set for LAUNCH")
+    public String task;
+
+    @Label("Device")
+    public String device;
+
+    @Label("Bytes")
+    @Description("Bytes allocated or transferred by the bytecode")
+    @DataAmount
+    public long bytes;
+}
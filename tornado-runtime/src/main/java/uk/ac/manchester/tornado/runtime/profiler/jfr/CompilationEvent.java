@@ -0,0 +1,69 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the compilation of a sketch into the source or binary of a
+ * backend (OpenCL C, PTX or SPIR-V).
+ */
+@Name("tornado.Compilation")
+@Label("TornadoVM Compilation")
+@Category({ "TornadoVM", "Compiler" })
+@Description("Compilation of a task by a TornadoVM backend")
+@StackTrace(false)
+public class CompilationEvent extends Event {
+
+    @Label("Task")
+    public String task;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Backend")
+    public String backend;
+
+    @Label("Device")
+    public String device;
+
+    /**
+     * Ends the event and commits it, if it is enabled, with the given fields.
+     */
+    public void finish(String task, String method, String backend, String device) {
+        end();
+        if (shouldCommit()) {
+            this.task = task;
+            this.method = method;
+            this.backend = backend;
+            this.device = device;
+            commit();
+        }
+    }
+}
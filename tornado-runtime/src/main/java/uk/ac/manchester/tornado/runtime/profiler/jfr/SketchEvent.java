@@ -0,0 +1,53 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the construction of the Graal sketch (the device independent
+ * IR) of a method by the {@code TornadoSketcher}. Sketches are built
+ * asynchronously, and the methods called by a task get their own event.
+ */
+@Name("tornado.Sketch")
+@Label("TornadoVM Sketch")
+@Category({ "TornadoVM", "Compiler" })
+@Description("Build of the Graal IR sketch of a method")
+@StackTrace(false)
+public class SketchEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Driver Index")
+    public int driverIndex;
+
+    @Label("Device Index")
+    public int deviceIndex;
+}
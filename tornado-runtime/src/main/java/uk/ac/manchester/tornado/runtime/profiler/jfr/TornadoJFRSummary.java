@@ -0,0 +1,165 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.profiler.jfr;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarises the TornadoVM events of a JFR recording. For each task graph, it
+ * prints the time spent by the interpreter in each bytecode, and for each task
+ * the time spent in the backend compilation and in the driver build.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado -XX:StartFlightRecording=filename=tornado.jfr,settings=profile ...
+ * tornado -m tornado.runtime/uk.ac.manchester.tornado.runtime.profiler.jfr.TornadoJFRSummary tornado.jfr
+ * </code>
+ */
+public final class TornadoJFRSummary {
+
+    private static final String BYTECODE_EVENT = "tornado.Bytecode";
+    private static final String SKETCH_EVENT = "tornado.Sketch";
+    private static final String COMPILATION_EVENT = "tornado.Compilation";
+    private static final String DRIVER_BUILD_EVENT = "tornado.DriverBuild";
+
+    /**
+     * Number of events, accumulated duration and bytes of a group of events.
+     */
+    static final class Entry {
+        private long count;
+        private long nanos;
+        private long bytes;
+
+        void add(Duration duration, long bytes) {
+            count++;
+            nanos += duration.toNanos();
+            this.bytes += bytes;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getNanos() {
+            return nanos;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final Map<String, Map<String, Entry>> bytecodes = new TreeMap<>();
+    private final Map<String, Entry> launches = new TreeMap<>();
+    private final Map<String, Entry> sketches = new TreeMap<>();
+    private final Map<String, Entry> compilations = new TreeMap<>();
+    private final Map<String, Entry> driverBuilds = new TreeMap<>();
+
+    private static Entry entry(Map<String, Entry> map, String key) {
+        return map.computeIfAbsent(key == null ? "-" : key, k -> new Entry());
+    }
+
+    void add(RecordedEvent event) {
+        switch (event.getEventType().getName()) {
+            case BYTECODE_EVENT -> {
+                String taskGraph = event.getString("taskGraph");
+                Map<String, Entry> perBytecode = bytecodes.computeIfAbsent(taskGraph == null ? "-" : taskGraph, k -> new TreeMap<>());
+                entry(perBytecode, event.getString("bytecode")).add(event.getDuration(), event.getLong("bytes"));
+                if (event.getString("task") != null) {
+                    entry(launches, event.getString("task")).add(event.getDuration(), 0);
+                }
+            }
+            case SKETCH_EVENT -> entry(sketches, event.getString("method")).add(event.getDuration(), 0);
+            case COMPILATION_EVENT -> entry(compilations, event.getString("task")).add(event.getDuration(), 0);
+            case DRIVER_BUILD_EVENT -> entry(driverBuilds, event.getString("task")).add(event.getDuration(), event.getLong("codeSize"));
+            default -> {
+                // Not a TornadoVM event
+            }
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos * 1e-6;
+    }
+
+    private static void printEntries(PrintStream out, String title, Map<String, Entry> entries, boolean withBytes) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long total = 0;
+        for (Entry e : entries.values()) {
+            total += e.getNanos();
+        }
+        out.println(title);
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry value = e.getValue();
+            double percentage = total == 0 ? 0 : 100.0 * value.getNanos() / total;
+            String line = String.format("  %-40s %8d %14.3f ms %6.1f %%", e.getKey(), value.getCount(), toMillis(value.getNanos()), percentage);
+            if (withBytes) {
+                line += String.format(" %16d bytes", value.getBytes());
+            }
+            out.println(line);
+        }
+        out.printf("  %-40s %8s %14.3f ms%n", "TOTAL", "", toMillis(total));
+        out.println();
+    }
+
+    void print(PrintStream out) {
+        for (Map.Entry<String, Map<String, Entry>> taskGraph : bytecodes.entrySet()) {
+            printEntries(out, "Task graph " + taskGraph.getKey() + " (bytecode, count, time, share, bytes)", taskGraph.getValue(), true);
+        }
+        printEntries(out, "Kernel launches (task, count, time, share)", launches, false);
+        printEntries(out, "Graal sketches (method, count, time, share)", sketches, false);
+        printEntries(out, "Backend compilations (task, count, time, share)", compilations, false);
+        printEntries(out, "Driver builds (task, count, time, share, code size)", driverBuilds, true);
+    }
+
+    public static TornadoJFRSummary parse(Path recording) throws IOException {
+        TornadoJFRSummary summary = new TornadoJFRSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: TornadoJFRSummary <recording.jfr>");
+            System.exit(1);
+        }
+        parse(Path.of(args[0])).print(System.out);
+    }
+}
@@ -71,6 +71,7 @@ import uk.ac.manchester.tornado.runtime.common.Tornado;
 import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoCompilerIdentifier;
 import uk.ac.manchester.tornado.runtime.graal.compiler.TornadoSketchTier;
 import uk.ac.manchester.tornado.runtime.graal.phases.TornadoSketchTierContext;
+import uk.ac.manchester.tornado.runtime.profiler.jfr.SketchEvent;
 
 public class TornadoSketcher {
 
@@ -258,10 +259,20 @@ public class TornadoSketcher {
 
         @Override
         public Sketch call() {
+            SketchEvent sketchEvent = new SketchEvent();
+            sketchEvent.begin();
             try (DebugContext.Scope ignored = getDebugContext().scope("SketchCompiler")) {
                 return buildSketch(request.resolvedMethod, request.providers, request.graphBuilderSuite, request.sketchTier, request.driverIndex, request.deviceIndex);
             } catch (Throwable e) {
                 throw getDebugContext().handle(e);
+            } finally {
+                sketchEvent.end();
+                if (sketchEvent.shouldCommit()) {
+                    sketchEvent.method = request.resolvedMethod.format("%H.%n");
+                    sketchEvent.driverIndex = request.driverIndex;
+                    sketchEvent.deviceIndex = request.deviceIndex;
+                    sketchEvent.commit();
+                }
             }
         }
     }
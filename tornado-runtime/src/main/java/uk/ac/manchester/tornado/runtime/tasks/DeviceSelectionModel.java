@@ -0,0 +1,261 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import static uk.ac.manchester.tornado.runtime.common.Tornado.debug;
+import static uk.ac.manchester.tornado.runtime.common.Tornado.warn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Execution times of task-graphs measured by the dynamic reconfiguration,
+ * persisted across runs and used to predict the fastest device without running
+ * the task-graph on every device.
+ *
+ * <p>
+ * Measurements are indexed by policy, task-graph signature, device and input
+ * size. Each entry keeps the running mean of the last {@link #MAX_SAMPLES}
+ * executions. The time for a size that has not been measured is interpolated in
+ * log-log space between the nearest measured sizes. Below the smallest measured
+ * size the time of that size is used, since fixed costs (launch, transfers)
+ * dominate. Above the largest one, the time grows linearly with the size.
+ * </p>
+ *
+ * <p>
+ * The model is written with an atomic rename after each exploration and when
+ * the JVM exits. Processes that share the file do not merge their updates: the
+ * last one to save wins.
+ * </p>
+ */
+public final class DeviceSelectionModel {
+
+    /**
+     * Device key for the sequential execution in the JVM.
+     */
+    public static final String JVM_DEVICE = "JVM";
+
+    private static final int MAX_SAMPLES = 16;
+    private static final String SEPARATOR = "|";
+
+    private static DeviceSelectionModel instance;
+
+    private final Path file;
+    private final int reexploreInterval;
+    // policy|signature|device -> input size -> measurement
+    private final Map<String, TreeMap<Long, Measurement>> measurements;
+    private boolean dirty;
+
+    public DeviceSelectionModel(Path file, int reexploreInterval) {
+        this.file = file;
+        this.reexploreInterval = reexploreInterval;
+        this.measurements = new HashMap<>();
+        load();
+    }
+
+    public static synchronized DeviceSelectionModel getInstance() {
+        if (instance == null) {
+            instance = new DeviceSelectionModel(Paths.get(TornadoOptions.DYNAMIC_RECONFIGURATION_MODEL_FILE), TornadoOptions.DYNAMIC_RECONFIGURATION_MODEL_REEXPLORE);
+            final DeviceSelectionModel model = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(model::save, "tornado-device-model"));
+        }
+        return instance;
+    }
+
+    /**
+     * Selected device for an execution.
+     *
+     * @param deviceIndex
+     *     Index in the array of devices passed to {@link #select}.
+     * @param exploration
+     *     True if the device is not the one predicted as the fastest.
+     */
+    public record Selection(int deviceIndex, boolean exploration) {
+    }
+
+    /**
+     * Selects the device for the next execution of a task-graph. Devices without
+     * measurements for the task-graph are explored first. After that, the device
+     * with the lowest predicted time is selected, except every
+     * {@code reexploreInterval} executions, in which one of the other devices is
+     * measured again in round-robin order.
+     *
+     * @param devices
+     *     Keys of the candidate devices.
+     * @param execution
+     *     Number of executions of the task-graph in this process so far.
+     */
+    public synchronized Selection select(Policy policy, String signature, String[] devices, long size, long execution) {
+        for (int i = 0; i < devices.length; i++) {
+            if (!measurements.containsKey(key(policy, signature, devices[i]))) {
+                return new Selection(i, true);
+            }
+        }
+
+        int best = 0;
+        double bestTime = Double.MAX_VALUE;
+        for (int i = 0; i < devices.length; i++) {
+            double time = predict(policy, signature, devices[i], size);
+            if (time < bestTime) {
+                bestTime = time;
+                best = i;
+            }
+        }
+
+        if (reexploreInterval > 0 && devices.length > 1 && execution > 0 && execution % reexploreInterval == 0) {
+            int round = (int) ((execution / reexploreInterval - 1) % (devices.length - 1));
+            return new Selection(round < best ? round : round + 1, true);
+        }
+        return new Selection(best, false);
+    }
+
+    /**
+     * @return the predicted time, or {@link Double#MAX_VALUE} if the device has
+     *     not been measured for the task-graph.
+     */
+    public synchronized double predict(Policy policy, String signature, String device, long size) {
+        TreeMap<Long, Measurement> sizes = measurements.get(key(policy, signature, device));
+        if (sizes == null || sizes.isEmpty()) {
+            return Double.MAX_VALUE;
+        }
+        size = Math.max(size, 1L);
+        Map.Entry<Long, Measurement> floor = sizes.floorEntry(size);
+        Map.Entry<Long, Measurement> ceiling = sizes.ceilingEntry(size);
+        if (floor == null) {
+            return ceiling.getValue().mean;
+        } else if (ceiling == null) {
+            return floor.getValue().mean * size / floor.getKey();
+        } else if (floor.getKey().equals(ceiling.getKey())) {
+            return floor.getValue().mean;
+        }
+        double x = Math.log((double) size / floor.getKey()) / Math.log((double) ceiling.getKey() / floor.getKey());
+        double logFloor = Math.log(Math.max(floor.getValue().mean, 1.0));
+        double logCeiling = Math.log(Math.max(ceiling.getValue().mean, 1.0));
+        return Math.exp(logFloor + x * (logCeiling - logFloor));
+    }
+
+    /**
+     * Adds the time of an execution to the model.
+     *
+     * @param time
+     *     Execution time in nanoseconds.
+     */
+    public synchronized void record(Policy policy, String signature, String device, long size, long time) {
+        Measurement measurement = measurements.computeIfAbsent(key(policy, signature, device), k -> new TreeMap<>()).computeIfAbsent(Math.max(size, 1L), s -> new Measurement(0, 0));
+        measurement.samples = Math.min(measurement.samples + 1, MAX_SAMPLES);
+        measurement.mean += (time - measurement.mean) / measurement.samples;
+        dirty = true;
+        debug("[Device Model] %s %s size=%d time=%d mean=%.0f", signature, device, size, time, measurement.mean);
+    }
+
+    private static String key(Policy policy, String signature, String device) {
+        return policy + SEPARATOR + signature + SEPARATOR + device;
+    }
+
+    private void load() {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (NoSuchFileException e) {
+            return;
+        } catch (IOException | IllegalArgumentException e) {
+            warn("[Device Model] unable to read %s: %s", file, e.getMessage());
+            return;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            int index = name.lastIndexOf(SEPARATOR);
+            String[] value = properties.getProperty(name).split(",");
+            try {
+                Measurement measurement = new Measurement(Double.parseDouble(value[0]), Integer.parseInt(value[1]));
+                measurements.computeIfAbsent(name.substring(0, index), k -> new TreeMap<>()).put(Long.parseLong(name.substring(index + 1)), measurement);
+            } catch (RuntimeException e) {
+                warn("[Device Model] ignoring malformed entry %s", name);
+            }
+        }
+    }
+
+    /**
+     * Writes the model if it has changed since it was loaded or last saved.
+     */
+    public synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<String, TreeMap<Long, Measurement>> entry : measurements.entrySet()) {
+            for (Map.Entry<Long, Measurement> size : entry.getValue().entrySet()) {
+                properties.setProperty(entry.getKey() + SEPARATOR + size.getKey(), size.getValue().mean + "," + size.getValue().samples);
+            }
+        }
+        Path tempFile = null;
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            tempFile = Files.createTempFile(directory, ".tmp-", file.getFileName().toString());
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "TornadoVM device selection model");
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tempFile = null;
+            dirty = false;
+        } catch (IOException e) {
+            warn("[Device Model] unable to write %s: %s", file, e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException e) {
+                    // best effort
+                }
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private static final class Measurement {
+        private double mean;
+        private int samples;
+
+        private Measurement(double mean, int samples) {
+            this.mean = mean;
+            this.samples = samples;
+        }
+    }
+}
@@ -35,6 +35,19 @@ public class GlobalObjectState implements TornadoGlobalObjectState {
 
     private final ConcurrentHashMap<TornadoAcceleratorDevice, DeviceObjectState> deviceStates;
 
+    /**
+     * Device that holds the latest version of the object when its transfer to the
+     * host has been deferred to the end of the execution plan. Null if the host
+     * copy is up to date.
+     */
+    private TornadoAcceleratorDevice residentDevice;
+
+    /**
+     * True if the object is shared, read-only, by the copies of a task-graph that
+     * run concurrently on their own command queues.
+     */
+    private volatile boolean shared;
+
     public GlobalObjectState() {
         deviceStates = new ConcurrentHashMap<>();
     }
@@ -47,6 +60,48 @@ public class GlobalObjectState implements TornadoGlobalObjectState {
         return deviceStates.get(device);
     }
 
+    public synchronized void setResidentDevice(TornadoAcceleratorDevice device) {
+        residentDevice = device;
+    }
+
+    public synchronized boolean isResidentOn(TornadoDevice device) {
+        return residentDevice != null && residentDevice.equals(device);
+    }
+
+    public synchronized boolean isResident() {
+        return residentDevice != null;
+    }
+
+    public synchronized void clearResidentDevice() {
+        residentDevice = null;
+    }
+
+    /**
+     * Performs the deferred transfer to the host, if any.
+     *
+     * @param object
+     *     Host object tracked by this state.
+     */
+    public synchronized void syncResidentCopy(Object object) {
+        if (residentDevice == null) {
+            return;
+        }
+        final TornadoAcceleratorDevice device = residentDevice;
+        residentDevice = null;
+        final DeviceObjectState deviceState = getDeviceState(device);
+        if (deviceState.hasObjectBuffer()) {
+            device.streamOutBlocking(object, 0, deviceState, null);
+        }
+    }
+
+    public void markShared() {
+        shared = true;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
     public void clear() {
         deviceStates.clear();
     }
@@ -0,0 +1,164 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.function.IntFunction;
+
+import uk.ac.manchester.tornado.api.KernelContext;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+
+/**
+ * {@link KernelContext} of one work-item when a kernel runs on the host. The
+ * identifiers of the work-item are set in the fields inherited from
+ * {@link KernelContext}. Local arrays are shared by the work-items of a
+ * work-group: the n-th allocation of every work-item returns the same array.
+ */
+class HostKernelContext extends KernelContext {
+
+    private static final String[] FIELD_NAMES = { //
+            "globalIdx", "globalIdy", "globalIdz", //
+            "groupIdx", "groupIdy", "groupIdz", //
+            "localIdx", "localIdy", "localIdz", //
+            "globalGroupSizeX", "globalGroupSizeY", "globalGroupSizeZ", //
+            "localGroupSizeX", "localGroupSizeY", "localGroupSizeZ" };
+
+    private static final Field[] FIELDS = new Field[FIELD_NAMES.length];
+
+    static {
+        try {
+            for (int i = 0; i < FIELD_NAMES.length; i++) {
+                FIELDS[i] = KernelContext.class.getDeclaredField(FIELD_NAMES[i]);
+                FIELDS[i].setAccessible(true);
+            }
+        } catch (NoSuchFieldException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    /**
+     * State shared by the work-items of a work-group.
+     */
+    static class WorkGroup {
+        private final CyclicBarrier barrier;
+        private final boolean singleGroup;
+        private final List<Object> localArrays;
+
+        /**
+         * @param barrier
+         *     Barrier of the work-items, or null if they run one after the other.
+         * @param singleGroup
+         *     True if the kernel has one work-group, so a global barrier is a local
+         *     barrier.
+         */
+        WorkGroup(CyclicBarrier barrier, boolean singleGroup) {
+            this.barrier = barrier;
+            this.singleGroup = singleGroup;
+            this.localArrays = new ArrayList<>();
+        }
+
+        synchronized Object getLocalArray(int index, int size, IntFunction<Object> allocator) {
+            if (index == localArrays.size()) {
+                localArrays.add(allocator.apply(size));
+            }
+            return localArrays.get(index);
+        }
+
+        void reset() {
+            if (barrier != null) {
+                barrier.reset();
+            }
+        }
+    }
+
+    private final WorkGroup workGroup;
+    private int allocations;
+
+    HostKernelContext(WorkGroup workGroup) {
+        this.workGroup = workGroup;
+    }
+
+    /**
+     * Sets the identifiers of the work-item. Each array has three values, one per
+     * dimension.
+     */
+    void setWorkItem(int[] globalId, int[] groupId, int[] localId, int[] globalSize, int[] localSize) {
+        allocations = 0;
+        try {
+            for (int i = 0; i < 3; i++) {
+                FIELDS[i].set(this, globalId[i]);
+                FIELDS[3 + i].set(this, groupId[i]);
+                FIELDS[6 + i].set(this, localId[i]);
+                FIELDS[9 + i].set(this, globalSize[i]);
+                FIELDS[12 + i].set(this, localSize[i]);
+            }
+        } catch (IllegalAccessException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void localBarrier() {
+        if (workGroup.barrier == null) {
+            return;
+        }
+        try {
+            workGroup.barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    @Override
+    public void globalBarrier() {
+        if (!workGroup.singleGroup) {
+            throw new TornadoRuntimeException("[UNSUPPORTED] Global barriers are only supported on the host with one work-group");
+        }
+        localBarrier();
+    }
+
+    @Override
+    public int[] allocateIntLocalArray(int size) {
+        return (int[]) workGroup.getLocalArray(allocations++, size, int[]::new);
+    }
+
+    @Override
+    public long[] allocateLongLocalArray(int size) {
+        return (long[]) workGroup.getLocalArray(allocations++, size, long[]::new);
+    }
+
+    @Override
+    public float[] allocateFloatLocalArray(int size) {
+        return (float[]) workGroup.getLocalArray(allocations++, size, float[]::new);
+    }
+
+    @Override
+    public double[] allocateDoubleLocalArray(int size) {
+        return (double[]) workGroup.getLocalArray(allocations++, size, double[]::new);
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import uk.ac.manchester.tornado.api.GridScheduler;
+import uk.ac.manchester.tornado.api.KernelContext;
+import uk.ac.manchester.tornado.api.WorkerGrid;
+import uk.ac.manchester.tornado.api.common.TaskPackage;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+import uk.ac.manchester.tornado.runtime.analyzer.TaskUtils;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+
+/**
+ * Runs the Java version of the tasks with multiple threads of the host. It is
+ * used by the JVM device, and by the bailouts when the
+ * {@link TornadoOptions#HOST_PARALLEL_EXECUTION} option is enabled.
+ *
+ * <ul>
+ * <li>Tasks with {@code @Parallel} loops run a version of the method in which
+ * the outermost parallel loop is split in one chunk of iterations per
+ * thread.</li>
+ * <li>Tasks that receive a {@link KernelContext} run every work-item of the
+ * grid set in the {@link GridScheduler}. Work-groups are distributed across
+ * the threads. If the kernel uses barriers, the work-items of a work-group run
+ * as virtual threads that synchronize at the barriers.</li>
+ * </ul>
+ *
+ * <p>
+ * Tasks that cannot run in parallel (e.g., reductions, loops with an
+ * unsupported shape or kernels without a grid) are reported back to the
+ * caller, which runs the sequential version.
+ * </p>
+ */
+final class HostParallelExecutor {
+
+    private static final int NUM_THREADS = Math.max(1, TornadoOptions.HOST_PARALLEL_THREADS);
+    private static final ForkJoinPool POOL = new ForkJoinPool(NUM_THREADS);
+
+    private static final ASMClassVisitorProvider ASM_PROVIDER = loadProvider();
+
+    private static final Map<Class<?>, Method> TASK_METHODS = new ConcurrentHashMap<>();
+    private static final Map<Method, Optional<MethodHandle>> HOST_VERSIONS = new ConcurrentHashMap<>();
+    private static final Map<Method, Boolean> BARRIERS = new ConcurrentHashMap<>();
+
+    private HostParallelExecutor() {
+    }
+
+    private static ASMClassVisitorProvider loadProvider() {
+        try {
+            String tornadoAnnotationImplementation = System.getProperty("tornado.load.annotation.implementation");
+            Class<?> klass = Class.forName(tornadoAnnotationImplementation);
+            return (ASMClassVisitorProvider) klass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Tornado.debug("Tornado annotation implementation not found. Tasks run sequentially on the host.");
+            return null;
+        }
+    }
+
+    /**
+     * Runs a task with multiple threads.
+     *
+     * @return true if the task was executed, false if it must run sequentially.
+     */
+    static boolean execute(TaskPackage taskPackage, GridScheduler gridScheduler, String taskGraphName) {
+        if (ASM_PROVIDER == null || taskPackage.isPrebuiltTask()) {
+            return false;
+        }
+        final Object[] parameters = taskPackage.getTaskParameters();
+        Method method;
+        try {
+            method = TASK_METHODS.computeIfAbsent(parameters[0].getClass(), type -> TaskUtils.resolveMethodHandle(parameters[0]));
+        } catch (RuntimeException e) {
+            return false;
+        }
+        if (method == null || !Modifier.isStatic(method.getModifiers())) {
+            return false;
+        }
+
+        Object[] arguments = Arrays.copyOfRange(parameters, 1, parameters.length);
+        int contextIndex = -1;
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof KernelContext) {
+                contextIndex = i;
+            }
+        }
+
+        if (contextIndex >= 0) {
+            if (gridScheduler == null || !gridScheduler.contains(taskGraphName, taskPackage.getId())) {
+                return false;
+            }
+            WorkerGrid grid = gridScheduler.get(STR."\{taskGraphName}.\{taskPackage.getId()}");
+            boolean barriers = BARRIERS.computeIfAbsent(method, ASM_PROVIDER::callsKernelContextBarriers);
+            return runKernel(method, arguments, contextIndex, grid, barriers);
+        }
+
+        if (NUM_THREADS == 1) {
+            return false;
+        }
+        MethodHandle hostVersion = HOST_VERSIONS.computeIfAbsent(method, m -> Optional.ofNullable(ASM_PROVIDER.getHostParallelVersion(m))).orElse(null);
+        if (hostVersion == null) {
+            return false;
+        }
+        runChunks(hostVersion, arguments);
+        return true;
+    }
+
+    private static void runChunks(MethodHandle hostVersion, Object[] arguments) {
+        List<ForkJoinTask<?>> chunks = new ArrayList<>(NUM_THREADS);
+        for (int chunk = 0; chunk < NUM_THREADS; chunk++) {
+            Object[] chunkArguments = Arrays.copyOf(arguments, arguments.length + 2);
+            chunkArguments[arguments.length] = chunk;
+            chunkArguments[arguments.length + 1] = NUM_THREADS;
+            chunks.add(POOL.submit(() -> invoke(hostVersion, chunkArguments)));
+        }
+        joinAll(chunks);
+    }
+
+    private static void invoke(MethodHandle handle, Object[] arguments) {
+        try {
+            handle.invokeWithArguments(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new TornadoRuntimeException(STR."[ERROR] Host execution failed: \{t.getMessage()}");
+        }
+    }
+
+    private static void invoke(Method method, Object[] arguments) {
+        try {
+            method.invoke(null, arguments);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new TornadoRuntimeException(e);
+        } catch (IllegalAccessException e) {
+            throw new TornadoRuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits for all the tasks, and re-throws the first exception.
+     */
+    private static void joinAll(List<ForkJoinTask<?>> tasks) {
+        RuntimeException exception = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (exception == null) {
+                    exception = e;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private static int[] toDimensions(long[] sizes, int defaultValue) {
+        int[] dimensions = new int[] { defaultValue, defaultValue, defaultValue };
+        if (sizes != null) {
+            for (int i = 0; i < Math.min(3, sizes.length); i++) {
+                dimensions[i] = Math.toIntExact(sizes[i]);
+            }
+        }
+        return dimensions;
+    }
+
+    private static boolean runKernel(Method method, Object[] arguments, int contextIndex, WorkerGrid grid, boolean barriers) {
+        final int dimensions = grid.dimension();
+        final int[] globalSize = toDimensions(Arrays.copyOf(grid.getGlobalWork(), dimensions), 1);
+        final int[] localSize = grid.getLocalWork() == null ? new int[] { 1, 1, 1 } : toDimensions(Arrays.copyOf(grid.getLocalWork(), dimensions), 1);
+        final int[] offset = toDimensions(grid.getGlobalOffset() == null ? null : Arrays.copyOf(grid.getGlobalOffset(), dimensions), 0);
+        final int[] numGroups = new int[3];
+        for (int i = 0; i < 3; i++) {
+            if (localSize[i] < 1 || globalSize[i] % localSize[i] != 0) {
+                return false;
+            }
+            numGroups[i] = globalSize[i] / localSize[i];
+        }
+
+        final int totalGroups = numGroups[0] * numGroups[1] * numGroups[2];
+        final int groupSize = localSize[0] * localSize[1] * localSize[2];
+        final boolean concurrentWorkItems = barriers && groupSize > 1;
+        final int numTasks = Math.min(NUM_THREADS, totalGroups);
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(numTasks);
+        for (int task = 0; task < numTasks; task++) {
+            final int firstGroup = (int) ((long) totalGroups * task / numTasks);
+            final int lastGroup = (int) ((long) totalGroups * (task + 1) / numTasks);
+            tasks.add(POOL.submit(() -> {
+                for (int group = firstGroup; group < lastGroup; group++) {
+                    int[] groupId = { group % numGroups[0], (group / numGroups[0]) % numGroups[1], group / (numGroups[0] * numGroups[1]) };
+                    if (concurrentWorkItems) {
+                        runConcurrentWorkGroup(method, arguments, contextIndex, groupId, globalSize, localSize, offset, totalGroups == 1);
+                    } else {
+                        runSequentialWorkGroup(method, arguments, contextIndex, groupId, globalSize, localSize, offset);
+                    }
+                }
+            }));
+        }
+        joinAll(tasks);
+        return true;
+    }
+
+    private static int[] workItem(int item, int[] groupId, int[] localSize, int[] offset, int[] localId) {
+        localId[0] = item % localSize[0];
+        localId[1] = (item / localSize[0]) % localSize[1];
+        localId[2] = item / (localSize[0] * localSize[1]);
+        int[] globalId = new int[3];
+        for (int i = 0; i < 3; i++) {
+            globalId[i] = offset[i] + groupId[i] * localSize[i] + localId[i];
+        }
+        return globalId;
+    }
+
+    private static void runSequentialWorkGroup(Method method, Object[] arguments, int contextIndex, int[] groupId, int[] globalSize, int[] localSize, int[] offset) {
+        HostKernelContext context = new HostKernelContext(new HostKernelContext.WorkGroup(null, false));
+        Object[] itemArguments = arguments.clone();
+        itemArguments[contextIndex] = context;
+        int[] localId = new int[3];
+        final int groupSize = localSize[0] * localSize[1] * localSize[2];
+        for (int item = 0; item < groupSize; item++) {
+            int[] globalId = workItem(item, groupId, localSize, offset, localId);
+            context.setWorkItem(globalId, groupId, localId, globalSize, localSize);
+            invoke(method, itemArguments);
+        }
+    }
+
+    private static void runConcurrentWorkGroup(Method method, Object[] arguments, int contextIndex, int[] groupId, int[] globalSize, int[] localSize, int[] offset, boolean singleGroup) {
+        final int groupSize = localSize[0] * localSize[1] * localSize[2];
+        HostKernelContext.WorkGroup workGroup = new HostKernelContext.WorkGroup(new CyclicBarrier(groupSize), singleGroup);
+        Thread[] workItems = new Thread[groupSize];
+        RuntimeException[] exceptions = new RuntimeException[groupSize];
+        for (int item = 0; item < groupSize; item++) {
+            int[] localId = new int[3];
+            int[] globalId = workItem(item, groupId, localSize, offset, localId);
+            HostKernelContext context = new HostKernelContext(workGroup);
+            context.setWorkItem(globalId, groupId, localId, globalSize, localSize);
+            Object[] itemArguments = arguments.clone();
+            itemArguments[contextIndex] = context;
+            final int index = item;
+            workItems[item] = Thread.ofVirtual().start(() -> {
+                try {
+                    invoke(method, itemArguments);
+                } catch (RuntimeException e) {
+                    exceptions[index] = e;
+                    // Release the work-items waiting at a barrier
+                    workGroup.reset();
+                }
+            });
+        }
+        for (Thread workItem : workItems) {
+            try {
+                workItem.join();
+            } catch (InterruptedException e) {
+                throw new TornadoRuntimeException(e);
+            }
+        }
+        for (RuntimeException exception : exceptions) {
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
@@ -64,6 +64,7 @@ import uk.ac.manchester.tornado.runtime.analyzer.MetaReduceTasks;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis.REDUCE_OPERATION;
 import uk.ac.manchester.tornado.runtime.common.TornadoOptions;
+import uk.ac.manchester.tornado.runtime.common.WorkGroupSizeSelector;
 import uk.ac.manchester.tornado.runtime.tasks.meta.MetaDataUtils;
 import uk.ac.manchester.tornado.runtime.tasks.meta.TaskMetaData;
 
@@ -160,15 +161,9 @@ class ReduceTaskGraph {
             return DEFAULT_GPU_WORK_GROUP;
         }
 
-        if (maxBlockSize == globalWorkSize) {
-            maxBlockSize /= 4;
-        }
-
-        int value = (int) Math.min(maxBlockSize, globalWorkSize);
-        while (globalWorkSize % value != 0) {
-            value--;
-        }
-        return value;
+        // Reduction kernels are never padded, so the group size must divide the
+        // global size exactly, as selected by the schedulers
+        return WorkGroupSizeSelector.calculateGroupSize(maxBlockSize, globalWorkSize, false);
     }
 
     private static void inspectBinariesFPGA(String taskScheduleName, String graphName, String taskName, boolean sequential) {
@@ -577,6 +572,9 @@ class ReduceTaskGraph {
                             case MUL -> ReduceFactory.handleMul(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
                             case MAX -> ReduceFactory.handleMax(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
                             case MIN -> ReduceFactory.handleMin(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
+                            case OR -> ReduceFactory.handleOr(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
+                            case AND -> ReduceFactory.handleAnd(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
+                            case XOR -> ReduceFactory.handleXor(newArray, rewrittenTaskGraph, sizeReduceArray, newTaskSequentialName);
                             default -> throw new TornadoRuntimeException("[ERROR] Reduce operation not supported yet.");
                         }
 
@@ -680,6 +678,9 @@ class ReduceTaskGraph {
             case MUL -> a * b;
             case MAX -> Math.max(a, b);
             case MIN -> Math.min(a, b);
+            case OR -> a | b;
+            case AND -> a & b;
+            case XOR -> a ^ b;
             default -> throw new TornadoRuntimeException(OPERATION_NOT_SUPPORTED_MESSAGE);
         };
     }
@@ -710,6 +711,9 @@ class ReduceTaskGraph {
             case MUL -> a * b;
             case MAX -> Math.max(a, b);
             case MIN -> Math.min(a, b);
+            case OR -> a | b;
+            case AND -> a & b;
+            case XOR -> a ^ b;
             default -> throw new TornadoRuntimeException(OPERATION_NOT_SUPPORTED_MESSAGE);
         };
     }
@@ -37,6 +37,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -44,6 +45,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -52,6 +54,7 @@ import org.graalvm.compiler.graph.Graph;
 import org.graalvm.compiler.phases.util.Providers;
 
 import jdk.vm.ci.meta.ResolvedJavaMethod;
+import uk.ac.manchester.tornado.api.BatchPartition;
 import uk.ac.manchester.tornado.api.GridScheduler;
 import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.KernelContext;
@@ -84,10 +87,12 @@ import uk.ac.manchester.tornado.api.common.TornadoFunctions.Task9;
 import uk.ac.manchester.tornado.api.enums.DataTransferMode;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
 import uk.ac.manchester.tornado.api.enums.TornadoDeviceType;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
 import uk.ac.manchester.tornado.api.exceptions.TornadoBailoutRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoDynamicReconfigurationException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
 import uk.ac.manchester.tornado.api.exceptions.TornadoTaskRuntimeException;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.profiler.ProfilerType;
 import uk.ac.manchester.tornado.api.profiler.TornadoProfiler;
 import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
@@ -96,11 +101,16 @@ import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
 import uk.ac.manchester.tornado.api.types.arrays.IntArray;
 import uk.ac.manchester.tornado.api.types.arrays.LongArray;
 import uk.ac.manchester.tornado.api.types.arrays.ShortArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.runtime.JVMMapping;
 import uk.ac.manchester.tornado.runtime.TornadoCoreRuntime;
 import uk.ac.manchester.tornado.runtime.TornadoVM;
 import uk.ac.manchester.tornado.runtime.analyzer.MetaReduceCodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.MetaReduceTasks;
 import uk.ac.manchester.tornado.runtime.analyzer.ReduceCodeAnalysis;
+import uk.ac.manchester.tornado.runtime.analyzer.TaskFusion;
 import uk.ac.manchester.tornado.runtime.analyzer.TaskUtils;
+import uk.ac.manchester.tornado.runtime.common.CommandQueueSelector;
 import uk.ac.manchester.tornado.runtime.common.DeviceObjectState;
 import uk.ac.manchester.tornado.runtime.common.RuntimeUtilities;
 import uk.ac.manchester.tornado.runtime.common.Tornado;
@@ -175,6 +185,9 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     private ConcurrentHashMap<Integer, ArrayList<Object>> multiHeapManagerOutputs = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Integer, ArrayList<Object>> multiHeapManagerInputs = new ConcurrentHashMap<>();
     private ConcurrentHashMap<Integer, TaskGraph> taskGraphIndex = new ConcurrentHashMap<>();
+    // Executions with the device selection model, and devices already warmed up
+    private final AtomicLong modelExecutions = new AtomicLong();
+    private final Set<Integer> modelWarmDevices = ConcurrentHashMap.newKeySet();
     private StringBuilder bufferLogProfiler = new StringBuilder();
     private Graph compilationGraph;
     /**
@@ -192,6 +205,26 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     private boolean cocurrentDevices;
 
+    /**
+     * Objects whose device buffers belong to this task-graph only. It is set for
+     * copies created with {@link #copyWithArguments(Map)}, which share the rest
+     * of the buffers with the original task-graph. A null value means that the
+     * task-graph owns all its buffers.
+     */
+    private Set<Object> ownedObjects;
+
+    /**
+     * Command queue of the copies created with {@link #copyWithArguments(Map)},
+     * reserved on their first execution. The other task-graphs use the default
+     * queue of their devices.
+     */
+    private int commandQueue = CommandQueueSelector.DEFAULT_QUEUE;
+
+    /**
+     * True if the tasks of this task-graph have already been analysed for fusion.
+     */
+    private boolean tasksFused;
+
     /**
      * Task Schedule implementation that uses GPU/FPGA and multicore backends. This constructor must be public. It is invoked using the reflection API.
      *
@@ -387,6 +420,17 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     public TornadoTaskGraph createImmutableTaskGraph() {
 
+        if (TornadoOptions.TASK_FUSION && !tasksFused) {
+            // Objects that are transferred between the host and the device are observed after the fused tasks
+            Set<Object> transferredObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+            inputModesObjects.forEach(streamingObject -> transferredObjects.add(streamingObject.getObject()));
+            outputModeObjects.forEach(streamingObject -> transferredObjects.add(streamingObject.getObject()));
+            List<TaskFusion.FusedTask> fusedTasks = TaskFusion.fuseTasks(taskGraphName, executionContext.getTasks(), transferredObjects);
+            if (!fusedTasks.isEmpty()) {
+                return copyWithFusedTasks(fusedTasks).createImmutableTaskGraph();
+            }
+        }
+
         TornadoTaskGraph newTaskGraph = new TornadoTaskGraph(this.taskGraphName);
 
         newTaskGraph.inputModesObjects = Collections.unmodifiableList(this.inputModesObjects);
@@ -417,6 +461,149 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return newTaskGraph;
     }
 
+    private void addTaskPackage(TaskPackage taskPackage) {
+        if (taskPackage instanceof PrebuiltTaskPackage) {
+            addPrebuiltTask(taskPackage);
+        } else {
+            addTask(taskPackage);
+        }
+    }
+
+    /**
+     * Creates a copy of this task-graph in which each group of fused tasks is
+     * replaced by a single task. The fused task gets its own task package, so the
+     * task packages and the tasks of the execution context stay aligned (e.g.,
+     * for reductions, dynamic reconfiguration and batch copies). When the
+     * task-graph falls back to the host, the fused task runs the fused method,
+     * which does not write the intermediate objects that are forwarded.
+     */
+    private TornadoTaskGraph copyWithFusedTasks(List<TaskFusion.FusedTask> fusedTasks) {
+        TornadoTaskGraph newTaskGraph = new TornadoTaskGraph(this.taskGraphName);
+        newTaskGraph.tasksFused = true;
+        newTaskGraph.meta().setDevice(meta().getLogicDevice());
+
+        for (StreamingObject streamingObject : inputModesObjects) {
+            newTaskGraph.transferToDevice(streamingObject.getMode(), streamingObject.getObject());
+        }
+
+        // Index of the original task of each task of the new task-graph
+        List<Integer> taskIndexes = new ArrayList<>();
+        int taskIndex = 0;
+        for (TaskFusion.FusedTask fusedTask : fusedTasks) {
+            for (; taskIndex < fusedTask.first(); taskIndex++) {
+                newTaskGraph.addTaskPackage(taskPackages.get(taskIndex));
+                taskIndexes.add(taskIndex);
+            }
+            TaskPackage fusedPackage = TaskUtils.createPackage(fusedTask.id(), fusedTask.function(), fusedTask.arguments());
+            fusedPackage.setNumThreadsToRun(taskPackages.get(fusedTask.first()).getNumThreadsToRun());
+            newTaskGraph.addTask(fusedPackage);
+            taskIndexes.add(fusedTask.first());
+            taskIndex = fusedTask.last() + 1;
+        }
+        for (; taskIndex < taskPackages.size(); taskIndex++) {
+            newTaskGraph.addTaskPackage(taskPackages.get(taskIndex));
+            taskIndexes.add(taskIndex);
+        }
+
+        for (StreamingObject streamingObject : outputModeObjects) {
+            newTaskGraph.transferToHost(streamingObject.getMode(), streamingObject.getObject());
+        }
+
+        for (int i = 0; i < taskIndexes.size(); i++) {
+            TornadoDevice device = executionContext.getTask(taskIndexes.get(i)).getDevice();
+            if (!device.equals(newTaskGraph.executionContext.getTask(i).getDevice())) {
+                newTaskGraph.executionContext.getTask(i).meta().setDevice(device);
+            }
+        }
+
+        copyConfigurationTo(newTaskGraph, executionContext.getBatchPartitions());
+        return newTaskGraph;
+    }
+
+    /**
+     * Copies the batch, memory-limit, grid-scheduler and concurrent-devices
+     * configuration of this task-graph into a copy of it.
+     *
+     * @param newTaskGraph
+     *     Copy of this task-graph.
+     * @param batchPartitions
+     *     Batch partitions of the copy.
+     */
+    private void copyConfigurationTo(TornadoTaskGraph newTaskGraph, List<BatchPartition> batchPartitions) {
+        newTaskGraph.batchSizeBytes = this.batchSizeBytes;
+        newTaskGraph.executionContext.setBatchSize(executionContext.getBatchSize());
+        newTaskGraph.executionContext.setBatchPipelineDepth(executionContext.getBatchPipelineDepth());
+        newTaskGraph.executionContext.setBatchPartitions(batchPartitions);
+        newTaskGraph.memoryLimitSizeBytes = this.memoryLimitSizeBytes;
+        newTaskGraph.executionContext.setExecutionPlanMemoryLimit(executionContext.getExecutionPlanMemoryLimit());
+        newTaskGraph.gridScheduler = this.gridScheduler;
+        newTaskGraph.cocurrentDevices = this.cocurrentDevices;
+    }
+
+    @Override
+    public TornadoTaskGraph copyWithArguments(Map<Object, Object> bindings) {
+        TornadoTaskGraph newTaskGraph = new TornadoTaskGraph(this.taskGraphName);
+        newTaskGraph.ownedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        newTaskGraph.ownedObjects.addAll(bindings.values());
+
+        // Set the device before the data is registered, so the buffers are locked on it
+        newTaskGraph.meta().setDevice(meta().getLogicDevice());
+
+        for (StreamingObject streamingObject : inputModesObjects) {
+            Object object = streamingObject.getObject();
+            if (bindings.containsKey(object)) {
+                newTaskGraph.transferToDevice(streamingObject.getMode(), bindings.get(object));
+            } else if (!(object instanceof Number)) {
+                // Shared read-only data is transferred once per device, whatever copy runs first
+                TornadoCoreRuntime.getTornadoRuntime().resolveObject(object).markShared();
+                newTaskGraph.transferToDevice(DataTransferMode.FIRST_EXECUTION, object);
+            }
+        }
+        for (TaskPackage taskPackage : taskPackages) {
+            newTaskGraph.addTask(taskPackage.withParameters(bindings));
+        }
+        for (StreamingObject streamingObject : outputModeObjects) {
+            newTaskGraph.transferToHost(streamingObject.getMode(), bindings.getOrDefault(streamingObject.getObject(), streamingObject.getObject()));
+        }
+
+        for (int i = 0; i < executionContext.getTaskCount(); i++) {
+            TornadoDevice device = executionContext.getTask(i).getDevice();
+            if (!device.equals(newTaskGraph.executionContext.getTask(i).getDevice())) {
+                newTaskGraph.executionContext.getTask(i).meta().setDevice(device);
+            }
+        }
+
+        List<BatchPartition> partitions = new ArrayList<>();
+        for (BatchPartition partition : executionContext.getBatchPartitions()) {
+            Object array = bindings.getOrDefault(partition.getArray(), partition.getArray());
+            partitions.add(new BatchPartition(array).withStride(partition.getStride()));
+        }
+        copyConfigurationTo(newTaskGraph, partitions);
+        return newTaskGraph;
+    }
+
+    @Override
+    public void withDeferredTransfersToHost(Set<Object> objects) {
+        if (TornadoOptions.DEFER_TRANSFERS_TO_HOST) {
+            executionContext.setDeferredTransfersToHost(objects);
+        }
+    }
+
+    @Override
+    public void syncDeferredTransfersToHost() {
+        for (Object object : executionContext.getDeferredTransfersToHost()) {
+            TornadoCoreRuntime.getTornadoRuntime().resolveObject(object).syncResidentCopy(object);
+        }
+    }
+
+    private void syncResidentObjects() {
+        for (Object object : executionContext.getObjects()) {
+            if (object != null) {
+                TornadoCoreRuntime.getTornadoRuntime().resolveObject(object).syncResidentCopy(object);
+            }
+        }
+    }
+
     @Override
     public Collection<?> getOutputs() {
         return streamOutObjects;
@@ -468,6 +655,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return executionContext.getDeviceOfFirstTask();
     }
 
+    @Override
+    public List<String> getTaskIds() {
+        return executionContext.getTasks().stream().map(SchedulableTask::getId).toList();
+    }
+
     @Override
     public void setDevice(TornadoDevice device) {
 
@@ -485,7 +677,8 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         for (int i = 0; i < executionContext.getTaskCount(); i++) {
             SchedulableTask task = executionContext.getTask(i);
             task.meta().setDevice(device);
-            if (task instanceof CompilableTask compilableTask) {
+            // Tasks on the JVM device are not compiled
+            if (task instanceof CompilableTask compilableTask && !(device instanceof JVMMapping)) {
                 ResolvedJavaMethod method = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(compilableTask.getMethod());
                 if (!meta().getLogicDevice().getDeviceContext().isCached(method.getName(), compilableTask)) {
                     updateInner(i, executionContext.getTask(i));
@@ -521,7 +714,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
             String name = task.getId();
             if (name.equals(taskName)) {
                 task.meta().setDevice(device);
-                if (task instanceof CompilableTask) {
+                if (task instanceof CompilableTask && !(device instanceof JVMMapping)) {
                     ResolvedJavaMethod method = TornadoCoreRuntime.getTornadoRuntime().resolveMethod(((CompilableTask) task).getMethod());
                     if (!task.getDevice().getDeviceContext().isCached(method.getName(), task)) {
                         updateInner(i, task);
@@ -816,6 +1009,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         try {
             event = vm.execute(cocurrentDevices);
             timeProfiler.stop(ProfilerType.TOTAL_TASK_GRAPH_TIME);
+            timeProfiler.recordHistograms();
             updateProfiler();
         } catch (TornadoBailoutRuntimeException e) {
             if (TornadoOptions.RECOVER_BAILOUT) {
@@ -862,10 +1056,15 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void waitOn() {
-        if (Tornado.VM_USE_DEPS && event != null) {
-            event.waitOn();
-        } else {
-            executionContext.getDevices().stream().filter(Objects::nonNull).forEach(TornadoDevice::sync);
+        final int previousQueue = selectCommandQueue();
+        try {
+            if (Tornado.VM_USE_DEPS && event != null) {
+                event.waitOn();
+            } else {
+                executionContext.getDevices().stream().filter(Objects::nonNull).forEach(TornadoDevice::sync);
+            }
+        } finally {
+            CommandQueueSelector.select(previousQueue);
         }
     }
 
@@ -962,6 +1161,10 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void warmup() {
+        if (isMappedToJVMDevice()) {
+            // There is nothing to compile for the JVM device
+            return;
+        }
         setupProfiler();
         getDevice().getDeviceContext().setResetToFalse();
         timeProfiler.clean();
@@ -993,7 +1196,28 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void freeDeviceMemory() {
-        free();
+        final int previousQueue = CommandQueueSelector.select(commandQueue);
+        try {
+            free();
+        } finally {
+            CommandQueueSelector.select(previousQueue);
+        }
+        CommandQueueSelector.release(commandQueue);
+        commandQueue = CommandQueueSelector.DEFAULT_QUEUE;
+    }
+
+    /**
+     * Makes the current thread issue the device operations on the command queue
+     * of this task-graph.
+     *
+     * @return the queue index to restore with
+     *     {@link CommandQueueSelector#select(int)}.
+     */
+    private int selectCommandQueue() {
+        if (ownedObjects != null && commandQueue == CommandQueueSelector.DEFAULT_QUEUE) {
+            commandQueue = CommandQueueSelector.acquire();
+        }
+        return CommandQueueSelector.select(commandQueue);
     }
 
     private void free() {
@@ -1005,6 +1229,10 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     }
 
     private void freeDeviceMemoryObject(Object object) {
+        if (ownedObjects != null && !ownedObjects.contains(object)) {
+            // The buffer is shared with the task-graph this one was copied from
+            return;
+        }
         final LocalObjectState localState = executionContext.getObjectState(object);
         releaseObjectFromDeviceMemory(localState, meta().getLogicDevice());
     }
@@ -1069,6 +1297,15 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void syncRuntimeTransferToHost(Object... objects) {
+        final int previousQueue = selectCommandQueue();
+        try {
+            syncTransfersToHost(objects);
+        } finally {
+            CommandQueueSelector.select(previousQueue);
+        }
+    }
+
+    private void syncTransfersToHost(Object... objects) {
         if (vm == null) {
             return;
         }
@@ -1096,10 +1333,8 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
                 if (eventParameter == null) {
                     continue;
                 }
-                long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME_SYNC);
                 eventParameter.waitForEvents();
-                value += eventParameter.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME_SYNC, value);
+                timeProfiler.sum(ProfilerType.COPY_OUT_TIME_SYNC, eventParameter.getElapsedTime());
                 LocalObjectState localState = executionContext.getObjectState(objects[i]);
                 DeviceObjectState deviceObjectState = localState.getGlobalState().getDeviceState(meta().getLogicDevice());
                 timeProfiler.addValueToMetric(ProfilerType.COPY_OUT_SIZE_BYTES_SYNC, TimeProfiler.NO_TASK_NAME, deviceObjectState.getObjectBuffer().size());
@@ -1110,7 +1345,15 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public void syncRuntimeTransferToHost(Object object, long offset, long partialCopySize) {
+        final int previousQueue = selectCommandQueue();
+        try {
+            syncTransferToHost(object, offset, partialCopySize);
+        } finally {
+            CommandQueueSelector.select(previousQueue);
+        }
+    }
 
+    private void syncTransferToHost(Object object, long offset, long partialCopySize) {
         if (vm == null) {
             return;
         }
@@ -1127,10 +1370,8 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         if (TornadoOptions.isProfilerEnabled()) {
             timeProfiler.clean();
             if (event != null) {
-                long value = timeProfiler.getTimer(ProfilerType.COPY_OUT_TIME_SYNC);
                 event.waitForEvents();
-                value += event.getElapsedTime();
-                timeProfiler.setTimer(ProfilerType.COPY_OUT_TIME_SYNC, value);
+                timeProfiler.sum(ProfilerType.COPY_OUT_TIME_SYNC, event.getElapsedTime());
                 LocalObjectState localState = executionContext.getObjectState(object);
                 DeviceObjectState deviceObjectState = localState.getGlobalState().getDeviceState(meta().getLogicDevice());
                 timeProfiler.addValueToMetric(ProfilerType.COPY_OUT_SIZE_BYTES_SYNC, TimeProfiler.NO_TASK_NAME, deviceObjectState.getObjectBuffer().size());
@@ -1159,14 +1400,57 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         reduceExpressionRewritten = true;
     }
 
+    private static boolean isPowerOfTwo(long number) {
+        return number > 0 && (number & (number - 1)) == 0;
+    }
+
+    private static boolean isSingleKernelReduceArray(Object reduceArray) {
+        return reduceArray instanceof int[] || reduceArray instanceof float[] || reduceArray instanceof IntArray || reduceArray instanceof FloatArray;
+    }
+
+    /**
+     * Single-kernel reductions combine the partial results of the work-groups
+     * with 32-bit atomics. They are supported on OpenCL GPUs, for int and float
+     * reductions with an input size that is a power of two. Otherwise, the
+     * task-graph is rewritten with the {@link ReduceTaskGraph}.
+     */
+    private boolean isSingleKernelReductionSupported(MetaReduceCodeAnalysis analysis) {
+        for (Map.Entry<Integer, MetaReduceTasks> entry : analysis.getTable().entrySet()) {
+            int taskNumber = entry.getKey();
+            if (taskNumber >= executionContext.getTaskCount() || !(executionContext.getTask(taskNumber) instanceof CompilableTask)) {
+                return false;
+            }
+            TornadoDevice device = executionContext.getTask(taskNumber).getDevice();
+            if (device.getTornadoVMBackend() != TornadoVMBackendType.OPENCL || device.getDeviceType() != TornadoDeviceType.GPU) {
+                return false;
+            }
+            if (!isPowerOfTwo(entry.getValue().getInputSize(taskNumber))) {
+                return false;
+            }
+            Object[] taskParameters = taskPackages.get(taskNumber).getTaskParameters();
+            for (int paramIndex : entry.getValue().getListOfReduceParameters(taskNumber)) {
+                if (!isSingleKernelReduceArray(taskParameters[paramIndex + 1])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private TornadoTaskGraphInterface reduceAnalysis() {
         TornadoTaskGraphInterface abstractTaskGraph = null;
         if (analysisTaskGraph == null && !reduceAnalysis) {
             analysisTaskGraph = ReduceCodeAnalysis.analyzeTaskGraph(taskPackages);
             reduceAnalysis = true;
             if (analysisTaskGraph != null && analysisTaskGraph.isValid()) {
-                rewriteTaskForReduceSkeleton(analysisTaskGraph);
-                abstractTaskGraph = this;
+                if (TornadoOptions.REDUCE_SINGLE_KERNEL && isSingleKernelReductionSupported(analysisTaskGraph)) {
+                    // The reductions are compiled into one kernel per task, and the
+                    // task-graph runs as it is.
+                    analysisTaskGraph.getTable().keySet().forEach(taskNumber -> ((TaskMetaData) executionContext.getTask(taskNumber).meta()).setSingleKernelReduction(true));
+                } else {
+                    rewriteTaskForReduceSkeleton(analysisTaskGraph);
+                    abstractTaskGraph = this;
+                }
             }
         }
         return abstractTaskGraph;
@@ -1212,6 +1496,31 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return true;
     }
 
+    private static boolean isFreedNativeArray(Object object) {
+        return object instanceof TornadoNativeArray nativeArray && nativeArray.isFreed();
+    }
+
+    /**
+     * The memory of the native arrays released with free(), or by closing their
+     * arena, cannot be accessed, so the task-graph is not launched.
+     */
+    private void checkFreedNativeArrays() {
+        for (Object object : executionContext.getObjects()) {
+            if (isFreedNativeArray(object)) {
+                throw new TornadoRuntimeException(STR."[ERROR] Native array <\{object.getClass().getSimpleName()}> transferred in task-graph <\{taskGraphName}> has been freed");
+            }
+        }
+        for (TaskPackage task : taskPackages) {
+            Object[] taskParameters = task.getTaskParameters();
+            // Note: the first element in the object list is a lambda expression (computation)
+            for (int i = 1; i < taskParameters.length; i++) {
+                if (isFreedNativeArray(taskParameters[i])) {
+                    throw new TornadoRuntimeException(STR."[ERROR] Parameter #\{i} <\{taskParameters[i].getClass().getSimpleName()}> from task <\{task.getId()}> has been freed");
+                }
+            }
+        }
+    }
+
     private void lockInPendingFieldsObjects() {
         // All Fields are set to reuse buffers by default
         final int taskCount = executionContext.getTaskCount();
@@ -1245,7 +1554,16 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public TornadoTaskGraphInterface schedule() {
+        final int previousQueue = selectCommandQueue();
+        try {
+            return scheduleTaskGraph();
+        } finally {
+            CommandQueueSelector.select(previousQueue);
+        }
+    }
 
+    private TornadoTaskGraphInterface scheduleTaskGraph() {
+        checkFreedNativeArrays();
         setupProfiler();
         isFinished = false;
         if (bailout) {
@@ -1257,6 +1575,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
             }
         }
 
+        if (isMappedToJVMDevice()) {
+            runOnJVMDevice();
+            return this;
+        }
+
         timeProfiler.clean();
         timeProfiler.start(ProfilerType.TOTAL_TASK_GRAPH_TIME);
 
@@ -1467,12 +1790,59 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return new Tuple2(winner, join);
     }
 
-    private void runAllTasksJavaSequential() {
-        for (TaskPackage taskPackage : taskPackages) {
+    /**
+     * Runs a task with the threads of the host if it can be parallelized, or
+     * sequentially otherwise.
+     */
+    private void runTaskOnHost(TaskPackage taskPackage, boolean parallel) {
+        if (!parallel || !HostParallelExecutor.execute(taskPackage, gridScheduler, taskGraphName)) {
             runSequentialCodeInThread(taskPackage);
         }
     }
 
+    private void runAllTasksOnHost(boolean parallel) {
+        // The host needs the latest version of the data kept on the devices
+        syncResidentObjects();
+        for (TaskPackage taskPackage : taskPackages) {
+            runTaskOnHost(taskPackage, parallel);
+        }
+    }
+
+    /**
+     * Runs the Java version of the tasks after a bailout. It only uses multiple
+     * threads if {@link TornadoOptions#HOST_PARALLEL_EXECUTION} is enabled.
+     */
+    private void runAllTasksJavaSequential() {
+        runAllTasksOnHost(TornadoOptions.HOST_PARALLEL_EXECUTION);
+    }
+
+    /**
+     * Runs the tasks on the JVM device, which is either selected by the user or
+     * by the dynamic reconfiguration.
+     */
+    private void runOnJVMDevice() {
+        runAllTasksOnHost(true);
+    }
+
+    /**
+     * @return true if the tasks are mapped to the JVM device.
+     *
+     * @throws TornadoRuntimeException
+     *     if only some of the tasks are mapped to the JVM device.
+     */
+    private boolean isMappedToJVMDevice() {
+        int tasksOnJVM = 0;
+        for (SchedulableTask task : executionContext.getTasks()) {
+            if (task.getDevice() instanceof JVMMapping) {
+                tasksOnJVM++;
+            }
+        }
+        if (tasksOnJVM > 0 && tasksOnJVM < executionContext.getTaskCount()) {
+            throw new TornadoRuntimeException(STR."[ERROR] The JVM device must run all the tasks of the task-graph \{taskGraphName}");
+        }
+        return tasksOnJVM > 0;
+    }
+
     private void runThreadSequentialVersion(Policy policy, Thread[] threads, int indexSequential, Timer timer, long[] totalTimers) {
         // Last Thread runs the sequential code
         threads[indexSequential] = new Thread(() -> {
@@ -1480,12 +1850,12 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
             if (policy == Policy.PERFORMANCE) {
                 for (int k = 0; k < MAX_ITERATIONS_DYNAMIC_RECONF_SEQUENTIAL; k++) {
-                    runAllTasksJavaSequential();
+                    runOnJVMDevice();
                 }
             }
 
             final long start = timer.time();
-            runAllTasksJavaSequential();
+            runOnJVMDevice();
             final long endSequentialCode = timer.time();
             if (Tornado.DEBUG) {
                 System.out.println(STR."Seq finished: \{Thread.currentThread().getName()}");
@@ -1600,12 +1970,6 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         }
     }
 
-    private void runSequential() {
-        for (TaskPackage taskPackage : taskPackages) {
-            runSequentialCodeInThread(taskPackage);
-        }
-    }
-
     private TaskGraph recompileTask(int deviceWinnerIndex) {
         // Force re-compilation in device <deviceWinnerIndex>
         String newTaskScheduleName = TASK_GRAPH_PREFIX + deviceWinnerIndex;
@@ -1646,13 +2010,14 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public TornadoTaskGraphInterface scheduleWithProfile(Policy policy) {
+        checkFreedNativeArrays();
         if (policyTimeTable.get(policy) == null) {
             runScheduleWithParallelProfiler(policy);
         } else {
             // Run with the winner device
             int deviceWinnerIndex = policyTimeTable.get(policy);
             if (deviceWinnerIndex >= TornadoRuntime.getTornadoRuntime().getDriver(0).getDeviceCount()) {
-                runSequential();
+                runOnJVMDevice();
             } else {
                 runTaskGraphParallelSelected(deviceWinnerIndex);
             }
@@ -1704,11 +2069,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     private void runSequentialTaskGraph(Policy policy, Timer timer, long[] totalTimers, int indexSequential) {
         if (policy == Policy.PERFORMANCE) {
             for (int k = 0; k < MAX_ITERATIONS_DYNAMIC_RECONF_SEQUENTIAL; k++) {
-                runAllTasksJavaSequential();
+                runOnJVMDevice();
             }
         }
         long startSequential = timer.time();
-        runAllTasksJavaSequential();
+        runOnJVMDevice();
         final long endSequentialCode = timer.time();
         totalTimers[indexSequential] = (endSequentialCode - startSequential);
     }
@@ -1790,7 +2155,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
             if (!executionHistoryPolicy.containsKey(policy)) {
                 tableSizes = new ConcurrentHashMap<>();
                 HistoryTable table = new HistoryTable();
-                int size = getMaxInputSize();
+                long size = getMaxInputSize();
                 table.getTree().put(size, dev);
 
                 tableSizes.put(m.toGenericString(), table);
@@ -1799,13 +2164,13 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
                 tableSizes = executionHistoryPolicy.get(policy);
                 if (!tableSizes.containsKey(m.toGenericString())) {
                     HistoryTable table = new HistoryTable();
-                    int size = getMaxInputSize();
+                    long size = getMaxInputSize();
                     table.getTree().put(size, dev);
                     tableSizes.put(m.toGenericString(), table);
                 } else {
                     // update the size
                     HistoryTable table = tableSizes.get(m.toGenericString());
-                    int size = getMaxInputSize();
+                    long size = getMaxInputSize();
                     table.getTree().put(size, dev);
                     tableSizes.put(m.toGenericString(), table);
                 }
@@ -1888,16 +2253,18 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
      *
      * @return max size of all input arrays.
      */
-    private int getMaxInputSize() {
+    private long getMaxInputSize() {
         Object[] parameters = taskPackages.getFirst().getTaskParameters();
-        int size = 0;
+        long size = 0;
         for (int i = 1; i < parameters.length; i++) {
             Object o = parameters[i];
             if (o.getClass().isArray()) {
-                int currentSize = Array.getLength(o);
+                long currentSize = Array.getLength(o);
                 size = Math.max(currentSize, size);
+            } else if (o instanceof TornadoNativeArray nativeArray) {
+                size = Math.max(nativeArray.getSizeAsLong(), size);
             } else {
-                size = Math.max(1, size);
+                size = Math.max(1L, size);
             }
         }
         return size;
@@ -1905,6 +2272,7 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
 
     @Override
     public TornadoTaskGraphInterface scheduleWithProfileSequential(Policy policy) {
+        checkFreedNativeArrays();
 
         if (policy == Policy.LATENCY) {
             if (Tornado.DEBUG) {
@@ -1925,8 +2293,8 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
             // Run with the winner device
             int deviceWinnerIndex = policyTimeTable.get(policy);
             if (deviceWinnerIndex >= numDevices) {
-                // if the winner is the last index => it is the sequential (HotSpot)
-                runSequential();
+                // if the winner is the last index => it is the JVM device
+                runOnJVMDevice();
             } else {
                 // Otherwise, it runs the parallel in the corresponding device
                 runTaskGraphParallelSelected(deviceWinnerIndex);
@@ -1935,6 +2303,79 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return this;
     }
 
+    private String getTaskGraphSignature() {
+        StringBuilder signature = new StringBuilder(taskGraphName);
+        for (TaskPackage taskPackage : taskPackages) {
+            Method method = TaskUtils.resolveMethodHandle(taskPackage.getTaskParameters()[0]);
+            signature.append(";").append(taskPackage.getId()).append("=").append(method.toGenericString());
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Keys of the devices in the device selection model. The name of the device
+     * is part of the key, so measurements are not reused if the device order
+     * changes. The last key is the sequential execution in the JVM.
+     */
+    private String[] getModelDeviceKeys(int numDevices) {
+        String[] keys = new String[numDevices + 1];
+        for (int i = 0; i < numDevices; i++) {
+            String deviceName = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX).getDevice(i).getPhysicalDevice().getDeviceName();
+            keys[i] = STR."\{DEFAULT_DRIVER_INDEX}:\{i}:\{deviceName}";
+        }
+        keys[numDevices] = DeviceSelectionModel.JVM_DEVICE;
+        return keys;
+    }
+
+    private void runWithModelSelected(int deviceIndex, int numDevices) {
+        if (deviceIndex >= numDevices) {
+            runOnJVMDevice();
+        } else {
+            runTaskGraphParallelSelected(deviceIndex);
+        }
+    }
+
+    @Override
+    public TornadoTaskGraphInterface scheduleWithModel(Policy policy) {
+        checkFreedNativeArrays();
+        if (policy == Policy.LATENCY) {
+            if (Tornado.DEBUG) {
+                System.out.println("[WARNING]: LATENCY policy using the DRMode.MODEL is not allowed. Changing to PERFORMANCE mode");
+            }
+            policy = Policy.PERFORMANCE;
+        }
+
+        int numDevices = TornadoRuntime.getTornadoRuntime().getDriver(DEFAULT_DRIVER_INDEX).getDeviceCount();
+        DeviceSelectionModel model = DeviceSelectionModel.getInstance();
+        String signature = getTaskGraphSignature();
+        String[] devices = getModelDeviceKeys(numDevices);
+        long size = getMaxInputSize();
+
+        DeviceSelectionModel.Selection selection = model.select(policy, signature, devices, size, modelExecutions.getAndIncrement());
+        int deviceIndex = selection.deviceIndex();
+
+        if (modelWarmDevices.add(deviceIndex) && policy == Policy.PERFORMANCE) {
+            // The first executions on a device include the compilation and the JIT warm-up
+            int warmup = (deviceIndex == numDevices) ? MAX_ITERATIONS_DYNAMIC_RECONF_SEQUENTIAL : PERFORMANCE_WARMUP_DYNAMIC_RECONF_PARALLEL;
+            for (int k = 0; k < warmup; k++) {
+                runWithModelSelected(deviceIndex, numDevices);
+            }
+        }
+
+        final long start = System.nanoTime();
+        runWithModelSelected(deviceIndex, numDevices);
+        final long end = System.nanoTime();
+        model.record(policy, signature, devices[deviceIndex], size, end - start);
+
+        if (selection.exploration()) {
+            model.save();
+        }
+        if (Tornado.DEBUG) {
+            System.out.println(STR."MODEL selected: #\{deviceIndex} \{devices[deviceIndex]} (exploration: \{selection.exploration()}, size: \{size})");
+        }
+        return this;
+    }
+
     private void addInner(int index, int type, Method method, ScheduleMetaData meta, String id, Object[] parameters) {
         switch (type) {
             case 0:
@@ -2117,6 +2558,13 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         }
     }
 
+    @Override
+    public void addTupleReduction(String id, Object combiner, TornadoNativeArray[] inputs, TornadoNativeArray[] identities, TornadoNativeArray[] results) {
+        for (TaskPackage taskPackage : TupleReduceFactory.createTasks(id, combiner, inputs, identities, results, meta().getLogicDevice())) {
+            addTask(taskPackage);
+        }
+    }
+
     @Override
     public void addPrebuiltTask(TaskPackage taskPackage) {
         taskPackages.add(taskPackage);
@@ -2128,6 +2576,22 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
     public void withBatch(String batchSize) {
         this.batchSizeBytes = parseSizeToBytes(batchSize);
         executionContext.setBatchSize(this.batchSizeBytes);
+        executionContext.setBatchPipelineDepth(1);
+        executionContext.setBatchPartitions(List.of());
+    }
+
+    @Override
+    public void withPipelinedBatch(String batchSize, int numBufferSets) {
+        if (numBufferSets < 1) {
+            throw new TornadoRuntimeException("The number of buffer sets must be at least 1, but it is " + numBufferSets);
+        }
+        withBatch(batchSize);
+        executionContext.setBatchPipelineDepth(numBufferSets);
+    }
+
+    @Override
+    public void withBatchPartitions(BatchPartition[] partitions) {
+        executionContext.setBatchPartitions(List.of(partitions));
     }
 
     @Override
@@ -2207,6 +2671,33 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         return getProfilerTimer(TOTAL_KERNEL_TIME);
     }
 
+    @Override
+    public LatencyHistogram getDeviceWriteTimeHistogram() {
+        return getProfilerHistogram(ProfilerType.COPY_IN_TIME);
+    }
+
+    @Override
+    public LatencyHistogram getDeviceReadTimeHistogram() {
+        return getProfilerHistogram(ProfilerType.COPY_OUT_TIME);
+    }
+
+    @Override
+    public LatencyHistogram getDeviceKernelTimeHistogram() {
+        return getProfilerHistogram(TOTAL_KERNEL_TIME);
+    }
+
+    private LatencyHistogram getProfilerHistogram(ProfilerType profilerType) {
+        if (reduceTaskGraph != null) {
+            return switch (profilerType) {
+                case TOTAL_KERNEL_TIME -> reduceTaskGraph.getExecutionResult().getProfilerResult().getDeviceKernelTimeHistogram();
+                case COPY_OUT_TIME -> reduceTaskGraph.getExecutionResult().getProfilerResult().getDeviceReadTimeHistogram();
+                case COPY_IN_TIME -> reduceTaskGraph.getExecutionResult().getProfilerResult().getDeviceWriteTimeHistogram();
+                default -> new LatencyHistogram();
+            };
+        }
+        return timeProfiler != null ? timeProfiler.getHistogram(profilerType) : new LatencyHistogram();
+    }
+
     private long __getTimerFromReduceTaskGraph(ProfilerType profilerType) {
         return switch (profilerType) {
             case TOTAL_KERNEL_TIME -> reduceTaskGraph.getExecutionResult().getProfilerResult().getDeviceKernelTime();
@@ -2294,14 +2785,14 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
         /**
          * TreeMap between input size -> device index.
          */
-        private TreeMap<Integer, Integer> table = new TreeMap<>();
+        private TreeMap<Long, Integer> table = new TreeMap<>();
 
-        private int getClosestKey(int goal) {
-            Set<Integer> keySet = table.keySet();
+        private long getClosestKey(long goal) {
+            Set<Long> keySet = table.keySet();
             return keySet.stream().reduce((prev, current) -> Math.abs(current - goal) < Math.abs(prev - goal) ? current : prev).get();
         }
 
-        private TreeMap<Integer, Integer> getTree() {
+        private TreeMap<Long, Integer> getTree() {
             return table;
         }
 
@@ -2309,11 +2800,11 @@ public class TornadoTaskGraph implements TornadoTaskGraphInterface {
             return table.keySet().size();
         }
 
-        private int getDeviceNumber(int key) {
+        private int getDeviceNumber(long key) {
             return table.get(key);
         }
 
-        private boolean isKeyInTable(int key) {
+        private boolean isKeyInTable(long key) {
             return table.containsKey(key);
         }
     }
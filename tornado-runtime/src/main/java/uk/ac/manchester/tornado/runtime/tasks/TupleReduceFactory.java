@@ -0,0 +1,193 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tasks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import uk.ac.manchester.tornado.api.TornadoTargetDevice;
+import uk.ac.manchester.tornado.api.common.TaskPackage;
+import uk.ac.manchester.tornado.api.common.TornadoDevice;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.HalfFloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.runtime.ASMClassVisitorProvider;
+import uk.ac.manchester.tornado.runtime.analyzer.TaskUtils;
+import uk.ac.manchester.tornado.runtime.common.Tornado;
+
+/**
+ * Builds the tasks of a reduction with a user combiner over tuples of values
+ * (see {@link uk.ac.manchester.tornado.api.TaskGraph#reduce}). Each element of
+ * the tuple is stored in its own array.
+ *
+ * <p>
+ * The reduction is split in levels. Each level is a parallel task in which
+ * every thread combines a contiguous chunk of tuples, starting from the
+ * identity, into a temporary array. The chunks are sized so that a level runs
+ * about as many threads as the device can keep in flight (compute units times
+ * the maximum work-group size), and never fewer than
+ * {@link #MIN_TUPLES_PER_THREAD} tuples. The last task runs on a single thread
+ * and combines the remaining tuples into the first tuple of the result. Tuples
+ * are always combined in the order of their indexes, so the combiner only
+ * needs to be associative.
+ * </p>
+ */
+final class TupleReduceFactory {
+
+    static final int MAX_TUPLE_SIZE = 4;
+    static final int MIN_TUPLES_PER_THREAD = 32;
+
+    private static final ASMClassVisitorProvider ASM_PROVIDER = loadProvider();
+
+    private TupleReduceFactory() {
+    }
+
+    private static ASMClassVisitorProvider loadProvider() {
+        try {
+            String tornadoAnnotationImplementation = System.getProperty("tornado.load.annotation.implementation");
+            Class<?> klass = Class.forName(tornadoAnnotationImplementation);
+            return (ASMClassVisitorProvider) klass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Tornado.debug("Tornado annotation implementation not found. Reductions with user combiners are not supported.");
+            return null;
+        }
+    }
+
+    private static void checkArrays(String id, TornadoNativeArray[] inputs, TornadoNativeArray[] identities, TornadoNativeArray[] results) {
+        if (inputs.length == 0 || inputs.length > MAX_TUPLE_SIZE || identities.length != inputs.length || results.length != inputs.length) {
+            throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: tuples must have between 1 and \{MAX_TUPLE_SIZE} elements, with one input, identity and result array per element");
+        }
+        for (int i = 0; i < inputs.length; i++) {
+            Class<?> type = inputs[i].getClass();
+            if (type == HalfFloatArray.class || identities[i].getClass() != type || results[i].getClass() != type) {
+                throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: element \{i} of the tuple must use the same array type for the input, the identity and the result");
+            }
+            if (inputs[i].getSize() != inputs[0].getSize()) {
+                throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: all the input arrays must have the same size");
+            }
+            if (identities[i].getSize() < 1 || results[i].getSize() < 1) {
+                throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: the identity and result arrays must have at least one element");
+            }
+        }
+    }
+
+    private static void checkCombiner(String id, Method combiner, Class<?>[] componentTypes) {
+        int k = componentTypes.length;
+        Class<?>[] expected = new Class<?>[2 * k + 2];
+        for (int i = 0; i < k; i++) {
+            expected[i] = componentTypes[i];
+            expected[k + 1 + i] = componentTypes[i];
+        }
+        expected[k] = int.class;
+        expected[2 * k + 1] = int.class;
+        if (!Modifier.isStatic(combiner.getModifiers()) || combiner.getReturnType() != void.class || !Arrays.equals(combiner.getParameterTypes(), expected)) {
+            throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: the combiner must be a static void method with parameters \{Arrays.toString(expected)}");
+        }
+    }
+
+    private static TornadoNativeArray allocate(Class<?> type, int size) {
+        try {
+            return (TornadoNativeArray) type.getConstructor(long.class).newInstance(size);
+        } catch (ReflectiveOperationException e) {
+            throw new TornadoRuntimeException(STR."[ERROR] Array type not supported in reductions: \{type.getName()}", e);
+        }
+    }
+
+    private static Object[] concat(Object[] inputs, Object[] identities, Object[] outputs, Object... sizes) {
+        List<Object> arguments = new ArrayList<>();
+        arguments.addAll(Arrays.asList(inputs));
+        arguments.addAll(Arrays.asList(identities));
+        arguments.addAll(Arrays.asList(outputs));
+        arguments.addAll(Arrays.asList(sizes));
+        return arguments.toArray();
+    }
+
+    /**
+     * @return the number of tuples combined by each thread of a level that
+     *     reduces {@code size} tuples on the device.
+     */
+    static int getTuplesPerThread(int size, TornadoDevice device) {
+        TornadoTargetDevice physicalDevice = (device != null) ? device.getPhysicalDevice() : null;
+        if (physicalDevice == null) {
+            return MIN_TUPLES_PER_THREAD;
+        }
+        long[] maxWorkGroup = device.getDeviceMaxWorkgroupDimensions();
+        long maxThreads = (long) physicalDevice.getDeviceMaxComputeUnits() * ((maxWorkGroup != null && maxWorkGroup.length > 0) ? maxWorkGroup[0] : 1);
+        if (maxThreads <= 0) {
+            return MIN_TUPLES_PER_THREAD;
+        }
+        return (int) Math.max(MIN_TUPLES_PER_THREAD, (size + maxThreads - 1) / maxThreads);
+    }
+
+    /**
+     * @param id
+     *     Id of the reduction. The last task gets this id, and the partial
+     *     reductions are named {@code <id>_partial<level>}.
+     * @param combiner
+     *     Function that calls the static combiner method.
+     * @param inputs
+     *     Arrays with the elements of the input tuples.
+     * @param identities
+     *     Arrays with the identity tuple at index 0.
+     * @param results
+     *     Arrays that receive the result at index 0.
+     * @param device
+     *     Device of the task-graph, used to size the chunks of each level.
+     * @return the tasks, in execution order.
+     */
+    static List<TaskPackage> createTasks(String id, Object combiner, TornadoNativeArray[] inputs, TornadoNativeArray[] identities, TornadoNativeArray[] results, TornadoDevice device) {
+        checkArrays(id, inputs, identities, results);
+        Class<?>[] componentTypes = new Class<?>[inputs.length];
+        for (int i = 0; i < inputs.length; i++) {
+            componentTypes[i] = inputs[i].getClass();
+        }
+        Method method = TaskUtils.resolveMethodHandle(combiner);
+        checkCombiner(id, method, componentTypes);
+
+        ASMClassVisitorProvider.TupleReductionTasks functions = (ASM_PROVIDER != null) ? ASM_PROVIDER.getTupleReduction(method, componentTypes) : null;
+        if (functions == null) {
+            throw new TornadoRuntimeException(STR."[ERROR] Reduction \{id}: the tasks for the combiner \{method.getDeclaringClass().getName()}.\{method.getName()} could not be generated");
+        }
+
+        List<TaskPackage> tasks = new ArrayList<>();
+        TornadoNativeArray[] current = inputs;
+        int size = inputs[0].getSize();
+        for (int level = 0; size > MIN_TUPLES_PER_THREAD; level++) {
+            int tuplesPerThread = getTuplesPerThread(size, device);
+            int numChunks = (size + tuplesPerThread - 1) / tuplesPerThread;
+            TornadoNativeArray[] partials = new TornadoNativeArray[componentTypes.length];
+            for (int i = 0; i < componentTypes.length; i++) {
+                partials[i] = allocate(componentTypes[i], numChunks);
+            }
+            tasks.add(TaskUtils.createPackage(STR."\{id}_partial\{level}", functions.partial(), concat(current, identities, partials, size, tuplesPerThread, numChunks)));
+            current = partials;
+            size = numChunks;
+        }
+        tasks.add(TaskUtils.createPackage(id, functions.combine(), concat(current, identities, results, size)));
+        return tasks;
+    }
+}
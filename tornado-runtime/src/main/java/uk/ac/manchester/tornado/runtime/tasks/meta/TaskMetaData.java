@@ -26,6 +26,7 @@ package uk.ac.manchester.tornado.runtime.tasks.meta;
 import static uk.ac.manchester.tornado.api.exceptions.TornadoInternalError.guarantee;
 import static uk.ac.manchester.tornado.runtime.common.Tornado.EVENT_WINDOW;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import uk.ac.manchester.tornado.api.annotations.Reduce;
 import uk.ac.manchester.tornado.api.common.Access;
 import uk.ac.manchester.tornado.api.common.TornadoEvents;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
@@ -58,6 +60,8 @@ public class TaskMetaData extends AbstractMetaData {
     private long[] localWork;
     private boolean localWorkDefined;
     private boolean globalWorkDefined;
+    private boolean singleKernelReduction;
+    private boolean reduction;
 
     public TaskMetaData(ScheduleMetaData scheduleMetaData, String taskID, int numParameters) {
         super(scheduleMetaData.getId() + "." + taskID, scheduleMetaData);
@@ -82,7 +86,20 @@ public class TaskMetaData extends AbstractMetaData {
 
     public static TaskMetaData create(ScheduleMetaData scheduleMeta, String id, Method method) {
         int numParameters = Modifier.isStatic(method.getModifiers()) ? method.getParameterCount() : method.getParameterCount() + 1;
-        return new TaskMetaData(scheduleMeta, id, numParameters);
+        TaskMetaData meta = new TaskMetaData(scheduleMeta, id, numParameters);
+        meta.reduction = hasReduceParameters(method);
+        return meta;
+    }
+
+    private static boolean hasReduceParameters(Method method) {
+        for (Annotation[] parameterAnnotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : parameterAnnotations) {
+                if (annotation instanceof Reduce) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     private static String formatWorkDimensionArray(final long[] array, final String defaults) {
@@ -129,6 +146,30 @@ public class TaskMetaData extends AbstractMetaData {
         return globalWorkDefined;
     }
 
+    /**
+     * Marks the task to compile its reductions into a single kernel. The reduce
+     * arrays keep their original size and the last work-group to finish writes
+     * the result into the first element.
+     */
+    public void setSingleKernelReduction(boolean singleKernelReduction) {
+        this.singleKernelReduction = singleKernelReduction;
+    }
+
+    public boolean isSingleKernelReduction() {
+        return singleKernelReduction;
+    }
+
+    /**
+     * Returns true if the task method has a parameter annotated with
+     * {@link Reduce}. The reduction snippets size the partial-result arrays from
+     * the exact work-group size and synchronise every thread of a group on a
+     * barrier, so the schedulers neither pad the global work nor tune the local
+     * work of these tasks.
+     */
+    public boolean hasReduction() {
+        return reduction;
+    }
+
     public void setLocalWorkToNull() {
         localWork = null;
     }
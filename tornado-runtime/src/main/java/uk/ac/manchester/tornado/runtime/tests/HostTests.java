@@ -0,0 +1,68 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tests;
+
+/**
+ * Scaffold of the self-tests that check the runtime and driver components on
+ * the host, without a device. Each test class runs its checks from a
+ * {@code main} method, which is launched with the {@code tornado} command.
+ */
+public final class HostTests {
+
+    private static final int LINE_WIDTH = 37;
+
+    /**
+     * A check of a host self-test.
+     */
+    @FunctionalInterface
+    public interface HostTest {
+        void run() throws Exception;
+    }
+
+    private HostTests() {
+    }
+
+    /**
+     * Fails the self-test with the given message if the condition does not hold.
+     */
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Runs the checks of a test class in order and prints a single
+     * {@code [PASS]} line once all of them have passed. The first check that
+     * fails stops the self-test.
+     */
+    public static void run(Class<?> testClass, HostTest... tests) throws Exception {
+        String name = testClass.getSimpleName();
+        System.out.print("Running " + name);
+        for (HostTest test : tests) {
+            test.run();
+        }
+        System.out.println(" " + ".".repeat(Math.max(3, LINE_WIDTH - name.length())) + " [PASS]");
+    }
+}
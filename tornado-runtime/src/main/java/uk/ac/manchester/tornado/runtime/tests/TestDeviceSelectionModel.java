@@ -0,0 +1,164 @@
+/*
+ * This file is part of Tornado: A heterogeneous programming framework:
+ * https://github.com/beehive-lab/tornadovm
+ *
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ */
+package uk.ac.manchester.tornado.runtime.tests;
+
+import static uk.ac.manchester.tornado.runtime.tests.HostTests.check;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.runtime.tasks.DeviceSelectionModel;
+
+/**
+ * Checks the device selection, the prediction and the persistence of the
+ * {@link DeviceSelectionModel} with synthetic measurements. No device is
+ * required.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado uk.ac.manchester.tornado.runtime.tests.TestDeviceSelectionModel
+ * </code>
+ */
+public class TestDeviceSelectionModel {
+
+    private static final Policy POLICY = Policy.PERFORMANCE;
+    private static final String SIGNATURE = "s0";
+    private static final double DELTA = 0.01;
+
+    private static Path createTempFile() throws IOException {
+        Path directory = Files.createTempDirectory("tornado-device-model");
+        directory.toFile().deleteOnExit();
+        Path file = directory.resolve("device-model.properties");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * Devices without measurements are explored first, in order. After that, the
+     * device with the lowest predicted time is selected.
+     */
+    private static void testExploreThenSelect() throws IOException {
+        DeviceSelectionModel model = new DeviceSelectionModel(createTempFile(), 0);
+        String[] devices = { "GPU", "CPU", DeviceSelectionModel.JVM_DEVICE };
+
+        for (int i = 0; i < devices.length; i++) {
+            DeviceSelectionModel.Selection selection = model.select(POLICY, SIGNATURE, devices, 1024, i);
+            check(selection.deviceIndex() == i && selection.exploration(), "device " + i + " should be explored");
+            model.record(POLICY, SIGNATURE, devices[i], 1024, (i + 1) * 1000L);
+        }
+
+        DeviceSelectionModel.Selection selection = model.select(POLICY, SIGNATURE, devices, 1024, devices.length);
+        check(selection.deviceIndex() == 0 && !selection.exploration(), "the fastest device should be selected");
+
+        // Measurements are kept per policy and per task-graph
+        selection = model.select(POLICY, "s1", devices, 1024, 0);
+        check(selection.deviceIndex() == 0 && selection.exploration(), "another task-graph should be explored");
+    }
+
+    /**
+     * Every re-exploration interval, one of the devices that are not the fastest
+     * is measured again, in round-robin order.
+     */
+    private static void testReexploration() throws IOException {
+        DeviceSelectionModel model = new DeviceSelectionModel(createTempFile(), 4);
+        String[] devices = { "A", "B", "C" };
+        model.record(POLICY, SIGNATURE, "A", 1024, 3000);
+        model.record(POLICY, SIGNATURE, "B", 1024, 1000);
+        model.record(POLICY, SIGNATURE, "C", 1024, 2000);
+
+        for (long execution = 1; execution < 4; execution++) {
+            DeviceSelectionModel.Selection selection = model.select(POLICY, SIGNATURE, devices, 1024, execution);
+            check(selection.deviceIndex() == 1 && !selection.exploration(), "execution " + execution + " should use the fastest device");
+        }
+        DeviceSelectionModel.Selection selection = model.select(POLICY, SIGNATURE, devices, 1024, 4);
+        check(selection.deviceIndex() == 0 && selection.exploration(), "the first re-exploration should measure device A");
+        selection = model.select(POLICY, SIGNATURE, devices, 1024, 8);
+        check(selection.deviceIndex() == 2 && selection.exploration(), "the second re-exploration should measure device C");
+        selection = model.select(POLICY, SIGNATURE, devices, 1024, 12);
+        check(selection.deviceIndex() == 0 && selection.exploration(), "the re-explorations should wrap around");
+    }
+
+    /**
+     * Times are interpolated in log-log space between the measured sizes, kept
+     * constant below the smallest size and extrapolated linearly above the
+     * largest one.
+     */
+    private static void testPrediction() throws IOException {
+        DeviceSelectionModel model = new DeviceSelectionModel(createTempFile(), 0);
+        check(model.predict(POLICY, SIGNATURE, "GPU", 1024) == Double.MAX_VALUE, "an unmeasured device should not be predicted");
+
+        model.record(POLICY, SIGNATURE, "GPU", 100, 1000);
+        model.record(POLICY, SIGNATURE, "GPU", 10000, 100000);
+
+        check(Math.abs(model.predict(POLICY, SIGNATURE, "GPU", 100) - 1000) < DELTA, "unexpected time of a measured size");
+        check(Math.abs(model.predict(POLICY, SIGNATURE, "GPU", 1000) - 10000) < DELTA, "unexpected interpolated time");
+        check(Math.abs(model.predict(POLICY, SIGNATURE, "GPU", 10) - 1000) < DELTA, "unexpected time below the smallest size");
+        check(Math.abs(model.predict(POLICY, SIGNATURE, "GPU", 100000) - 1000000) < DELTA, "unexpected time above the largest size");
+
+        // Each size keeps the running mean of its executions
+        model.record(POLICY, SIGNATURE, "GPU", 100, 3000);
+        check(Math.abs(model.predict(POLICY, SIGNATURE, "GPU", 100) - 2000) < DELTA, "unexpected running mean");
+    }
+
+    /**
+     * The measurements written by one model are read back by the next one.
+     * Malformed entries are ignored.
+     */
+    private static void testSaveAndLoad() throws IOException {
+        Path file = createTempFile();
+        DeviceSelectionModel model = new DeviceSelectionModel(file, 0);
+        model.save();
+        check(!Files.exists(file), "an unchanged model should not be written");
+
+        model.record(POLICY, SIGNATURE, "GPU", 100, 1000);
+        model.record(POLICY, SIGNATURE, "GPU", 10000, 100000);
+        model.record(POLICY, SIGNATURE, "CPU", 100, 500);
+        model.save();
+        check(Files.exists(file), "the model should be written");
+
+        DeviceSelectionModel loaded = new DeviceSelectionModel(file, 0);
+        for (int size : new int[] { 10, 100, 1000, 10000, 100000 }) {
+            check(Math.abs(loaded.predict(POLICY, SIGNATURE, "GPU", size) - model.predict(POLICY, SIGNATURE, "GPU", size)) < DELTA, "unexpected loaded time for size " + size);
+        }
+        check(Math.abs(loaded.predict(POLICY, SIGNATURE, "CPU", 100) - 500) < DELTA, "unexpected loaded time of the CPU");
+
+        Files.writeString(file, Files.readString(file) + POLICY + "|" + SIGNATURE + "|FPGA|100=not-a-number\n");
+        loaded = new DeviceSelectionModel(file, 0);
+        check(loaded.predict(POLICY, SIGNATURE, "FPGA", 100) == Double.MAX_VALUE, "a malformed entry should be ignored");
+        check(Math.abs(loaded.predict(POLICY, SIGNATURE, "CPU", 100) - 500) < DELTA, "the other entries should be loaded");
+        Files.delete(file);
+    }
+
+    public static void main(String[] args) throws Exception {
+        HostTests.run(TestDeviceSelectionModel.class, //
+                TestDeviceSelectionModel::testExploreThenSelect, //
+                TestDeviceSelectionModel::testReexploration, //
+                TestDeviceSelectionModel::testPrediction, //
+                TestDeviceSelectionModel::testSaveAndLoad);
+    }
+}
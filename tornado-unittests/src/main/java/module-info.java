@@ -3,6 +3,7 @@ open module tornado.unittests {
     requires transitive tornado.api;
     requires lucene.core;
     requires java.desktop;
+    requires jdk.jfr;
 
     exports uk.ac.manchester.tornado.unittests;
     exports uk.ac.manchester.tornado.unittests.api;
@@ -10,6 +11,7 @@ open module tornado.unittests {
     exports uk.ac.manchester.tornado.unittests.atomics;
     exports uk.ac.manchester.tornado.unittests.batches;
     exports uk.ac.manchester.tornado.unittests.bitsets;
+    exports uk.ac.manchester.tornado.unittests.codecache;
     exports uk.ac.manchester.tornado.unittests.branching;
     exports uk.ac.manchester.tornado.unittests.common;
     exports uk.ac.manchester.tornado.unittests.dynamic;
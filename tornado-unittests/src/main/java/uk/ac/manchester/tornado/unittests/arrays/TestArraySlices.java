@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the views of native arrays created with the {@code slice} methods.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.arrays.TestArraySlices
+ * </code>
+ */
+public class TestArraySlices extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    private static void add(FloatArray array, float value) {
+        for (@Parallel int i = 0; i < array.getSize(); i++) {
+            array.set(i, array.get(i) + value);
+        }
+    }
+
+    private static void copy(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i));
+        }
+    }
+
+    @Test
+    public void testSliceSharesMemory() {
+        IntArray array = new IntArray(SIZE);
+        array.init(1);
+
+        IntArray slice = array.slice(100, 50);
+        assertTrue(slice.isSlice());
+        assertFalse(array.isSlice());
+        assertSame(array, slice.getParent());
+        assertEquals(100L * Integer.BYTES, slice.getParentOffset());
+        assertEquals(50, slice.getSize());
+
+        slice.set(0, 7);
+        slice.set(49, 8);
+        assertEquals(7, array.get(100));
+        assertEquals(8, array.get(149));
+        assertEquals(1, array.get(99));
+        assertEquals(1, array.get(150));
+
+        array.set(120, 9);
+        assertEquals(9, slice.get(20));
+    }
+
+    @Test
+    public void testNestedSlices() {
+        FloatArray array = new FloatArray(SIZE);
+        FloatArray slice = array.slice(1024, 1024);
+        FloatArray nested = slice.slice(256, 16);
+
+        assertSame(array, nested.getParent());
+        assertEquals((1024L + 256L) * Float.BYTES, nested.getParentOffset());
+
+        nested.set(3, 5.0f);
+        assertEquals(5.0f, slice.get(259), DELTA);
+        assertEquals(5.0f, array.get(1283), DELTA);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSliceOutOfBounds() {
+        FloatArray array = new FloatArray(SIZE);
+        array.slice(SIZE - 10, 11);
+    }
+
+    /**
+     * The first task reads the whole array, and the next two tasks update
+     * disjoint halves of it. The parent is allocated with the views, so the views
+     * are regions of its buffer on the device.
+     */
+    @Test
+    public void testTasksOnDisjointSlices() {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+        FloatArray array = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            array.set(i, i);
+        }
+        FloatArray left = array.slice(0, SIZE / 2);
+        FloatArray right = array.slice(SIZE / 2, SIZE / 2);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, array) //
+                .task("t0", TestArraySlices::copy, array, output) //
+                .task("t1", TestArraySlices::add, left, 1.0f) //
+                .task("t2", TestArraySlices::add, right, 2.0f) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output, left, right);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, output.get(i), DELTA);
+            assertEquals(i + (i < SIZE / 2 ? 1.0f : 2.0f), array.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * A view that is not aligned to the start of its parent. Copying the view
+     * back must not modify the elements of the parent around it.
+     */
+    @Test
+    public void testSliceWithoutParent() {
+        FloatArray array = new FloatArray(SIZE);
+        array.init(1.0f);
+        FloatArray slice = array.slice(3, 100);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, slice) //
+                .task("t0", TestArraySlices::add, slice, 1.0f) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, slice);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals((i >= 3 && i < 103) ? 2.0f : 1.0f, array.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The views are written by the first two tasks, and the parent is read by the
+     * last task. The writes are only visible to the last task if the views share
+     * the buffer of their parent on the device.
+     */
+    @Test
+    public void testParentReadAfterSlicesWritten() {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        FloatArray array = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+        array.init(1.0f);
+        FloatArray left = array.slice(0, SIZE / 2);
+        FloatArray right = array.slice(SIZE / 2, SIZE / 2);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, array) //
+                .task("t0", TestArraySlices::add, left, 1.0f) //
+                .task("t1", TestArraySlices::add, right, 2.0f) //
+                .task("t2", TestArraySlices::copy, array, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i < SIZE / 2 ? 2.0f : 3.0f, output.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * A view at an offset that cannot be the origin of a sub-buffer, used in the
+     * same task-graph as its parent. The runtime must reject it instead of giving
+     * the view a buffer of its own. PTX views can start at any element.
+     */
+    @Test(expected = TornadoRuntimeException.class)
+    public void testMisalignedSliceWithParent() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+
+        FloatArray array = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+        FloatArray slice = array.slice(3, 100);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, array) //
+                .task("t0", TestArraySlices::add, slice, 1.0f) //
+                .task("t1", TestArraySlices::copy, array, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        try {
+            executionPlan.execute();
+        } finally {
+            executionPlan.freeDeviceMemory();
+        }
+    }
+}
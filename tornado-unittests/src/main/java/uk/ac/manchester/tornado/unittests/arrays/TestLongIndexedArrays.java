@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.ByteArray;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the native arrays accessed with long indexes.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.arrays.TestLongIndexedArrays
+ * </code>
+ */
+public class TestLongIndexedArrays extends TornadoTestBase {
+
+    private static final int ROWS = 512;
+    private static final int COLUMNS = 256;
+
+    private static void scale(FloatArray input, FloatArray output, int rows, int columns) {
+        for (@Parallel int i = 0; i < rows; i++) {
+            for (@Parallel int j = 0; j < columns; j++) {
+                long index = (long) i * columns + j;
+                output.set(index, input.get(index) * 2.0f);
+            }
+        }
+    }
+
+    @Test
+    public void testLongIndexesInKernel() {
+        FloatArray input = new FloatArray(ROWS * COLUMNS);
+        FloatArray output = new FloatArray(ROWS * COLUMNS);
+        for (int i = 0; i < input.getSize(); i++) {
+            input.set(i, i);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, input) //
+                .task("t0", TestLongIndexedArrays::scale, input, output, ROWS, COLUMNS) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (long i = 0; i < output.getSizeAsLong(); i++) {
+            assertEquals(2.0f * i, output.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The array is mapped from a sparse file, so it does not need 2 GB of memory
+     * nor disk space.
+     */
+    @Test
+    public void testArrayLargerThanIntegerRange() throws IOException {
+        final long size = Integer.MAX_VALUE + 1024L;
+        Path file = Files.createTempFile("tornado-long-array", ".bin");
+        try {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+                randomAccessFile.setLength(TornadoNativeArray.ARRAY_HEADER + size);
+                randomAccessFile.getChannel().write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, size), 0);
+            }
+
+            ByteArray array = ByteArray.fromFile(file);
+            assertEquals(size, array.getSizeAsLong());
+            assertEquals(TornadoNativeArray.ARRAY_HEADER + size, array.getNumBytesOfSegment());
+
+            long last = size - 1;
+            array.set(last, (byte) 42);
+            array.set(Integer.MAX_VALUE + 1L, (byte) 7);
+            assertEquals(42, array.get(last));
+            assertEquals(7, array.get(Integer.MAX_VALUE + 1L));
+            assertEquals(0, array.get(0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSizeAsLong() {
+        FloatArray array = new FloatArray(1024L);
+        assertEquals(1024, array.getSize());
+        assertEquals(1024L, array.getSizeAsLong());
+        assertEquals(TornadoNativeArray.ARRAY_HEADER + 1024L * Float.BYTES, array.getNumBytesOfSegment());
+    }
+}
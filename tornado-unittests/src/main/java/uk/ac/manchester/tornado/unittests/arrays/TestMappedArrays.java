@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.DoubleArray;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.api.types.arrays.TornadoNativeArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for native arrays stored in files and mapped back into memory.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.arrays.TestMappedArrays
+ * </code>
+ */
+public class TestMappedArrays extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    private Path directory;
+
+    private static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tornado-arrays");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testFileRoundTrip() throws IOException {
+        FloatArray array = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            array.set(i, i * 0.5f);
+        }
+        Path file = directory.resolve("array.bin");
+        array.toFile(file);
+
+        assertEquals(TornadoNativeArray.ARRAY_HEADER + (long) SIZE * Float.BYTES, Files.size(file));
+
+        FloatArray mapped = FloatArray.fromFile(file);
+        assertTrue(mapped.isFileBacked());
+        assertFalse(array.isFileBacked());
+        assertEquals(SIZE, mapped.getSize());
+        assertEquals(array.getNumBytesOfSegment(), mapped.getNumBytesOfSegment());
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(array.get(i), mapped.get(i), 0.0f);
+        }
+    }
+
+    @Test
+    public void testUpdatesAreStoredInFile() throws IOException {
+        Path file = directory.resolve("ints.bin");
+        new IntArray(SIZE).toFile(file);
+
+        IntArray mapped = IntArray.fromFile(file);
+        for (int i = 0; i < SIZE; i++) {
+            mapped.set(i, i);
+        }
+        mapped.force();
+
+        IntArray reloaded = IntArray.fromFile(file);
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i, reloaded.get(i));
+        }
+    }
+
+    @Test
+    public void testMappedArraysInTaskGraph() throws IOException {
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            a.set(i, i);
+            b.set(i, 2 * i);
+        }
+        a.toFile(directory.resolve("a.bin"));
+        b.toFile(directory.resolve("b.bin"));
+        new FloatArray(SIZE).toFile(directory.resolve("c.bin"));
+
+        FloatArray mappedA = FloatArray.fromFile(directory.resolve("a.bin"));
+        FloatArray mappedB = FloatArray.fromFile(directory.resolve("b.bin"));
+        FloatArray mappedC = FloatArray.fromFile(directory.resolve("c.bin"));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, mappedA, mappedB) //
+                .task("t0", TestMappedArrays::vectorAdd, mappedA, mappedB, mappedC) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, mappedC);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        executionPlan.freeDeviceMemory();
+        mappedC.force();
+
+        FloatArray result = FloatArray.fromFile(directory.resolve("c.bin"));
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(3.0f * i, result.get(i), DELTA);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testFileWithWrongSize() throws IOException {
+        Path file = directory.resolve("doubles.bin");
+        new DoubleArray(SIZE).toFile(file);
+        // The data of the file is not a whole number of doubles
+        Files.write(file, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+        DoubleArray.fromFile(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testFileWithWrongHeader() throws IOException {
+        Path file = directory.resolve("floats.bin");
+        new FloatArray(SIZE).toFile(file);
+        // The header of a file written for 4-byte elements does not match 8-byte elements
+        DoubleArray.fromFile(file);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.foreign.Arena;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.api.types.arrays.LongArray;
+import uk.ac.manchester.tornado.api.types.arrays.NativeMemoryTracker;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for native arrays allocated in arenas of the caller, and released with
+ * {@code free()} or by closing their arena.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V -J"-Dtornado.memory.tracker=True" uk.ac.manchester.tornado.unittests.arrays.TestNativeArrayRelease
+ * </code>
+ */
+public class TestNativeArrayRelease extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    private static void add(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) + 1.0f);
+        }
+    }
+
+    @Test
+    public void testFreeClosesArena() {
+        Arena arena = Arena.ofShared();
+        IntArray array = new IntArray(SIZE, arena);
+        array.init(3);
+        assertEquals(3, array.get(SIZE - 1));
+        assertFalse(array.isFreed());
+
+        array.free();
+        assertTrue(array.isFreed());
+        assertFalse(arena.scope().isAlive());
+
+        // A second release has no effect
+        array.free();
+    }
+
+    @Test
+    public void testCloseArenaReleasesArrays() {
+        Arena arena = Arena.ofConfined();
+        FloatArray first = new FloatArray(SIZE, arena);
+        FloatArray second = new FloatArray(SIZE, arena);
+        FloatArray slice = first.slice(10, 10);
+
+        arena.close();
+        assertTrue(first.isFreed());
+        assertTrue(second.isFreed());
+        assertTrue(slice.isFreed());
+    }
+
+    @Test
+    public void testTryWithResources() {
+        IntArray escaped;
+        try (IntArray array = new IntArray(SIZE, Arena.ofConfined())) {
+            array.init(1);
+            escaped = array;
+        }
+        assertTrue(escaped.isFreed());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testAccessAfterFree() {
+        FloatArray array = new FloatArray(SIZE, Arena.ofConfined());
+        array.free();
+        array.get(0);
+    }
+
+    /**
+     * Arrays allocated in automatic arenas are reclaimed by the GC, but they are
+     * released as soon as free() is called.
+     */
+    @Test
+    public void testFreeAutomaticArray() {
+        FloatArray array = new FloatArray(SIZE);
+        FloatArray slice = array.slice(0, SIZE / 2);
+        array.free();
+        assertTrue(array.isFreed());
+        assertTrue(slice.isFreed());
+    }
+
+    @Test
+    public void testFreeSlice() {
+        FloatArray array = new FloatArray(SIZE, Arena.ofConfined());
+        FloatArray slice = array.slice(0, SIZE / 2);
+        slice.free();
+        assertTrue(slice.isFreed());
+        assertFalse(array.isFreed());
+        array.free();
+    }
+
+    @Test
+    public void testTaskWithArenaArrays() {
+        try (Arena arena = Arena.ofShared()) {
+            FloatArray input = new FloatArray(SIZE, arena);
+            FloatArray output = new FloatArray(SIZE, arena);
+            input.init(2.0f);
+
+            TaskGraph taskGraph = new TaskGraph("s0") //
+                    .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                    .task("t0", TestNativeArrayRelease::add, input, output) //
+                    .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+            TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+            executionPlan.execute();
+
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(3.0f, output.get(i), DELTA);
+            }
+            executionPlan.freeDeviceMemory();
+        }
+    }
+
+    @Test(expected = TornadoRuntimeException.class)
+    public void testTaskWithFreedArray() {
+        FloatArray input = new FloatArray(SIZE, Arena.ofShared());
+        FloatArray output = new FloatArray(SIZE);
+        input.free();
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestNativeArrayRelease::add, input, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+    }
+
+    /**
+     * Other arrays may be reclaimed by the GC during the test, so the live
+     * bytes can only decrease by more than the size of the array.
+     */
+    @Test
+    public void testMemoryTracker() {
+        long arrayBytes = SIZE * Long.BYTES + LongArray.ARRAY_HEADER;
+        LongArray array = new LongArray(SIZE, Arena.ofConfined());
+        long liveBytes = NativeMemoryTracker.getLiveBytes(LongArray.class);
+        array.free();
+        long liveBytesAfterFree = NativeMemoryTracker.getLiveBytes(LongArray.class);
+
+        if (NativeMemoryTracker.ENABLED) {
+            assertTrue(liveBytes >= arrayBytes);
+            assertTrue(liveBytesAfterFree <= liveBytes - arrayBytes);
+            assertTrue(NativeMemoryTracker.getLiveBytesPerType().containsKey("LongArray"));
+        } else {
+            assertEquals(0, liveBytes);
+            assertEquals(0, liveBytesAfterFree);
+        }
+    }
+}
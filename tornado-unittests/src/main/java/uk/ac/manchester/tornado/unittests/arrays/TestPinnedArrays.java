@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.types.arrays.DoubleArray;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+import uk.ac.manchester.tornado.unittests.common.TornadoVMOpenCLNotSupported;
+
+/**
+ * Tests for native arrays allocated in pinned host memory with the
+ * {@code pinned} methods. The backends that do not support pinned memory
+ * allocate the arrays in pageable memory, so the results must be the same.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.arrays.TestPinnedArrays
+ * </code>
+ */
+public class TestPinnedArrays extends TornadoTestBase {
+
+    private static final int SIZE = 8192;
+
+    /**
+     * Maximum number of allocations to wait for the GC to return a block to
+     * the pool.
+     */
+    private static final int MAX_ALLOCATIONS = 100;
+
+    private static void saxpy(float alpha, FloatArray x, FloatArray y) {
+        for (@Parallel int i = 0; i < y.getSize(); i++) {
+            y.set(i, alpha * x.get(i) + y.get(i));
+        }
+    }
+
+    private static void square(DoubleArray input, DoubleArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) * input.get(i));
+        }
+    }
+
+    /**
+     * @return true if the default device allocates pinned memory: OpenCL devices
+     *     (except virtual devices) and PTX devices. SPIR-V devices only do it with
+     *     the Level Zero dispatcher.
+     */
+    private static boolean isPinnedMemorySupported() {
+        int driverIndex = getTornadoRuntime().getDefaultDevice().getDriverIndex();
+        TornadoVMBackendType backend = getTornadoRuntime().getBackendType(driverIndex);
+        boolean virtualDevice = Boolean.parseBoolean(System.getProperty("tornado.virtual.device", "False"));
+        return backend == TornadoVMBackendType.PTX || (backend == TornadoVMBackendType.OPENCL && !virtualDevice);
+    }
+
+    /**
+     * Pinned blocks are reused by later allocations, so the arrays must be
+     * cleared as the pageable ones.
+     */
+    @Test
+    public void testPinnedArrayIsCleared() {
+        for (int i = 0; i < 4; i++) {
+            IntArray array = IntArray.pinned(SIZE);
+            assertEquals(SIZE, array.getSize());
+            for (int j = 0; j < SIZE; j++) {
+                assertEquals(0, array.get(j));
+            }
+            array.init(i + 1);
+        }
+    }
+
+    @Test
+    public void testSaxpy() {
+        FloatArray x = FloatArray.pinned(SIZE);
+        FloatArray y = FloatArray.pinned(SIZE);
+        if (isPinnedMemorySupported()) {
+            assertTrue(x.isPinned());
+            assertTrue(y.isPinned());
+        }
+        for (int i = 0; i < SIZE; i++) {
+            x.set(i, i);
+            y.set(i, 1.0f);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x, y) //
+                .task("t0", TestPinnedArrays::saxpy, 2.0f, x, y) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, y);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(2.0f * i + 1.0f, y.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * Pinned and pageable arrays can be used in the same task.
+     */
+    @Test
+    public void testPinnedAndPageableArrays() {
+        DoubleArray input = new DoubleArray(SIZE);
+        DoubleArray output = DoubleArray.pinned(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, i * 0.5);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestPinnedArrays::square, input, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(input.get(i) * input.get(i), output.get(i), DELTA);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testSliceOfPinnedArray() {
+        FloatArray array = FloatArray.pinned(SIZE);
+        FloatArray slice = array.slice(SIZE / 4, SIZE / 2);
+        assertEquals(array.isPinned(), slice.isPinned());
+
+        slice.set(0, 3.0f);
+        assertEquals(3.0f, array.get(SIZE / 4), DELTA);
+    }
+
+    /**
+     * The block of a pinned array reclaimed by the GC is reused by the next
+     * allocation of the same size.
+     */
+    @Test
+    public void testPinnedBlocksAreReused() throws InterruptedException {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+        if (!isPinnedMemorySupported()) {
+            throw new TornadoVMOpenCLNotSupported("Virtual devices do not allocate pinned memory");
+        }
+
+        final long hits = getTornadoRuntime().getPinnedMemoryPoolHits();
+        for (int i = 0; i < MAX_ALLOCATIONS && getTornadoRuntime().getPinnedMemoryPoolHits() == hits; i++) {
+            FloatArray array = FloatArray.pinned(SIZE);
+            assertTrue(array.isPinned());
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertTrue(getTornadoRuntime().getPinnedMemoryPoolHits() > hits);
+    }
+}
@@ -26,6 +26,7 @@ import java.util.stream.IntStream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import uk.ac.manchester.tornado.api.BatchPartition;
 import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
 import uk.ac.manchester.tornado.api.TaskGraph;
 import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
@@ -739,6 +740,126 @@ public class TestBatches extends TornadoTestBase {
         executionPlan.freeDeviceMemory();
     }
 
+    public static void compute(FloatArray arrayA, DoubleArray arrayB, DoubleArray arrayC) {
+        for (@Parallel int i = 0; i < arrayC.getSize(); i++) {
+            arrayC.set(i, arrayA.get(i) + arrayB.get(i));
+        }
+    }
+
+    public static void lookup(FloatArray input, IntArray indexes, FloatArray table, FloatArray output) {
+        for (@Parallel int i = 0; i < output.getSize(); i++) {
+            output.set(i, input.get(i) * table.get(indexes.get(i)));
+        }
+    }
+
+    public static void rowSum(FloatArray matrix, FloatArray sums, int columns) {
+        for (@Parallel int i = 0; i < sums.getSize(); i++) {
+            float sum = 0;
+            for (int j = 0; j < columns; j++) {
+                sum += matrix.get(i * columns + j);
+            }
+            sums.set(i, sum);
+        }
+    }
+
+    @Test
+    public void testDifferentElementTypes() {
+        // FloatArray and DoubleArray with the same # of elements are split at the same indexes
+        checkMaxHeapAllocationOnDevice(4, MemoryUnit.MB);
+        final int size = 2 * 1_000_000;
+        FloatArray a = new FloatArray(size);
+        DoubleArray b = new DoubleArray(size);
+        DoubleArray c = new DoubleArray(size);
+        IntStream.range(0, size).forEach(i -> {
+            a.set(i, i);
+            b.set(i, 2.0 * i);
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestBatches::compute, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withBatch("1MB").execute();
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(a.get(i) + b.get(i), c.get(i), 0.01);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testBroadcastLookupTable() {
+        checkMaxHeapAllocationOnDevice(4, MemoryUnit.MB);
+        final int size = 2 * 1_000_000;
+        final int tableSize = 256;
+        FloatArray input = new FloatArray(size);
+        IntArray indexes = new IntArray(size);
+        FloatArray table = new FloatArray(tableSize);
+        FloatArray output = new FloatArray(size);
+
+        Random random = new Random(7);
+        IntStream.range(0, size).forEach(i -> {
+            input.set(i, random.nextFloat());
+            indexes.set(i, random.nextInt(tableSize));
+        });
+        IntStream.range(0, tableSize).forEach(i -> table.set(i, i));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input, indexes, table) //
+                .task("t0", TestBatches::lookup, input, indexes, table, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withBatch("1MB", new BatchPartition(input), new BatchPartition(indexes), new BatchPartition(output)) //
+                .execute();
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(input.get(i) * table.get(indexes.get(i)), output.get(i), 0.01f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testPartitionWithStride() {
+        checkMaxHeapAllocationOnDevice(4, MemoryUnit.MB);
+        final int rows = 8192;
+        final int columns = 256;
+        FloatArray matrix = new FloatArray(rows * columns);
+        FloatArray sums = new FloatArray(rows);
+        IntStream.range(0, rows * columns).forEach(i -> matrix.set(i, i % columns));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, matrix) //
+                .task("t0", TestBatches::rowSum, matrix, sums, columns) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, sums);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withBatch("1MB", new BatchPartition(matrix).withStride(columns), new BatchPartition(sums)) //
+                .execute();
+
+        final float expected = (columns - 1) * columns / 2.0f;
+        for (int i = 0; i < rows; i++) {
+            assertEquals(expected, sums.get(i), 0.01f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testPartitionsWithDifferentNumberOfItems() {
+        IntArray a0 = new IntArray(2 * 1_000_000);
+        IntArray a1 = new IntArray(3 * 1_000_000);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, a0) //
+                .task("t0", TestBatches::compute, a0, a1) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, a1);
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        Assert.assertThrows(TornadoRuntimeException.class, () -> executionPlan.withBatch("1MB", new BatchPartition(a0), new BatchPartition(a1)).execute());
+        executionPlan.freeDeviceMemory();
+    }
+
     private long checkMaxHeapAllocationOnDevice(int size, MemoryUnit memoryUnit) throws UnsupportedConfigurationException {
 
         long maxAllocMemory = getTornadoRuntime().getDefaultDevice().getDeviceContext().getMemoryManager().getHeapSize();
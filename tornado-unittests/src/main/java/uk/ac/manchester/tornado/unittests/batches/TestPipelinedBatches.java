@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.batches;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.BatchPartition;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for batches that rotate over several sets of device buffers.
+ *
+ * <p>
+ * How to test?
+ * </p>
+ *
+ * <p>
+ * <code>
+ * tornado-test -V --fast uk.ac.manchester.tornado.unittests.batches.TestPipelinedBatches
+ * </code>
+ * </p>
+ */
+public class TestPipelinedBatches extends TornadoTestBase {
+
+    // ~32MB per array
+    private static final int SIZE = 1024 * 1024 * 8;
+
+    @Override
+    public void before() {
+        super.before();
+        System.setProperty("tornado.reuse.device.buffers", "False");
+    }
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void scale(FloatArray data, FloatArray factor, FloatArray output) {
+        for (@Parallel int i = 0; i < output.getSize(); i++) {
+            output.set(i, data.get(i) * factor.get(0));
+        }
+    }
+
+    public static void scale(FloatArray data) {
+        for (@Parallel int i = 0; i < data.getSize(); i++) {
+            data.set(i, data.get(i) * 2);
+        }
+    }
+
+    private static void runVectorAdd(int size, String batchSize, int numBufferSets, int iterations) {
+        FloatArray a = new FloatArray(size);
+        FloatArray b = new FloatArray(size);
+        FloatArray c = new FloatArray(size);
+
+        IntStream.range(0, size).forEach(i -> {
+            a.set(i, i);
+            b.set(i, 2 * i);
+        });
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestPipelinedBatches::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withPipelinedBatch(batchSize, numBufferSets);
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            c.init(0.0f);
+            executionPlan.execute();
+            for (int i = 0; i < size; i++) {
+                assertEquals(a.get(i) + b.get(i), c.get(i), 0.01f);
+            }
+        }
+
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testDoubleBuffering() {
+        runVectorAdd(SIZE, "4MB", 2, 1);
+    }
+
+    @Test
+    public void testTripleBuffering() {
+        runVectorAdd(SIZE, "4MB", 3, 1);
+    }
+
+    @Test
+    public void testOneBufferSet() {
+        runVectorAdd(SIZE, "4MB", 1, 1);
+    }
+
+    @Test
+    public void testMoreBufferSetsThanBatches() {
+        runVectorAdd(SIZE, "16MB", 4, 1);
+    }
+
+    @Test
+    public void testBatchNotEven() {
+        runVectorAdd(SIZE + 1000, "3MB", 2, 1);
+    }
+
+    @Test
+    public void testMultipleExecutions() {
+        runVectorAdd(SIZE, "4MB", 2, 3);
+    }
+
+    @Test
+    public void testInOutArgument() {
+        FloatArray data = new FloatArray(SIZE);
+        IntStream.range(0, SIZE).forEach(i -> data.set(i, i));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data) //
+                .task("t0", TestPipelinedBatches::scale, data) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, data);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withPipelinedBatch("2MB").execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i * 2.0f, data.get(i), 0.01f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testBroadcastArgument() {
+        FloatArray data = new FloatArray(SIZE);
+        FloatArray factor = new FloatArray(1);
+        FloatArray output = new FloatArray(SIZE);
+        IntStream.range(0, SIZE).forEach(i -> data.set(i, i));
+        factor.set(0, 3.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data, factor) //
+                .task("t0", TestPipelinedBatches::scale, data, factor, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withPipelinedBatch("2MB", 2, new BatchPartition(data), new BatchPartition(output)).execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i * 3.0f, output.get(i), 0.01f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test(expected = TornadoRuntimeException.class)
+    public void testInvalidNumberOfBufferSets() {
+        FloatArray data = new FloatArray(1024);
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data) //
+                .task("t0", TestPipelinedBatches::scale, data) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, data);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withPipelinedBatch("1MB", 0);
+    }
+}
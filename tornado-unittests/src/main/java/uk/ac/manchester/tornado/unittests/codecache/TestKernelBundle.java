@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.codecache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the kernel bundles. The first run records the kernels in a bundle
+ * directory, and the second run installs them from that bundle.
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V -J"-Dtornado.kernel.bundle.output=/tmp/tornado-kernel-bundle" uk.ac.manchester.tornado.unittests.codecache.TestKernelBundle#testKernelsAreRecorded
+ *     tornado-test -V -J"-Dtornado.kernel.bundle=/tmp/tornado-kernel-bundle" uk.ac.manchester.tornado.unittests.codecache.TestKernelBundle#testKernelsAreLoaded
+ * </code>
+ */
+public class TestKernelBundle extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1024;
+
+    private static final String BUNDLE_OUTPUT = System.getProperty("tornado.kernel.bundle.output");
+    private static final String BUNDLE_INPUT = System.getProperty("tornado.kernel.bundle");
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void increment(IntArray input, AtomicInteger ai) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            input.set(i, input.get(i) + ai.incrementAndGet());
+        }
+    }
+
+    private static FloatArray createInput() {
+        FloatArray array = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            array.set(i, i);
+        }
+        return array;
+    }
+
+    private static void runVectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        TaskGraph taskGraph = new TaskGraph("bundle") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("vectorAdd", TestKernelBundle::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+    }
+
+    private static List<String> findFiles(Path root, String fileName) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(file -> file.getFileName().toString().equals(fileName)).map(Path::toString).toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void checkResult(FloatArray a, FloatArray b, FloatArray c) {
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(a.get(i) + b.get(i), c.get(i), DELTA);
+        }
+    }
+
+    @Test
+    public void testKernelsAreRecorded() {
+        assertNotNull("-Dtornado.kernel.bundle.output is not set", BUNDLE_OUTPUT);
+        FloatArray a = createInput();
+        FloatArray b = createInput();
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+
+        runVectorAdd(a, b, c);
+        checkResult(a, b, c);
+
+        // {bundle}/{backend}/{device}/{taskId}.code and .properties
+        Path root = Paths.get(BUNDLE_OUTPUT);
+        assertTrue(Files.exists(root.resolve("bundle.properties")));
+        assertEquals(1, findFiles(root, "bundle.vectorAdd.code").size());
+        assertEquals(1, findFiles(root, "bundle.vectorAdd.properties").size());
+    }
+
+    /**
+     * Kernels with atomics need the atomics buffer set up by the JIT compilation,
+     * so they must not be recorded.
+     */
+    @Test
+    public void testAtomicsAreNotRecorded() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+        assertNotNull("-Dtornado.kernel.bundle.output is not set", BUNDLE_OUTPUT);
+
+        final int initialValue = 311;
+        IntArray input = new IntArray(NUM_ELEMENTS);
+        input.init(1);
+        AtomicInteger ai = new AtomicInteger(initialValue);
+
+        TaskGraph taskGraph = new TaskGraph("bundleAtomics") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("increment", TestKernelBundle::increment, input, ai) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, ai, input);
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        assertEquals(initialValue + NUM_ELEMENTS, ai.get());
+        assertTrue(findFiles(Paths.get(BUNDLE_OUTPUT), "bundleAtomics.increment.code").isEmpty());
+    }
+
+    @Test
+    public void testKernelsAreLoaded() throws IOException {
+        assertNotNull("-Dtornado.kernel.bundle is not set", BUNDLE_INPUT);
+        Path root = Paths.get(BUNDLE_INPUT);
+        assertFalse("Run testKernelsAreRecorded first", findFiles(root, "bundle.vectorAdd.code").isEmpty());
+
+        FloatArray a = createInput();
+        FloatArray b = createInput();
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+
+        runVectorAdd(a, b, c);
+        checkResult(a, b, c);
+
+        // make sure the bundle generated is deleted
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.codecache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the persistent kernel cache. Each task-graph has a different name,
+ * so the in-memory code cache of the driver is not used and the kernels of the
+ * second task-graph are served from the on-disk cache.
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V -J"-Dtornado.kernel.cache.enable=True -Dtornado.kernel.cache.dir=/tmp/tornado-kernel-cache" uk.ac.manchester.tornado.unittests.codecache.TestPersistentKernelCache
+ * </code>
+ */
+public class TestPersistentKernelCache extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1024;
+
+    private static final boolean KERNEL_CACHE_ENABLED = Boolean.parseBoolean(System.getProperty("tornado.kernel.cache.enable", "False"));
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void scale(FloatArray a, FloatArray b, float alpha) {
+        for (@Parallel int i = 0; i < a.getSize(); i++) {
+            b.set(i, alpha * a.get(i));
+        }
+    }
+
+    private static FloatArray createInput() {
+        FloatArray array = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            array.set(i, i);
+        }
+        return array;
+    }
+
+    private static void runVectorAdd(String graphName, FloatArray a, FloatArray b, FloatArray c) {
+        TaskGraph taskGraph = new TaskGraph(graphName) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestPersistentKernelCache::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+    }
+
+    private static void runScale(String graphName, FloatArray a, FloatArray b, float alpha) {
+        TaskGraph taskGraph = new TaskGraph(graphName) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestPersistentKernelCache::scale, a, b, alpha) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+    }
+
+    @Test
+    public void testKernelReusedAcrossTaskGraphs() {
+        FloatArray a = createInput();
+        FloatArray b = createInput();
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+        FloatArray d = new FloatArray(NUM_ELEMENTS);
+
+        runVectorAdd("cacheA", a, b, c);
+        final long hits = getTornadoRuntime().getPersistentKernelCacheHits();
+        runVectorAdd("cacheB", a, b, d);
+        if (KERNEL_CACHE_ENABLED) {
+            // The kernel of the second task-graph is loaded from the cache
+            assertTrue(getTornadoRuntime().getPersistentKernelCacheHits() > hits);
+        }
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(a.get(i) + b.get(i), c.get(i), 0.001f);
+            assertEquals(c.get(i), d.get(i), 0.001f);
+        }
+    }
+
+    /**
+     * Scalar arguments are specialised into the kernel, so a different value must
+     * not reuse the kernel compiled for the previous one.
+     */
+    @Test
+    public void testSpecialisedScalarsAreKeyed() {
+        FloatArray a = createInput();
+        FloatArray b = new FloatArray(NUM_ELEMENTS);
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+
+        runScale("cacheScale2", a, b, 2.0f);
+        runScale("cacheScale3", a, c, 3.0f);
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(2.0f * a.get(i), b.get(i), 0.001f);
+            assertEquals(3.0f * a.get(i), c.get(i), 0.001f);
+        }
+    }
+}
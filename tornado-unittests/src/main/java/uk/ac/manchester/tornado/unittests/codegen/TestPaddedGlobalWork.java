@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.codegen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for sizes with no large divisor. The schedulers round up the global
+ * work size to a multiple of the work-group size, and the extra threads must
+ * not run any iteration of the parallel loops.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V --jvm="-Dtornado.print.kernel=True -Dtornado.print.kernel.dir=paddedKernel.out"
+ *     uk.ac.manchester.tornado.unittests.codegen.TestPaddedGlobalWork
+ * </code>
+ */
+public class TestPaddedGlobalWork extends TornadoTestBase {
+
+    private static final String SOURCE_DIR = System.getProperty("tornado.print.kernel.dir");
+
+    // Prime numbers
+    private static final int SIZE = 1000003;
+    private static final int ROWS = 1021;
+    private static final int COLUMNS = 1019;
+    private static final int REDUCTION_SIZE = 65521;
+
+    private static final Pattern OPENCL_LOOP_GUARD = Pattern.compile("for\\(;\\w+ < \\w+;\\)");
+    private static final Pattern PTX_LOOP_GUARD = Pattern.compile("setp\\.(lt|ge)\\.s32");
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void reductionAdd(IntArray input, @Reduce IntArray result) {
+        result.set(0, 0);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) + input.get(i));
+        }
+    }
+
+    public static void matrixAdd(FloatArray a, FloatArray b, FloatArray c, int rows, int columns) {
+        for (@Parallel int i = 0; i < rows; i++) {
+            for (@Parallel int j = 0; j < columns; j++) {
+                c.set(i * columns + j, a.get(i * columns + j) + b.get(i * columns + j));
+            }
+        }
+    }
+
+    @After
+    public void after() {
+        deleteGeneratedKernel();
+    }
+
+    private static void deleteGeneratedKernel() {
+        if (SOURCE_DIR != null) {
+            File fileLog = new File(SOURCE_DIR);
+            if (fileLog.exists()) {
+                fileLog.delete();
+            }
+        }
+    }
+
+    private static void runVectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestPaddedGlobalWork::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testPrimeSize1D() {
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            a.set(i, i);
+            b.set(i, 2 * i);
+        }
+        c.init(-1.0f);
+
+        runVectorAdd(a, b, c);
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(3.0f * i, c.get(i), DELTA);
+        }
+    }
+
+    /**
+     * The padded threads must not write past the end of the output array.
+     */
+    @Test
+    public void testPrimeSize1DNoOutOfBoundsWrites() {
+        final int size = 257;
+        FloatArray a = new FloatArray(size);
+        FloatArray b = new FloatArray(size);
+        // The output is bigger than the loop bound
+        FloatArray c = new FloatArray(size + 64);
+        a.init(1.0f);
+        b.init(2.0f);
+        c.init(-1.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b, c) //
+                .task("t0", TestPaddedGlobalWork::matrixAdd, a, b, c, 1, size) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        executionPlan.freeDeviceMemory();
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(3.0f, c.get(i), DELTA);
+        }
+        for (int i = size; i < c.getSize(); i++) {
+            assertEquals(-1.0f, c.get(i), DELTA);
+        }
+    }
+
+    @Test
+    public void testPrimeSize2D() {
+        FloatArray a = new FloatArray(ROWS * COLUMNS);
+        FloatArray b = new FloatArray(ROWS * COLUMNS);
+        FloatArray c = new FloatArray(ROWS * COLUMNS);
+        for (int i = 0; i < a.getSize(); i++) {
+            a.set(i, i % 100);
+            b.set(i, i % 7);
+        }
+        c.init(-1.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestPaddedGlobalWork::matrixAdd, a, b, c, ROWS, COLUMNS) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        executionPlan.freeDeviceMemory();
+
+        for (int i = 0; i < c.getSize(); i++) {
+            assertEquals((i % 100) + (i % 7), c.get(i), DELTA);
+        }
+    }
+
+    /**
+     * Reduction kernels are not padded: every thread of a work-group must reach
+     * the barriers of the reduction, and the partial results are sized from the
+     * exact work-group size.
+     */
+    @Test
+    public void testPrimeSizeReduction() {
+        IntArray input = new IntArray(REDUCTION_SIZE);
+        IntArray result = new IntArray(1);
+        for (int i = 0; i < REDUCTION_SIZE; i++) {
+            input.set(i, i % 10);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestPaddedGlobalWork::reductionAdd, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        executionPlan.freeDeviceMemory();
+
+        IntArray sequential = new IntArray(1);
+        reductionAdd(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+    }
+
+    private static String readGeneratedKernel() {
+        assertNotNull("Run the test with -Dtornado.print.kernel=True -Dtornado.print.kernel.dir=<file>", SOURCE_DIR);
+        try {
+            return Files.readString(new File(SOURCE_DIR).toPath());
+        } catch (IOException e) {
+            throw new AssertionError("The generated kernel was not found in " + SOURCE_DIR, e);
+        }
+    }
+
+    /**
+     * The parallel loop is compiled as a loop that starts at the global thread
+     * id, increments by the global size and checks the original bound. This is
+     * the guard that keeps the padded threads from running any iteration.
+     */
+    @Test
+    public void testGeneratedBoundsGuard() {
+        // The SPIR-V backend generates binaries
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+        deleteGeneratedKernel();
+
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+        a.init(1.0f);
+        b.init(2.0f);
+        runVectorAdd(a, b, c);
+
+        String kernel = readGeneratedKernel();
+        int driverIndex = getTornadoRuntime().getDefaultDevice().getDriverIndex();
+        if (getTornadoRuntime().getBackendType(driverIndex) == TornadoVMBackendType.PTX) {
+            assertTrue(kernel.contains("%tid.x"));
+            assertTrue(kernel.contains("%ctaid.x"));
+            assertTrue(kernel.contains("%nctaid.x"));
+            assertTrue("Missing the bound check of the parallel loop", PTX_LOOP_GUARD.matcher(kernel).find());
+        } else {
+            assertTrue(kernel.contains("get_global_id(0)"));
+            assertTrue(kernel.contains("get_global_size(0)"));
+            assertTrue("Missing the bound check of the parallel loop", OPENCL_LOOP_GUARD.matcher(kernel).find());
+        }
+        assertEquals(3.0f, c.get(SIZE - 1), DELTA);
+    }
+}
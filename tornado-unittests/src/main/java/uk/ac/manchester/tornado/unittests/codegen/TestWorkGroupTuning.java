@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.codegen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the tuning of the work-group sizes. The first executions of each
+ * kernel try different work-group sizes, and the results must be the same for
+ * all of them. Once the kernel is tuned, the selected size is stored in the
+ * tuning database.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V -J"-Dtornado.tuning=True -Dtornado.tuning.samples=1 -Dtornado.tuning.file=tuning.properties" uk.ac.manchester.tornado.unittests.codegen.TestWorkGroupTuning
+ * </code>
+ */
+public class TestWorkGroupTuning extends TornadoTestBase {
+
+    private static final String TUNING_FILE = System.getProperty("tornado.tuning.file");
+    private static final boolean TUNING = Boolean.parseBoolean(System.getProperty("tornado.tuning", "False"));
+
+    private static final int EXECUTIONS = 100;
+    private static final int SIZE = 1 << 20;
+    private static final int ROWS = 512;
+    private static final int COLUMNS = 256;
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void reductionAdd(IntArray input, @Reduce IntArray result) {
+        result.set(0, 0);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) + input.get(i));
+        }
+    }
+
+    public static void matrixAdd(FloatArray a, FloatArray b, FloatArray c, int rows, int columns) {
+        for (@Parallel int i = 0; i < rows; i++) {
+            for (@Parallel int j = 0; j < columns; j++) {
+                c.set(i * columns + j, a.get(i * columns + j) + b.get(i * columns + j));
+            }
+        }
+    }
+
+    @After
+    public void after() throws IOException {
+        if (TUNING_FILE != null) {
+            Files.deleteIfExists(Paths.get(TUNING_FILE));
+        }
+    }
+
+    private static void assertTuningDatabaseWritten() throws IOException {
+        if (!TUNING || TUNING_FILE == null) {
+            return;
+        }
+        Path file = Paths.get(TUNING_FILE);
+        assertTrue(Files.exists(file));
+        assertTrue(Files.readAllLines(file).stream().anyMatch(line -> !line.startsWith("#")));
+    }
+
+    @Test
+    public void testTuning1D() throws IOException {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            a.set(i, i);
+            b.set(i, 2 * i);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestWorkGroupTuning::vectorAdd, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        for (int execution = 0; execution < EXECUTIONS; execution++) {
+            c.init(-1.0f);
+            executionPlan.execute();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(3.0f * i, c.get(i), DELTA);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+
+        assertTuningDatabaseWritten();
+    }
+
+    @Test
+    public void testTuning2D() throws IOException {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        FloatArray a = new FloatArray(ROWS * COLUMNS);
+        FloatArray b = new FloatArray(ROWS * COLUMNS);
+        FloatArray c = new FloatArray(ROWS * COLUMNS);
+        for (int i = 0; i < ROWS * COLUMNS; i++) {
+            a.set(i, i);
+            b.set(i, 1.0f);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestWorkGroupTuning::matrixAdd, a, b, c, ROWS, COLUMNS) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        for (int execution = 0; execution < EXECUTIONS; execution++) {
+            c.init(-1.0f);
+            executionPlan.execute();
+            for (int i = 0; i < ROWS * COLUMNS; i++) {
+                assertEquals(i + 1.0f, c.get(i), DELTA);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+
+        assertTuningDatabaseWritten();
+    }
+
+    /**
+     * Reduction kernels are not tuned: the partial results are sized from the
+     * work-group size selected by the scheduler, and a smaller work-group would
+     * write past the end of them.
+     */
+    @Test
+    public void testTuningReduction() {
+        assertNotBackend(TornadoVMBackendType.SPIRV);
+
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, i % 10);
+        }
+        IntArray sequential = new IntArray(1);
+        reductionAdd(input, sequential);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestWorkGroupTuning::reductionAdd, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        for (int execution = 0; execution < EXECUTIONS; execution++) {
+            result.init(-1);
+            executionPlan.execute();
+            assertEquals(sequential.get(0), result.get(0));
+        }
+        executionPlan.freeDeviceMemory();
+    }
+}
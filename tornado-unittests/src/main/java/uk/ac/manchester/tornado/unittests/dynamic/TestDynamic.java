@@ -19,6 +19,11 @@ package uk.ac.manchester.tornado.unittests.dynamic;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Assume;
 import org.junit.Test;
 
 import uk.ac.manchester.tornado.api.DRMode;
@@ -36,12 +41,18 @@ import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
  * How to run?
  * <p>
  * <code>
- *     tornado-test -V uk.ac.manchester.tornado.unittests.dynamic.TestDynamic
+ *     tornado-test -V -J"-Dtornado.dynamic.model.file=/tmp/device-model-test.properties" uk.ac.manchester.tornado.unittests.dynamic.TestDynamic
  * </code>
  * </p>
  */
 public class TestDynamic extends TornadoTestBase {
 
+    /**
+     * File of the device selection model used by {@link #testDynamicWithModel},
+     * so the test does not update the model in the home directory.
+     */
+    private static final String MODEL_FILE = System.getProperty("tornado.dynamic.model.file");
+
     public static void compute(IntArray a, IntArray b) {
         for (@Parallel int i = 0; i < a.getSize(); i++) {
             b.set(i, a.get(i) * 2);
@@ -242,4 +253,38 @@ public class TestDynamic extends TornadoTestBase {
             assertEquals(a.get(i) * 2, b.get(i));
         }
     }
+
+    /**
+     * The model mode evaluates the devices without measurements one per
+     * execution, so the results must be correct in every execution, whichever
+     * device is selected. The test is skipped unless the model file is set with
+     * {@code -Dtornado.dynamic.model.file}, as {@code tornado-test} does.
+     */
+    @Test
+    public void testDynamicWithModel() throws IOException {
+        Assume.assumeTrue("-Dtornado.dynamic.model.file is not set", MODEL_FILE != null);
+        // Start without measurements, so every device is explored
+        Files.deleteIfExists(Paths.get(MODEL_FILE));
+
+        int numElements = 16000;
+        IntArray a = new IntArray(numElements);
+        IntArray b = new IntArray(numElements);
+
+        TaskGraph taskGraph = new TaskGraph("model") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestDynamic::compute, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.withDynamicReconfiguration(Policy.PERFORMANCE, DRMode.MODEL);
+
+        for (int iteration = 0; iteration < 10; iteration++) {
+            a.init(iteration);
+            executionPlan.execute();
+            for (int i = 0; i < b.getSize(); i++) {
+                assertEquals(iteration * 2, b.get(i));
+            }
+        }
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.dynamic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.IntStream;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.DRMode;
+import uk.ac.manchester.tornado.api.GridScheduler;
+import uk.ac.manchester.tornado.api.KernelContext;
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.WorkerGrid;
+import uk.ac.manchester.tornado.api.WorkerGrid1D;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.LongArray;
+import uk.ac.manchester.tornado.api.types.matrix.Matrix2DFloat;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the multi-threaded execution of the tasks on the host, used by the
+ * JVM device, the dynamic reconfiguration and, when
+ * {@code tornado.jvm.parallel} is enabled, when a task bails out to Java.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V -J"-Dtornado.jvm.parallel=True" uk.ac.manchester.tornado.unittests.dynamic.TestHostParallelExecution
+ * </code>
+ */
+public class TestHostParallelExecution extends TornadoTestBase {
+
+    private static final int SIZE = 8192;
+    private static final int LOCAL_SIZE = 64;
+
+    /**
+     * Iterations of the inner loop of {@link #recordThreads}, so each chunk of
+     * the parallel loop runs long enough for all the threads to take part.
+     */
+    private static final int INNER_ITERATIONS = 10_000;
+
+    public static void recordThreads(FloatArray input, FloatArray output, LongArray threads) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            float value = input.get(i);
+            for (int k = 0; k < INNER_ITERATIONS; k++) {
+                value = value * 0.5f + 1.0f;
+            }
+            output.set(i, value);
+            threads.set(i, Thread.currentThread().threadId());
+        }
+    }
+
+    public static void matrixVector(Matrix2DFloat matrix, FloatArray vector, FloatArray output) {
+        for (@Parallel int i = 0; i < matrix.getNumRows(); i++) {
+            float sum = 0.0f;
+            for (int j = 0; j < matrix.getNumColumns(); j++) {
+                sum += matrix.get(i, j) * vector.get(j);
+            }
+            output.set(i, sum);
+        }
+    }
+
+    /**
+     * Object allocations are not supported on the device, so the task bails out
+     * to the host.
+     */
+    public static void scaleWithAllocation(FloatArray input, FloatArray output) {
+        Matrix2DFloat factor = new Matrix2DFloat(1, 1);
+        factor.set(0, 0, 2.0f);
+        for (@Parallel int i = 0; i < output.getSize(); i += 2) {
+            output.set(i, input.get(i) * factor.get(0, 0));
+        }
+    }
+
+    public static void groupSumsWithAllocation(KernelContext context, FloatArray input, FloatArray sums) {
+        Matrix2DFloat factor = new Matrix2DFloat(1, 1);
+        factor.set(0, 0, 1.0f);
+        int localIdx = context.localIdx;
+        int localGroupSize = context.localGroupSizeX;
+
+        float[] localSums = context.allocateFloatLocalArray(LOCAL_SIZE);
+        localSums[localIdx] = input.get(context.globalIdx) * factor.get(0, 0);
+        for (int stride = (localGroupSize / 2); stride > 0; stride /= 2) {
+            context.localBarrier();
+            if (localIdx < stride) {
+                localSums[localIdx] += localSums[localIdx + stride];
+            }
+        }
+        if (localIdx == 0) {
+            sums.set(context.groupIdx, localSums[0]);
+        }
+    }
+
+    @Test
+    public void testJVMDevice() {
+        Assume.assumeTrue("The host has a single processor", Runtime.getRuntime().availableProcessors() > 1);
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+        LongArray threads = new LongArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, i);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestHostParallelExecution::recordThreads, input, output, threads) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output, threads);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withDevice(TornadoExecutionPlan.getJVMDevice()).execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            float expected = i;
+            for (int k = 0; k < INNER_ITERATIONS; k++) {
+                expected = expected * 0.5f + 1.0f;
+            }
+            assertEquals(expected, output.get(i), 0.01f);
+        }
+        long numThreads = IntStream.range(0, SIZE).mapToLong(threads::get).distinct().count();
+        assertTrue("The task ran on a single thread", numThreads > 1);
+    }
+
+    @Test
+    public void testDynamicReconfigurationWithHost() {
+        final int size = 512;
+        Matrix2DFloat matrix = new Matrix2DFloat(size, size);
+        FloatArray vector = new FloatArray(size);
+        FloatArray output = new FloatArray(size);
+        for (int i = 0; i < size; i++) {
+            vector.set(i, i % 7);
+            for (int j = 0; j < size; j++) {
+                matrix.set(i, j, (i + j) % 5);
+            }
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, matrix, vector) //
+                .task("t0", TestHostParallelExecution::matrixVector, matrix, vector, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withDynamicReconfiguration(Policy.PERFORMANCE, DRMode.SERIAL).execute();
+
+        for (int i = 0; i < size; i++) {
+            float expected = 0.0f;
+            for (int j = 0; j < size; j++) {
+                expected += matrix.get(i, j) * vector.get(j);
+            }
+            assertEquals(expected, output.get(i), 0.01f);
+        }
+    }
+
+    @Test
+    public void testBailoutToHost() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, i);
+        }
+        output.init(-1.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestHostParallelExecution::scaleWithAllocation, input, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(i % 2 == 0 ? 2.0f * i : -1.0f, output.get(i), 0.01f);
+        }
+    }
+
+    @Test
+    public void testBailoutKernelContextToHost() {
+        assertNotBackend(TornadoVMBackendType.PTX);
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray sums = new FloatArray(SIZE / LOCAL_SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, i % 10);
+        }
+
+        WorkerGrid worker = new WorkerGrid1D(SIZE);
+        worker.setLocalWork(LOCAL_SIZE, 1, 1);
+        GridScheduler gridScheduler = new GridScheduler("s0.t0", worker);
+        KernelContext context = new KernelContext();
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestHostParallelExecution::groupSumsWithAllocation, context, input, sums) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, sums);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withGridScheduler(gridScheduler).execute();
+
+        for (int group = 0; group < sums.getSize(); group++) {
+            float expected = 0.0f;
+            for (int i = group * LOCAL_SIZE; i < (group + 1) * LOCAL_SIZE; i++) {
+                expected += input.get(i);
+            }
+            assertEquals(expected, sums.get(group), 0.01f);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.TornadoExecutionResult;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.TestHello;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the asynchronous execution of execution plans.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.executor.TestAsyncExecution
+ * </code>
+ */
+public class TestAsyncExecution extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1024;
+
+    public static void increment(IntArray data) {
+        for (@Parallel int i = 0; i < data.getSize(); i++) {
+            data.set(i, data.get(i) + 1);
+        }
+    }
+
+    private static TornadoExecutionPlan createIncrementPlan(String name, IntArray data) {
+        TaskGraph taskGraph = new TaskGraph(name) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data) //
+                .task("t0", TestAsyncExecution::increment, data) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, data);
+        return new TornadoExecutionPlan(taskGraph.snapshot());
+    }
+
+    @Test
+    public void testExecuteAsync() throws ExecutionException, InterruptedException {
+        IntArray a = new IntArray(NUM_ELEMENTS);
+        IntArray b = new IntArray(NUM_ELEMENTS);
+        IntArray c = new IntArray(NUM_ELEMENTS);
+        a.init(1);
+        b.init(2);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        TornadoExecutionResult executionResult = executionPlan.executeAsync().get();
+        assertNotNull(executionResult);
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(3, c.get(i));
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * Executions submitted to the same plan must run one after the other: every
+     * execution increments the result of the previous one.
+     */
+    @Test
+    public void testExecutionsRunInOrder() {
+        final int numExecutions = 100;
+        IntArray data = new IntArray(NUM_ELEMENTS);
+        data.init(0);
+
+        TornadoExecutionPlan executionPlan = createIncrementPlan("s0", data);
+        List<CompletableFuture<TornadoExecutionResult>> futures = new ArrayList<>();
+        for (int i = 0; i < numExecutions; i++) {
+            futures.add(executionPlan.executeAsync());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(numExecutions, data.get(i));
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * Many virtual threads submit executions over a few plans and wait for them
+     * without blocking a platform thread each.
+     */
+    @Test
+    public void testVirtualThreads() {
+        final int numPlans = 4;
+        final int numSubmissions = 256;
+        IntArray[] data = new IntArray[numPlans];
+        TornadoExecutionPlan[] executionPlans = new TornadoExecutionPlan[numPlans];
+        for (int i = 0; i < numPlans; i++) {
+            data[i] = new IntArray(NUM_ELEMENTS);
+            data[i].init(0);
+            executionPlans[i] = createIncrementPlan("s" + i, data[i]);
+        }
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < numSubmissions; i++) {
+                final TornadoExecutionPlan executionPlan = executionPlans[i % numPlans];
+                virtualThreads.submit(() -> executionPlan.executeAsync().join());
+            }
+        }
+
+        for (int i = 0; i < numPlans; i++) {
+            for (int j = 0; j < NUM_ELEMENTS; j++) {
+                assertEquals(numSubmissions / numPlans, data[i].get(j));
+            }
+            executionPlans[i].freeDeviceMemory();
+        }
+    }
+
+    @Test
+    public void testCustomExecutor() {
+        IntArray data = new IntArray(NUM_ELEMENTS);
+        data.init(0);
+        AtomicInteger tasksRun = new AtomicInteger();
+
+        TornadoExecutionPlan executionPlan = createIncrementPlan("s0", data);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executionPlan.executeAsync(runnable -> {
+                tasksRun.incrementAndGet();
+                executor.execute(runnable);
+            }).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, tasksRun.get());
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(1, data.get(i));
+        }
+        executionPlan.freeDeviceMemory();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.InvocationArguments;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.exceptions.TornadoRuntimeException;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the concurrent execution of one execution plan from many threads
+ * with different arguments.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.executor.TestConcurrentInvocations
+ * </code>
+ *
+ * <p>
+ * The stress test is meant to run on the OpenCL CPU runtime, e.g., by
+ * selecting the device with {@code -Ds0.t0.device=0:<cpu-device-index>}. On
+ * the PTX and SPIR-V backends the invocations are serialized.
+ * </p>
+ */
+public class TestConcurrentInvocations extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 4096;
+
+    public static void saxpy(float alpha, FloatArray x, FloatArray y, FloatArray output) {
+        for (@Parallel int i = 0; i < output.getSize(); i++) {
+            output.set(i, alpha * x.get(i) + y.get(i));
+        }
+    }
+
+    private static void checkSaxpy(FloatArray x, FloatArray y, FloatArray output) {
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(2.0f * x.get(i) + y.get(i), output.get(i), 0.001f);
+        }
+    }
+
+    @Test
+    public void testBindArguments() {
+        FloatArray x = new FloatArray(NUM_ELEMENTS);
+        FloatArray y = new FloatArray(NUM_ELEMENTS);
+        FloatArray output = new FloatArray(NUM_ELEMENTS);
+        x.init(1.0f);
+        y.init(2.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, y) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x) //
+                .task("t0", TestConcurrentInvocations::saxpy, 2.0f, x, y, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+        checkSaxpy(x, y, output);
+
+        FloatArray otherX = new FloatArray(NUM_ELEMENTS);
+        FloatArray otherOutput = new FloatArray(NUM_ELEMENTS);
+        otherX.init(5.0f);
+        executionPlan.execute(new InvocationArguments().bind(x, otherX).bind(output, otherOutput));
+        checkSaxpy(otherX, y, otherOutput);
+
+        // The arrays used to build the task-graph are not modified
+        checkSaxpy(x, y, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * 64 threads run the same plan at the same time. The input {@code y} is
+     * shared by all the invocations, and each thread binds its own input and
+     * output arrays.
+     */
+    @Test
+    public void testStressConcurrentInvocations() throws InterruptedException, ExecutionException {
+        final int numThreads = 64;
+        final int iterations = 16;
+
+        FloatArray x = new FloatArray(NUM_ELEMENTS);
+        FloatArray y = new FloatArray(NUM_ELEMENTS);
+        FloatArray output = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            y.set(i, i);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, y) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x) //
+                .task("t0", TestConcurrentInvocations::saxpy, 2.0f, x, y, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withConcurrentInvocations(numThreads);
+
+        CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        ExecutorService threads = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                final int threadId = t;
+                futures.add(threads.submit(() -> {
+                    FloatArray threadX = new FloatArray(NUM_ELEMENTS);
+                    FloatArray threadOutput = new FloatArray(NUM_ELEMENTS);
+                    InvocationArguments arguments = new InvocationArguments().bind(x, threadX).bind(output, threadOutput);
+                    barrier.await();
+                    for (int iteration = 0; iteration < iterations; iteration++) {
+                        threadX.init(threadId * iterations + iteration);
+                        threadOutput.init(-1.0f);
+                        executionPlan.execute(arguments);
+                        checkSaxpy(threadX, y, threadOutput);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            threads.shutdown();
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * More sets of arguments than copies kept by the plan: the least recently
+     * used copies are evicted and created again.
+     */
+    @Test
+    public void testEvictions() {
+        final int numArguments = 8;
+        FloatArray x = new FloatArray(NUM_ELEMENTS);
+        FloatArray y = new FloatArray(NUM_ELEMENTS);
+        FloatArray output = new FloatArray(NUM_ELEMENTS);
+        y.init(3.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, y) //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x) //
+                .task("t0", TestConcurrentInvocations::saxpy, 2.0f, x, y, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withConcurrentInvocations(2);
+
+        FloatArray[] inputs = new FloatArray[numArguments];
+        FloatArray[] outputs = new FloatArray[numArguments];
+        for (int i = 0; i < numArguments; i++) {
+            inputs[i] = new FloatArray(NUM_ELEMENTS);
+            inputs[i].init(i);
+            outputs[i] = new FloatArray(NUM_ELEMENTS);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < numArguments; i++) {
+                outputs[i].init(-1.0f);
+                executionPlan.execute(new InvocationArguments().bind(x, inputs[i]).bind(output, outputs[i]));
+                checkSaxpy(inputs[i], y, outputs[i]);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test(expected = TornadoRuntimeException.class)
+    public void testInvalidNumberOfInvocations() {
+        FloatArray x = new FloatArray(NUM_ELEMENTS);
+        FloatArray y = new FloatArray(NUM_ELEMENTS);
+        FloatArray output = new FloatArray(NUM_ELEMENTS);
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, x, y) //
+                .task("t0", TestConcurrentInvocations::saxpy, 2.0f, x, y, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withConcurrentInvocations(0);
+    }
+}
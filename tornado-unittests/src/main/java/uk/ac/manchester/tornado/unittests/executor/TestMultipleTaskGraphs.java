@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.executor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.DRMode;
+import uk.ac.manchester.tornado.api.Policy;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for execution plans with several task-graphs that share data. The
+ * outputs of a task-graph that a later task-graph uses stay on the device, and
+ * they are copied to the host at the end of the execution.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.executor.TestMultipleTaskGraphs
+ * </code>
+ */
+public class TestMultipleTaskGraphs extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    private static void scale(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) * 2.0f);
+        }
+    }
+
+    private static void addOne(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) + 1.0f);
+        }
+    }
+
+    private static void increment(FloatArray data) {
+        for (@Parallel int i = 0; i < data.getSize(); i++) {
+            data.set(i, data.get(i) + 1.0f);
+        }
+    }
+
+    @Test
+    public void testChainOfTaskGraphs() {
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+        FloatArray d = new FloatArray(SIZE);
+        a.init(3.0f);
+
+        TaskGraph taskGraph0 = new TaskGraph("g0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestMultipleTaskGraphs::scale, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        TaskGraph taskGraph1 = new TaskGraph("g1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, b) //
+                .task("t0", TestMultipleTaskGraphs::addOne, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TaskGraph taskGraph2 = new TaskGraph("g2") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, c) //
+                .task("t0", TestMultipleTaskGraphs::scale, c, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, d);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph0.snapshot(), taskGraph1.snapshot(), taskGraph2.snapshot());
+        executionPlan.execute();
+
+        // The intermediate results must also be on the host after the execution
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(6.0f, b.get(i), 0.001f);
+            assertEquals(7.0f, c.get(i), 0.001f);
+            assertEquals(14.0f, d.get(i), 0.001f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The input of the first task-graph changes between executions, so the
+     * data kept on the device must be updated in each one.
+     */
+    @Test
+    public void testChainOfTaskGraphsMultipleExecutions() {
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+
+        TaskGraph taskGraph0 = new TaskGraph("g0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestMultipleTaskGraphs::scale, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        TaskGraph taskGraph1 = new TaskGraph("g1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, b) //
+                .task("t0", TestMultipleTaskGraphs::addOne, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph0.snapshot(), taskGraph1.snapshot());
+        for (int iteration = 0; iteration < 4; iteration++) {
+            a.init(iteration);
+            executionPlan.execute();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(iteration * 2.0f, b.get(i), 0.001f);
+                assertEquals(iteration * 2.0f + 1.0f, c.get(i), 0.001f);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * An array updated in place by two task-graphs.
+     */
+    @Test
+    public void testInPlaceUpdates() {
+        FloatArray data = new FloatArray(SIZE);
+        data.init(1.0f);
+
+        TaskGraph taskGraph0 = new TaskGraph("g0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data) //
+                .task("t0", TestMultipleTaskGraphs::increment, data) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, data);
+
+        TaskGraph taskGraph1 = new TaskGraph("g1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, data) //
+                .task("t0", TestMultipleTaskGraphs::increment, data) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, data);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph0.snapshot(), taskGraph1.snapshot());
+        executionPlan.execute();
+        executionPlan.execute();
+
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(5.0f, data.get(i), 0.001f);
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * With dynamic reconfiguration, the task-graphs may run on different devices
+     * or on the host. The outputs kept on a device must be available to the host
+     * and to the following task-graphs.
+     */
+    @Test
+    public void testChainOfTaskGraphsDynamicReconfiguration() {
+        FloatArray a = new FloatArray(SIZE);
+        FloatArray b = new FloatArray(SIZE);
+        FloatArray c = new FloatArray(SIZE);
+
+        TaskGraph taskGraph0 = new TaskGraph("g0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a) //
+                .task("t0", TestMultipleTaskGraphs::scale, a, b) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, b);
+
+        TaskGraph taskGraph1 = new TaskGraph("g1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, b) //
+                .task("t0", TestMultipleTaskGraphs::addOne, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph0.snapshot(), taskGraph1.snapshot());
+        executionPlan.withDynamicReconfiguration(Policy.PERFORMANCE, DRMode.SERIAL);
+        for (int iteration = 0; iteration < 4; iteration++) {
+            a.init(iteration);
+            executionPlan.execute();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(iteration * 2.0f, b.get(i), 0.001f);
+                assertEquals(iteration * 2.0f + 1.0f, c.get(i), 0.001f);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+    }
+}
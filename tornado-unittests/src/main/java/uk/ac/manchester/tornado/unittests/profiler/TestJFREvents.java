@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Records the JFR events of the TornadoVM runtime (bytecodes, backend
+ * compilations and driver builds) for a short run, and checks the events and
+ * the output of {@code TornadoJFRSummary} for that recording.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.profiler.TestJFREvents
+ * </code>
+ */
+public class TestJFREvents extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1024;
+    private static final String SUMMARY_CLASS = "uk.ac.manchester.tornado.runtime.profiler.jfr.TornadoJFRSummary";
+
+    public static void vectorAdd(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    /**
+     * Each test uses its own task-graph name, so the kernel is not found in the
+     * code cache of the driver and it is compiled again.
+     */
+    private static Path recordVectorAdd(String taskGraphName) throws IOException {
+        FloatArray a = new FloatArray(NUM_ELEMENTS);
+        FloatArray b = new FloatArray(NUM_ELEMENTS);
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+        a.init(1.0f);
+        b.init(2.0f);
+
+        Path file = Files.createTempFile("tornado-jfr", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("tornado.Bytecode");
+            recording.enable("tornado.Compilation");
+            recording.enable("tornado.DriverBuild");
+            recording.start();
+
+            TaskGraph taskGraph = new TaskGraph(taskGraphName) //
+                    .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                    .task("t0", TestJFREvents::vectorAdd, a, b, c) //
+                    .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+            ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+            TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+            executionPlan.execute();
+            executionPlan.freeDeviceMemory();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(3.0f, c.get(i), DELTA);
+        }
+        return file;
+    }
+
+    private static long countEvents(List<RecordedEvent> events, String name, String field, String value) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name) && value.equals(event.getString(field))).count();
+    }
+
+    /**
+     * Runs the summary tool on a recording and returns what it prints.
+     */
+    private static String summarise(Path file) throws ReflectiveOperationException {
+        // The runtime is not a dependency of the unit tests, so the tool is called by reflection
+        Method main = Class.forName(SUMMARY_CLASS).getMethod("main", String[].class);
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(output, true));
+            main.invoke(null, (Object) new String[] { file.toString() });
+        } finally {
+            System.setOut(stdout);
+        }
+        return output.toString();
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws IOException {
+        final String taskGraphName = "jfrEvents";
+        final String taskName = taskGraphName + ".t0";
+        Path file = recordVectorAdd(taskGraphName);
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+            assertEquals(1, countEvents(events, "tornado.Bytecode", "task", taskName));
+            assertEquals(1, countEvents(events, "tornado.Compilation", "task", taskName));
+            assertEquals(1, countEvents(events, "tornado.DriverBuild", "task", taskName));
+
+            for (RecordedEvent event : events) {
+                String name = event.getEventType().getName();
+                if (name.equals("tornado.Bytecode") && event.getString("bytecode").startsWith("TRANSFER")) {
+                    assertEquals(taskGraphName, event.getString("taskGraph"));
+                    assertTrue("a transfer should record its bytes", event.getLong("bytes") > 0);
+                } else if (name.equals("tornado.DriverBuild")) {
+                    assertTrue("a driver build should record the code size", event.getLong("codeSize") > 0);
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSummary() throws IOException, ReflectiveOperationException {
+        final String taskGraphName = "jfrSummary";
+        final String taskName = taskGraphName + ".t0";
+        Path file = recordVectorAdd(taskGraphName);
+        try {
+            String summary = summarise(file);
+
+            assertTrue(summary, summary.contains("Task graph " + taskGraphName + " (bytecode, count, time, share, bytes)"));
+            assertTrue(summary, summary.contains("LAUNCH"));
+            assertTrue(summary, summary.contains("TRANSFER_HOST_TO_DEVICE_ALWAYS"));
+            assertTrue(summary, summary.contains("Kernel launches (task, count, time, share)"));
+            assertTrue(summary, summary.contains("Backend compilations (task, count, time, share)"));
+            assertTrue(summary, summary.contains("Driver builds (task, count, time, share, code size)"));
+            // The task appears in the launches, the compilations and the driver builds
+            assertEquals(summary, 3, summary.lines().filter(line -> line.trim().startsWith(taskName + " ")).count());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -36,6 +36,7 @@ import uk.ac.manchester.tornado.api.types.arrays.IntArray;
 import uk.ac.manchester.tornado.api.enums.DataTransferMode;
 import uk.ac.manchester.tornado.api.enums.ProfilerMode;
 import uk.ac.manchester.tornado.api.enums.TornadoVMBackendType;
+import uk.ac.manchester.tornado.api.profiler.LatencyHistogram;
 import uk.ac.manchester.tornado.api.runtime.TornadoRuntime;
 import uk.ac.manchester.tornado.unittests.TestHello;
 import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
@@ -314,4 +315,45 @@ public class TestProfiler extends TornadoTestBase {
         executionPlan.execute();
     }
 
+    @Test
+    public void testProfilerHistograms() {
+        final int iterations = 100;
+        int numElements = 1024;
+        IntArray a = new IntArray(numElements);
+        IntArray b = new IntArray(numElements);
+        IntArray c = new IntArray(numElements);
+
+        a.init(1);
+        b.init(2);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, a, b) //
+                .task("t0", TestHello::add, a, b, c) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, c);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.withProfiler(ProfilerMode.SILENT);
+
+        TornadoExecutionResult executionResult = null;
+        for (int i = 0; i < iterations; i++) {
+            executionResult = executionPlan.execute();
+        }
+
+        TornadoProfilerResult profilerResult = executionResult.getProfilerResult();
+        LatencyHistogram kernelHistogram = profilerResult.getDeviceKernelTimeHistogram();
+        LatencyHistogram readHistogram = profilerResult.getDeviceReadTimeHistogram();
+
+        // One value per execution
+        assertEquals(iterations, kernelHistogram.getCount());
+        assertEquals(iterations, readHistogram.getCount());
+
+        assertTrue(kernelHistogram.getP50() > 0);
+        assertTrue(kernelHistogram.getP50() <= kernelHistogram.getP99());
+        assertTrue(kernelHistogram.getP99() <= kernelHistogram.getP999());
+        assertTrue(kernelHistogram.getP999() <= kernelHistogram.getMax());
+        assertTrue(kernelHistogram.getMin() <= kernelHistogram.getP50());
+
+        executionPlan.withoutProfiler();
+    }
+
 }
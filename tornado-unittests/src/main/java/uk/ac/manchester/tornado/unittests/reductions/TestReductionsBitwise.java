@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020, 2022, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.reductions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.api.types.arrays.LongArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Reductions with the bitwise operators OR, AND and XOR. The neutral element
+ * of the reduction is the initial value of the reduce variable.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.reductions.TestReductionsBitwise
+ * </code>
+ */
+public class TestReductionsBitwise extends TornadoTestBase {
+
+    private static final int SIZE = 4096;
+
+    private static void orReduction(int[] input, @Reduce int[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            result[0] |= input[i];
+        }
+    }
+
+    private static void andReduction(IntArray input, @Reduce IntArray result) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) & input.get(i));
+        }
+    }
+
+    private static void xorReduction(LongArray input, @Reduce LongArray result) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) ^ input.get(i));
+        }
+    }
+
+    private static void orMaskedReduction(int[] input, @Reduce int[] result) {
+        for (@Parallel int i = 0; i < input.length; i++) {
+            result[0] |= (input[i] & 0xFF0);
+        }
+    }
+
+    /**
+     * User-defined combiner. It is inlined during the compilation of the task.
+     */
+    private static int combine(int a, int b) {
+        return a ^ b;
+    }
+
+    private static void combinerReduction(IntArray input, @Reduce IntArray result) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, combine(result.get(0), input.get(i)));
+        }
+    }
+
+    private static void executeReduction(TaskGraph taskGraph) {
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+    }
+
+    @Test
+    public void testOrReduction() {
+        int[] input = new int[SIZE];
+        int[] result = new int[1];
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input[i] = 1 << r.nextInt(31));
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsBitwise::orReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+        executeReduction(taskGraph);
+
+        int[] sequential = new int[1];
+        orReduction(input, sequential);
+        assertEquals(sequential[0], result[0]);
+    }
+
+    @Test
+    public void testAndReduction() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input.set(i, ~(1 << r.nextInt(16))));
+        result.init(-1);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsBitwise::andReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+        executeReduction(taskGraph);
+
+        IntArray sequential = new IntArray(1);
+        sequential.init(-1);
+        andReduction(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+    }
+
+    @Test
+    public void testXorReduction() {
+        LongArray input = new LongArray(SIZE);
+        LongArray result = new LongArray(1);
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input.set(i, r.nextLong()));
+        result.init(0);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsBitwise::xorReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+        executeReduction(taskGraph);
+
+        LongArray sequential = new LongArray(1);
+        sequential.init(0);
+        xorReduction(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+    }
+
+    @Test
+    public void testOrReductionWithExpression() {
+        int[] input = new int[SIZE];
+        int[] result = new int[1];
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input[i] = r.nextInt());
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsBitwise::orMaskedReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+        executeReduction(taskGraph);
+
+        int[] sequential = new int[1];
+        orMaskedReduction(input, sequential);
+        assertEquals(sequential[0], result[0]);
+    }
+
+    @Test
+    public void testUserCombinerReduction() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input.set(i, r.nextInt()));
+        result.init(0);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsBitwise::combinerReduction, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+        executeReduction(taskGraph);
+
+        IntArray sequential = new IntArray(1);
+        sequential.init(0);
+        combinerReduction(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+    }
+}
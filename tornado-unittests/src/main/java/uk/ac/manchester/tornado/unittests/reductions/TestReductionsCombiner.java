@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.reductions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Reductions with user combiners over tuples of values. The combiners are not
+ * private, so the reduction kernels generated by the runtime can call them.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V uk.ac.manchester.tornado.unittests.reductions.TestReductionsCombiner
+ * </code>
+ */
+public class TestReductionsCombiner extends TornadoTestBase {
+
+    /**
+     * Not a multiple of the number of tuples combined per thread, and large
+     * enough to need several levels of partial reductions.
+     */
+    private static final int SIZE = 100_003;
+
+    static void argMax(FloatArray values, IntArray indexes, int acc, FloatArray inValues, IntArray inIndexes, int in) {
+        float current = values.get(acc);
+        float candidate = inValues.get(in);
+        if (candidate > current || (candidate == current && inIndexes.get(in) < indexes.get(acc))) {
+            values.set(acc, candidate);
+            indexes.set(acc, inIndexes.get(in));
+        }
+    }
+
+    static void add(IntArray acc, int accIndex, IntArray input, int inIndex) {
+        acc.set(accIndex, acc.get(accIndex) + input.get(inIndex));
+    }
+
+    /**
+     * Combines two partial results of the Welford algorithm (Chan et al.).
+     */
+    static void welford(FloatArray count, FloatArray mean, FloatArray m2, int acc, FloatArray inCount, FloatArray inMean, FloatArray inM2, int in) {
+        float countA = count.get(acc);
+        float countB = inCount.get(in);
+        float total = countA + countB;
+        if (total == 0.0f) {
+            return;
+        }
+        float delta = inMean.get(in) - mean.get(acc);
+        mean.set(acc, mean.get(acc) + delta * (countB / total));
+        m2.set(acc, m2.get(acc) + inM2.get(in) + delta * delta * (countA * countB / total));
+        count.set(acc, total);
+    }
+
+    private static void isEven(IntArray input, IntArray flags) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            flags.set(i, (input.get(i) % 2 == 0) ? 1 : 0);
+        }
+    }
+
+    private static void executeReduction(TaskGraph taskGraph) {
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+    }
+
+    @Test
+    public void testArgMax() {
+        FloatArray values = new FloatArray(SIZE);
+        IntArray indexes = new IntArray(SIZE);
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> {
+            values.set(i, r.nextFloat());
+            indexes.set(i, i);
+        });
+        values.set(SIZE / 3, 2.0f);
+        values.set(SIZE - 1, 2.0f);
+
+        FloatArray identityValue = new FloatArray(1);
+        IntArray identityIndex = new IntArray(1);
+        identityValue.init(-Float.MAX_VALUE);
+        identityIndex.init(Integer.MAX_VALUE);
+        FloatArray maxValue = new FloatArray(1);
+        IntArray maxIndex = new IntArray(1);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, values, indexes, identityValue, identityIndex) //
+                .reduce("t0", TestReductionsCombiner::argMax, values, indexes, identityValue, identityIndex, maxValue, maxIndex) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, maxValue, maxIndex);
+        executeReduction(taskGraph);
+
+        assertEquals(2.0f, maxValue.get(0), DELTA);
+        assertEquals(SIZE / 3, maxIndex.get(0));
+    }
+
+    @Test
+    public void testCountIf() {
+        IntArray input = new IntArray(SIZE);
+        IntArray flags = new IntArray(SIZE);
+        Random r = new Random();
+        IntStream.range(0, SIZE).forEach(i -> input.set(i, r.nextInt()));
+
+        IntArray identity = new IntArray(1);
+        IntArray count = new IntArray(1);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input, identity) //
+                .task("t0", TestReductionsCombiner::isEven, input, flags) //
+                .reduce("t1", TestReductionsCombiner::add, flags, identity, count) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, count);
+        executeReduction(taskGraph);
+
+        long expected = IntStream.range(0, SIZE).filter(i -> input.get(i) % 2 == 0).count();
+        assertEquals(expected, count.get(0));
+    }
+
+    @Test
+    public void testWelfordVariance() {
+        final int size = 1000;
+        FloatArray count = new FloatArray(size);
+        FloatArray mean = new FloatArray(size);
+        FloatArray m2 = new FloatArray(size);
+        Random r = new Random();
+        IntStream.range(0, size).forEach(i -> {
+            count.set(i, 1.0f);
+            mean.set(i, 10.0f + r.nextFloat());
+        });
+
+        FloatArray identityCount = new FloatArray(1);
+        FloatArray identityMean = new FloatArray(1);
+        FloatArray identityM2 = new FloatArray(1);
+        FloatArray resultCount = new FloatArray(1);
+        FloatArray resultMean = new FloatArray(1);
+        FloatArray resultM2 = new FloatArray(1);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, count, mean, m2, identityCount, identityMean, identityM2) //
+                .reduce("t0", TestReductionsCombiner::welford, count, mean, m2, identityCount, identityMean, identityM2, resultCount, resultMean, resultM2) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, resultCount, resultMean, resultM2);
+        executeReduction(taskGraph);
+
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += mean.get(i);
+        }
+        double expectedMean = sum / size;
+        double squares = 0;
+        for (int i = 0; i < size; i++) {
+            double delta = mean.get(i) - expectedMean;
+            squares += delta * delta;
+        }
+
+        assertEquals(size, resultCount.get(0), DELTA);
+        assertEquals(expectedMean, resultMean.get(0), 0.001);
+        assertEquals(squares / size, resultM2.get(0) / size, 0.001);
+    }
+
+}
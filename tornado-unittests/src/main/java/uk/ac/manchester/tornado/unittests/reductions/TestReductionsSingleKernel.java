@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.reductions;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.annotations.Reduce;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.math.TornadoMath;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.api.types.arrays.IntArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for reductions compiled into a single kernel. The reduce arrays keep
+ * their size and the work-groups combine their partial results with atomics.
+ * On other backends, for input sizes that are not a power of two, and without
+ * {@code -Dtornado.reduce.singlekernel=True}, the reductions run with the
+ * rewritten task-graph and the results must be the same.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V -J"-Dtornado.reduce.singlekernel=True" uk.ac.manchester.tornado.unittests.reductions.TestReductionsSingleKernel
+ * </code>
+ */
+public class TestReductionsSingleKernel extends TornadoTestBase {
+
+    private static final int SIZE = 65536;
+
+    private static void reduceAddInts(IntArray input, @Reduce IntArray result) {
+        result.set(0, 0);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) + input.get(i));
+        }
+    }
+
+    private static void reduceMaxInts(IntArray input, @Reduce IntArray result) {
+        result.set(0, Integer.MIN_VALUE);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, TornadoMath.max(result.get(0), input.get(i)));
+        }
+    }
+
+    private static void reduceXorInts(IntArray input, @Reduce IntArray result) {
+        result.set(0, 0);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) ^ input.get(i));
+        }
+    }
+
+    private static void reduceAddFloats(FloatArray input, @Reduce FloatArray result) {
+        result.set(0, 0.0f);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) + input.get(i));
+        }
+    }
+
+    private static void reduceMinFloats(FloatArray input, @Reduce FloatArray result) {
+        result.set(0, Float.MAX_VALUE);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, TornadoMath.min(result.get(0), input.get(i)));
+        }
+    }
+
+    private static void reduceMultFloats(FloatArray input, @Reduce FloatArray result) {
+        result.set(0, 1.0f);
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            result.set(0, result.get(0) * input.get(i));
+        }
+    }
+
+    @Test
+    public void testAddInts() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        Random random = new Random(7);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, random.nextInt(100));
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceAddInts, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        IntArray sequential = new IntArray(1);
+        reduceAddInts(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The accumulator is initialised before each launch, so running the plan
+     * again with new data must not accumulate the previous result.
+     */
+    @Test
+    public void testAddIntsMultipleExecutions() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceAddInts, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        for (int iteration = 1; iteration <= 4; iteration++) {
+            input.init(iteration);
+            executionPlan.execute();
+            assertEquals(iteration * SIZE, result.get(0));
+        }
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testMaxInts() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        Random random = new Random(11);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, random.nextInt() - 1000);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceMaxInts, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        IntArray sequential = new IntArray(1);
+        reduceMaxInts(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testXorInts() {
+        IntArray input = new IntArray(SIZE);
+        IntArray result = new IntArray(1);
+        Random random = new Random(13);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, random.nextInt());
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceXorInts, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        IntArray sequential = new IntArray(1);
+        reduceXorInts(input, sequential);
+        assertEquals(sequential.get(0), result.get(0));
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testAddFloats() {
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray result = new FloatArray(1);
+        Random random = new Random(13);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, random.nextFloat());
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceAddFloats, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        FloatArray sequential = new FloatArray(1);
+        reduceAddFloats(input, sequential);
+        // The order of the additions differs from the sequential code
+        assertEquals(sequential.get(0), result.get(0), sequential.get(0) * 0.001f);
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testMinFloats() {
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray result = new FloatArray(1);
+        Random random = new Random(17);
+        for (int i = 0; i < SIZE; i++) {
+            input.set(i, random.nextFloat() * 1000.0f - 500.0f);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceMinFloats, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        FloatArray sequential = new FloatArray(1);
+        reduceMinFloats(input, sequential);
+        assertEquals(sequential.get(0), result.get(0), 0.001f);
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testMultFloats() {
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray result = new FloatArray(1);
+        input.init(1.0f);
+        input.set(10, 2.0f);
+        input.set(SIZE - 1, 4.0f);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceMultFloats, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        assertEquals(8.0f, result.get(0), 0.001f);
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * Input sizes that are not a power of two run with the rewritten
+     * task-graph.
+     */
+    @Test
+    public void testAddIntsNotPowerOfTwo() {
+        final int size = SIZE + 13;
+        IntArray input = new IntArray(size);
+        IntArray result = new IntArray(1);
+        input.init(3);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestReductionsSingleKernel::reduceAddInts, input, result) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, result);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        assertEquals(3 * size, result.get(0));
+        executionPlan.freeDeviceMemory();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.ImmutableTaskGraph;
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the eager compilation mode, in which all the tasks of a task-graph
+ * are compiled concurrently before the first execution.
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ *     tornado-test -V -J"-Dtornado.compiler.eager=True" uk.ac.manchester.tornado.unittests.tasks.TestParallelCompilation
+ * </code>
+ */
+public class TestParallelCompilation extends TornadoTestBase {
+
+    private static final int NUM_ELEMENTS = 1024;
+
+    public static void add(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) + b.get(i));
+        }
+    }
+
+    public static void multiply(FloatArray a, FloatArray b, FloatArray c) {
+        for (@Parallel int i = 0; i < c.getSize(); i++) {
+            c.set(i, a.get(i) * b.get(i));
+        }
+    }
+
+    public static void square(FloatArray a, FloatArray b) {
+        for (@Parallel int i = 0; i < b.getSize(); i++) {
+            b.set(i, a.get(i) * a.get(i));
+        }
+    }
+
+    public static void negate(FloatArray a, FloatArray b) {
+        for (@Parallel int i = 0; i < b.getSize(); i++) {
+            b.set(i, -a.get(i));
+        }
+    }
+
+    @Test
+    public void testIndependentTasks() {
+        FloatArray a = new FloatArray(NUM_ELEMENTS);
+        FloatArray b = new FloatArray(NUM_ELEMENTS);
+        FloatArray sum = new FloatArray(NUM_ELEMENTS);
+        FloatArray product = new FloatArray(NUM_ELEMENTS);
+        FloatArray squares = new FloatArray(NUM_ELEMENTS);
+        FloatArray negated = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            a.set(i, i);
+            b.set(i, 2 * i);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.FIRST_EXECUTION, a, b) //
+                .task("t0", TestParallelCompilation::add, a, b, sum) //
+                .task("t1", TestParallelCompilation::multiply, a, b, product) //
+                .task("t2", TestParallelCompilation::square, a, squares) //
+                .task("t3", TestParallelCompilation::negate, b, negated) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, sum, product, squares, negated);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        // The second execution must reuse the kernels compiled eagerly
+        executionPlan.execute();
+        executionPlan.execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            assertEquals(a.get(i) + b.get(i), sum.get(i), 0.001f);
+            assertEquals(a.get(i) * b.get(i), product.get(i), 0.001f);
+            assertEquals(a.get(i) * a.get(i), squares.get(i), 0.001f);
+            assertEquals(-b.get(i), negated.get(i), 0.001f);
+        }
+    }
+
+    @Test
+    public void testDependentTasks() {
+        FloatArray a = new FloatArray(NUM_ELEMENTS);
+        FloatArray b = new FloatArray(NUM_ELEMENTS);
+        FloatArray c = new FloatArray(NUM_ELEMENTS);
+        FloatArray d = new FloatArray(NUM_ELEMENTS);
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            a.set(i, i);
+            b.set(i, 1);
+        }
+
+        TaskGraph taskGraph = new TaskGraph("s1") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, a, b) //
+                .task("t0", TestParallelCompilation::add, a, b, c) //
+                .task("t1", TestParallelCompilation::square, c, d) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, d);
+
+        ImmutableTaskGraph immutableTaskGraph = taskGraph.snapshot();
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(immutableTaskGraph);
+        executionPlan.execute();
+
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            float expected = (a.get(i) + 1) * (a.get(i) + 1);
+            assertEquals(expected, d.get(i), 0.001f);
+        }
+    }
+}
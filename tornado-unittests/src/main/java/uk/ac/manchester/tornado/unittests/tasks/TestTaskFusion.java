@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2024, APT Group, Department of Computer Science,
+ * The University of Manchester.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package uk.ac.manchester.tornado.unittests.tasks;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import uk.ac.manchester.tornado.api.TaskGraph;
+import uk.ac.manchester.tornado.api.TornadoExecutionPlan;
+import uk.ac.manchester.tornado.api.annotations.Parallel;
+import uk.ac.manchester.tornado.api.enums.DataTransferMode;
+import uk.ac.manchester.tornado.api.types.arrays.FloatArray;
+import uk.ac.manchester.tornado.unittests.common.TornadoTestBase;
+
+/**
+ * Tests for the fusion of producer/consumer tasks. Tasks with the same
+ * parallel domain that read the elements written by the previous task are
+ * fused into a single kernel. The results must be the same as the results of
+ * the sequential code, whether the tasks are fused or not.
+ *
+ * <p>
+ * How to run?
+ * </p>
+ * <code>
+ * tornado-test -V -J"-Dtornado.fusion=True -Dtornado.fusion.print=True" uk.ac.manchester.tornado.unittests.tasks.TestTaskFusion
+ * </code>
+ */
+public class TestTaskFusion extends TornadoTestBase {
+
+    private static final int SIZE = 8192;
+
+    private static final boolean FUSION_ENABLED = Boolean.parseBoolean(System.getProperty("tornado.fusion", "False"));
+
+    public static void scale(FloatArray input, FloatArray output, float alpha) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, alpha * input.get(i));
+        }
+    }
+
+    public static void addBias(FloatArray input, FloatArray output, float bias) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) + bias);
+        }
+    }
+
+    public static void square(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize(); i++) {
+            output.set(i, input.get(i) * input.get(i));
+        }
+    }
+
+    public static void stencil(FloatArray input, FloatArray output) {
+        for (@Parallel int i = 0; i < input.getSize() - 1; i++) {
+            output.set(i, input.get(i) + input.get(i + 1));
+        }
+    }
+
+    public static void scale2D(FloatArray input, FloatArray output, int size) {
+        for (@Parallel int i = 0; i < size; i++) {
+            for (@Parallel int j = 0; j < size; j++) {
+                output.set(i * size + j, 2.0f * input.get(i * size + j));
+            }
+        }
+    }
+
+    public static void addBias2D(FloatArray input, FloatArray output, int size) {
+        for (@Parallel int i = 0; i < size; i++) {
+            for (@Parallel int j = 0; j < size; j++) {
+                output.set(i * size + j, input.get(i * size + j) + 1.0f);
+            }
+        }
+    }
+
+    private static FloatArray createInput(int size) {
+        FloatArray input = new FloatArray(size);
+        Random random = new Random(31);
+        for (int i = 0; i < size; i++) {
+            input.set(i, random.nextFloat());
+        }
+        return input;
+    }
+
+    private static void assertArrayEquals(FloatArray expected, FloatArray actual) {
+        for (int i = 0; i < expected.getSize(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 0.001f);
+        }
+    }
+
+    @Test
+    public void testMapChain() {
+        FloatArray input = createInput(SIZE);
+        FloatArray scaled = new FloatArray(SIZE);
+        FloatArray biased = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale, input, scaled, 2.0f) //
+                .task("t1", TestTaskFusion::addBias, scaled, biased, 1.0f) //
+                .task("t2", TestTaskFusion::square, biased, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        List<String> expectedTasks = FUSION_ENABLED ? List.of("s0.t0_t1_t2") : List.of("s0.t0", "s0.t1", "s0.t2");
+        assertEquals(expectedTasks, executionPlan.getTaskIds(0));
+        executionPlan.execute();
+
+        FloatArray sequentialScaled = new FloatArray(SIZE);
+        FloatArray sequentialBiased = new FloatArray(SIZE);
+        FloatArray sequential = new FloatArray(SIZE);
+        scale(input, sequentialScaled, 2.0f);
+        addBias(sequentialScaled, sequentialBiased, 1.0f);
+        square(sequentialBiased, sequential);
+
+        assertArrayEquals(sequential, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The intermediate array is also copied back to the host, so the fused
+     * kernel must still write it.
+     */
+    @Test
+    public void testIntermediateResult() {
+        FloatArray input = createInput(SIZE);
+        FloatArray scaled = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale, input, scaled, 3.0f) //
+                .task("t1", TestTaskFusion::square, scaled, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, scaled, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        executionPlan.execute();
+
+        FloatArray sequentialScaled = new FloatArray(SIZE);
+        FloatArray sequential = new FloatArray(SIZE);
+        scale(input, sequentialScaled, 3.0f);
+        square(sequentialScaled, sequential);
+
+        assertArrayEquals(sequentialScaled, scaled);
+        assertArrayEquals(sequential, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The intermediate array of the fused tasks is also read by a task that is
+     * not fused, so the fused kernel must still write it.
+     */
+    @Test
+    public void testIntermediateReadByLaterTask() {
+        FloatArray input = createInput(SIZE);
+        FloatArray scaled = new FloatArray(SIZE);
+        FloatArray biased = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale, input, scaled, 2.0f) //
+                .task("t1", TestTaskFusion::addBias, scaled, biased, 1.0f) //
+                .task("t2", TestTaskFusion::stencil, scaled, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, biased, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        List<String> expectedTasks = FUSION_ENABLED ? List.of("s0.t0_t1", "s0.t2") : List.of("s0.t0", "s0.t1", "s0.t2");
+        assertEquals(expectedTasks, executionPlan.getTaskIds(0));
+        executionPlan.execute();
+
+        FloatArray sequentialScaled = new FloatArray(SIZE);
+        FloatArray sequentialBiased = new FloatArray(SIZE);
+        FloatArray sequential = new FloatArray(SIZE);
+        scale(input, sequentialScaled, 2.0f);
+        addBias(sequentialScaled, sequentialBiased, 1.0f);
+        stencil(sequentialScaled, sequential);
+
+        assertArrayEquals(sequentialBiased, biased);
+        assertArrayEquals(sequential, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testMapChain2D() {
+        final int size = 256;
+        FloatArray input = createInput(size * size);
+        FloatArray scaled = new FloatArray(size * size);
+        FloatArray output = new FloatArray(size * size);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale2D, input, scaled, size) //
+                .task("t1", TestTaskFusion::addBias2D, scaled, output, size) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        List<String> expectedTasks = FUSION_ENABLED ? List.of("s0.t0_t1") : List.of("s0.t0", "s0.t1");
+        assertEquals(expectedTasks, executionPlan.getTaskIds(0));
+        executionPlan.execute();
+
+        FloatArray sequentialScaled = new FloatArray(size * size);
+        FloatArray sequential = new FloatArray(size * size);
+        scale2D(input, sequentialScaled, size);
+        addBias2D(sequentialScaled, sequential, size);
+
+        assertArrayEquals(sequential, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    /**
+     * The consumer reads an element written by another thread of the producer,
+     * so the tasks must not be fused.
+     */
+    @Test
+    public void testNeighbourDependency() {
+        FloatArray input = createInput(SIZE);
+        FloatArray scaled = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale, input, scaled, 2.0f) //
+                .task("t1", TestTaskFusion::stencil, scaled, output) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        assertEquals(List.of("s0.t0", "s0.t1"), executionPlan.getTaskIds(0));
+        executionPlan.execute();
+
+        FloatArray sequentialScaled = new FloatArray(SIZE);
+        FloatArray sequential = new FloatArray(SIZE);
+        scale(input, sequentialScaled, 2.0f);
+        stencil(sequentialScaled, sequential);
+
+        assertArrayEquals(sequential, output);
+        executionPlan.freeDeviceMemory();
+    }
+
+    @Test
+    public void testMultipleExecutions() {
+        FloatArray input = new FloatArray(SIZE);
+        FloatArray scaled = new FloatArray(SIZE);
+        FloatArray output = new FloatArray(SIZE);
+
+        TaskGraph taskGraph = new TaskGraph("s0") //
+                .transferToDevice(DataTransferMode.EVERY_EXECUTION, input) //
+                .task("t0", TestTaskFusion::scale, input, scaled, 2.0f) //
+                .task("t1", TestTaskFusion::addBias, scaled, output, 1.0f) //
+                .transferToHost(DataTransferMode.EVERY_EXECUTION, output);
+
+        TornadoExecutionPlan executionPlan = new TornadoExecutionPlan(taskGraph.snapshot());
+        for (int iteration = 1; iteration <= 4; iteration++) {
+            input.init(iteration);
+            executionPlan.execute();
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(2.0f * iteration + 1.0f, output.get(i), 0.001f);
+            }
+        }
+        executionPlan.freeDeviceMemory();
+    }
+}